@@ -0,0 +1,63 @@
+package org.dwhworks.component;
+
+import org.dwhworks.component.bench.RecordsBenchmark;
+import org.dwhworks.component.util.ParallelRecordProcessor;
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+/**
+ * Per-record cost of HASH_CALC: copying fields into the output record, formatting the key and measure
+ * fields, hashing them and storing the hashes, i.e. the work done by {@link HashCalc#execute()}
+ * for every record, without the edges of a graph.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class HashCalcBenchmark extends RecordsBenchmark {
+
+  private static final int RECORDS = 1024;
+  private static final String KEY_FIELDS = "f0;f1";
+
+  @Param({"md5", "xxhash64", "raw"})
+  public String hashFunction;
+
+  @Param({"false", "true"})
+  public boolean generateBytecode;
+
+  private DataRecord outRecord;
+  private ParallelRecordProcessor.RecordProcessor processor;
+
+  @Setup
+  public void setup() throws Exception {
+    createRecords(RECORDS);
+    DataRecordMetadata outMetadata = TestRecords.outMetadata(metadata, DataFieldType.STRING);
+
+    HashCalc hashCalc = new HashCalc("BENCHMARK", KEY_FIELDS, "", "", hashFunction,
+        TestRecords.KEY_HASH_FIELD, TestRecords.MEASURE_HASH_FIELD, false);
+    hashCalc.setGenerateBytecode(generateBytecode);
+    hashCalc.checkAttributes();
+    hashCalc.prepare(metadata, outMetadata);
+
+    processor = hashCalc.newRecordProcessor();
+    outRecord = DataRecordFactory.newRecord(outMetadata);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void processRecord(Blackhole blackhole) throws Exception {
+    for (DataRecord inRecord : records) {
+      processor.process(inRecord, outRecord);
+      blackhole.consume(outRecord);
+    }
+  }
+
+
+}
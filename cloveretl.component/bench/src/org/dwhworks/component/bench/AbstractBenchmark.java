@@ -0,0 +1,33 @@
+package org.dwhworks.component.bench;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Common settings of all benchmarks: average time of an operation in nanoseconds, 5 warmup and
+ * 5 measurement iterations of a second in a single fork, state per thread.
+ * <p>
+ * JMH annotations are inherited, a benchmark may override any of them by its own annotation and
+ * every run may override them by command line options, e.g. <code>ant bench -Dbench.args="-f 3"</code>.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class AbstractBenchmark {
+
+
+}
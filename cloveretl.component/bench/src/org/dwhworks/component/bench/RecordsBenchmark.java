@@ -0,0 +1,49 @@
+package org.dwhworks.component.bench;
+
+import org.dwhworks.component.TestRecords;
+import org.dwhworks.component.util.HashPlan;
+import org.jetel.data.DataRecord;
+import org.jetel.metadata.DataRecordMetadata;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Benchmark of records of a typical warehouse table with 10, 100 and 1000 fields, see {@link TestRecords}.
+ * Subclasses create the records by {@link #createRecords(int)} in their setup.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public abstract class RecordsBenchmark extends AbstractBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int width;
+
+  protected DataRecordMetadata metadata;
+  /** Names of all fields. */
+  protected List<String> fields;
+  protected DataRecord[] records;
+
+  /**
+   * Creates metadata of {@link #width} fields and the records.
+   *
+   * @param count number of records
+   */
+  protected void createRecords(int count) {
+    metadata = TestRecords.metadata(width);
+    fields = TestRecords.fieldNames(metadata);
+    records = TestRecords.records(metadata, count);
+  }
+
+  /**
+   * @return plan of a single hash of all fields delimited by "-", call after {@link #createRecords(int)}
+   */
+  protected HashPlan compileHashPlan() {
+    return HashPlan.compile(metadata, metadata, Collections.singletonList(fields),
+        Collections.singletonList(fields.get(0)), "-", null);
+  }
+
+
+}
@@ -0,0 +1,69 @@
+package org.dwhworks.component.hash;
+
+import org.dwhworks.component.bench.AbstractBenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+
+/**
+ * MD5 of a batch of small messages: one by one by {@link java.security.MessageDigest} and interleaved
+ * by {@link MultiBufferMd5}. Run with <code>-jvmArgs -XX:+UnlockDiagnosticVMOptions -XX:-UseMD5Intrinsics</code>
+ * to see the difference on JVMs without MD5 intrinsic.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class MultiBufferMd5Benchmark extends AbstractBenchmark {
+
+  private static final int MESSAGES = 64;
+
+  @Param({"16", "55", "120", "300"})
+  public int length;
+
+  private byte[][] messages;
+  private byte[] digests;
+  private Hasher hasher;
+  private MultiBufferMd5 multiBuffer;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(MESSAGES);
+    messages = new byte[MESSAGES][];
+    for (int i = 0; i < MESSAGES; i++) {
+      // lengths vary a little as lengths of raw values do
+      messages[i] = new byte[length + random.nextInt(8)];
+      random.nextBytes(messages[i]);
+    }
+
+    digests = new byte[MESSAGES * MultiBufferMd5.HASH_LENGTH];
+    hasher = new MessageDigestHashFunction(HashFunctions.MD5, "MD5").newHasher();
+    multiBuffer = new MultiBufferMd5();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(MESSAGES)
+  public void messageDigest(Blackhole blackhole) {
+    for (int i = 0; i < MESSAGES; i++) {
+      hasher.update(messages[i], 0, messages[i].length);
+      hasher.finish(digests, i * MultiBufferMd5.HASH_LENGTH);
+    }
+    blackhole.consume(digests);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(MESSAGES)
+  public void multiBuffer(Blackhole blackhole) {
+    for (byte[] message : messages) {
+      multiBuffer.update(message, 0, message.length);
+      multiBuffer.endMessage();
+    }
+    multiBuffer.finish(digests, 0);
+    blackhole.consume(digests);
+  }
+
+
+}
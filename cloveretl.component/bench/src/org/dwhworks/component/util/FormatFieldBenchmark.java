@@ -0,0 +1,68 @@
+package org.dwhworks.component.util;
+
+import org.dwhworks.component.TestRecords;
+import org.dwhworks.component.bench.AbstractBenchmark;
+import org.jetel.data.DataRecord;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Cost of formatting a single field value per field type: the map-based formatting of
+ * {@link MetadataHelper#getFormattedFieldValues} and the type-specialized {@link FieldFormatter}.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class FormatFieldBenchmark extends AbstractBenchmark {
+
+  private static final int RECORDS = 1024;
+
+  @Param({"date", "integer", "decimal", "string"})
+  public String type;
+
+  private DataRecordMetadata metadata;
+  private List<String> fields;
+  private DataRecord[] records;
+  private MetadataHelper metadataHelper;
+  private FieldFormatter formatter;
+  private final StringBuilder value = new StringBuilder(64);
+
+  @Setup
+  public void setup() {
+    metadata = TestRecords.metadata(DataFieldType.valueOf(type.toUpperCase(Locale.ENGLISH)));
+    fields = Collections.singletonList(metadata.getField(0).getName());
+    records = TestRecords.records(metadata, RECORDS);
+
+    metadataHelper = MetadataHelper.getInstance();
+    metadataHelper.checkFieldsFormats(metadata, null);
+    formatter = metadataHelper.getFieldFormatter(metadata.getField(0), null);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void formatField(Blackhole blackhole) {
+    for (DataRecord record : records)
+      blackhole.consume(metadataHelper.getFormattedFieldValues(metadata, record, fields, null));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void fieldFormatter(Blackhole blackhole) {
+    for (DataRecord record : records) {
+      value.setLength(0);
+      formatter.format(record.getField(0), value);
+      blackhole.consume(value);
+    }
+  }
+
+
+}
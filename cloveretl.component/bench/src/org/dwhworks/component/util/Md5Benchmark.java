@@ -0,0 +1,55 @@
+package org.dwhworks.component.util;
+
+import org.dwhworks.component.bench.RecordsBenchmark;
+import org.dwhworks.component.hash.HashFunctions;
+import org.jetel.data.DataRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cost of MD5 of raw hash values of records: {@link Utils#md5} of the raw value string and
+ * {@link DigestWriter}, which streams the raw value into the digest.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class Md5Benchmark extends RecordsBenchmark {
+
+  private static final int RECORDS = 256;
+
+  private String[] rawValues;
+  private HashPlan hashPlan;
+  private DigestWriter digestWriter;
+
+  @Setup
+  public void setup() {
+    createRecords(RECORDS);
+
+    hashPlan = compileHashPlan();
+    digestWriter = new DigestWriter(HashFunctions.get(HashFunctions.MD5), StandardCharsets.UTF_8);
+
+    rawValues = new String[RECORDS];
+    for (int i = 0; i < RECORDS; i++) rawValues[i] = hashPlan.getRawValue(records[i], 0);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void md5(Blackhole blackhole) {
+    for (String rawValue : rawValues) blackhole.consume(Utils.md5(rawValue));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void digestWriter(Blackhole blackhole) {
+    for (DataRecord record : records) {
+      hashPlan.writeRawValue(record, 0, digestWriter);
+      blackhole.consume(digestWriter.digest());
+    }
+  }
+
+
+}
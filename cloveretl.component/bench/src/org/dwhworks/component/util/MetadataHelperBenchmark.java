@@ -0,0 +1,52 @@
+package org.dwhworks.component.util;
+
+import org.dwhworks.component.bench.RecordsBenchmark;
+import org.jetel.data.DataRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-record cost of formatting all fields of a record: the map-based
+ * {@link MetadataHelper#getFormattedFieldValues} and the compiled {@link HashPlan}.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class MetadataHelperBenchmark extends RecordsBenchmark {
+
+  private static final int RECORDS = 256;
+
+  private MetadataHelper metadataHelper;
+  private HashPlan hashPlan;
+  private final StringBuilder rawValue = new StringBuilder(1024);
+
+  @Setup
+  public void setup() {
+    createRecords(RECORDS);
+
+    metadataHelper = MetadataHelper.getInstance();
+    metadataHelper.checkFieldsFormats(metadata, null);
+    hashPlan = compileHashPlan();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void getFormattedFieldValues(Blackhole blackhole) {
+    for (DataRecord record : records)
+      blackhole.consume(metadataHelper.getFormattedFieldValues(metadata, record, fields, null));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(RECORDS)
+  public void hashPlanRawValue(Blackhole blackhole) {
+    for (DataRecord record : records) {
+      rawValue.setLength(0);
+      hashPlan.appendRawValue(record, 0, rawValue);
+      blackhole.consume(rawValue);
+    }
+  }
+
+
+}
@@ -1,24 +1,46 @@
 package org.dwhworks.component;
 
+import org.dwhworks.component.hash.Crc32c;
+import org.dwhworks.component.hash.HashFunction;
+import org.dwhworks.component.hash.HashFunctions;
+import org.dwhworks.component.hash.HashRing;
+import org.dwhworks.component.hash.SnapshotHeader;
+import org.dwhworks.component.hash.SnapshotWriter;
+import org.dwhworks.component.util.DigestWriter;
+import org.dwhworks.component.util.HashKey;
+import org.dwhworks.component.util.HashPlan;
 import org.dwhworks.component.util.MetadataHelper;
+import org.dwhworks.component.util.ParallelRecordProcessor;
+import org.dwhworks.component.util.RecordProjection;
 import org.dwhworks.component.util.Utils;
 import org.apache.log4j.Logger;
+import org.jetel.data.ByteDataField;
 import org.jetel.data.DataField;
 import org.jetel.data.DataRecord;
 import org.jetel.data.DataRecordFactory;
+import org.jetel.data.Defaults;
+import org.jetel.data.LongDataField;
 import org.jetel.exception.ComponentNotReadyException;
 import org.jetel.exception.ConfigurationStatus;
 import org.jetel.exception.XMLConfigurationException;
 import org.jetel.graph.Node;
 import org.jetel.graph.Result;
 import org.jetel.graph.TransformationGraph;
+import org.jetel.metadata.DataFieldType;
 import org.jetel.metadata.DataRecordMetadata;
 import org.jetel.util.SynchronizeUtils;
+import org.jetel.util.bytes.CloverBuffer;
+import org.jetel.util.file.FileUtils;
 import org.jetel.util.property.ComponentXMLAttributes;
 import org.jetel.util.property.RefResFlag;
 import org.w3c.dom.Element;
 
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * <h3>Hash Calculation Component</h3>
@@ -39,7 +61,9 @@ import java.util.*;
           MEASURE_HASH is essentially a checksum of all non-key values for the record.
           It is used for determining later if the record was really changed without comparing
           all field values, thus increasing the speed of such comparison and saving on manual labour.
-          A hash may be a plain concatenation of field values, or an MD5 sum of such concatenation.</td></tr>
+          A hash may be a plain concatenation of field values, or an MD5 sum of such concatenation.
+          Any number of named hash groups may be calculated in the same pass, e.g. hashes of SCD type 1
+          and type 2 attributes.</td></tr>
  * </table>
  * <br>
  * <table border="1">
@@ -59,21 +83,73 @@ import java.util.*;
  * </tr>
  * 
  * <tr><td><b>ignoreFields</b></td><td>Fields to be ignored in hash calculations.</td></tr>
- * <tr><td><b>hashFunction</b></td><td>'md5' or 'raw' (by default md5 will be used). Raw means all field values will be concatenated using '-' (hyphen) as a separator and returned without actual hashing</td></tr>
+ * <tr><td><b>hashFunction</b></td><td>'raw' or name of a hash function: 'md5', 'sha1', 'sha256', 'xxhash64', 'murmur3_128', 'crc32c'
+ * or a function registered as {@link HashFunction} service (by default md5 will be used).
+ * Raw means all field values will be concatenated using '-' (hyphen) as a separator and returned without actual hashing</td></tr>
  * <tr><td><b>keyHashFieldName</b></td><td>Field name to be used for storing KEY_HASH</td></tr>
  * <tr><td><b>measureHashFieldName</b></td><td>Field name to be used for storing MEASURE_HASH</td></tr>
+ * <tr><td><b>hashGroups</b></td><td>Additional named hashes calculated together with KEY_HASH and MEASURE_HASH,
+ * separated by '|'. A group is <code>name:fields:outputField[:hashFunction]</code>, where fields are separated
+ * by semicolon and the hash function is the one of hashFunction attribute by default. A field used by several
+ * hashes is formatted once per record</td></tr>
+ * <tr><td><b>fieldHashesFieldName</b></td><td>Byte field to store the vector of hashes of every measure field to:
+ * 4 bytes of CRC-32C of the field value per field, in the order of measure fields</td></tr>
+ * <tr><td><b>previousFieldHashesFieldName</b></td><td>Byte field of the input record with the vector of field hashes
+ * of the previous version of the record, e.g. looked up in the warehouse</td></tr>
+ * <tr><td><b>changedFieldsFieldName</b></td><td>Byte field to store the bitmap of measure fields changed since
+ * the previous version to: bit <code>i % 8</code> of byte <code>i / 8</code> is set if the hash of the i-th
+ * measure field differs. All bits are set if there is no previous vector or it was calculated for a different
+ * number of fields. Requires previousFieldHashesFieldName</td></tr>
+ * <tr><td><b>stringHashFormat</b></td><td>'hex' or 'uuid' (by default hex will be used). Format of hashes stored
+ * into string fields, uuid requires a hash function with at least 16 bytes long hash, e.g. md5 or murmur3_128</td></tr>
  * <tr><td><b>printDebugInfo</b></td><td>Print debug info on DEBUG logging level. Prints hash values for each record</td></tr>
+ * <tr><td><b>parallelism</b></td><td>Number of worker threads formatting and hashing records (1 by default).
+ * With more than one thread the component thread only reads and writes records</td></tr>
+ * <tr><td><b>batchSize</b></td><td>Number of records read, hashed and written together (64 by default).
+ * A batch is hashed at once, which lets a hash function interleave the records (see {@link HashFunction#newBatchHasher()}),
+ * and the component yields once per batch. With more than one thread it is the number of records handed over
+ * to a worker at once</td></tr>
+ * <tr><td><b>generateBytecode</b></td><td>Generate code feeding raw values of the input record structure
+ * into the hash function at init (false by default). Every hashed field gets its own call of a formatter
+ * in straight-line code, which the JIT inlines. Generated classes are shared by components with the same
+ * record structure</td></tr>
+ * <tr><td><b>preserveOrder</b></td><td>Write records in the order they were read when parallelism is greater than 1
+ * (true by default). Unordered output gives extra throughput when the order does not matter</td></tr>
+ * <tr><td><b>hashCharset</b></td><td>Charset the raw value is encoded with before hashing (UTF-8 by default).
+ * Hashes do not depend on the platform the graph runs on</td></tr>
+ * <tr><td><b>outputMode</b></td><td>'single' (default) - all records are written to the output port 0,
+ * 'partition' - a record is written to the output port number <code>key hash mod number of output ports</code>,
+ * 'ring' - the output port is chosen by a consistent hash ring of the key hash, so adding a port moves
+ * only the keys the new port takes over. Partitioning reuses the calculated key hash.
+ * 'broadcast' - every record is written to all output ports, it is serialized once and the serialized record
+ * is copied to the ports, which replaces a SimpleCopy after the component. All output ports must have the same
+ * metadata in all modes but single</td></tr>
+ * <tr><td><b>snapshotFile</b></td><td>Hash snapshot file to write key and measure hashes of all records to,
+ * e.g. for HASH_CDC of the next run. The file is replaced when the component finishes successfully</td></tr>
  * </table>
  *
  * <h4>Example:</h4>
  * <pre>&lt;Node id="HASH_CALCULATION" type="HASH_CALC" keyHashFields="mfr_name;mfr_inn;mfr_kpp" measureHashFieldsFields="mfr_address" hashFunction="md5" keyHashFieldName="key_hash" measureHashFieldName="measure_hash"/&gt;</pre>
+ * <pre>&lt;Node id="HASH_CALCULATION" type="HASH_CALC" keyHashFields="mfr_inn" measureHashFields="mfr_name;mfr_address;mfr_phone"
+ *   hashGroups="type1:mfr_phone:type1_hash:xxhash64|type2:mfr_name;mfr_address:type2_hash" keyHashFieldName="key_hash" measureHashFieldName="measure_hash"/&gt;</pre>
  *
  * <p>Output record must contain two fields for key_hash and measure_hash values. The names of these fields
- * are specified in keyHashFieldName and measureHashFieldName attributes.
- * <code>md5</code> hash is returned as a 32-character string in lowercase.
+ * are specified in keyHashFieldName and measureHashFieldName attributes, output fields of hash groups are
+ * specified in hashGroups.
+ * The way a hash is stored depends on the type of the output field:
+ * <ul>
+ *   <li><code>string</code> - <code>md5</code> hash is returned as a 32-character string in lowercase, other hash
+ *   functions are returned as lowercase hex strings of their hash bytes as well (e.g. 16 characters for xxhash64).
+ *   With stringHashFormat="uuid" the first 16 hash bytes are returned as a canonical UUID string.</li>
+ *   <li><code>byte</code>, <code>cbyte</code> - hash bytes, e.g. 16 bytes for md5.</li>
+ *   <li><code>long</code> - the first 8 hash bytes as a big-endian number, i.e. the hash itself for xxhash64.</li>
+ * </ul>
+ * Binary and numeric hashes take half of the space of hex strings in the warehouse and its indexes.
  * <code>raw</code> hash is a string, containing of all field values concatenated together using hyphen "-" as a separator.
- * When md5 is specified as hashFunction, first the raw hash is calculated and then the resulting value
- * is md5-hashed.
+ * The raw hash can be stored to a string field only.
+ * When a hash function is specified as hashFunction, first the raw hash is calculated and then the resulting value
+ * is hashed. xxhash64, murmur3_128 and crc32c are not cryptographic, but much cheaper and good enough
+ * for change detection.
  *
  * NULLs are interpreted as empty strings.
  * Date and time are converted to string according to format specified in incoming metadata.
@@ -92,23 +168,68 @@ public class HashCalc extends AbstractComponent {
   private static final String XML_HASH_FUNCTION_ATTRIBUTE = "hashFunction";
   private static final String XML_KEY_HASH_FIELD_NAME_ATTRIBUTE = "keyHashFieldName";
   private static final String XML_MEASURE_HASH_FIELD_NAME_ATTRIBUTE = "measureHashFieldName";
+  private static final String XML_STRING_HASH_FORMAT_ATTRIBUTE = "stringHashFormat";
   private static final String XML_PRINT_DEBUG_INFO_ATTRIBUTE = "printDebugInfo";
+  private static final String XML_PARALLELISM_ATTRIBUTE = "parallelism";
+  private static final String XML_PRESERVE_ORDER_ATTRIBUTE = "preserveOrder";
+  private static final String XML_SNAPSHOT_FILE_ATTRIBUTE = "snapshotFile";
+  private static final String XML_HASH_CHARSET_ATTRIBUTE = "hashCharset";
+  private static final String XML_BATCH_SIZE_ATTRIBUTE = "batchSize";
+  private static final String XML_GENERATE_BYTECODE_ATTRIBUTE = "generateBytecode";
+  private static final String XML_HASH_GROUPS_ATTRIBUTE = "hashGroups";
+  private static final String XML_FIELD_HASHES_FIELD_NAME_ATTRIBUTE = "fieldHashesFieldName";
+  private static final String XML_PREVIOUS_FIELD_HASHES_FIELD_NAME_ATTRIBUTE = "previousFieldHashesFieldName";
+  private static final String XML_CHANGED_FIELDS_FIELD_NAME_ATTRIBUTE = "changedFieldsFieldName";
+  private static final String XML_OUTPUT_MODE_ATTRIBUTE = "outputMode";
 
-  private static final String HASH_FUNCTION_MD5 = "md5";
-  private static final String HASH_FUNCTION_RAW = "raw";
+  private static final String HASH_FUNCTION_MD5 = HashFunctions.MD5;
+  static final String HASH_FUNCTION_RAW = "raw";
   private static final String DEFAULT_HASH_FUNCTION = HASH_FUNCTION_MD5;
 
+  private static final String STRING_HASH_FORMAT_HEX = "hex";
+  private static final String STRING_HASH_FORMAT_UUID = "uuid";
+  private static final String DEFAULT_STRING_HASH_FORMAT = STRING_HASH_FORMAT_HEX;
+
+  private static final String OUTPUT_MODE_SINGLE = "single";
+  private static final String OUTPUT_MODE_PARTITION = "partition";
+  private static final String OUTPUT_MODE_RING = "ring";
+  private static final String OUTPUT_MODE_BROADCAST = "broadcast";
+  private static final String DEFAULT_OUTPUT_MODE = OUTPUT_MODE_SINGLE;
+
+  private static final int DEFAULT_PARALLELISM = 1;
+  private static final int DEFAULT_BATCH_SIZE = 64;
+
+  private static final String DEFAULT_HASH_CHARSET = StandardCharsets.UTF_8.name();
+
   private static final String ATTR_VALUES_DELIMITER = ";";
+  private static final String HASH_GROUPS_DELIMITER = "|";
+  private static final String HASH_GROUP_PARTS_DELIMITER = ":";
   private static final String RAW_VALUES_DELIMITER = "-";
 
   private static final int READ_FROM_PORT = 0;
   private static final int WRITE_TO_PORT = 0;
 
+  private static final int KEY_HASH = 0;
+  private static final int MEASURE_HASH = 1;
+
+  /** Length of hash of a single field in the field hash vector. */
+  private static final int FIELD_HASH_LENGTH = 4;
+
   private static final Logger LOG = Logger.getLogger(HashCalc.class);
 
   private String attrKeyHashFields, attrMeasureHashFields, attrIgnoreFields, attrHashFunction, attrKeyHashFieldName,
       attrMeasureHashFieldName;
   private boolean attrPrintDebugInfo;
+  private String attrStringHashFormat = DEFAULT_STRING_HASH_FORMAT;
+  private int attrParallelism = DEFAULT_PARALLELISM;
+  private boolean attrPreserveOrder = true;
+  private String attrSnapshotFile;
+  private String attrHashCharset = DEFAULT_HASH_CHARSET;
+  private int attrBatchSize = DEFAULT_BATCH_SIZE;
+  private boolean attrGenerateBytecode;
+  private String attrHashGroups;
+  private String attrFieldHashesFieldName, attrPreviousFieldHashesFieldName, attrChangedFieldsFieldName;
+  private String attrOutputMode = DEFAULT_OUTPUT_MODE;
 
   /**
    * Constructor
@@ -141,6 +262,90 @@ public class HashCalc extends AbstractComponent {
         DEFAULT_HASH_FUNCTION, keyHashFieldName, measureHashFieldName, printDebugInfo);
   }
 
+  /**
+   * @param stringHashFormat hex or uuid
+   */
+  public void setStringHashFormat(String stringHashFormat) {
+    attrStringHashFormat = stringHashFormat;
+  }
+
+  /**
+   * @param parallelism number of worker threads formatting and hashing records
+   */
+  public void setParallelism(int parallelism) {
+    attrParallelism = parallelism;
+  }
+
+  /**
+   * @param batchSize number of records read, hashed and written together
+   */
+  public void setBatchSize(int batchSize) {
+    attrBatchSize = batchSize;
+  }
+
+  /**
+   * @param generateBytecode generate code writing raw values specialized to the input record structure
+   */
+  public void setGenerateBytecode(boolean generateBytecode) {
+    attrGenerateBytecode = generateBytecode;
+  }
+
+  /**
+   * @param hashGroups additional named hashes, <code>name:fields:outputField[:hashFunction]</code> separated by '|'
+   */
+  public void setHashGroups(String hashGroups) {
+    attrHashGroups = hashGroups;
+  }
+
+  /**
+   * @param fieldHashesFieldName byte field to store hashes of every measure field to
+   */
+  public void setFieldHashesFieldName(String fieldHashesFieldName) {
+    attrFieldHashesFieldName = fieldHashesFieldName;
+  }
+
+  /**
+   * @param previousFieldHashesFieldName byte input field with field hashes of the previous version of the record
+   */
+  public void setPreviousFieldHashesFieldName(String previousFieldHashesFieldName) {
+    attrPreviousFieldHashesFieldName = previousFieldHashesFieldName;
+  }
+
+  /**
+   * @param changedFieldsFieldName byte field to store the bitmap of changed measure fields to
+   */
+  public void setChangedFieldsFieldName(String changedFieldsFieldName) {
+    attrChangedFieldsFieldName = changedFieldsFieldName;
+  }
+
+  /**
+   * @param outputMode single, partition, ring or broadcast
+   */
+  public void setOutputMode(String outputMode) {
+    attrOutputMode = outputMode;
+  }
+
+  /**
+   * @param preserveOrder write records in the order they were read when running on several threads
+   */
+  public void setPreserveOrder(boolean preserveOrder) {
+    attrPreserveOrder = preserveOrder;
+  }
+
+  /**
+   * @param snapshotFile hash snapshot file to write key and measure hashes to
+   */
+  public void setSnapshotFile(String snapshotFile) {
+    attrSnapshotFile = snapshotFile;
+  }
+
+  /**
+   * @param hashCharset charset the raw value is encoded with before hashing
+   */
+  public void setHashCharset(String hashCharset) {
+    attrHashCharset = hashCharset;
+  }
+
   @Override
   public String getType() {
     return COMPONENT_TYPE;
@@ -160,24 +365,171 @@ public class HashCalc extends AbstractComponent {
     if (inMetadata == null || outMetadata == null)
       status.addError(this, null, "Metadata on input or output port not specified!");
 
+    if (!OUTPUT_MODE_SINGLE.equals(attrOutputMode))
+      for (int port = 0; port < getOutPorts().size(); port++)
+        if (getOutputPort(port) == null || getOutputPort(port).getMetadata() == null)
+          status.addError(this, null, "Output port " + port + " is not connected or has no metadata!");
+
+    // the same output record is written to whichever port the key hash selects, or serialized once for all ports
+    if (outMetadata != null && !OUTPUT_MODE_SINGLE.equals(attrOutputMode))
+      checkSameOutputMetadata(status, outMetadata);
+
     return status;
   }
 
+  /**
+   * Checks that all output ports have the metadata of output port 0, field by field.
+   */
+  private void checkSameOutputMetadata(ConfigurationStatus status, DataRecordMetadata outMetadata) {
+    for (int port = 1; port < getOutPorts().size(); port++) {
+      DataRecordMetadata portMetadata = getOutputPort(port) != null ? getOutputPort(port).getMetadata() : null;
+      if (portMetadata != null && !RecordProjection.compile(outMetadata, portMetadata).isIdentity(portMetadata))
+        status.addError(this, null, "Output port " + port + " must have the same metadata as output port 0 in "
+            + attrOutputMode + " output mode!");
+    }
+  }
+
   private MetadataHelper metadataHelper;
   private DataRecordMetadata inMetadata, outMetadata;
   private List<String> keyHashFields, measureHashFields, ignoreFields;
+  private HashPlan hashPlan;
+  private RecordProjection projection;
+  private HashFunction hashFunction;
+  private Charset hashCharset;
+  private List<HashGroup> hashGroups = Collections.emptyList();
+  /** Names, hash functions (<code>null</code> for raw) and ways of storing of all hashes by hash index. */
+  private String[] hashNames;
+  private HashFunction[] hashFunctions;
+  private HashOutput[] hashOutputs;
+  private OutputMode outputMode = OutputMode.SINGLE;
+  private int outputPortCount;
+  private HashRing outputRing;
+  /** Serialized output record written to all ports in broadcast mode. */
+  private CloverBuffer recordBuffer;
+  /** Index of measure fields in the plan for field hashes, -1 if field hashes are not calculated. */
+  private int fieldHashes = -1;
+  /** Positions of the field hash vectors and the changed field bitmap, -1 if not used. */
+  private int fieldHashesPosition = -1, previousFieldHashesPosition = -1, changedFieldsPosition = -1;
+
+  /**
+   * Ways of choosing the output port of a record.
+   */
+  private enum OutputMode {
+    /** output port 0 */
+    SINGLE,
+    /** key hash mod number of output ports */
+    PARTITION,
+    /** consistent hash ring of the key hash */
+    RING,
+    /** all output ports */
+    BROADCAST
+  }
+
+  /**
+   * Named group of fields hashed into its own output field, see hashGroups attribute.
+   */
+  private static final class HashGroup {
+    final String name, outputField, hashFunction;
+    final List<String> fields;
+
+    HashGroup(String name, List<String> fields, String outputField, String hashFunction) {
+      this.name = name;
+      this.fields = fields;
+      this.outputField = outputField;
+      this.hashFunction = hashFunction;
+    }
+  }
+
+  /**
+   * Ways of storing a hash into the output field.
+   */
+  private enum HashOutput {
+    /** the raw value or lowercase hex string of hash bytes */
+    STRING,
+    /** canonical UUID string of the first 16 hash bytes */
+    UUID,
+    /** hash bytes */
+    BYTES,
+    /** the first 8 hash bytes as a big-endian long */
+    LONG
+  }
 
   @Override
   public void init() throws ComponentNotReadyException {
     super.init();
+    prepare(getInputPort(READ_FROM_PORT).getMetadata(), getOutputPort(WRITE_TO_PORT).getMetadata());
+    prepareOutput(getOutPorts().size());
+  }
+
+  /**
+   * Prepares choosing of output ports.
+   *
+   * @param portCount number of output ports
+   */
+  private void prepareOutput(int portCount) {
+    outputPortCount = portCount;
+    outputMode = OutputMode.valueOf(attrOutputMode.toUpperCase(Locale.ENGLISH));
+    outputRing = outputMode == OutputMode.RING ? new HashRing(portCount, HashRing.DEFAULT_REPLICAS) : null;
+    recordBuffer = outputMode == OutputMode.BROADCAST
+        ? CloverBuffer.allocateDirect(Defaults.Record.RECORD_INITIAL_SIZE, Defaults.Record.RECORD_LIMIT_SIZE) : null;
+  }
+
+  /**
+   * Checks metadata and compiles hashing of records. Called by {@link #init()} with metadata of the ports,
+   * benchmarks call it directly.
+   *
+   * @param inMetadata  metadata of input records
+   * @param outMetadata metadata of output records
+   */
+  void prepare(DataRecordMetadata inMetadata, DataRecordMetadata outMetadata) {
     metadataHelper = MetadataHelper.getInstance();
-    inMetadata = getInputPort(READ_FROM_PORT).getMetadata();
-    outMetadata = getOutputPort(WRITE_TO_PORT).getMetadata();
+    this.inMetadata = inMetadata;
+    this.outMetadata = outMetadata;
 
     keyHashFields = Utils.toLinkedList(attrKeyHashFields.split(ATTR_VALUES_DELIMITER));
     measureHashFields = prepareMeasureFields();
+    hashFunction = HashFunctions.get(attrHashFunction);
+    hashCharset = Charset.forName(attrHashCharset);
+    outputKey = new HashKey(hashFunction == null);
+    snapshotMeasure = new HashKey(hashFunction == null);
+
+    // key and measure hashes come first, then the hash groups
+    List<List<String>> hashFields = new ArrayList<>(Arrays.asList(keyHashFields, measureHashFields));
+    List<String> outputFields = new ArrayList<>(Arrays.asList(attrKeyHashFieldName, attrMeasureHashFieldName));
+    List<String> names = new ArrayList<>(Arrays.asList("Key", "Measure"));
+    List<HashFunction> functions = new ArrayList<>(Arrays.asList(hashFunction, hashFunction));
+    for (HashGroup group : hashGroups) {
+      hashFields.add(group.fields);
+      outputFields.add(group.outputField);
+      names.add(group.name);
+      functions.add(HashFunctions.get(group.hashFunction));
+    }
+    hashNames = names.toArray(new String[0]);
+    hashFunctions = functions.toArray(new HashFunction[0]);
+
     checkMetadataIn();
     checkMetadataOut();
+
+    // field hashes are written field by field, the fields are in the plan to share their formatted values
+    fieldHashes = -1;
+    if (isSet(attrFieldHashesFieldName) || isSet(attrChangedFieldsFieldName)) {
+      fieldHashes = hashFields.size();
+      hashFields.add(measureHashFields);
+      outputFields.add(null);
+    }
+    fieldHashesPosition = isSet(attrFieldHashesFieldName) ? outMetadata.getFieldPosition(attrFieldHashesFieldName) : -1;
+    changedFieldsPosition = isSet(attrChangedFieldsFieldName) ? outMetadata.getFieldPosition(attrChangedFieldsFieldName) : -1;
+    previousFieldHashesPosition = isSet(attrPreviousFieldHashesFieldName)
+        ? inMetadata.getFieldPosition(attrPreviousFieldHashesFieldName) : -1;
+
+    hashPlan = HashPlan.compile(inMetadata, outMetadata, hashFields, outputFields, RAW_VALUES_DELIMITER, LOG);
+    if (attrGenerateBytecode && functions.stream().anyMatch(Objects::nonNull))
+      try {
+        hashPlan = hashPlan.generate();
+      } catch (IllegalStateException e) {
+        LOG.warn(COMPONENT_TYPE + ": " + getId() + ": " + e.getMessage() + ", the compiled plan is used instead");
+      }
+    projection = RecordProjection.compile(inMetadata, outMetadata);
   }
 
   @Override
@@ -187,6 +539,14 @@ public class HashCalc extends AbstractComponent {
 
   @Override
   protected void checkAttributes() throws ComponentNotReadyException {
+    if (attrParallelism < 1)
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": Invalid \"" + XML_PARALLELISM_ATTRIBUTE
+          + "\" property value " + attrParallelism + ". It must be a positive number");
+
+    if (attrBatchSize < 1)
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": Invalid \"" + XML_BATCH_SIZE_ATTRIBUTE
+          + "\" property value " + attrBatchSize + ". It must be a positive number");
+
     if (attrKeyHashFields == null || attrKeyHashFields.isEmpty())
       throw new ComponentNotReadyException(COMPONENT_TYPE + ':'
           + XML_KEY_HASH_FIELDS_ATTRIBUTE + "\" attribute is not specified");
@@ -218,10 +578,92 @@ public class HashCalc extends AbstractComponent {
               + "\nkeyHashFields=" + Arrays.toString(keyHashFields.toArray()));
     }
 
-    if (!HASH_FUNCTION_MD5.equals(attrHashFunction) && !HASH_FUNCTION_RAW.equals(attrHashFunction))
+    if (!STRING_HASH_FORMAT_HEX.equals(attrStringHashFormat) && !STRING_HASH_FORMAT_UUID.equals(attrStringHashFormat))
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": Invalid \"" + XML_STRING_HASH_FORMAT_ATTRIBUTE
+          + "\" property value \"" + attrStringHashFormat + "\". Supported values: "
+          + STRING_HASH_FORMAT_HEX + ", " + STRING_HASH_FORMAT_UUID);
+
+    if (!isSupportedHashFunction(attrHashFunction))
       throw new ComponentNotReadyException(COMPONENT_TYPE + ": Invalid \"" + XML_HASH_FUNCTION_ATTRIBUTE
           + "\" property value \"" + attrHashFunction + "\". Supported values: "
-          + HASH_FUNCTION_MD5 + ", " + HASH_FUNCTION_RAW);
+          + HASH_FUNCTION_RAW + ", " + String.join(", ", HashFunctions.getNames()));
+
+    hashGroups = parseHashGroups();
+
+    if (isSet(attrChangedFieldsFieldName) != isSet(attrPreviousFieldHashesFieldName))
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": Attributes \"" + XML_CHANGED_FIELDS_FIELD_NAME_ATTRIBUTE
+          + "\" and \"" + XML_PREVIOUS_FIELD_HASHES_FIELD_NAME_ATTRIBUTE + "\" must be specified together");
+
+    if (!OUTPUT_MODE_SINGLE.equals(attrOutputMode) && !OUTPUT_MODE_PARTITION.equals(attrOutputMode)
+        && !OUTPUT_MODE_RING.equals(attrOutputMode) && !OUTPUT_MODE_BROADCAST.equals(attrOutputMode))
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": Invalid \"" + XML_OUTPUT_MODE_ATTRIBUTE
+          + "\" property value \"" + attrOutputMode + "\". Supported values: " + OUTPUT_MODE_SINGLE + ", "
+          + OUTPUT_MODE_PARTITION + ", " + OUTPUT_MODE_RING + ", " + OUTPUT_MODE_BROADCAST);
+
+    if (!isSupportedCharset(attrHashCharset))
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": Invalid \"" + XML_HASH_CHARSET_ATTRIBUTE
+          + "\" property value \"" + attrHashCharset + "\". It must be a charset supported by the JVM, e.g. "
+          + DEFAULT_HASH_CHARSET);
+  }
+
+  private static boolean isSet(String value) {
+    return value != null && !value.isEmpty();
+  }
+
+  private static boolean isSupportedHashFunction(String hashFunction) {
+    return HASH_FUNCTION_RAW.equals(hashFunction) || HashFunctions.get(hashFunction) != null;
+  }
+
+  /**
+   * @return groups of hashGroups attribute, <code>name:fields:outputField[:hashFunction]</code> separated by '|'
+   */
+  private List<HashGroup> parseHashGroups() throws ComponentNotReadyException {
+    if (attrHashGroups == null || attrHashGroups.trim().isEmpty()) return Collections.emptyList();
+
+    List<HashGroup> groups = new ArrayList<>();
+    Set<String> names = new HashSet<>(),
+        outputFields = new HashSet<>(Arrays.asList(attrKeyHashFieldName, attrMeasureHashFieldName));
+
+    for (String value : attrHashGroups.split(Pattern.quote(HASH_GROUPS_DELIMITER))) {
+      if (value.trim().isEmpty()) continue;
+
+      String[] parts = value.trim().split(HASH_GROUP_PARTS_DELIMITER, -1);
+      for (int i = 0; i < parts.length; i++) parts[i] = parts[i].trim();
+      if (parts.length < 3 || parts.length > 4 || parts[0].isEmpty() || parts[1].isEmpty() || parts[2].isEmpty())
+        throw invalidHashGroup(value, "It must be name:fields:outputField[:hashFunction]");
+
+      List<String> fields = new ArrayList<>();
+      for (String field : parts[1].split(ATTR_VALUES_DELIMITER))
+        if (!field.trim().isEmpty()) fields.add(field.trim());
+      if (fields.isEmpty())
+        throw invalidHashGroup(value, "No fields specified");
+
+      String function = parts.length == 4 && !parts[3].isEmpty() ? parts[3] : attrHashFunction;
+      if (!isSupportedHashFunction(function))
+        throw invalidHashGroup(value, "Unknown hash function \"" + function + "\". Supported values: "
+            + HASH_FUNCTION_RAW + ", " + String.join(", ", HashFunctions.getNames()));
+
+      if (!names.add(parts[0]))
+        throw invalidHashGroup(value, "Group " + parts[0] + " is specified twice");
+      if (!outputFields.add(parts[2]))
+        throw invalidHashGroup(value, "Field " + parts[2] + " already stores another hash");
+
+      groups.add(new HashGroup(parts[0], fields, parts[2], function));
+    }
+    return groups;
+  }
+
+  private static ComponentNotReadyException invalidHashGroup(String value, String problem) {
+    return new ComponentNotReadyException(COMPONENT_TYPE + ": Invalid \"" + XML_HASH_GROUPS_ATTRIBUTE
+        + "\" property value \"" + value.trim() + "\". " + problem);
+  }
+
+  private static boolean isSupportedCharset(String charsetName) {
+    try {
+      return charsetName != null && Charset.isSupported(charsetName);
+    } catch (IllegalCharsetNameException e) {
+      return false;
+    }
   }
 
   private List<String> prepareMeasureFields() {
@@ -250,6 +692,11 @@ public class HashCalc extends AbstractComponent {
     checkInFields(unknownFields, keyHashFields, XML_KEY_HASH_FIELDS_ATTRIBUTE);
     checkInFields(unknownFields, measureHashFields, XML_MEASURE_HASH_FIELDS_ATTRIBUTE);
     checkInFields(unknownFields, ignoreFields, XML_IGNORE_FIELDS_ATTRIBUTE);
+    for (HashGroup group : hashGroups)
+      checkInFields(unknownFields, group.fields, XML_HASH_GROUPS_ATTRIBUTE + ' ' + group.name);
+    if (isSet(attrPreviousFieldHashesFieldName))
+      checkInFields(unknownFields, Collections.singletonList(attrPreviousFieldHashesFieldName),
+          XML_PREVIOUS_FIELD_HASHES_FIELD_NAME_ATTRIBUTE);
 
     if (!unknownFields.isEmpty()) {
       StringBuilder msg = new StringBuilder(128);
@@ -260,7 +707,19 @@ public class HashCalc extends AbstractComponent {
       throw new IllegalArgumentException(COMPONENT_TYPE + ": " + msg);
     }
 
-    metadataHelper.checkFieldsFormats(inMetadata, LOG);
+    if (isSet(attrPreviousFieldHashesFieldName))
+      checkByteField(inMetadata, attrPreviousFieldHashesFieldName, XML_PREVIOUS_FIELD_HASHES_FIELD_NAME_ATTRIBUTE);
+  }
+
+  private void checkByteField(DataRecordMetadata metadata, String fieldName, String attr) {
+    if (!metadataHelper.isFieldExist(metadata, fieldName))
+      throw new IllegalArgumentException(COMPONENT_TYPE + ": Attribute " + attr + ": field " + fieldName
+          + " does not exist");
+
+    DataFieldType fieldType = metadataHelper.getFieldType(metadata, fieldName);
+    if (!metadataHelper.isByte(fieldType))
+      throw new IllegalArgumentException(COMPONENT_TYPE + ": Attribute " + attr + ": field " + fieldName
+          + " has unsupported type " + fieldType.getName() + ". Supported types: byte, cbyte");
   }
 
   private void checkInFields(Map<String, List<String>> unknownFields, List<String> fields, String key) {
@@ -282,65 +741,357 @@ public class HashCalc extends AbstractComponent {
     if (!metadataHelper.isFieldExist(outMetadata, attrMeasureHashFieldName))
       throw new IllegalArgumentException(COMPONENT_TYPE + ": Attribute " + XML_MEASURE_HASH_FIELD_NAME_ATTRIBUTE
           + ": field " + attrMeasureHashFieldName + " does not exist");
+
+    for (HashGroup group : hashGroups)
+      if (!metadataHelper.isFieldExist(outMetadata, group.outputField))
+        throw new IllegalArgumentException(COMPONENT_TYPE + ": Attribute " + XML_HASH_GROUPS_ATTRIBUTE
+            + ": field " + group.outputField + " of group " + group.name + " does not exist");
+
+    hashOutputs = new HashOutput[hashFunctions.length];
+    hashOutputs[KEY_HASH] = getHashOutput(attrKeyHashFieldName, XML_KEY_HASH_FIELD_NAME_ATTRIBUTE,
+        hashFunction, attrHashFunction);
+    hashOutputs[MEASURE_HASH] = getHashOutput(attrMeasureHashFieldName, XML_MEASURE_HASH_FIELD_NAME_ATTRIBUTE,
+        hashFunction, attrHashFunction);
+    for (int i = 0; i < hashGroups.size(); i++) {
+      HashGroup group = hashGroups.get(i);
+      hashOutputs[MEASURE_HASH + 1 + i] = getHashOutput(group.outputField, XML_HASH_GROUPS_ATTRIBUTE,
+          hashFunctions[MEASURE_HASH + 1 + i], group.hashFunction);
+    }
+
+    if (isSet(attrFieldHashesFieldName))
+      checkByteField(outMetadata, attrFieldHashesFieldName, XML_FIELD_HASHES_FIELD_NAME_ATTRIBUTE);
+    if (isSet(attrChangedFieldsFieldName))
+      checkByteField(outMetadata, attrChangedFieldsFieldName, XML_CHANGED_FIELDS_FIELD_NAME_ATTRIBUTE);
+  }
+
+  private HashOutput getHashOutput(String fieldName, String attr, HashFunction function, String functionName) {
+    DataFieldType fieldType = metadataHelper.getFieldType(outMetadata, fieldName);
+
+    if (metadataHelper.isString(fieldType)) {
+      if (!STRING_HASH_FORMAT_UUID.equals(attrStringHashFormat)) return HashOutput.STRING;
+
+      if (function == null || function.getHashLength() < 16)
+        throw new IllegalArgumentException(COMPONENT_TYPE + ": Attribute " + XML_STRING_HASH_FORMAT_ATTRIBUTE
+            + ": hash function " + functionName + " does not produce 16 bytes required for UUID");
+      return HashOutput.UUID;
+    }
+
+    if (function == null)
+      throw new IllegalArgumentException(COMPONENT_TYPE + ": Attribute " + attr + ": field " + fieldName
+          + " must be a string to store " + HASH_FUNCTION_RAW + " hash");
+
+    if (metadataHelper.isByte(fieldType)) return HashOutput.BYTES;
+    if (metadataHelper.isLong(fieldType)) return HashOutput.LONG;
+
+    throw new IllegalArgumentException(COMPONENT_TYPE + ": Attribute " + attr + ": field " + fieldName
+        + " has unsupported type " + fieldType.getName() + ". Supported types: string, byte, cbyte, long");
   }
 
   @Override
   protected Result execute() throws Exception {
-    DataRecord inRecord = DataRecordFactory.newRecord(inMetadata),
-        outRecord = DataRecordFactory.newRecord(outMetadata);
-
-    while ((inRecord = readRecord(READ_FROM_PORT, inRecord)) != null && runIt) {
-      fillOutRecordByInRecord(inRecord, outRecord);
-      String keyRaw = getRawValues(inRecord, keyHashFields), measureRaw = getRawValues(inRecord, measureHashFields);
-      assert (!keyRaw.isEmpty() || !measureRaw.isEmpty());
-
-      DataField keyHashField = outRecord.getField(attrKeyHashFieldName),
-          measureHashField = outRecord.getField(attrMeasureHashFieldName);
-
-      if (HASH_FUNCTION_MD5.equals(attrHashFunction)) {
-        String keyHash = Utils.md5(keyRaw), measureHash = Utils.md5(measureRaw);
-        assert (!keyHash.isEmpty() || !measureHash.isEmpty());
-        if (attrPrintDebugInfo)
-          LOG.debug("\n\nKey: " + keyRaw + "\nMD5: " + keyHash
-            + "\n\nMeasure: " + measureRaw + "\nMD5: " + measureHash + "\n");
-
-        keyHashField.setValue(keyHash);
-        measureHashField.setValue(measureHash);
-      } else if (HASH_FUNCTION_RAW.equals(attrHashFunction)) {
-        if (attrPrintDebugInfo)
-        LOG.debug("\n\nKey: " + keyRaw + "\nMeasure: " + measureRaw + "\n");
-
-        keyHashField.setValue(keyRaw);
-        measureHashField.setValue(measureRaw);
-      } else throw new RuntimeException("Unknown hash function: " + attrHashFunction);
-
-      writeRecord(WRITE_TO_PORT, outRecord);
-      SynchronizeUtils.cloverYield();
+    if (attrSnapshotFile != null && !attrSnapshotFile.isEmpty()) snapshotWriter = createSnapshotWriter();
+
+    try {
+      process();
+
+      if (runIt && snapshotWriter != null)
+        LOG.info(COMPONENT_TYPE + ": " + getId() + ": snapshot file " + attrSnapshotFile + ": "
+            + snapshotWriter.finish());
+    } finally {
+      if (snapshotWriter != null) snapshotWriter.abort();
+      snapshotWriter = null;
     }
 
     return runIt ? Result.FINISHED_OK : Result.ABORTED;
   }
 
-  private void fillOutRecordByInRecord(DataRecord inRecord, DataRecord outRecord) {
-    Map<String, Object> fieldValues = metadataHelper.getFieldValues(inMetadata, inRecord, LOG);
-    for (String fieldName : fieldValues.keySet()) {
-      if (outRecord.hasField(fieldName)) {
-        DataField field = outRecord.getField(fieldName);
-        if (field != null) field.setValue(fieldValues.get(fieldName));
+  private void process() throws Exception {
+    if (attrParallelism > 1) {
+      ParallelRecordProcessor processor = new ParallelRecordProcessor(getId(), attrParallelism, attrPreserveOrder,
+          attrBatchSize, inMetadata, outMetadata);
+      processor.run(
+          record -> readRecord(READ_FROM_PORT, record),
+          this::writeOutput,
+          this::newRecordProcessor,
+          () -> runIt);
+      return;
+    }
+
+    DataRecord[] inRecords = newRecords(inMetadata, attrBatchSize),
+        outRecords = newRecords(outMetadata, attrBatchSize);
+    RecordHasher hasher = new RecordHasher(hashPlan);
+    boolean eof = false;
+
+    while (!eof && runIt) {
+      int count = 0;
+      while (count < inRecords.length && runIt) {
+        if (readRecord(READ_FROM_PORT, inRecords[count]) == null) {
+          eof = true;
+          break;
+        }
+        count++;
+      }
+      if (count == 0) continue;
+
+      hasher.process(inRecords, outRecords, count);
+      for (int i = 0; i < count; i++) writeOutput(outRecords[i]);
+      SynchronizeUtils.cloverYield();
+    }
+  }
+
+  /**
+   * @return pool of records reused by all batches
+   */
+  private static DataRecord[] newRecords(DataRecordMetadata metadata, int count) {
+    DataRecord[] records = new DataRecord[count];
+    for (int i = 0; i < count; i++) records[i] = DataRecordFactory.newRecord(metadata);
+    return records;
+  }
+
+  private SnapshotWriter snapshotWriter;
+  private HashKey outputKey, snapshotMeasure;
+
+  private SnapshotWriter createSnapshotWriter() {
+    File file = FileUtils.getJavaFile(getContextURL(), attrSnapshotFile);
+    String algorithm = hashFunction != null ? hashFunction.getName() : HASH_FUNCTION_RAW;
+    List<List<String>> fingerprintFields = new ArrayList<>(Arrays.asList(keyHashFields, measureHashFields));
+    // the charset changes the hashed bytes, so a snapshot of another charset must not be compared;
+    // raw values are not encoded, and the default UTF-8 keeps the fingerprint of the hash fields alone
+    if (hashFunction != null && !StandardCharsets.UTF_8.equals(hashCharset))
+      fingerprintFields.add(Collections.singletonList(hashCharset.name()));
+    long fieldFingerprint = SnapshotHeader.fingerprint(fingerprintFields);
+    boolean wideKeys = !metadataHelper.isLong(metadataHelper.getFieldType(outMetadata, attrKeyHashFieldName));
+
+    if (file.exists())
+      try {
+        SnapshotHeader previous = SnapshotHeader.read(file);
+        if (!previous.isCompatible(new SnapshotHeader(algorithm, fieldFingerprint, wideKeys, 0, 0)))
+          LOG.warn(COMPONENT_TYPE + ": " + getId() + ": previous snapshot file " + attrSnapshotFile
+              + " was calculated differently (" + previous + "), its hashes are not comparable");
+      } catch (Exception e) {
+        LOG.warn(COMPONENT_TYPE + ": " + getId() + ": previous snapshot file " + attrSnapshotFile
+            + " can not be read: " + e.getMessage());
       }
+
+    return new SnapshotWriter(file, algorithm, fieldFingerprint, wideKeys);
+  }
+
+  /**
+   * Writes the output record to its output port and adds its hashes to the snapshot file.
+   * Called by the component thread only.
+   */
+  private void writeOutput(DataRecord outRecord) throws Exception {
+    if (snapshotWriter != null || outputMode == OutputMode.PARTITION || outputMode == OutputMode.RING)
+      outputKey.read(outRecord.getField(hashPlan.getOutputPosition(KEY_HASH)));
+
+    if (outputMode == OutputMode.BROADCAST) {
+      recordBuffer.clear();
+      outRecord.serialize(recordBuffer);
+      recordBuffer.flip();
+      writeRecordBroadcastDirect(recordBuffer);
+    } else writeRecord(getOutputPortNumber(), outRecord);
+
+    if (snapshotWriter != null) {
+      snapshotMeasure.read(outRecord.getField(hashPlan.getOutputPosition(MEASURE_HASH)));
+      snapshotWriter.add(outputKey.getHigh(), outputKey.getLow(), snapshotMeasure.getFingerprint(),
+          outputKey.getLength());
+    }
+  }
+
+  /**
+   * @return output port of the record with the key hash read into {@link #outputKey}
+   */
+  private int getOutputPortNumber() {
+    switch (outputMode) {
+      case PARTITION:
+        return (int) Long.remainderUnsigned(outputKey.getFingerprint(), outputPortCount);
+      case RING:
+        return outputRing.getNode(outputKey.getFingerprint());
+      default:
+        return WRITE_TO_PORT;
     }
   }
 
-  private String getRawValues(DataRecord inRecord, List<String> fields) {
-    Map<String, String> fieldValues = metadataHelper.getFormattedFieldValues(inMetadata, inRecord, fields, LOG);
-    StringBuilder sb = new StringBuilder(128);
+  /**
+   * @return new processor filling output records by input records and their hashes, for a single thread
+   */
+  ParallelRecordProcessor.RecordProcessor newRecordProcessor() {
+    return new RecordHasher(hashPlan.copy());
+  }
+
+  /**
+   * Fills output record by the input record and its hashes. Every thread processing records
+   * has its own hasher, as hash plans and digest writers are not thread-safe.
+   * Batches of records are digested together by the hash functions which hash batches faster.
+   */
+  private final class RecordHasher implements ParallelRecordProcessor.RecordProcessor {
+    private final HashPlan plan;
+    /** Digest writers and digests of every hash, <code>null</code> for raw hashes. */
+    private final DigestWriter[] digestWriters, batchWriters;
+    private final byte[][] digests;
+    private final boolean batched;
+    /** Writer of hashes of single fields, <code>null</code> if field hashes are not calculated. */
+    private final DigestWriter fieldHashWriter;
+    private final StringBuilder hashValue = new StringBuilder(32);
 
-    for (int i = 0; i < fields.size(); i++) {
-      if (i != 0) sb.append(RAW_VALUES_DELIMITER);
-      sb.append(fieldValues.get(fields.get(i)));
+    RecordHasher(HashPlan plan) {
+      this.plan = plan;
+      int hashCount = hashFunctions.length;
+      digestWriters = new DigestWriter[hashCount];
+      batchWriters = new DigestWriter[hashCount];
+      digests = new byte[hashCount][];
+
+      boolean batched = false;
+      for (int hash = 0; hash < hashCount; hash++) {
+        HashFunction function = hashFunctions[hash];
+        if (function == null) continue;
+
+        digestWriters[hash] = new DigestWriter(function, hashCharset);
+        batchWriters[hash] = DigestWriter.batch(function, hashCharset);
+        digests[hash] = new byte[function.getHashLength()];
+        batched |= batchWriters[hash] != null;
+      }
+      this.batched = batched;
+      this.fieldHashWriter = fieldHashes >= 0 ? new DigestWriter(HashFunctions.get(Crc32c.NAME), hashCharset) : null;
     }
 
-    return sb.toString();
+    @Override
+    public void process(DataRecord inRecord, DataRecord outRecord) {
+      projection.copy(inRecord, outRecord);
+      plan.beginRecord();
+      for (int hash = 0; hash < digestWriters.length; hash++) hash(inRecord, outRecord, hash);
+      if (fieldHashWriter != null) hashFields(inRecord, outRecord);
+
+      if (attrPrintDebugInfo) printHashes(inRecord, outRecord);
+    }
+
+    @Override
+    public void process(DataRecord[] inRecords, DataRecord[] outRecords, int count) throws Exception {
+      if (!batched) {
+        ParallelRecordProcessor.RecordProcessor.super.process(inRecords, outRecords, count);
+        return;
+      }
+
+      for (int i = 0; i < count; i++) {
+        projection.copy(inRecords[i], outRecords[i]);
+        plan.beginRecord();
+        for (int hash = 0; hash < batchWriters.length; hash++)
+          if (batchWriters[hash] != null) {
+            plan.writeRawValue(inRecords[i], hash, batchWriters[hash]);
+            batchWriters[hash].endMessage();
+          } else hash(inRecords[i], outRecords[i], hash);
+        if (fieldHashWriter != null) hashFields(inRecords[i], outRecords[i]);
+      }
+
+      for (int hash = 0; hash < batchWriters.length; hash++) {
+        if (batchWriters[hash] == null) continue;
+
+        // digests of the hash of every record, one after another
+        byte[] batch = batchWriters[hash].digestBatch(), digest = digests[hash];
+        for (int i = 0; i < count; i++) {
+          System.arraycopy(batch, i * digest.length, digest, 0, digest.length);
+          setDigest(digest, outRecords[i].getField(plan.getOutputPosition(hash)), hash);
+        }
+      }
+
+      if (attrPrintDebugInfo)
+        for (int i = 0; i < count; i++) printHashes(inRecords[i], outRecords[i]);
+    }
+
+    /**
+     * Calculates the hash of the record one by one and stores it.
+     */
+    private void hash(DataRecord inRecord, DataRecord outRecord, int hash) {
+      DataField hashField = outRecord.getField(plan.getOutputPosition(hash));
+      DigestWriter digestWriter = digestWriters[hash];
+
+      if (digestWriter == null) hashField.setValue(plan.getRawValue(inRecord, hash));
+      else {
+        plan.writeRawValue(inRecord, hash, digestWriter);
+        setDigest(digestWriter.digest(), hashField, hash);
+      }
+    }
+
+    /**
+     * Calculates hashes of the measure fields and the bitmap of fields changed since the previous vector.
+     */
+    private void hashFields(DataRecord inRecord, DataRecord outRecord) {
+      int count = plan.getFieldCount(fieldHashes);
+      // fields get their own arrays
+      byte[] hashes = new byte[count * FIELD_HASH_LENGTH];
+      for (int i = 0; i < count; i++) {
+        plan.writeFieldValue(inRecord, fieldHashes, i, fieldHashWriter);
+        System.arraycopy(fieldHashWriter.digest(), 0, hashes, i * FIELD_HASH_LENGTH, FIELD_HASH_LENGTH);
+      }
+
+      if (fieldHashesPosition >= 0) ((ByteDataField) outRecord.getField(fieldHashesPosition)).setValue(hashes);
+      if (changedFieldsPosition >= 0) {
+        byte[] previous = (byte[]) inRecord.getField(previousFieldHashesPosition).getValue();
+        ((ByteDataField) outRecord.getField(changedFieldsPosition)).setValue(changedFields(hashes, previous, count));
+      }
+    }
+
+    /**
+     * Stores the digest according to the output field type.
+     */
+    private void setDigest(byte[] digest, DataField hashField, int hash) {
+      switch (hashOutputs[hash]) {
+        case BYTES:
+          // the digest array is reused, the field gets its own copy
+          ((ByteDataField) hashField).setValue(digest.clone());
+          break;
+        case LONG:
+          ((LongDataField) hashField).setValue(Utils.toLong(digest));
+          break;
+        case UUID:
+          hashValue.setLength(0);
+          hashField.setValue(Utils.appendUuid(digest, hashValue));
+          break;
+        default:
+          hashValue.setLength(0);
+          hashField.setValue(Utils.appendHex(digest, hashValue));
+      }
+    }
+
+    private void printHashes(DataRecord inRecord, DataRecord outRecord) {
+      // values of shared fields may belong to another record of the batch
+      plan.beginRecord();
+
+      StringBuilder message = new StringBuilder(256).append('\n');
+      for (int hash = 0; hash < hashNames.length; hash++) {
+        message.append('\n').append(hashNames[hash]).append(": ").append(plan.getRawValue(inRecord, hash)).append('\n');
+        if (hashFunctions[hash] != null)
+          message.append(hashFunctions[hash].getName().toUpperCase(Locale.ENGLISH)).append(": ")
+              .append(toDebugString(outRecord.getField(plan.getOutputPosition(hash)))).append('\n');
+      }
+      LOG.debug(message);
+    }
+  }
+
+  /**
+   * @return bitmap of fields with different hashes in the vectors, all fields are changed if the previous
+   * vector is missing or has a different length
+   */
+  private static byte[] changedFields(byte[] hashes, byte[] previous, int count) {
+    byte[] changed = new byte[(count + 7) / 8];
+    boolean comparable = previous != null && previous.length == hashes.length;
+
+    for (int i = 0; i < count; i++)
+      if (!comparable || !sameFieldHash(hashes, previous, i * FIELD_HASH_LENGTH))
+        changed[i >>> 3] |= 1 << (i & 7);
+    return changed;
+  }
+
+  private static boolean sameFieldHash(byte[] hashes, byte[] previous, int offset) {
+    for (int i = offset; i < offset + FIELD_HASH_LENGTH; i++)
+      if (hashes[i] != previous[i]) return false;
+    return true;
+  }
+
+  private static String toDebugString(DataField hashField) {
+    Object value = hashField.getValue();
+    return value instanceof byte[] ? Utils.appendHex((byte[]) value, new StringBuilder()).toString()
+        : String.valueOf(value);
   }
 
   /**
@@ -349,7 +1100,7 @@ public class HashCalc extends AbstractComponent {
   public static Node fromXML(TransformationGraph graph, Element xmlElement) throws XMLConfigurationException {
     ComponentXMLAttributes xmlAttrs = new ComponentXMLAttributes(xmlElement, graph);
     try {
-      return new HashCalc(
+      HashCalc hashCalc = new HashCalc(
           xmlAttrs.getString(XML_ID_ATTRIBUTE),
           // dklimov 2018-10-29 changed getString to getStringEx to parse params like ${TABLE_NAME} in attributes
           xmlAttrs.getStringEx(XML_KEY_HASH_FIELDS_ATTRIBUTE, "", RefResFlag.REGULAR),
@@ -360,6 +1111,19 @@ public class HashCalc extends AbstractComponent {
           xmlAttrs.getString(XML_MEASURE_HASH_FIELD_NAME_ATTRIBUTE),
           xmlAttrs.getBoolean(XML_PRINT_DEBUG_INFO_ATTRIBUTE, false)
       );
+      hashCalc.setStringHashFormat(xmlAttrs.getString(XML_STRING_HASH_FORMAT_ATTRIBUTE, DEFAULT_STRING_HASH_FORMAT));
+      hashCalc.setParallelism(xmlAttrs.getInteger(XML_PARALLELISM_ATTRIBUTE, DEFAULT_PARALLELISM));
+      hashCalc.setPreserveOrder(xmlAttrs.getBoolean(XML_PRESERVE_ORDER_ATTRIBUTE, true));
+      hashCalc.setSnapshotFile(xmlAttrs.getStringEx(XML_SNAPSHOT_FILE_ATTRIBUTE, null, RefResFlag.URL));
+      hashCalc.setHashCharset(xmlAttrs.getString(XML_HASH_CHARSET_ATTRIBUTE, DEFAULT_HASH_CHARSET));
+      hashCalc.setBatchSize(xmlAttrs.getInteger(XML_BATCH_SIZE_ATTRIBUTE, DEFAULT_BATCH_SIZE));
+      hashCalc.setGenerateBytecode(xmlAttrs.getBoolean(XML_GENERATE_BYTECODE_ATTRIBUTE, false));
+      hashCalc.setHashGroups(xmlAttrs.getStringEx(XML_HASH_GROUPS_ATTRIBUTE, null, RefResFlag.REGULAR));
+      hashCalc.setFieldHashesFieldName(xmlAttrs.getString(XML_FIELD_HASHES_FIELD_NAME_ATTRIBUTE, null));
+      hashCalc.setPreviousFieldHashesFieldName(xmlAttrs.getString(XML_PREVIOUS_FIELD_HASHES_FIELD_NAME_ATTRIBUTE, null));
+      hashCalc.setChangedFieldsFieldName(xmlAttrs.getString(XML_CHANGED_FIELDS_FIELD_NAME_ATTRIBUTE, null));
+      hashCalc.setOutputMode(xmlAttrs.getString(XML_OUTPUT_MODE_ATTRIBUTE, DEFAULT_OUTPUT_MODE));
+      return hashCalc;
     } catch (Exception e) {
       throw new XMLConfigurationException(COMPONENT_TYPE + ':'
           + xmlAttrs.getString(XML_ID_ATTRIBUTE, " unknown ID ") + ':' + e.getMessage(), e);
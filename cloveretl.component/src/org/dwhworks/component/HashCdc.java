@@ -0,0 +1,391 @@
+package org.dwhworks.component;
+
+import org.dwhworks.component.hash.HashIndex;
+import org.dwhworks.component.hash.HashSnapshot;
+import org.dwhworks.component.hash.SnapshotReader;
+import org.dwhworks.component.util.HashKey;
+import org.dwhworks.component.util.MetadataHelper;
+import org.dwhworks.component.util.RecordProjection;
+import org.apache.log4j.Logger;
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.exception.ComponentNotReadyException;
+import org.jetel.exception.ConfigurationStatus;
+import org.jetel.exception.XMLConfigurationException;
+import org.jetel.graph.Node;
+import org.jetel.graph.OutputPort;
+import org.jetel.graph.Result;
+import org.jetel.graph.TransformationGraph;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.util.SynchronizeUtils;
+import org.jetel.util.file.FileUtils;
+import org.jetel.util.property.ComponentXMLAttributes;
+import org.jetel.util.property.RefResFlag;
+import org.w3c.dom.Element;
+
+/**
+ * <h3>Hash Change Data Capture Component</h3>
+ *
+ * <table border="1">
+ * <th>Component:</th>
+ * <tr><td><h4><i>Name:</i></h4></td>
+ * <td>Hash Change Data Capture</td></tr>
+ * <tr><td><h4><i>Category:</i></h4></td>
+ * <td>Custom</td></tr>
+ * <tr><td><h4><i>Description:</i></h4></td>
+ * <td>Compares current records with the previous snapshot by their KEY_HASH and MEASURE_HASH
+          calculated by HASH_CALC. Current records are routed to output ports by the result
+          of the comparison: new keys are inserts, keys with another measure hash are updates and keys with
+          the same measure hash are unchanged. Keys of the snapshot which were not found among current records
+          are emitted as deletes.</td></tr>
+ * </table>
+ * <br>
+ * <table border="1">
+ * <th>Input ports:</th>
+ * <tr><td>0</td><td>current records with key and measure hashes</td></tr>
+ * <tr><td>1</td><td>previous snapshot, records with key and measure hashes (unless snapshotFile is specified)</td></tr>
+ * <th>Output ports:</th>
+ * <tr><td>0</td><td>INSERT - current records with a new key</td></tr>
+ * <tr><td>1</td><td>UPDATE - current records with a changed measure hash</td></tr>
+ * <tr><td>2</td><td>UNCHANGED - current records with the same measure hash (optional)</td></tr>
+ * <tr><td>3</td><td>DELETE - key hashes of the snapshot not found among current records (optional)</td></tr>
+ * </table>
+ * <br>
+ * <table border="1">
+ * <th>XML attributes:</th>
+ * <tr><td><b>id</b></td><td>component identification</td>
+ * <tr><td><b>type</b></td><td>"HASH_CDC"</td></tr>
+ * <tr><td><b>keyHashFieldName</b></td><td>Field with KEY_HASH in current records and in the snapshot</td></tr>
+ * <tr><td><b>measureHashFieldName</b></td><td>Field with MEASURE_HASH in current records and in the snapshot</td></tr>
+ * <tr><td><b>expectedKeyCount</b></td><td>Expected number of keys in the snapshot. Sizes the index up front,
+ * so it does not grow while the snapshot is loaded</td></tr>
+ * <tr><td><b>snapshotFile</b></td><td>Hash snapshot file written by HASH_CALC, used instead of the input port 1.
+ * The file is memory-mapped and searched in place, it is not loaded onto the heap</td></tr>
+ * <tr><td><b>rawHashes</b></td><td>Hashes are raw values of HASH_CALC with hashFunction "raw", false by default.
+ * A snapshot file of raw hashes is recognized by its header</td></tr>
+ * </table>
+ *
+ * <h4>Example:</h4>
+ * <pre>&lt;Node id="CDC" type="HASH_CDC" keyHashFieldName="key_hash" measureHashFieldName="measure_hash" expectedKeyCount="10000000"/&gt;</pre>
+ *
+ * <p>The snapshot is read completely before the first current record, so both input ports must not
+ * be fed by the same component in the same phase. It is kept in memory in a primitive open-addressing
+ * hash index: 128-bit key hash and 64-bit fingerprint of the measure hash take 24 bytes per slot,
+ * key hashes stored in long fields take 16 bytes per slot. Hash fields may be of any type produced
+ * by HASH_CALC (hex or UUID string, byte, cbyte, long) and the snapshot may store them differently
+ * than current records, e.g. as bytes instead of hex strings. Hashes longer than 16 bytes are compared
+ * by their first 16 bytes, raw hashes by the murmur3_128 hash of their text.
+ *
+ * A snapshot file is accessed through the page cache, only a bitset of seen keys (one bit per key) is kept
+ * on the heap and only when the DELETE port is connected. Hashes of the snapshot file must have been
+ * calculated from the same fields by the same hash function as hashes of current records.
+ *
+ * Output records are filled by the fields of the current record with the same names.
+ * Records on the DELETE port get the key hash only, in the representation of the snapshot.
+ * A key occurring in current records repeatedly is classified repeatedly against the snapshot.
+ * </p>
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class HashCdc extends AbstractComponent {
+  public final static String COMPONENT_TYPE = "HASH_CDC";
+
+  private static final String XML_KEY_HASH_FIELD_NAME_ATTRIBUTE = "keyHashFieldName";
+  private static final String XML_MEASURE_HASH_FIELD_NAME_ATTRIBUTE = "measureHashFieldName";
+  private static final String XML_EXPECTED_KEY_COUNT_ATTRIBUTE = "expectedKeyCount";
+  private static final String XML_SNAPSHOT_FILE_ATTRIBUTE = "snapshotFile";
+  private static final String XML_RAW_HASHES_ATTRIBUTE = "rawHashes";
+
+  private static final int DEFAULT_EXPECTED_KEY_COUNT = 1 << 20;
+
+  private static final int READ_FROM_PORT = 0;
+  private static final int SNAPSHOT_PORT = 1;
+
+  private static final int INSERT_PORT = 0;
+  private static final int UPDATE_PORT = 1;
+  private static final int UNCHANGED_PORT = 2;
+  private static final int DELETE_PORT = 3;
+
+  private static final Logger LOG = Logger.getLogger(HashCdc.class);
+
+  private String attrKeyHashFieldName, attrMeasureHashFieldName;
+  private int attrExpectedKeyCount = DEFAULT_EXPECTED_KEY_COUNT;
+  private String attrSnapshotFile;
+  private boolean attrRawHashes;
+
+  /**
+   * Constructor
+   *
+   * @param id                   component id in the graph
+   * @param keyHashFieldName     field name of key hash
+   * @param measureHashFieldName field name of measure hash
+   */
+  public HashCdc(String id, String keyHashFieldName, String measureHashFieldName) {
+    super(id);
+
+    attrKeyHashFieldName = keyHashFieldName;
+    attrMeasureHashFieldName = measureHashFieldName;
+  }
+
+  /**
+   * @param expectedKeyCount expected number of keys in the snapshot
+   */
+  public void setExpectedKeyCount(int expectedKeyCount) {
+    attrExpectedKeyCount = expectedKeyCount;
+  }
+
+  /**
+   * @param snapshotFile hash snapshot file used instead of the snapshot input port
+   */
+  public void setSnapshotFile(String snapshotFile) {
+    attrSnapshotFile = snapshotFile;
+  }
+
+  /**
+   * @param rawHashes <code>true</code> if hashes are raw values of HASH_CALC
+   */
+  public void setRawHashes(boolean rawHashes) {
+    attrRawHashes = rawHashes;
+  }
+
+  private boolean hasSnapshotFile() {
+    return attrSnapshotFile != null && !attrSnapshotFile.isEmpty();
+  }
+
+  @Override
+  public String getType() {
+    return COMPONENT_TYPE;
+  }
+
+  @Override
+  public ConfigurationStatus checkConfig(ConfigurationStatus status) {
+    super.checkConfig(status);
+
+    if (getInputPort(READ_FROM_PORT) == null || getOutPorts().size() < 2) {
+      status.addError(this, null, "Input port and at least INSERT and UPDATE output ports must be connected!");
+      return status;
+    }
+
+    if (hasSnapshotFile() == (getInputPort(SNAPSHOT_PORT) != null)) {
+      status.addError(this, null, "Either snapshot input port must be connected or snapshot file specified!");
+      return status;
+    }
+
+    if (getInputPort(READ_FROM_PORT).getMetadata() == null
+        || !hasSnapshotFile() && getInputPort(SNAPSHOT_PORT).getMetadata() == null)
+      status.addError(this, null, "Metadata on input ports not specified!");
+
+    for (OutputPort outPort : getOutPorts())
+      if (outPort.getMetadata() == null)
+        status.addError(this, null, "Metadata on output port not specified!");
+
+    return status;
+  }
+
+  private MetadataHelper metadataHelper;
+  private DataRecordMetadata inMetadata, snapshotMetadata;
+  private int keyPosition, measurePosition, snapshotKeyPosition, snapshotMeasurePosition;
+  private DataRecordMetadata[] outMetadata;
+  private RecordProjection[] projections;
+  private boolean[] passThrough;
+  private HashSnapshot index;
+  private int snapshotKeyLength;
+
+  @Override
+  public void init() throws ComponentNotReadyException {
+    super.init();
+    metadataHelper = MetadataHelper.getInstance();
+    inMetadata = getInputPort(READ_FROM_PORT).getMetadata();
+
+    keyPosition = getFieldPosition(inMetadata, attrKeyHashFieldName, XML_KEY_HASH_FIELD_NAME_ATTRIBUTE);
+    measurePosition = getFieldPosition(inMetadata, attrMeasureHashFieldName, XML_MEASURE_HASH_FIELD_NAME_ATTRIBUTE);
+
+    if (!hasSnapshotFile()) {
+      snapshotMetadata = getInputPort(SNAPSHOT_PORT).getMetadata();
+      snapshotKeyPosition = getFieldPosition(snapshotMetadata, attrKeyHashFieldName,
+          XML_KEY_HASH_FIELD_NAME_ATTRIBUTE);
+      snapshotMeasurePosition = getFieldPosition(snapshotMetadata, attrMeasureHashFieldName,
+          XML_MEASURE_HASH_FIELD_NAME_ATTRIBUTE);
+    }
+
+    outMetadata = new DataRecordMetadata[DELETE_PORT + 1];
+    projections = new RecordProjection[DELETE_PORT];
+    passThrough = new boolean[DELETE_PORT];
+    for (int port = INSERT_PORT; port <= DELETE_PORT; port++) {
+      OutputPort outPort = getOutputPort(port);
+      if (outPort == null) continue;
+
+      outMetadata[port] = outPort.getMetadata();
+      if (port == DELETE_PORT) {
+        getFieldPosition(outMetadata[port], attrKeyHashFieldName, XML_KEY_HASH_FIELD_NAME_ATTRIBUTE);
+        continue;
+      }
+
+      projections[port] = RecordProjection.compile(inMetadata, outMetadata[port]);
+      passThrough[port] = projections[port].isIdentity(outMetadata[port]);
+    }
+  }
+
+  private int getFieldPosition(DataRecordMetadata metadata, String fieldName, String attr) {
+    if (!metadataHelper.isFieldExist(metadata, fieldName))
+      throw new IllegalArgumentException(COMPONENT_TYPE + ": Attribute " + attr + ": field " + fieldName
+          + " does not exist in metadata " + metadata.getName());
+
+    return metadata.getFieldPosition(fieldName);
+  }
+
+  @Override
+  protected void checkGraphParameters() {
+  }
+
+  @Override
+  protected void checkAttributes() throws ComponentNotReadyException {
+    if (attrKeyHashFieldName == null || attrKeyHashFieldName.isEmpty())
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": \""
+          + XML_KEY_HASH_FIELD_NAME_ATTRIBUTE + "\" attribute is not specified");
+
+    if (attrMeasureHashFieldName == null || attrMeasureHashFieldName.isEmpty())
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": \""
+          + XML_MEASURE_HASH_FIELD_NAME_ATTRIBUTE + "\" attribute is not specified");
+
+    if (attrExpectedKeyCount < 0)
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": Invalid \"" + XML_EXPECTED_KEY_COUNT_ATTRIBUTE
+          + "\" property value " + attrExpectedKeyCount + ". It must not be negative");
+  }
+
+  @Override
+  protected Result execute() throws Exception {
+    try {
+      return classifyRecords();
+    } finally {
+      // the snapshot file is unmapped at once, so the next snapshot can replace it
+      if (index instanceof SnapshotReader) ((SnapshotReader) index).close();
+      index = null;
+    }
+  }
+
+  /**
+   * Classifies current records against the previous snapshot and emits the deletes.
+   */
+  private Result classifyRecords() throws Exception {
+    boolean rawHashes = attrRawHashes;
+    if (hasSnapshotFile()) rawHashes |= openSnapshot();
+
+    HashKey key = new HashKey(rawHashes), measure = new HashKey(rawHashes);
+    if (!hasSnapshotFile()) loadSnapshot(key, measure);
+    if (!runIt) return Result.ABORTED;
+
+    long[] counts = new long[DELETE_PORT + 1];
+    DataRecord inRecord = DataRecordFactory.newRecord(inMetadata);
+    DataRecord[] outRecords = new DataRecord[DELETE_PORT];
+    for (int port = INSERT_PORT; port < DELETE_PORT; port++)
+      if (projections[port] != null && !passThrough[port])
+        outRecords[port] = DataRecordFactory.newRecord(outMetadata[port]);
+
+    while ((inRecord = readRecord(READ_FROM_PORT, inRecord)) != null && runIt) {
+      key.read(inRecord.getField(keyPosition));
+      measure.read(inRecord.getField(measurePosition));
+
+      int port;
+      switch (index.classify(key.getHigh(), key.getLow(), measure.getFingerprint())) {
+        case HashSnapshot.ABSENT:
+          port = INSERT_PORT;
+          break;
+        case HashSnapshot.CHANGED:
+          port = UPDATE_PORT;
+          break;
+        default:
+          port = UNCHANGED_PORT;
+      }
+      counts[port]++;
+
+      if (passThrough[port]) writeRecord(port, inRecord);
+      else if (projections[port] != null) {
+        projections[port].copy(inRecord, outRecords[port]);
+        writeRecord(port, outRecords[port]);
+      }
+      SynchronizeUtils.cloverYield();
+    }
+
+    if (runIt && outMetadata[DELETE_PORT] != null) {
+      DataRecord deleteRecord = DataRecordFactory.newRecord(outMetadata[DELETE_PORT]);
+      int deleteKeyPosition = outMetadata[DELETE_PORT].getFieldPosition(attrKeyHashFieldName);
+
+      index.forEachUnseen((keyHigh, keyLow, measureFingerprint) -> {
+        if (!runIt) return;
+        deleteRecord.reset();
+        key.set(keyHigh, keyLow, snapshotKeyLength).write(deleteRecord.getField(deleteKeyPosition));
+        writeRecord(DELETE_PORT, deleteRecord);
+        counts[DELETE_PORT]++;
+        SynchronizeUtils.cloverYield();
+      });
+    }
+
+    LOG.info(COMPONENT_TYPE + ": " + getId() + ": snapshot " + index.size() + ", insert " + counts[INSERT_PORT]
+        + ", update " + counts[UPDATE_PORT] + ", unchanged " + counts[UNCHANGED_PORT]
+        + ", delete " + counts[DELETE_PORT]);
+
+    return runIt ? Result.FINISHED_OK : Result.ABORTED;
+  }
+
+  /**
+   * Maps the previous snapshot from the snapshot file.
+   *
+   * @return <code>true</code> if the snapshot contains raw hashes
+   */
+  private boolean openSnapshot() throws Exception {
+    SnapshotReader reader = SnapshotReader.open(FileUtils.getJavaFile(getContextURL(), attrSnapshotFile),
+        outMetadata[DELETE_PORT] != null);
+    LOG.info(COMPONENT_TYPE + ": " + getId() + ": snapshot file " + attrSnapshotFile + ": " + reader.getHeader());
+
+    index = reader;
+    snapshotKeyLength = reader.getHeader().getKeyLength();
+    return HashCalc.HASH_FUNCTION_RAW.equals(reader.getHeader().getAlgorithm());
+  }
+
+  /**
+   * Reads key and measure hashes of the previous snapshot into the index.
+   */
+  private void loadSnapshot(HashKey key, HashKey measure) throws Exception {
+    DataFieldType keyType = inMetadata.getField(keyPosition).getDataType(),
+        snapshotKeyType = snapshotMetadata.getField(snapshotKeyPosition).getDataType();
+    HashIndex hashIndex = new HashIndex(!metadataHelper.isLong(keyType) || !metadataHelper.isLong(snapshotKeyType),
+        attrExpectedKeyCount);
+    index = hashIndex;
+    snapshotKeyLength = 0;
+
+    DataRecord record = DataRecordFactory.newRecord(snapshotMetadata);
+    while ((record = readRecord(SNAPSHOT_PORT, record)) != null && runIt) {
+      key.read(record.getField(snapshotKeyPosition));
+      measure.read(record.getField(snapshotMeasurePosition));
+      hashIndex.put(key.getHigh(), key.getLow(), measure.getFingerprint());
+      snapshotKeyLength = Math.max(snapshotKeyLength, key.getLength());
+      SynchronizeUtils.cloverYield();
+    }
+  }
+
+  /**
+   * Factory method that creates the component from transformation graph source XML
+   */
+  public static Node fromXML(TransformationGraph graph, Element xmlElement) throws XMLConfigurationException {
+    ComponentXMLAttributes xmlAttrs = new ComponentXMLAttributes(xmlElement, graph);
+    try {
+      HashCdc hashCdc = new HashCdc(
+          xmlAttrs.getString(XML_ID_ATTRIBUTE),
+          xmlAttrs.getString(XML_KEY_HASH_FIELD_NAME_ATTRIBUTE),
+          xmlAttrs.getString(XML_MEASURE_HASH_FIELD_NAME_ATTRIBUTE)
+      );
+      hashCdc.setExpectedKeyCount(xmlAttrs.getInteger(XML_EXPECTED_KEY_COUNT_ATTRIBUTE, DEFAULT_EXPECTED_KEY_COUNT));
+      hashCdc.setSnapshotFile(xmlAttrs.getStringEx(XML_SNAPSHOT_FILE_ATTRIBUTE, null, RefResFlag.URL));
+      hashCdc.setRawHashes(xmlAttrs.getBoolean(XML_RAW_HASHES_ATTRIBUTE, false));
+      return hashCdc;
+    } catch (Exception e) {
+      throw new XMLConfigurationException(COMPONENT_TYPE + ':'
+          + xmlAttrs.getString(XML_ID_ATTRIBUTE, " unknown ID ") + ':' + e.getMessage(), e);
+    }
+  }
+
+
+}
@@ -0,0 +1,269 @@
+package org.dwhworks.component;
+
+import org.dwhworks.component.hash.KeySet;
+import org.dwhworks.component.util.HashKey;
+import org.dwhworks.component.util.MetadataHelper;
+import org.dwhworks.component.util.RecordProjection;
+import org.apache.log4j.Logger;
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.exception.ComponentNotReadyException;
+import org.jetel.exception.ConfigurationStatus;
+import org.jetel.exception.XMLConfigurationException;
+import org.jetel.graph.Node;
+import org.jetel.graph.OutputPort;
+import org.jetel.graph.Result;
+import org.jetel.graph.TransformationGraph;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.util.SynchronizeUtils;
+import org.jetel.util.file.FileUtils;
+import org.jetel.util.property.ComponentXMLAttributes;
+import org.jetel.util.property.RefResFlag;
+import org.w3c.dom.Element;
+
+/**
+ * <h3>Hash Deduplication Component</h3>
+ *
+ * <table border="1">
+ * <th>Component:</th>
+ * <tr><td><h4><i>Name:</i></h4></td>
+ * <td>Hash Deduplication</td></tr>
+ * <tr><td><h4><i>Category:</i></h4></td>
+ * <td>Custom</td></tr>
+ * <tr><td><h4><i>Description:</i></h4></td>
+ * <td>Detects records with a duplicate KEY_HASH calculated by HASH_CALC. The first record of every key hash
+          is sent to the UNIQUE port, the following records with the same key hash to the DUPLICATE port
+          or they are dropped if the port is not connected. Input records need not be sorted.</td></tr>
+ * </table>
+ * <br>
+ * <table border="1">
+ * <th>Input ports:</th>
+ * <tr><td>0</td><td>records with key hashes</td></tr>
+ * <th>Output ports:</th>
+ * <tr><td>0</td><td>UNIQUE - first record of every key hash</td></tr>
+ * <tr><td>1</td><td>DUPLICATE - records with a key hash seen before (optional)</td></tr>
+ * </table>
+ * <br>
+ * <table border="1">
+ * <th>XML attributes:</th>
+ * <tr><td><b>id</b></td><td>component identification</td>
+ * <tr><td><b>type</b></td><td>"HASH_DEDUP"</td></tr>
+ * <tr><td><b>keyHashFieldName</b></td><td>Field with KEY_HASH in input records</td></tr>
+ * <tr><td><b>expectedKeyCount</b></td><td>Expected number of distinct keys. Sizes the key set up front,
+ * so it does not grow while records are read</td></tr>
+ * <tr><td><b>tempDirectory</b></td><td>Directory for a memory-mapped temporary file of the key set.
+ * The key set is kept in direct memory if it is not specified</td></tr>
+ * <tr><td><b>rawKeys</b></td><td>Key hashes are raw values of HASH_CALC with hashFunction "raw", false by default.
+ * Raw values are compared by the murmur3_128 hash of their text</td></tr>
+ * </table>
+ *
+ * <h4>Example:</h4>
+ * <pre>&lt;Node id="DEDUP" type="HASH_DEDUP" keyHashFieldName="key_hash" expectedKeyCount="100000000"/&gt;</pre>
+ *
+ * <p>Key hashes seen so far are kept in a primitive open-addressing hash set outside of the heap:
+ * 128-bit key hashes take 16 bytes per slot, key hashes stored in long fields take 8 bytes per slot.
+ * The key set starts with a table of the expected key count divided by the load factor 0.75, rounded up
+ * to a power of 2, and doubles it when it is full. While it grows the old and the new table exist at once,
+ * the old one is released right after. A key set in direct memory therefore needs -XX:MaxDirectMemorySize
+ * (the maximum heap size by default) of the final table when expectedKeyCount is large enough for the table
+ * never to grow, and of 1.5 times the final table otherwise. E.g. 100 million 128-bit key hashes need a table
+ * of 2^28 slots of 16 bytes, i.e. 4 GB, so -XX:MaxDirectMemorySize=4g with expectedKeyCount="100000000"
+ * and 6g with a smaller expected key count. A key set in a temporary file is limited by the free disk space
+ * only and the page cache keeps as much of it in memory as it can.
+ * Hash fields may be of any type produced by HASH_CALC (hex or UUID string, byte, cbyte, long). Hashes longer
+ * than 16 bytes are compared by their first 16 bytes.
+ *
+ * Output records are filled by the fields of the input record with the same names.
+ * Records with a NULL key hash are never duplicates.
+ * </p>
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class HashDedup extends AbstractComponent {
+  public final static String COMPONENT_TYPE = "HASH_DEDUP";
+
+  private static final String XML_KEY_HASH_FIELD_NAME_ATTRIBUTE = "keyHashFieldName";
+  private static final String XML_EXPECTED_KEY_COUNT_ATTRIBUTE = "expectedKeyCount";
+  private static final String XML_TEMP_DIRECTORY_ATTRIBUTE = "tempDirectory";
+  private static final String XML_RAW_KEYS_ATTRIBUTE = "rawKeys";
+
+  private static final int DEFAULT_EXPECTED_KEY_COUNT = 1 << 20;
+
+  private static final int READ_FROM_PORT = 0;
+
+  private static final int UNIQUE_PORT = 0;
+  private static final int DUPLICATE_PORT = 1;
+
+  private static final Logger LOG = Logger.getLogger(HashDedup.class);
+
+  private String attrKeyHashFieldName;
+  private int attrExpectedKeyCount = DEFAULT_EXPECTED_KEY_COUNT;
+  private String attrTempDirectory;
+  private boolean attrRawKeys;
+
+  /**
+   * Constructor
+   *
+   * @param id               component id in the graph
+   * @param keyHashFieldName field name of key hash
+   */
+  public HashDedup(String id, String keyHashFieldName) {
+    super(id);
+
+    attrKeyHashFieldName = keyHashFieldName;
+  }
+
+  /**
+   * @param expectedKeyCount expected number of distinct keys
+   */
+  public void setExpectedKeyCount(int expectedKeyCount) {
+    attrExpectedKeyCount = expectedKeyCount;
+  }
+
+  /**
+   * @param tempDirectory directory for the temporary file of the key set, <code>null</code> for direct memory
+   */
+  public void setTempDirectory(String tempDirectory) {
+    attrTempDirectory = tempDirectory;
+  }
+
+  /**
+   * @param rawKeys <code>true</code> if key hashes are raw values of HASH_CALC
+   */
+  public void setRawKeys(boolean rawKeys) {
+    attrRawKeys = rawKeys;
+  }
+
+  @Override
+  public String getType() {
+    return COMPONENT_TYPE;
+  }
+
+  @Override
+  public ConfigurationStatus checkConfig(ConfigurationStatus status) {
+    super.checkConfig(status);
+
+    if (getInputPort(READ_FROM_PORT) == null || getOutputPort(UNIQUE_PORT) == null) {
+      status.addError(this, null, "Input port and UNIQUE output port must be connected!");
+      return status;
+    }
+
+    if (getInputPort(READ_FROM_PORT).getMetadata() == null)
+      status.addError(this, null, "Metadata on input port not specified!");
+
+    for (OutputPort outPort : getOutPorts())
+      if (outPort.getMetadata() == null)
+        status.addError(this, null, "Metadata on output port not specified!");
+
+    return status;
+  }
+
+  private MetadataHelper metadataHelper;
+  private DataRecordMetadata inMetadata;
+  private int keyPosition;
+  private DataRecordMetadata[] outMetadata;
+  private RecordProjection[] projections;
+  private boolean[] passThrough;
+  private boolean wideKeys;
+
+  @Override
+  public void init() throws ComponentNotReadyException {
+    super.init();
+    metadataHelper = MetadataHelper.getInstance();
+    inMetadata = getInputPort(READ_FROM_PORT).getMetadata();
+
+    keyPosition = getFieldPosition(inMetadata, attrKeyHashFieldName, XML_KEY_HASH_FIELD_NAME_ATTRIBUTE);
+    wideKeys = !metadataHelper.isLong(inMetadata.getField(keyPosition).getDataType());
+
+    outMetadata = new DataRecordMetadata[DUPLICATE_PORT + 1];
+    projections = new RecordProjection[DUPLICATE_PORT + 1];
+    passThrough = new boolean[DUPLICATE_PORT + 1];
+    for (int port = UNIQUE_PORT; port <= DUPLICATE_PORT; port++) {
+      OutputPort outPort = getOutputPort(port);
+      if (outPort == null) continue;
+
+      outMetadata[port] = outPort.getMetadata();
+      projections[port] = RecordProjection.compile(inMetadata, outMetadata[port]);
+      passThrough[port] = projections[port].isIdentity(outMetadata[port]);
+    }
+  }
+
+  private int getFieldPosition(DataRecordMetadata metadata, String fieldName, String attr) {
+    if (!metadataHelper.isFieldExist(metadata, fieldName))
+      throw new IllegalArgumentException(COMPONENT_TYPE + ": Attribute " + attr + ": field " + fieldName
+          + " does not exist in metadata " + metadata.getName());
+
+    return metadata.getFieldPosition(fieldName);
+  }
+
+  @Override
+  protected void checkGraphParameters() {
+  }
+
+  @Override
+  protected void checkAttributes() throws ComponentNotReadyException {
+    if (attrKeyHashFieldName == null || attrKeyHashFieldName.isEmpty())
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": \""
+          + XML_KEY_HASH_FIELD_NAME_ATTRIBUTE + "\" attribute is not specified");
+
+    if (attrExpectedKeyCount < 0)
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": Invalid \"" + XML_EXPECTED_KEY_COUNT_ATTRIBUTE
+          + "\" property value " + attrExpectedKeyCount + ". It must not be negative");
+  }
+
+  @Override
+  protected Result execute() throws Exception {
+    HashKey key = new HashKey(attrRawKeys);
+    long[] counts = new long[DUPLICATE_PORT + 1];
+    DataRecord inRecord = DataRecordFactory.newRecord(inMetadata);
+    DataRecord[] outRecords = new DataRecord[DUPLICATE_PORT + 1];
+    for (int port = UNIQUE_PORT; port <= DUPLICATE_PORT; port++)
+      if (projections[port] != null && !passThrough[port])
+        outRecords[port] = DataRecordFactory.newRecord(outMetadata[port]);
+
+    try (KeySet keys = new KeySet(wideKeys, attrExpectedKeyCount, attrTempDirectory == null
+        || attrTempDirectory.isEmpty() ? null : FileUtils.getJavaFile(getContextURL(), attrTempDirectory))) {
+      while ((inRecord = readRecord(READ_FROM_PORT, inRecord)) != null && runIt) {
+        key.read(inRecord.getField(keyPosition));
+
+        int port = key.getLength() == 0 || keys.add(key.getHigh(), key.getLow()) ? UNIQUE_PORT : DUPLICATE_PORT;
+        counts[port]++;
+
+        if (passThrough[port]) writeRecord(port, inRecord);
+        else if (projections[port] != null) {
+          projections[port].copy(inRecord, outRecords[port]);
+          writeRecord(port, outRecords[port]);
+        }
+        SynchronizeUtils.cloverYield();
+      }
+
+      LOG.info(COMPONENT_TYPE + ": " + getId() + ": keys " + keys.size() + ", unique " + counts[UNIQUE_PORT]
+          + ", duplicate " + counts[DUPLICATE_PORT]);
+    }
+
+    return runIt ? Result.FINISHED_OK : Result.ABORTED;
+  }
+
+  /**
+   * Factory method that creates the component from transformation graph source XML
+   */
+  public static Node fromXML(TransformationGraph graph, Element xmlElement) throws XMLConfigurationException {
+    ComponentXMLAttributes xmlAttrs = new ComponentXMLAttributes(xmlElement, graph);
+    try {
+      HashDedup hashDedup = new HashDedup(
+          xmlAttrs.getString(XML_ID_ATTRIBUTE),
+          xmlAttrs.getString(XML_KEY_HASH_FIELD_NAME_ATTRIBUTE)
+      );
+      hashDedup.setExpectedKeyCount(xmlAttrs.getInteger(XML_EXPECTED_KEY_COUNT_ATTRIBUTE, DEFAULT_EXPECTED_KEY_COUNT));
+      hashDedup.setTempDirectory(xmlAttrs.getStringEx(XML_TEMP_DIRECTORY_ATTRIBUTE, null, RefResFlag.URL));
+      hashDedup.setRawKeys(xmlAttrs.getBoolean(XML_RAW_KEYS_ATTRIBUTE, false));
+      return hashDedup;
+    } catch (Exception e) {
+      throw new XMLConfigurationException(COMPONENT_TYPE + ':'
+          + xmlAttrs.getString(XML_ID_ATTRIBUTE, " unknown ID ") + ':' + e.getMessage(), e);
+    }
+  }
+
+
+}
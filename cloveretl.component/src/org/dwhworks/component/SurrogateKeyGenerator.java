@@ -0,0 +1,291 @@
+package org.dwhworks.component;
+
+import org.dwhworks.component.hash.SurrogateKeyStore;
+import org.dwhworks.component.util.HashKey;
+import org.dwhworks.component.util.MetadataHelper;
+import org.dwhworks.component.util.RecordProjection;
+import org.apache.log4j.Logger;
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.LongDataField;
+import org.jetel.exception.ComponentNotReadyException;
+import org.jetel.exception.ConfigurationStatus;
+import org.jetel.exception.XMLConfigurationException;
+import org.jetel.graph.Node;
+import org.jetel.graph.Result;
+import org.jetel.graph.TransformationGraph;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.util.SynchronizeUtils;
+import org.jetel.util.file.FileUtils;
+import org.jetel.util.property.ComponentXMLAttributes;
+import org.jetel.util.property.RefResFlag;
+import org.w3c.dom.Element;
+
+/**
+ * <h3>Surrogate Key Generator Component</h3>
+ *
+ * <table border="1">
+ * <th>Component:</th>
+ * <tr><td><h4><i>Name:</i></h4></td>
+ * <td>Surrogate Key Generator</td></tr>
+ * <tr><td><h4><i>Category:</i></h4></td>
+ * <td>Custom</td></tr>
+ * <tr><td><h4><i>Description:</i></h4></td>
+ * <td>Assigns dense long surrogate keys to KEY_HASH values calculated by HASH_CALC. A key hash seen
+          by any previous run gets its surrogate key back, a new key hash gets the next surrogate key.
+          Key hashes and their surrogate keys are kept in a local persistent store.</td></tr>
+ * </table>
+ * <br>
+ * <table border="1">
+ * <th>Input ports:</th>
+ * <tr><td>0</td><td>records with key hashes</td></tr>
+ * <th>Output ports:</th>
+ * <tr><td>0</td><td>records with surrogate keys</td></tr>
+ * </table>
+ * <br>
+ * <table border="1">
+ * <th>XML attributes:</th>
+ * <tr><td><b>id</b></td><td>component identification</td>
+ * <tr><td><b>type</b></td><td>"SURROGATE_KEY"</td></tr>
+ * <tr><td><b>keyHashFieldName</b></td><td>Field with KEY_HASH in input records</td></tr>
+ * <tr><td><b>surrogateKeyFieldName</b></td><td>Long field to store the surrogate key to in output records</td></tr>
+ * <tr><td><b>storeFile</b></td><td>Surrogate key store file, created by the first run</td></tr>
+ * <tr><td><b>expectedKeyCount</b></td><td>Expected number of keys. Sizes a new store up front,
+ * so it does not grow while keys are assigned</td></tr>
+ * <tr><td><b>batchSize</b></td><td>Number of records whose new surrogate keys are committed together</td></tr>
+ * <tr><td><b>rawKeys</b></td><td>Key hashes are raw values of HASH_CALC with hashFunction "raw", false by default.
+ * Raw values are keyed by the murmur3_128 hash of their text</td></tr>
+ * </table>
+ *
+ * <h4>Example:</h4>
+ * <pre>&lt;Node id="SK" type="SURROGATE_KEY" keyHashFieldName="key_hash" surrogateKeyFieldName="customer_id" storeFile="${DATA_DIR}/customer.keys"/&gt;</pre>
+ *
+ * <p>The store is a memory-mapped open-addressing hash table of primitive slots: 128-bit key hash and
+ * surrogate key take 32 bytes per slot, key hashes stored in long fields take 16 bytes per slot.
+ * Surrogate keys start from 1 and increase by 1 with every new key hash. New key hashes are appended
+ * to a write-ahead log, which is forced to disk for every batch before its records are written, so a surrogate
+ * key written by a run which fails is never assigned to another key hash. A store left by a failed run
+ * is recovered when it is opened next time.
+ *
+ * The store is locked while it is open, a component opening a store used by another component or process
+ * fails. A store created for key hashes stored in long fields can not take wider key hashes.
+ * Output records are filled by the fields of the input record with the same names.
+ * Records with a NULL key hash get a NULL surrogate key.
+ * </p>
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class SurrogateKeyGenerator extends AbstractComponent {
+  public final static String COMPONENT_TYPE = "SURROGATE_KEY";
+
+  private static final String XML_KEY_HASH_FIELD_NAME_ATTRIBUTE = "keyHashFieldName";
+  private static final String XML_SURROGATE_KEY_FIELD_NAME_ATTRIBUTE = "surrogateKeyFieldName";
+  private static final String XML_STORE_FILE_ATTRIBUTE = "storeFile";
+  private static final String XML_EXPECTED_KEY_COUNT_ATTRIBUTE = "expectedKeyCount";
+  private static final String XML_BATCH_SIZE_ATTRIBUTE = "batchSize";
+  private static final String XML_RAW_KEYS_ATTRIBUTE = "rawKeys";
+
+  private static final int DEFAULT_EXPECTED_KEY_COUNT = 1 << 20;
+  private static final int DEFAULT_BATCH_SIZE = 1024;
+
+  private static final int READ_FROM_PORT = 0;
+  private static final int WRITE_TO_PORT = 0;
+
+  private static final Logger LOG = Logger.getLogger(SurrogateKeyGenerator.class);
+
+  private String attrKeyHashFieldName, attrSurrogateKeyFieldName, attrStoreFile;
+  private int attrExpectedKeyCount = DEFAULT_EXPECTED_KEY_COUNT;
+  private int attrBatchSize = DEFAULT_BATCH_SIZE;
+  private boolean attrRawKeys;
+
+  /**
+   * Constructor
+   *
+   * @param id                    component id in the graph
+   * @param keyHashFieldName      field name of key hash
+   * @param surrogateKeyFieldName field name of surrogate key
+   * @param storeFile             surrogate key store file
+   */
+  public SurrogateKeyGenerator(String id, String keyHashFieldName, String surrogateKeyFieldName, String storeFile) {
+    super(id);
+
+    attrKeyHashFieldName = keyHashFieldName;
+    attrSurrogateKeyFieldName = surrogateKeyFieldName;
+    attrStoreFile = storeFile;
+  }
+
+  /**
+   * @param expectedKeyCount expected number of keys in the store
+   */
+  public void setExpectedKeyCount(int expectedKeyCount) {
+    attrExpectedKeyCount = expectedKeyCount;
+  }
+
+  /**
+   * @param batchSize number of records whose new surrogate keys are committed together
+   */
+  public void setBatchSize(int batchSize) {
+    attrBatchSize = batchSize;
+  }
+
+  /**
+   * @param rawKeys <code>true</code> if key hashes are raw values of HASH_CALC
+   */
+  public void setRawKeys(boolean rawKeys) {
+    attrRawKeys = rawKeys;
+  }
+
+  @Override
+  public String getType() {
+    return COMPONENT_TYPE;
+  }
+
+  @Override
+  public ConfigurationStatus checkConfig(ConfigurationStatus status) {
+    super.checkConfig(status);
+
+    if (getInputPort(READ_FROM_PORT) == null || getOutputPort(WRITE_TO_PORT) == null) {
+      status.addError(this, null, "Input and output ports must be connected!");
+      return status;
+    }
+
+    if (getInputPort(READ_FROM_PORT).getMetadata() == null)
+      status.addError(this, null, "Metadata on input port not specified!");
+
+    if (getOutputPort(WRITE_TO_PORT).getMetadata() == null)
+      status.addError(this, null, "Metadata on output port not specified!");
+
+    return status;
+  }
+
+  private MetadataHelper metadataHelper;
+  private DataRecordMetadata inMetadata, outMetadata;
+  private int keyPosition, surrogateKeyPosition;
+  private RecordProjection projection;
+  private boolean wideKeys;
+
+  @Override
+  public void init() throws ComponentNotReadyException {
+    super.init();
+    metadataHelper = MetadataHelper.getInstance();
+    inMetadata = getInputPort(READ_FROM_PORT).getMetadata();
+    outMetadata = getOutputPort(WRITE_TO_PORT).getMetadata();
+
+    keyPosition = getFieldPosition(inMetadata, attrKeyHashFieldName, XML_KEY_HASH_FIELD_NAME_ATTRIBUTE);
+    surrogateKeyPosition = getFieldPosition(outMetadata, attrSurrogateKeyFieldName,
+        XML_SURROGATE_KEY_FIELD_NAME_ATTRIBUTE);
+
+    if (!metadataHelper.isLong(outMetadata.getField(surrogateKeyPosition).getDataType()))
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": Attribute " + XML_SURROGATE_KEY_FIELD_NAME_ATTRIBUTE
+          + ": field " + attrSurrogateKeyFieldName + " must be of long type");
+
+    projection = RecordProjection.compile(inMetadata, outMetadata);
+    wideKeys = !metadataHelper.isLong(inMetadata.getField(keyPosition).getDataType());
+  }
+
+  private int getFieldPosition(DataRecordMetadata metadata, String fieldName, String attr) {
+    if (!metadataHelper.isFieldExist(metadata, fieldName))
+      throw new IllegalArgumentException(COMPONENT_TYPE + ": Attribute " + attr + ": field " + fieldName
+          + " does not exist in metadata " + metadata.getName());
+
+    return metadata.getFieldPosition(fieldName);
+  }
+
+  @Override
+  protected void checkGraphParameters() {
+  }
+
+  @Override
+  protected void checkAttributes() throws ComponentNotReadyException {
+    if (attrKeyHashFieldName == null || attrKeyHashFieldName.isEmpty())
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": \""
+          + XML_KEY_HASH_FIELD_NAME_ATTRIBUTE + "\" attribute is not specified");
+
+    if (attrSurrogateKeyFieldName == null || attrSurrogateKeyFieldName.isEmpty())
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": \""
+          + XML_SURROGATE_KEY_FIELD_NAME_ATTRIBUTE + "\" attribute is not specified");
+
+    if (attrStoreFile == null || attrStoreFile.isEmpty())
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": \""
+          + XML_STORE_FILE_ATTRIBUTE + "\" attribute is not specified");
+
+    if (attrExpectedKeyCount < 0)
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": Invalid \"" + XML_EXPECTED_KEY_COUNT_ATTRIBUTE
+          + "\" property value " + attrExpectedKeyCount + ". It must not be negative");
+
+    if (attrBatchSize < 1)
+      throw new ComponentNotReadyException(COMPONENT_TYPE + ": Invalid \"" + XML_BATCH_SIZE_ATTRIBUTE
+          + "\" property value " + attrBatchSize + ". It must be positive");
+  }
+
+  @Override
+  protected Result execute() throws Exception {
+    HashKey key = new HashKey(attrRawKeys);
+    DataRecord inRecord = DataRecordFactory.newRecord(inMetadata);
+    DataRecord[] outRecords = new DataRecord[attrBatchSize];
+    for (int i = 0; i < outRecords.length; i++) outRecords[i] = DataRecordFactory.newRecord(outMetadata);
+
+    long records = 0, nullKeys = 0;
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(FileUtils.getJavaFile(getContextURL(), attrStoreFile),
+        wideKeys, attrExpectedKeyCount)) {
+      long initialSize = store.size();
+      LOG.info(COMPONENT_TYPE + ": " + getId() + ": store file " + attrStoreFile + ": " + initialSize
+          + " keys, next surrogate key " + store.getNextId());
+
+      boolean endOfInput = false;
+      while (!endOfInput && runIt) {
+        int count = 0;
+        while (count < outRecords.length && readRecord(READ_FROM_PORT, inRecord) != null) {
+          DataRecord outRecord = outRecords[count++];
+          projection.copy(inRecord, outRecord);
+
+          LongDataField surrogateKey = (LongDataField) outRecord.getField(surrogateKeyPosition);
+          key.read(inRecord.getField(keyPosition));
+          if (key.getLength() == 0) {
+            surrogateKey.setNull(true);
+            nullKeys++;
+          } else surrogateKey.setValue(store.getOrAssign(key.getHigh(), key.getLow()));
+        }
+        endOfInput = count < outRecords.length;
+
+        // surrogate keys of the batch are published only when they are durable
+        store.commit();
+        for (int i = 0; i < count && runIt; i++) {
+          writeRecord(WRITE_TO_PORT, outRecords[i]);
+          SynchronizeUtils.cloverYield();
+        }
+        records += count;
+      }
+
+      LOG.info(COMPONENT_TYPE + ": " + getId() + ": records " + records + ", new keys " + (store.size() - initialSize)
+          + ", NULL keys " + nullKeys + ", next surrogate key " + store.getNextId());
+    }
+
+    return runIt ? Result.FINISHED_OK : Result.ABORTED;
+  }
+
+  /**
+   * Factory method that creates the component from transformation graph source XML
+   */
+  public static Node fromXML(TransformationGraph graph, Element xmlElement) throws XMLConfigurationException {
+    ComponentXMLAttributes xmlAttrs = new ComponentXMLAttributes(xmlElement, graph);
+    try {
+      SurrogateKeyGenerator generator = new SurrogateKeyGenerator(
+          xmlAttrs.getString(XML_ID_ATTRIBUTE),
+          xmlAttrs.getString(XML_KEY_HASH_FIELD_NAME_ATTRIBUTE),
+          xmlAttrs.getString(XML_SURROGATE_KEY_FIELD_NAME_ATTRIBUTE),
+          xmlAttrs.getStringEx(XML_STORE_FILE_ATTRIBUTE, null, RefResFlag.URL)
+      );
+      generator.setExpectedKeyCount(xmlAttrs.getInteger(XML_EXPECTED_KEY_COUNT_ATTRIBUTE, DEFAULT_EXPECTED_KEY_COUNT));
+      generator.setBatchSize(xmlAttrs.getInteger(XML_BATCH_SIZE_ATTRIBUTE, DEFAULT_BATCH_SIZE));
+      generator.setRawKeys(xmlAttrs.getBoolean(XML_RAW_KEYS_ATTRIBUTE, false));
+      return generator;
+    } catch (Exception e) {
+      throw new XMLConfigurationException(COMPONENT_TYPE + ':'
+          + xmlAttrs.getString(XML_ID_ATTRIBUTE, " unknown ID ") + ':' + e.getMessage(), e);
+    }
+  }
+
+
+}
@@ -0,0 +1,50 @@
+package org.dwhworks.component.hash;
+
+/**
+ * Calculates hashes of a batch of messages at once. Messages are fed one after another, every one
+ * completed by {@link #endMessage()}, and all of them are hashed by {@link #finish(byte[], int)}.
+ * Hashing many small independent messages together lets an implementation interleave them,
+ * e.g. process several messages in parallel lanes of one loop.
+ * A batch hasher is not thread-safe.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public interface BatchHasher {
+
+  /**
+   * Appends bytes to the current message.
+   *
+   * @param bytes  array with the bytes
+   * @param offset offset of the first byte
+   * @param length number of bytes
+   */
+  void update(byte[] bytes, int offset, int length);
+
+  /**
+   * Completes the current message, the following bytes belong to the next one.
+   */
+  void endMessage();
+
+  /**
+   * @return number of messages completed since the last reset
+   */
+  int getMessageCount();
+
+  /**
+   * Calculates hashes of all completed messages, writes them to the array in the order of messages
+   * and resets the hasher.
+   *
+   * @param out    array for the hashes, must have room for {@link #getMessageCount()} times
+   *               {@link HashFunction#getHashLength()} bytes
+   * @param offset offset of the first hash byte in the array
+   */
+  void finish(byte[] out, int offset);
+
+  /**
+   * Discards all messages appended since the last reset.
+   */
+  void reset();
+
+
+}
@@ -0,0 +1,52 @@
+package org.dwhworks.component.hash;
+
+/**
+ * Reading and writing of primitive values in byte arrays.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+final class Bytes {
+
+  private Bytes() {
+
+  }
+
+  static long getLongLE(byte[] b, int i) {
+    return (b[i] & 0xffL) | (b[i + 1] & 0xffL) << 8 | (b[i + 2] & 0xffL) << 16 | (b[i + 3] & 0xffL) << 24
+        | (b[i + 4] & 0xffL) << 32 | (b[i + 5] & 0xffL) << 40 | (b[i + 6] & 0xffL) << 48 | (b[i + 7] & 0xffL) << 56;
+  }
+
+  static int getIntLE(byte[] b, int i) {
+    return (b[i] & 0xff) | (b[i + 1] & 0xff) << 8 | (b[i + 2] & 0xff) << 16 | (b[i + 3] & 0xff) << 24;
+  }
+
+  static long getLongBE(byte[] b, int i) {
+    return (b[i] & 0xffL) << 56 | (b[i + 1] & 0xffL) << 48 | (b[i + 2] & 0xffL) << 40 | (b[i + 3] & 0xffL) << 32
+        | (b[i + 4] & 0xffL) << 24 | (b[i + 5] & 0xffL) << 16 | (b[i + 6] & 0xffL) << 8 | (b[i + 7] & 0xffL);
+  }
+
+  static void putLongLE(byte[] b, int i, long v) {
+    for (int j = 0; j < 8; j++, v >>>= 8) b[i + j] = (byte) v;
+  }
+
+  static void putLongBE(byte[] b, int i, long v) {
+    for (int j = 7; j >= 0; j--, v >>>= 8) b[i + j] = (byte) v;
+  }
+
+  static void putIntLE(byte[] b, int i, int v) {
+    b[i] = (byte) v;
+    b[i + 1] = (byte) (v >>> 8);
+    b[i + 2] = (byte) (v >>> 16);
+    b[i + 3] = (byte) (v >>> 24);
+  }
+
+  static void putIntBE(byte[] b, int i, int v) {
+    b[i] = (byte) (v >>> 24);
+    b[i + 1] = (byte) (v >>> 16);
+    b[i + 2] = (byte) (v >>> 8);
+    b[i + 3] = (byte) v;
+  }
+
+
+}
@@ -0,0 +1,77 @@
+package org.dwhworks.component.hash;
+
+/**
+ * CRC-32C (Castagnoli) checksum, computed by slicing-by-8 tables.
+ * The checksum is written in big-endian byte order.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class Crc32c implements HashFunction {
+
+  public static final String NAME = "crc32c";
+
+  private static final int POLYNOMIAL = 0x82F63B78;
+  private static final int[][] TABLES = new int[8][256];
+
+  static {
+    for (int n = 0; n < 256; n++) {
+      int crc = n;
+      for (int k = 0; k < 8; k++) crc = (crc & 1) != 0 ? crc >>> 1 ^ POLYNOMIAL : crc >>> 1;
+      TABLES[0][n] = crc;
+    }
+    for (int n = 0; n < 256; n++)
+      for (int t = 1; t < 8; t++)
+        TABLES[t][n] = TABLES[t - 1][n] >>> 8 ^ TABLES[0][TABLES[t - 1][n] & 0xff];
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public int getHashLength() {
+    return 4;
+  }
+
+  @Override
+  public Hasher newHasher() {
+    return new Hasher() {
+      private int crc = -1;
+
+      @Override
+      public void update(byte[] bytes, int offset, int length) {
+        crc = Crc32c.update(crc, bytes, offset, length);
+      }
+
+      @Override
+      public void finish(byte[] out, int offset) {
+        Bytes.putIntBE(out, offset, ~crc);
+        reset();
+      }
+
+      @Override
+      public void reset() {
+        crc = -1;
+      }
+    };
+  }
+
+  private static int update(int crc, byte[] b, int i, int length) {
+    int[] t0 = TABLES[0], t1 = TABLES[1], t2 = TABLES[2], t3 = TABLES[3],
+        t4 = TABLES[4], t5 = TABLES[5], t6 = TABLES[6], t7 = TABLES[7];
+    int end = i + length;
+
+    for (int limit = end - 8; i <= limit; i += 8) {
+      int lo = crc ^ Bytes.getIntLE(b, i), hi = Bytes.getIntLE(b, i + 4);
+      crc = t7[lo & 0xff] ^ t6[lo >>> 8 & 0xff] ^ t5[lo >>> 16 & 0xff] ^ t4[lo >>> 24]
+          ^ t3[hi & 0xff] ^ t2[hi >>> 8 & 0xff] ^ t1[hi >>> 16 & 0xff] ^ t0[hi >>> 24];
+    }
+
+    for (; i < end; i++) crc = crc >>> 8 ^ t0[(crc ^ b[i]) & 0xff];
+    return crc;
+  }
+
+
+}
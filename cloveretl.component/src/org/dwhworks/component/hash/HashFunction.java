@@ -0,0 +1,41 @@
+package org.dwhworks.component.hash;
+
+/**
+ * Hash function service interface.
+ * <p>
+ * Hash functions are looked up by name through {@link HashFunctions}. Besides the built-in functions,
+ * implementations registered as services in <code>META-INF/services/org.dwhworks.component.hash.HashFunction</code>
+ * of any jar on the plugin classpath are discovered by {@link java.util.ServiceLoader}.
+ * <p>
+ * Implementations must be thread-safe; all per-message state belongs to the {@link Hasher}.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public interface HashFunction {
+
+  /**
+   * @return lowercase name of the function, used as a value of the <code>hashFunction</code> attribute
+   */
+  String getName();
+
+  /**
+   * @return length of the hash in bytes
+   */
+  int getHashLength();
+
+  /**
+   * @return new hasher for calculating hashes of messages one by one
+   */
+  Hasher newHasher();
+
+  /**
+   * @return new hasher for calculating hashes of message batches or <code>null</code> if the function
+   * has no faster way than hashing messages one by one
+   */
+  default BatchHasher newBatchHasher() {
+    return null;
+  }
+
+
+}
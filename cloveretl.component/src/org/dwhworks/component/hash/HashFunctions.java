@@ -0,0 +1,72 @@
+package org.dwhworks.component.hash;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+/**
+ * Registry of hash functions available by name.
+ * <p>
+ * Built-in functions are md5, sha1, sha256, xxhash64, murmur3_128 and crc32c. Other functions are discovered
+ * by {@link ServiceLoader} using the class loader of the plugin; a service can not replace a built-in function.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class HashFunctions {
+
+  public static final String MD5 = "md5";
+  public static final String SHA1 = "sha1";
+  public static final String SHA256 = "sha256";
+
+  private static final Map<String, HashFunction> FUNCTIONS = load();
+
+  private HashFunctions() {
+
+  }
+
+  private static Map<String, HashFunction> load() {
+    Map<String, HashFunction> functions = new LinkedHashMap<>();
+    register(functions, new Md5HashFunction());
+    register(functions, new MessageDigestHashFunction(SHA1, "SHA-1"));
+    register(functions, new MessageDigestHashFunction(SHA256, "SHA-256"));
+    register(functions, new XxHash64());
+    register(functions, new Murmur3x64128());
+    register(functions, new Crc32c());
+
+    try {
+      for (HashFunction function : ServiceLoader.load(HashFunction.class, HashFunction.class.getClassLoader()))
+        register(functions, function);
+    } catch (ServiceConfigurationError e) {
+      // a broken provider must not hide the built-in functions
+    }
+
+    return Collections.unmodifiableMap(functions);
+  }
+
+  private static void register(Map<String, HashFunction> functions, HashFunction function) {
+    String name = function.getName().toLowerCase(Locale.ENGLISH);
+    if (!functions.containsKey(name)) functions.put(name, function);
+  }
+
+  /**
+   * @param name name of the function, case insensitive
+   * @return the function or <code>null</code> if there is no function with the name
+   */
+  public static HashFunction get(String name) {
+    return name == null ? null : FUNCTIONS.get(name.toLowerCase(Locale.ENGLISH));
+  }
+
+  /**
+   * @return names of all available functions
+   */
+  public static Set<String> getNames() {
+    return FUNCTIONS.keySet();
+  }
+
+
+}
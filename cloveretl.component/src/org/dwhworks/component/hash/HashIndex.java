@@ -0,0 +1,178 @@
+package org.dwhworks.component.hash;
+
+/**
+ * In-memory index of key hashes and measure hash fingerprints for change data capture.
+ * <p>
+ * The index is an open-addressing hash table with linear probing, kept in primitive arrays:
+ * 64-bit or 128-bit key, 64-bit measure fingerprint and one "seen" bit per slot, i.e. 16 or 24 bytes
+ * per slot instead of a few hundred bytes per entry of a <code>HashMap&lt;String, String&gt;</code>.
+ * The key 0 marks an empty slot and is kept aside.
+ * <p>
+ * The index is filled by {@link #put} first, then current keys are {@link #classify classified}
+ * and finally keys which were not seen are visited by {@link #forEachUnseen}. It is not thread-safe.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class HashIndex implements HashSnapshot {
+
+  private static final int MIN_CAPACITY = 16;
+  private static final int MAX_CAPACITY = 1 << 30;
+  private static final double LOAD_FACTOR = 0.75;
+
+  private final boolean wideKeys;
+  private long[] keysHigh, keysLow, measures, seen;
+  private int mask, size, threshold;
+
+  private boolean hasZeroKey, zeroKeySeen;
+  private long zeroKeyMeasure;
+
+  /**
+   * Constructor
+   *
+   * @param wideKeys     <code>true</code> for 128-bit keys, <code>false</code> if the high half of keys is always 0
+   * @param expectedSize expected number of keys
+   */
+  public HashIndex(boolean wideKeys, long expectedSize) {
+    this.wideKeys = wideKeys;
+    allocate(capacityFor(expectedSize));
+  }
+
+  private static int capacityFor(long size) {
+    long capacity = MIN_CAPACITY;
+    while (capacity < MAX_CAPACITY && capacity * LOAD_FACTOR < size) capacity <<= 1;
+    return (int) capacity;
+  }
+
+  private void allocate(int capacity) {
+    keysHigh = wideKeys ? new long[capacity] : null;
+    keysLow = new long[capacity];
+    measures = new long[capacity];
+    seen = new long[(capacity + 63) >>> 6];
+    mask = capacity - 1;
+    threshold = capacity == MAX_CAPACITY ? capacity - 1 : (int) (capacity * LOAD_FACTOR);
+  }
+
+  @Override
+  public long size() {
+    return hasZeroKey ? size + 1L : size;
+  }
+
+  /**
+   * Adds the key to the index or replaces its measure.
+   *
+   * @param keyHigh high 64 bits of the key, must be 0 for an index without wide keys
+   * @param keyLow  low 64 bits of the key
+   * @param measure measure fingerprint
+   * @throws IllegalStateException if the index is full
+   */
+  public void put(long keyHigh, long keyLow, long measure) {
+    checkKey(keyHigh);
+
+    if (keyHigh == 0 && keyLow == 0) {
+      hasZeroKey = true;
+      zeroKeyMeasure = measure;
+      return;
+    }
+
+    int slot = find(keyHigh, keyLow);
+    if (isEmpty(slot)) {
+      if (size >= threshold) {
+        grow();
+        slot = find(keyHigh, keyLow);
+      }
+      if (wideKeys) keysHigh[slot] = keyHigh;
+      keysLow[slot] = keyLow;
+      size++;
+    }
+    measures[slot] = measure;
+  }
+
+  @Override
+  public int classify(long keyHigh, long keyLow, long measure) {
+    if (keyHigh == 0 && keyLow == 0) {
+      if (!hasZeroKey) return ABSENT;
+      zeroKeySeen = true;
+      return zeroKeyMeasure == measure ? UNCHANGED : CHANGED;
+    }
+
+    if (!wideKeys && keyHigh != 0) return ABSENT;
+
+    int slot = find(keyHigh, keyLow);
+    if (isEmpty(slot)) return ABSENT;
+
+    seen[slot >>> 6] |= 1L << slot;
+    return measures[slot] == measure ? UNCHANGED : CHANGED;
+  }
+
+  @Override
+  public void forEachUnseen(EntryVisitor visitor) throws Exception {
+    if (hasZeroKey && !zeroKeySeen) visitor.visit(0, 0, zeroKeyMeasure);
+
+    for (int slot = 0; slot <= mask; slot++)
+      if (!isEmpty(slot) && (seen[slot >>> 6] & 1L << slot) == 0)
+        visitor.visit(wideKeys ? keysHigh[slot] : 0, keysLow[slot], measures[slot]);
+  }
+
+  private void checkKey(long keyHigh) {
+    if (!wideKeys && keyHigh != 0)
+      throw new IllegalArgumentException("Key wider than 64 bits in an index of 64-bit keys");
+  }
+
+  private boolean isEmpty(int slot) {
+    return keysLow[slot] == 0 && (!wideKeys || keysHigh[slot] == 0);
+  }
+
+  /**
+   * @return slot of the key or the empty slot where it belongs
+   */
+  private int find(long keyHigh, long keyLow) {
+    int slot = (int) mix(keyHigh, keyLow) & mask;
+
+    if (wideKeys)
+      while (keysLow[slot] != keyLow || keysHigh[slot] != keyHigh) {
+        if (keysLow[slot] == 0 && keysHigh[slot] == 0) return slot;
+        slot = (slot + 1) & mask;
+      }
+    else
+      while (keysLow[slot] != keyLow) {
+        if (keysLow[slot] == 0) return slot;
+        slot = (slot + 1) & mask;
+      }
+
+    return slot;
+  }
+
+  /**
+   * Finalization step of MurmurHash3, keys need not be well distributed hashes.
+   */
+  static long mix(long keyHigh, long keyLow) {
+    long k = keyLow ^ Long.rotateLeft(keyHigh, 32);
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    return k ^ k >>> 33;
+  }
+
+  private void grow() {
+    if (mask + 1 == MAX_CAPACITY)
+      throw new IllegalStateException("Hash index is full, it can hold at most " + threshold + " keys");
+
+    long[] oldHigh = keysHigh, oldLow = keysLow, oldMeasures = measures, oldSeen = seen;
+    allocate((mask + 1) << 1);
+
+    for (int slot = 0; slot < oldLow.length; slot++) {
+      long high = oldHigh != null ? oldHigh[slot] : 0, low = oldLow[slot];
+      if (high == 0 && low == 0) continue;
+
+      int newSlot = find(high, low);
+      if (wideKeys) keysHigh[newSlot] = high;
+      keysLow[newSlot] = low;
+      measures[newSlot] = oldMeasures[slot];
+      if ((oldSeen[slot >>> 6] & 1L << slot) != 0) seen[newSlot >>> 6] |= 1L << newSlot;
+    }
+  }
+
+
+}
@@ -0,0 +1,78 @@
+package org.dwhworks.component.hash;
+
+import java.util.Arrays;
+
+/**
+ * Consistent hash ring distributing hashes among a number of nodes, e.g. output ports.
+ * <p>
+ * Every node owns a number of points spread over the ring of 64-bit numbers and a hash belongs to the node
+ * of the first point following it. Unlike the remainder of division by the number of nodes, adding a node
+ * moves only the hashes taken over by the new node, about <code>1 / nodes</code> of them, the other hashes
+ * keep their nodes. Points depend on the node index only, so rings of the same size are equal on every run.
+ * The ring is immutable and thread-safe.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class HashRing {
+
+  /** Points per node, enough for a few percent deviation of the node shares. */
+  public static final int DEFAULT_REPLICAS = 160;
+
+  private final int nodeCount;
+  private final long[] points;
+  private final int[] nodes;
+
+  /**
+   * Constructor
+   *
+   * @param nodeCount number of nodes
+   * @param replicas  number of points of every node
+   */
+  public HashRing(int nodeCount, int replicas) {
+    if (nodeCount < 1 || replicas < 1)
+      throw new IllegalArgumentException("Invalid hash ring of " + nodeCount + " nodes with " + replicas + " replicas");
+
+    this.nodeCount = nodeCount;
+    int count = nodeCount * replicas;
+    Integer[] order = new Integer[count];
+    long[] positions = new long[count];
+    for (int i = 0; i < count; i++) {
+      order[i] = i;
+      positions[i] = HashIndex.mix(i / replicas, i % replicas);
+    }
+    // equal positions are ordered by node
+    Arrays.sort(order, (a, b) -> positions[a] != positions[b] ? Long.compare(positions[a], positions[b])
+        : Integer.compare(a, b));
+
+    points = new long[count];
+    nodes = new int[count];
+    for (int i = 0; i < count; i++) {
+      points[i] = positions[order[i]];
+      nodes[i] = order[i] / replicas;
+    }
+  }
+
+  /**
+   * @return number of nodes
+   */
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * @param hash hash, need not be well distributed
+   * @return index of the node the hash belongs to
+   */
+  public int getNode(long hash) {
+    long position = HashIndex.mix(0, hash);
+    int i = Arrays.binarySearch(points, position);
+    if (i < 0) i = -i - 1;
+    else
+      // the first of equal points
+      while (i > 0 && points[i - 1] == position) i--;
+    return nodes[i == points.length ? 0 : i];
+  }
+
+
+}
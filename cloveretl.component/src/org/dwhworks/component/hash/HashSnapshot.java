@@ -0,0 +1,50 @@
+package org.dwhworks.component.hash;
+
+/**
+ * Previous state of key hashes and measure hash fingerprints, which current keys are compared with.
+ * <p>
+ * Keys are numbers of up to 128 bits, see {@link org.dwhworks.component.util.HashKey}.
+ * Classification marks keys as seen, keys which were not seen are the deleted ones.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public interface HashSnapshot {
+
+  /** The key is not in the snapshot. */
+  int ABSENT = 0;
+  /** The key is in the snapshot with another measure. */
+  int CHANGED = 1;
+  /** The key is in the snapshot with the same measure. */
+  int UNCHANGED = 2;
+
+  /**
+   * Receives entries of the snapshot.
+   */
+  interface EntryVisitor {
+    void visit(long keyHigh, long keyLow, long measure) throws Exception;
+  }
+
+  /**
+   * @return number of keys in the snapshot
+   */
+  long size();
+
+  /**
+   * Looks the key up, compares the measure and marks the key as seen.
+   *
+   * @param keyHigh high 64 bits of the key
+   * @param keyLow  low 64 bits of the key
+   * @param measure current measure fingerprint
+   * @return {@link #ABSENT}, {@link #CHANGED} or {@link #UNCHANGED}
+   */
+  int classify(long keyHigh, long keyLow, long measure);
+
+  /**
+   * Visits all keys that were not seen by {@link #classify}.
+   *
+   * @param visitor visitor of the entries
+   * @throws Exception exception thrown by the visitor
+   */
+  void forEachUnseen(EntryVisitor visitor) throws Exception;
+}
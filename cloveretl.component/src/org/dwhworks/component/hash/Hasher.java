@@ -0,0 +1,35 @@
+package org.dwhworks.component.hash;
+
+/**
+ * Calculates a hash of a message fed incrementally. After the hash is taken, the hasher is reset
+ * and may be used for the next message. A hasher is not thread-safe.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public interface Hasher {
+
+  /**
+   * Appends bytes to the message.
+   *
+   * @param bytes  array with the bytes
+   * @param offset offset of the first byte
+   * @param length number of bytes
+   */
+  void update(byte[] bytes, int offset, int length);
+
+  /**
+   * Completes the hash, writes it to the array and resets the hasher.
+   *
+   * @param out    array for the hash, must have room for {@link HashFunction#getHashLength()} bytes
+   * @param offset offset of the first hash byte in the array
+   */
+  void finish(byte[] out, int offset);
+
+  /**
+   * Discards the message appended since the last reset.
+   */
+  void reset();
+
+
+}
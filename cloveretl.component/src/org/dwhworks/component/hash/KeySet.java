@@ -0,0 +1,171 @@
+package org.dwhworks.component.hash;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Set of key hashes kept outside of the heap, for detection of duplicate keys.
+ * <p>
+ * The set is an open-addressing hash table with linear probing of primitive slots: 64-bit or 128-bit key,
+ * i.e. 8 or 16 bytes per slot instead of about a hundred bytes per entry of a <code>HashSet&lt;String&gt;</code>
+ * of hex strings. Slots are stored in direct memory, or in a memory-mapped temporary file when
+ * a temporary directory is given, so billions of keys neither count towards the heap nor are ever scanned
+ * by the garbage collector. A temporary file is deleted as soon as it is mapped, the page cache keeps
+ * its content as long as the set exists (systems not allowing to delete a mapped file delete it on exit).
+ * Slots of the old table are released as soon as the set grows, {@link #close()} releases the current slots,
+ * so neither waits for the garbage collector. Growing needs the old and the new table at once, i.e. three
+ * times the size of the old table; slots in direct memory count towards -XX:MaxDirectMemorySize.
+ * The key 0 marks an empty slot and is kept aside. The set is not thread-safe.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class KeySet implements Closeable {
+
+  private static final long MIN_CAPACITY = 1024;
+  private static final long MAX_CAPACITY = 1L << 40;
+  private static final double LOAD_FACTOR = 0.75;
+
+  private final boolean wideKeys;
+  private final int slotWidth, lowOffset;
+  private final File tempDirectory;
+
+  private MappedBuffer slots;
+  private long capacity, mask, size, threshold;
+  private boolean hasZeroKey;
+
+  /**
+   * Constructor
+   *
+   * @param wideKeys      <code>true</code> for 128-bit keys, <code>false</code> if the high half of keys is always 0
+   * @param expectedSize  expected number of keys
+   * @param tempDirectory directory for the temporary file of slots, <code>null</code> to keep them
+   *                      in direct memory
+   * @throws IOException if the temporary file can not be created or mapped
+   */
+  public KeySet(boolean wideKeys, long expectedSize, File tempDirectory) throws IOException {
+    this.wideKeys = wideKeys;
+    this.tempDirectory = tempDirectory;
+    slotWidth = wideKeys ? 16 : 8;
+    lowOffset = wideKeys ? 8 : 0;
+    allocate(capacityFor(expectedSize));
+  }
+
+  private static long capacityFor(long size) {
+    long capacity = MIN_CAPACITY;
+    while (capacity < MAX_CAPACITY && capacity * LOAD_FACTOR < size) capacity <<= 1;
+    return capacity;
+  }
+
+  private void allocate(long capacity) throws IOException {
+    long regionSize = capacity * slotWidth;
+
+    if (tempDirectory == null) slots = MappedBuffer.allocateDirect(regionSize, slotWidth);
+    else {
+      File file = File.createTempFile("keyset", ".tmp", tempDirectory);
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        slots = MappedBuffer.map(channel, FileChannel.MapMode.READ_WRITE, 0, regionSize, slotWidth);
+      } finally {
+        if (!file.delete()) file.deleteOnExit();
+      }
+    }
+
+    this.capacity = capacity;
+    mask = capacity - 1;
+    threshold = capacity == MAX_CAPACITY ? capacity - 1 : (long) (capacity * LOAD_FACTOR);
+  }
+
+  /**
+   * @return number of keys
+   */
+  public long size() {
+    return hasZeroKey ? size + 1 : size;
+  }
+
+  /**
+   * Adds the key to the set.
+   *
+   * @param keyHigh high 64 bits of the key, must be 0 for a set without wide keys
+   * @param keyLow  low 64 bits of the key
+   * @return <code>true</code> if the key was not in the set yet
+   * @throws IOException           if the set can not grow into a new temporary file
+   * @throws IllegalStateException if the set is full
+   */
+  public boolean add(long keyHigh, long keyLow) throws IOException {
+    if (!wideKeys && keyHigh != 0)
+      throw new IllegalArgumentException("Key wider than 64 bits in a set of 64-bit keys");
+
+    if (keyHigh == 0 && keyLow == 0) {
+      if (hasZeroKey) return false;
+      return hasZeroKey = true;
+    }
+
+    long position = find(keyHigh, keyLow);
+    if (!isEmpty(position)) return false;
+
+    if (size >= threshold) {
+      grow();
+      position = find(keyHigh, keyLow);
+    }
+    put(position, keyHigh, keyLow);
+    size++;
+    return true;
+  }
+
+  private boolean isEmpty(long position) {
+    return slots.getLong(position + lowOffset) == 0 && (!wideKeys || slots.getLong(position) == 0);
+  }
+
+  /**
+   * @return position of the slot of the key or of the empty slot where it belongs
+   */
+  private long find(long keyHigh, long keyLow) {
+    long slot = HashIndex.mix(keyHigh, keyLow) & mask;
+
+    while (true) {
+      long position = slot * slotWidth, low = slots.getLong(position + lowOffset);
+      if (!wideKeys) {
+        if (low == keyLow || low == 0) return position;
+      } else {
+        long high = slots.getLong(position);
+        if (low == keyLow && high == keyHigh || low == 0 && high == 0) return position;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private void put(long position, long keyHigh, long keyLow) {
+    if (wideKeys) slots.putLong(position, keyHigh);
+    slots.putLong(position + lowOffset, keyLow);
+  }
+
+  private void grow() throws IOException {
+    if (capacity == MAX_CAPACITY)
+      throw new IllegalStateException("Key set is full, it can hold at most " + threshold + " keys");
+
+    MappedBuffer oldSlots = slots;
+    long oldSize = capacity * slotWidth;
+    allocate(capacity << 1);
+
+    for (long position = 0; position < oldSize; position += slotWidth) {
+      long high = wideKeys ? oldSlots.getLong(position) : 0, low = oldSlots.getLong(position + lowOffset);
+      if (high == 0 && low == 0) continue;
+
+      put(find(high, low), high, low);
+    }
+    oldSlots.release();
+  }
+
+  /**
+   * Releases the slots, the set must not be used any more.
+   */
+  @Override
+  public void close() {
+    slots.release();
+  }
+
+
+}
@@ -0,0 +1,180 @@
+package org.dwhworks.component.hash;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Region of a file mapped into memory, which may be larger than 2 GB.
+ * <p>
+ * The region is mapped in segments of at most 1 GB. Segment size is a multiple of the record width,
+ * so a record never spans two segments, and values are read and written at absolute positions
+ * within the region. Data is accessed through the page cache and never loaded onto the heap.
+ * Values are big-endian. The mapping stays valid after the channel is closed.
+ * A region of direct memory backed by no file may be allocated the same way, see {@link #allocateDirect}.
+ * <p>
+ * The JVM unmaps a file and frees direct memory only when the buffers are garbage collected, which may be
+ * never for a region in the old generation. {@link #release()} does it at once, so a grown table does not
+ * keep its old region and a file can be renamed or deleted on systems which do not allow it while it is mapped.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class MappedBuffer {
+
+  private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+  /** Unsafe.invokeCleaner(ByteBuffer) of Java 9+ and the Unsafe instance, or DirectBuffer.cleaner() of Java 8. */
+  private static final Method INVOKE_CLEANER, CLEANER, CLEAN;
+  private static final Object UNSAFE;
+
+  static {
+    Method invokeCleaner = null, cleaner = null, clean = null;
+    Object unsafe = null;
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      unsafe = theUnsafe.get(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      invokeCleaner = null;
+      try {
+        cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+        clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+      } catch (ReflectiveOperationException | RuntimeException e8) {
+        cleaner = null;
+      }
+    }
+    INVOKE_CLEANER = invokeCleaner;
+    UNSAFE = unsafe;
+    CLEANER = cleaner;
+    CLEAN = clean;
+  }
+
+  private final ByteBuffer[] segments;
+  private final long segmentSize, size;
+  private final boolean mapped;
+
+  private MappedBuffer(ByteBuffer[] segments, long segmentSize, long size, boolean mapped) {
+    this.segments = segments;
+    this.mapped = mapped;
+    this.segmentSize = segmentSize;
+    this.size = size;
+  }
+
+  /**
+   * Maps a region of the file.
+   *
+   * @param channel     file channel
+   * @param mode        map mode
+   * @param offset      position of the region in the file
+   * @param size        size of the region in bytes
+   * @param recordWidth width of records in the region in bytes, a multiple of 8
+   * @return mapped region
+   * @throws IOException if the region can not be mapped
+   */
+  public static MappedBuffer map(FileChannel channel, FileChannel.MapMode mode, long offset, long size,
+                                 int recordWidth) throws IOException {
+    long segmentSize = segmentSize(recordWidth);
+    ByteBuffer[] segments = new ByteBuffer[segmentCount(size, segmentSize)];
+
+    for (int i = 0; i < segments.length; i++) {
+      long position = i * segmentSize;
+      segments[i] = channel.map(mode, offset + position, Math.min(segmentSize, size - position));
+    }
+
+    return new MappedBuffer(segments, segmentSize, size, true);
+  }
+
+  /**
+   * Allocates a zeroed region of direct memory outside of the heap. The memory is released by {@link #release()}
+   * or when the region is garbage collected, it counts towards the limit of direct memory of the JVM
+   * (-XX:MaxDirectMemorySize, the maximum heap size by default).
+   *
+   * @param size        size of the region in bytes
+   * @param recordWidth width of records in the region in bytes, a multiple of 8
+   * @return allocated region
+   * @throws OutOfMemoryError if the direct memory is exhausted
+   */
+  public static MappedBuffer allocateDirect(long size, int recordWidth) {
+    long segmentSize = segmentSize(recordWidth);
+    ByteBuffer[] segments = new ByteBuffer[segmentCount(size, segmentSize)];
+
+    for (int i = 0; i < segments.length; i++)
+      segments[i] = ByteBuffer.allocateDirect((int) Math.min(segmentSize, size - i * segmentSize));
+
+    return new MappedBuffer(segments, segmentSize, size, false);
+  }
+
+  private static long segmentSize(int recordWidth) {
+    if (recordWidth <= 0 || recordWidth % 8 != 0)
+      throw new IllegalArgumentException("Record width must be a positive multiple of 8: " + recordWidth);
+
+    return MAX_SEGMENT_SIZE / recordWidth * recordWidth;
+  }
+
+  private static int segmentCount(long size, long segmentSize) {
+    return (int) ((size + segmentSize - 1) / segmentSize);
+  }
+
+  /**
+   * @return size of the region in bytes
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * @param position position in the region, a multiple of 8
+   * @return long value at the position
+   */
+  public long getLong(long position) {
+    return segments[(int) (position / segmentSize)].getLong((int) (position % segmentSize));
+  }
+
+  /**
+   * @param position position in the region, a multiple of 8
+   * @param value    long value to store at the position
+   */
+  public void putLong(long position, long value) {
+    segments[(int) (position / segmentSize)].putLong((int) (position % segmentSize), value);
+  }
+
+  /**
+   * Writes changes of a writable mapping to the storage device, does nothing for direct memory.
+   */
+  public void force() {
+    if (!mapped) return;
+    for (ByteBuffer segment : segments) if (segment != null) ((MappedByteBuffer) segment).force();
+  }
+
+  /**
+   * Unmaps the region or frees its direct memory at once. The region must not be accessed any more.
+   * If the JVM does not allow it, the region is released when it is garbage collected.
+   */
+  public void release() {
+    for (int i = 0; i < segments.length; i++) {
+      ByteBuffer segment = segments[i];
+      if (segment == null) continue;
+
+      // an access after the release fails on the missing segment instead of crashing the JVM
+      segments[i] = null;
+      try {
+        if (INVOKE_CLEANER != null) INVOKE_CLEANER.invoke(UNSAFE, segment);
+        else if (CLEANER != null) {
+          Object cleaner = CLEANER.invoke(segment);
+          if (cleaner != null) CLEAN.invoke(cleaner);
+        }
+      } catch (IllegalAccessException | InvocationTargetException e) {
+        // left to the garbage collector
+      }
+    }
+  }
+
+
+}
@@ -0,0 +1,49 @@
+package org.dwhworks.component.hash;
+
+/**
+ * MD5 hash function. Single messages are hashed by {@link java.security.MessageDigest},
+ * batches by {@link MultiBufferMd5} on JVMs where it is faster.
+ * <p>
+ * Since Java 16 HotSpot compiles MD5 of MessageDigest into a hand-written intrinsic, which beats
+ * any Java code, so batches are hashed one by one there. The choice may be forced by the system property
+ * <code>{@value #MULTI_BUFFER_PROPERTY}</code> set to <code>true</code> or <code>false</code>.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class Md5HashFunction extends MessageDigestHashFunction {
+
+  public static final String MULTI_BUFFER_PROPERTY = "org.dwhworks.component.hash.multiBufferMd5";
+
+  /** The first Java version with MD5 intrinsic. */
+  private static final int INTRINSIC_JAVA_VERSION = 16;
+
+  private final boolean multiBuffer;
+
+  public Md5HashFunction() {
+    super(HashFunctions.MD5, "MD5");
+
+    String multiBuffer = System.getProperty(MULTI_BUFFER_PROPERTY);
+    this.multiBuffer = multiBuffer != null ? Boolean.parseBoolean(multiBuffer)
+        : javaVersion() < INTRINSIC_JAVA_VERSION;
+  }
+
+  /**
+   * @return major version of the running Java, e.g. 8 for "1.8"
+   */
+  private static int javaVersion() {
+    String version = System.getProperty("java.specification.version", "1.8");
+    try {
+      return version.startsWith("1.") ? Integer.parseInt(version.substring(2)) : Integer.parseInt(version);
+    } catch (NumberFormatException e) {
+      return INTRINSIC_JAVA_VERSION;
+    }
+  }
+
+  @Override
+  public BatchHasher newBatchHasher() {
+    return multiBuffer ? new MultiBufferMd5() : null;
+  }
+
+
+}
@@ -0,0 +1,76 @@
+package org.dwhworks.component.hash;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hash function backed by a {@link MessageDigest} of the JVM, e.g. MD5, SHA-1 or SHA-256.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class MessageDigestHashFunction implements HashFunction {
+
+  private final String name, algorithm;
+  private final int hashLength;
+
+  /**
+   * Constructor
+   *
+   * @param name      name of the function
+   * @param algorithm name of the message digest algorithm
+   * @throws IllegalArgumentException if the JVM does not support the algorithm
+   */
+  public MessageDigestHashFunction(String name, String algorithm) {
+    this.name = name;
+    this.algorithm = algorithm;
+    this.hashLength = newDigest().getDigestLength();
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public int getHashLength() {
+    return hashLength;
+  }
+
+  @Override
+  public Hasher newHasher() {
+    final MessageDigest digest = newDigest();
+
+    return new Hasher() {
+      @Override
+      public void update(byte[] bytes, int offset, int length) {
+        digest.update(bytes, offset, length);
+      }
+
+      @Override
+      public void finish(byte[] out, int offset) {
+        try {
+          digest.digest(out, offset, hashLength);
+        } catch (DigestException e) {
+          throw new IllegalArgumentException(e);
+        }
+      }
+
+      @Override
+      public void reset() {
+        digest.reset();
+      }
+    };
+  }
+
+  private MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(algorithm);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalArgumentException(algorithm + " is not supported by the JVM", e);
+    }
+  }
+
+
+}
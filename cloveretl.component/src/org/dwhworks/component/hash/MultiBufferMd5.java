@@ -0,0 +1,319 @@
+package org.dwhworks.component.hash;
+
+import java.util.Arrays;
+
+/**
+ * Multi-buffer MD5: hashes a batch of independent messages in {@value #LANES} interleaved lanes.
+ * <p>
+ * MD5 of a single message is a chain of dependent steps, so a processor core mostly waits for the result
+ * of the previous step. The compression loop here runs the same step of {@value #LANES} different messages
+ * one after another, these steps do not depend on each other and the core executes them in parallel.
+ * When a message of a lane is complete, the lane takes the next message of the batch, thus messages
+ * of different lengths keep all lanes busy until the batch runs out.
+ * Two lanes are the sweet spot on x86-64: the chaining values of four lanes do not fit into registers
+ * and the spills eat the gain.
+ * <p>
+ * Messages are collected into a growing buffer and hashed by {@link #finish(byte[], int)}.
+ * Hashes are identical to the hashes of {@link java.security.MessageDigest} MD5.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class MultiBufferMd5 implements BatchHasher {
+
+  /** Number of messages hashed in parallel. */
+  public static final int LANES = 2;
+  /** Length of MD5 hash in bytes. */
+  public static final int HASH_LENGTH = 16;
+
+  private static final int BLOCK = 64;
+  private static final int WORDS = 16;
+  private static final int IDLE = -1;
+
+  private byte[] data = new byte[4096];
+  private int[] ends = new int[64];
+  private int size, count;
+
+  /** Message words of the current block of every lane, lane after lane. */
+  private final int[] words = new int[LANES * WORDS];
+  /** Chaining values a, b, c, d of every lane. */
+  private final int[] state = new int[LANES * 4];
+  private final int[] laneMessages = new int[LANES], laneBlocks = new int[LANES];
+
+  @Override
+  public void update(byte[] bytes, int offset, int length) {
+    if (size + length > data.length) data = Arrays.copyOf(data, Math.max(data.length * 2, size + length));
+    System.arraycopy(bytes, offset, data, size, length);
+    size += length;
+  }
+
+  @Override
+  public void endMessage() {
+    if (count == ends.length) ends = Arrays.copyOf(ends, count * 2);
+    ends[count++] = size;
+  }
+
+  @Override
+  public int getMessageCount() {
+    return count;
+  }
+
+  @Override
+  public void finish(byte[] out, int offset) {
+    int next = 0, active = 0;
+    for (int lane = 0; lane < LANES; lane++)
+      if (next < count) {
+        start(lane, next++);
+        active++;
+      } else laneMessages[lane] = IDLE;
+
+    while (active > 0) {
+      for (int lane = 0; lane < LANES; lane++)
+        if (laneMessages[lane] != IDLE) loadBlock(lane);
+
+      compress();
+
+      for (int lane = 0; lane < LANES; lane++) {
+        int message = laneMessages[lane];
+        if (message == IDLE || ++laneBlocks[lane] < blockCount(message)) continue;
+
+        for (int i = 0; i < 4; i++)
+          Bytes.putIntLE(out, offset + message * HASH_LENGTH + i * 4, state[lane * 4 + i]);
+
+        if (next < count) start(lane, next++);
+        else {
+          laneMessages[lane] = IDLE;
+          active--;
+        }
+      }
+    }
+
+    reset();
+  }
+
+  @Override
+  public void reset() {
+    size = 0;
+    count = 0;
+  }
+
+  private void start(int lane, int message) {
+    laneMessages[lane] = message;
+    laneBlocks[lane] = 0;
+    state[lane * 4] = 0x67452301;
+    state[lane * 4 + 1] = 0xefcdab89;
+    state[lane * 4 + 2] = 0x98badcfe;
+    state[lane * 4 + 3] = 0x10325476;
+  }
+
+  private int messageStart(int message) {
+    return message == 0 ? 0 : ends[message - 1];
+  }
+
+  /**
+   * @return number of blocks of the padded message: the message, byte 0x80, zeros and 8 bytes of its bit length
+   */
+  private int blockCount(int message) {
+    return (ends[message] - messageStart(message) + 8) / BLOCK + 1;
+  }
+
+  /**
+   * Loads the current block of the lane's message into its words, padding the last blocks.
+   */
+  private void loadBlock(int lane) {
+    int message = laneMessages[lane], block = laneBlocks[lane], start = messageStart(message),
+        length = ends[message] - start, blockOffset = block * BLOCK, wordOffset = lane * WORDS;
+
+    if (blockOffset + BLOCK <= length) {
+      for (int i = 0, p = start + blockOffset; i < WORDS; i++, p += 4) words[wordOffset + i] = Bytes.getIntLE(data, p);
+      return;
+    }
+
+    // the tail of the message, byte 0x80 after it, zeros and the bit length in the last block
+    int remaining = length - blockOffset, i = 0;
+    if (remaining >= 0) {
+      int p = start + blockOffset;
+      for (int n = remaining >>> 2; i < n; i++, p += 4) words[wordOffset + i] = Bytes.getIntLE(data, p);
+
+      int word = 0x80 << ((remaining & 3) << 3);
+      for (int j = 0; j < (remaining & 3); j++) word |= (data[p + j] & 0xff) << (j << 3);
+      words[wordOffset + i++] = word;
+    }
+    while (i < WORDS) words[wordOffset + i++] = 0;
+
+    if (block == blockCount(message) - 1) {
+      long bits = (long) length << 3;
+      words[wordOffset + WORDS - 2] = (int) bits;
+      words[wordOffset + WORDS - 1] = (int) (bits >>> 32);
+    }
+  }
+
+  /**
+   * Runs the 64 MD5 steps on the current block of all lanes, step by step, lane after lane.
+   * Idle lanes are compressed too, their state is not used.
+   */
+  private void compress() {
+    final int[] x = words;
+    int a0 = state[0], b0 = state[1], c0 = state[2], d0 = state[3];
+    int a1 = state[4], b1 = state[5], c1 = state[6], d1 = state[7];
+
+    a0 = ff(a0, b0, c0, d0, x[0], 7, 0xd76aa478);
+    a1 = ff(a1, b1, c1, d1, x[16], 7, 0xd76aa478);
+    d0 = ff(d0, a0, b0, c0, x[1], 12, 0xe8c7b756);
+    d1 = ff(d1, a1, b1, c1, x[17], 12, 0xe8c7b756);
+    c0 = ff(c0, d0, a0, b0, x[2], 17, 0x242070db);
+    c1 = ff(c1, d1, a1, b1, x[18], 17, 0x242070db);
+    b0 = ff(b0, c0, d0, a0, x[3], 22, 0xc1bdceee);
+    b1 = ff(b1, c1, d1, a1, x[19], 22, 0xc1bdceee);
+    a0 = ff(a0, b0, c0, d0, x[4], 7, 0xf57c0faf);
+    a1 = ff(a1, b1, c1, d1, x[20], 7, 0xf57c0faf);
+    d0 = ff(d0, a0, b0, c0, x[5], 12, 0x4787c62a);
+    d1 = ff(d1, a1, b1, c1, x[21], 12, 0x4787c62a);
+    c0 = ff(c0, d0, a0, b0, x[6], 17, 0xa8304613);
+    c1 = ff(c1, d1, a1, b1, x[22], 17, 0xa8304613);
+    b0 = ff(b0, c0, d0, a0, x[7], 22, 0xfd469501);
+    b1 = ff(b1, c1, d1, a1, x[23], 22, 0xfd469501);
+    a0 = ff(a0, b0, c0, d0, x[8], 7, 0x698098d8);
+    a1 = ff(a1, b1, c1, d1, x[24], 7, 0x698098d8);
+    d0 = ff(d0, a0, b0, c0, x[9], 12, 0x8b44f7af);
+    d1 = ff(d1, a1, b1, c1, x[25], 12, 0x8b44f7af);
+    c0 = ff(c0, d0, a0, b0, x[10], 17, 0xffff5bb1);
+    c1 = ff(c1, d1, a1, b1, x[26], 17, 0xffff5bb1);
+    b0 = ff(b0, c0, d0, a0, x[11], 22, 0x895cd7be);
+    b1 = ff(b1, c1, d1, a1, x[27], 22, 0x895cd7be);
+    a0 = ff(a0, b0, c0, d0, x[12], 7, 0x6b901122);
+    a1 = ff(a1, b1, c1, d1, x[28], 7, 0x6b901122);
+    d0 = ff(d0, a0, b0, c0, x[13], 12, 0xfd987193);
+    d1 = ff(d1, a1, b1, c1, x[29], 12, 0xfd987193);
+    c0 = ff(c0, d0, a0, b0, x[14], 17, 0xa679438e);
+    c1 = ff(c1, d1, a1, b1, x[30], 17, 0xa679438e);
+    b0 = ff(b0, c0, d0, a0, x[15], 22, 0x49b40821);
+    b1 = ff(b1, c1, d1, a1, x[31], 22, 0x49b40821);
+
+    a0 = gg(a0, b0, c0, d0, x[1], 5, 0xf61e2562);
+    a1 = gg(a1, b1, c1, d1, x[17], 5, 0xf61e2562);
+    d0 = gg(d0, a0, b0, c0, x[6], 9, 0xc040b340);
+    d1 = gg(d1, a1, b1, c1, x[22], 9, 0xc040b340);
+    c0 = gg(c0, d0, a0, b0, x[11], 14, 0x265e5a51);
+    c1 = gg(c1, d1, a1, b1, x[27], 14, 0x265e5a51);
+    b0 = gg(b0, c0, d0, a0, x[0], 20, 0xe9b6c7aa);
+    b1 = gg(b1, c1, d1, a1, x[16], 20, 0xe9b6c7aa);
+    a0 = gg(a0, b0, c0, d0, x[5], 5, 0xd62f105d);
+    a1 = gg(a1, b1, c1, d1, x[21], 5, 0xd62f105d);
+    d0 = gg(d0, a0, b0, c0, x[10], 9, 0x02441453);
+    d1 = gg(d1, a1, b1, c1, x[26], 9, 0x02441453);
+    c0 = gg(c0, d0, a0, b0, x[15], 14, 0xd8a1e681);
+    c1 = gg(c1, d1, a1, b1, x[31], 14, 0xd8a1e681);
+    b0 = gg(b0, c0, d0, a0, x[4], 20, 0xe7d3fbc8);
+    b1 = gg(b1, c1, d1, a1, x[20], 20, 0xe7d3fbc8);
+    a0 = gg(a0, b0, c0, d0, x[9], 5, 0x21e1cde6);
+    a1 = gg(a1, b1, c1, d1, x[25], 5, 0x21e1cde6);
+    d0 = gg(d0, a0, b0, c0, x[14], 9, 0xc33707d6);
+    d1 = gg(d1, a1, b1, c1, x[30], 9, 0xc33707d6);
+    c0 = gg(c0, d0, a0, b0, x[3], 14, 0xf4d50d87);
+    c1 = gg(c1, d1, a1, b1, x[19], 14, 0xf4d50d87);
+    b0 = gg(b0, c0, d0, a0, x[8], 20, 0x455a14ed);
+    b1 = gg(b1, c1, d1, a1, x[24], 20, 0x455a14ed);
+    a0 = gg(a0, b0, c0, d0, x[13], 5, 0xa9e3e905);
+    a1 = gg(a1, b1, c1, d1, x[29], 5, 0xa9e3e905);
+    d0 = gg(d0, a0, b0, c0, x[2], 9, 0xfcefa3f8);
+    d1 = gg(d1, a1, b1, c1, x[18], 9, 0xfcefa3f8);
+    c0 = gg(c0, d0, a0, b0, x[7], 14, 0x676f02d9);
+    c1 = gg(c1, d1, a1, b1, x[23], 14, 0x676f02d9);
+    b0 = gg(b0, c0, d0, a0, x[12], 20, 0x8d2a4c8a);
+    b1 = gg(b1, c1, d1, a1, x[28], 20, 0x8d2a4c8a);
+
+    a0 = hh(a0, b0, c0, d0, x[5], 4, 0xfffa3942);
+    a1 = hh(a1, b1, c1, d1, x[21], 4, 0xfffa3942);
+    d0 = hh(d0, a0, b0, c0, x[8], 11, 0x8771f681);
+    d1 = hh(d1, a1, b1, c1, x[24], 11, 0x8771f681);
+    c0 = hh(c0, d0, a0, b0, x[11], 16, 0x6d9d6122);
+    c1 = hh(c1, d1, a1, b1, x[27], 16, 0x6d9d6122);
+    b0 = hh(b0, c0, d0, a0, x[14], 23, 0xfde5380c);
+    b1 = hh(b1, c1, d1, a1, x[30], 23, 0xfde5380c);
+    a0 = hh(a0, b0, c0, d0, x[1], 4, 0xa4beea44);
+    a1 = hh(a1, b1, c1, d1, x[17], 4, 0xa4beea44);
+    d0 = hh(d0, a0, b0, c0, x[4], 11, 0x4bdecfa9);
+    d1 = hh(d1, a1, b1, c1, x[20], 11, 0x4bdecfa9);
+    c0 = hh(c0, d0, a0, b0, x[7], 16, 0xf6bb4b60);
+    c1 = hh(c1, d1, a1, b1, x[23], 16, 0xf6bb4b60);
+    b0 = hh(b0, c0, d0, a0, x[10], 23, 0xbebfbc70);
+    b1 = hh(b1, c1, d1, a1, x[26], 23, 0xbebfbc70);
+    a0 = hh(a0, b0, c0, d0, x[13], 4, 0x289b7ec6);
+    a1 = hh(a1, b1, c1, d1, x[29], 4, 0x289b7ec6);
+    d0 = hh(d0, a0, b0, c0, x[0], 11, 0xeaa127fa);
+    d1 = hh(d1, a1, b1, c1, x[16], 11, 0xeaa127fa);
+    c0 = hh(c0, d0, a0, b0, x[3], 16, 0xd4ef3085);
+    c1 = hh(c1, d1, a1, b1, x[19], 16, 0xd4ef3085);
+    b0 = hh(b0, c0, d0, a0, x[6], 23, 0x04881d05);
+    b1 = hh(b1, c1, d1, a1, x[22], 23, 0x04881d05);
+    a0 = hh(a0, b0, c0, d0, x[9], 4, 0xd9d4d039);
+    a1 = hh(a1, b1, c1, d1, x[25], 4, 0xd9d4d039);
+    d0 = hh(d0, a0, b0, c0, x[12], 11, 0xe6db99e5);
+    d1 = hh(d1, a1, b1, c1, x[28], 11, 0xe6db99e5);
+    c0 = hh(c0, d0, a0, b0, x[15], 16, 0x1fa27cf8);
+    c1 = hh(c1, d1, a1, b1, x[31], 16, 0x1fa27cf8);
+    b0 = hh(b0, c0, d0, a0, x[2], 23, 0xc4ac5665);
+    b1 = hh(b1, c1, d1, a1, x[18], 23, 0xc4ac5665);
+
+    a0 = ii(a0, b0, c0, d0, x[0], 6, 0xf4292244);
+    a1 = ii(a1, b1, c1, d1, x[16], 6, 0xf4292244);
+    d0 = ii(d0, a0, b0, c0, x[7], 10, 0x432aff97);
+    d1 = ii(d1, a1, b1, c1, x[23], 10, 0x432aff97);
+    c0 = ii(c0, d0, a0, b0, x[14], 15, 0xab9423a7);
+    c1 = ii(c1, d1, a1, b1, x[30], 15, 0xab9423a7);
+    b0 = ii(b0, c0, d0, a0, x[5], 21, 0xfc93a039);
+    b1 = ii(b1, c1, d1, a1, x[21], 21, 0xfc93a039);
+    a0 = ii(a0, b0, c0, d0, x[12], 6, 0x655b59c3);
+    a1 = ii(a1, b1, c1, d1, x[28], 6, 0x655b59c3);
+    d0 = ii(d0, a0, b0, c0, x[3], 10, 0x8f0ccc92);
+    d1 = ii(d1, a1, b1, c1, x[19], 10, 0x8f0ccc92);
+    c0 = ii(c0, d0, a0, b0, x[10], 15, 0xffeff47d);
+    c1 = ii(c1, d1, a1, b1, x[26], 15, 0xffeff47d);
+    b0 = ii(b0, c0, d0, a0, x[1], 21, 0x85845dd1);
+    b1 = ii(b1, c1, d1, a1, x[17], 21, 0x85845dd1);
+    a0 = ii(a0, b0, c0, d0, x[8], 6, 0x6fa87e4f);
+    a1 = ii(a1, b1, c1, d1, x[24], 6, 0x6fa87e4f);
+    d0 = ii(d0, a0, b0, c0, x[15], 10, 0xfe2ce6e0);
+    d1 = ii(d1, a1, b1, c1, x[31], 10, 0xfe2ce6e0);
+    c0 = ii(c0, d0, a0, b0, x[6], 15, 0xa3014314);
+    c1 = ii(c1, d1, a1, b1, x[22], 15, 0xa3014314);
+    b0 = ii(b0, c0, d0, a0, x[13], 21, 0x4e0811a1);
+    b1 = ii(b1, c1, d1, a1, x[29], 21, 0x4e0811a1);
+    a0 = ii(a0, b0, c0, d0, x[4], 6, 0xf7537e82);
+    a1 = ii(a1, b1, c1, d1, x[20], 6, 0xf7537e82);
+    d0 = ii(d0, a0, b0, c0, x[11], 10, 0xbd3af235);
+    d1 = ii(d1, a1, b1, c1, x[27], 10, 0xbd3af235);
+    c0 = ii(c0, d0, a0, b0, x[2], 15, 0x2ad7d2bb);
+    c1 = ii(c1, d1, a1, b1, x[18], 15, 0x2ad7d2bb);
+    b0 = ii(b0, c0, d0, a0, x[9], 21, 0xeb86d391);
+    b1 = ii(b1, c1, d1, a1, x[25], 21, 0xeb86d391);
+
+    state[0] += a0;
+    state[1] += b0;
+    state[2] += c0;
+    state[3] += d0;
+    state[4] += a1;
+    state[5] += b1;
+    state[6] += c1;
+    state[7] += d1;
+  }
+
+  private static int ff(int a, int b, int c, int d, int x, int s, int t) {
+    return b + Integer.rotateLeft(a + (b & c | ~b & d) + x + t, s);
+  }
+
+  private static int gg(int a, int b, int c, int d, int x, int s, int t) {
+    return b + Integer.rotateLeft(a + (b & d | c & ~d) + x + t, s);
+  }
+
+  private static int hh(int a, int b, int c, int d, int x, int s, int t) {
+    return b + Integer.rotateLeft(a + (b ^ c ^ d) + x + t, s);
+  }
+
+  private static int ii(int a, int b, int c, int d, int x, int s, int t) {
+    return b + Integer.rotateLeft(a + (c ^ (b | ~d)) + x + t, s);
+  }
+
+
+}
@@ -0,0 +1,121 @@
+package org.dwhworks.component.hash;
+
+/**
+ * MurmurHash3 x64 128-bit variant (seed 0), a fast non-cryptographic hash function.
+ * The hash is written as two little-endian 64-bit halves, the same byte order as other
+ * common implementations print it.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class Murmur3x64128 implements HashFunction {
+
+  public static final String NAME = "murmur3_128";
+
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  private static final int BLOCK = 16;
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public int getHashLength() {
+    return 16;
+  }
+
+  @Override
+  public Hasher newHasher() {
+    return new MurmurHasher();
+  }
+
+  private static long mixK1(long k1) {
+    return Long.rotateLeft(k1 * C1, 31) * C2;
+  }
+
+  private static long mixK2(long k2) {
+    return Long.rotateLeft(k2 * C2, 33) * C1;
+  }
+
+  private static long fmix(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    return k ^ k >>> 33;
+  }
+
+  /**
+   * Streaming hasher, buffers the input up to a full block.
+   */
+  private static final class MurmurHasher implements Hasher {
+    private final byte[] block = new byte[BLOCK];
+    private int buffered;
+    private long length, h1, h2;
+
+    @Override
+    public void update(byte[] bytes, int offset, int count) {
+      length += count;
+      int end = offset + count;
+
+      if (buffered > 0) {
+        int n = Math.min(BLOCK - buffered, count);
+        System.arraycopy(bytes, offset, block, buffered, n);
+        buffered += n;
+        offset += n;
+        if (buffered < BLOCK) return;
+        consume(block, 0);
+        buffered = 0;
+      }
+
+      for (int limit = end - BLOCK; offset <= limit; offset += BLOCK) consume(bytes, offset);
+
+      if (offset < end) {
+        buffered = end - offset;
+        System.arraycopy(bytes, offset, block, 0, buffered);
+      }
+    }
+
+    private void consume(byte[] bytes, int i) {
+      h1 ^= mixK1(Bytes.getLongLE(bytes, i));
+      h1 = (Long.rotateLeft(h1, 27) + h2) * 5 + 0x52dce729;
+      h2 ^= mixK2(Bytes.getLongLE(bytes, i + 8));
+      h2 = (Long.rotateLeft(h2, 31) + h1) * 5 + 0x38495ab5;
+    }
+
+    @Override
+    public void finish(byte[] out, int offset) {
+      if (buffered > 0) {
+        long k1 = 0, k2 = 0;
+        for (int i = buffered - 1; i >= 8; i--) k2 = k2 << 8 | (block[i] & 0xffL);
+        for (int i = Math.min(buffered, 8) - 1; i >= 0; i--) k1 = k1 << 8 | (block[i] & 0xffL);
+        if (buffered > 8) h2 ^= mixK2(k2);
+        h1 ^= mixK1(k1);
+      }
+
+      h1 ^= length;
+      h2 ^= length;
+      h1 += h2;
+      h2 += h1;
+      h1 = fmix(h1);
+      h2 = fmix(h2);
+      h1 += h2;
+      h2 += h1;
+
+      Bytes.putLongLE(out, offset, h1);
+      Bytes.putLongLE(out, offset + 8, h2);
+      reset();
+    }
+
+    @Override
+    public void reset() {
+      buffered = 0;
+      length = h1 = h2 = 0;
+    }
+  }
+
+
+}
@@ -0,0 +1,189 @@
+package org.dwhworks.component.hash;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Header of a hash snapshot file.
+ * <p>
+ * A snapshot file is a header of {@link #SIZE} bytes followed by fixed-width records sorted by key
+ * as an unsigned number: key (8 bytes, or 16 bytes with wide keys) and measure fingerprint (8 bytes).
+ * Keys of hashes shorter than 16 bytes, except 8-byte hashes, have the hash length in the highest byte.
+ * All numbers are big-endian. The header contains:
+ * <pre>
+ *  0  int    magic "DWHS"
+ *  4  int    format version
+ *  8  int    flags, bit 0 - wide keys
+ * 12  int    length of key hashes in bytes, for converting keys back into hashes
+ * 16  long   number of records
+ * 24  long   fingerprint of the hashed field lists
+ * 32  byte   length of the hash algorithm name
+ * 33  byte[] hash algorithm name, ASCII, up to 31 bytes
+ * </pre>
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class SnapshotHeader {
+
+  /** Size of the header in bytes. */
+  public static final int SIZE = 64;
+
+  private static final int MAGIC = 0x44574853;
+  private static final int VERSION = 2;
+  private static final int FLAG_WIDE_KEYS = 1;
+  private static final int ALGORITHM_OFFSET = 32;
+  private static final int MAX_ALGORITHM_LENGTH = SIZE - ALGORITHM_OFFSET - 1;
+
+  private final String algorithm;
+  private final long fieldFingerprint;
+  private final boolean wideKeys;
+  private final int keyLength;
+  private final long count;
+
+  /**
+   * Constructor
+   *
+   * @param algorithm        name of the hash algorithm
+   * @param fieldFingerprint fingerprint of the hashed field lists, see {@link #fingerprint}
+   * @param wideKeys         <code>true</code> for 128-bit keys, <code>false</code> for 64-bit keys
+   * @param keyLength        length of key hashes in bytes
+   * @param count            number of records
+   */
+  public SnapshotHeader(String algorithm, long fieldFingerprint, boolean wideKeys, int keyLength, long count) {
+    if (algorithm.length() > MAX_ALGORITHM_LENGTH)
+      throw new IllegalArgumentException("Hash algorithm name is longer than " + MAX_ALGORITHM_LENGTH
+          + " characters: " + algorithm);
+
+    this.algorithm = algorithm;
+    this.fieldFingerprint = fieldFingerprint;
+    this.wideKeys = wideKeys;
+    this.keyLength = keyLength;
+    this.count = count;
+  }
+
+  /**
+   * Computes fingerprint of field lists, e.g. key fields and measure fields.
+   * The same fields in the same order give the same fingerprint.
+   *
+   * @param fieldLists lists of field names
+   * @return fingerprint
+   */
+  public static long fingerprint(List<? extends List<String>> fieldLists) {
+    StringBuilder fields = new StringBuilder(256);
+    for (List<String> fieldList : fieldLists) {
+      if (fields.length() > 0) fields.append('|');
+      fields.append(String.join(";", fieldList));
+    }
+
+    byte[] bytes = fields.toString().getBytes(StandardCharsets.UTF_8);
+    return XxHash64.hash(bytes, 0, bytes.length, 0);
+  }
+
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  public long getFieldFingerprint() {
+    return fieldFingerprint;
+  }
+
+  public boolean isWideKeys() {
+    return wideKeys;
+  }
+
+  public int getKeyLength() {
+    return keyLength;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @return width of a record in bytes
+   */
+  public int getRecordWidth() {
+    return wideKeys ? 24 : 16;
+  }
+
+  /**
+   * @return <code>true</code> if hashes of both snapshots are comparable
+   */
+  public boolean isCompatible(SnapshotHeader other) {
+    return algorithm.equals(other.algorithm) && fieldFingerprint == other.fieldFingerprint;
+  }
+
+  /**
+   * Writes the header into a buffer of {@link #SIZE} bytes.
+   *
+   * @param buffer buffer positioned at the header
+   */
+  public void write(ByteBuffer buffer) {
+    byte[] name = algorithm.getBytes(StandardCharsets.US_ASCII);
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(wideKeys ? FLAG_WIDE_KEYS : 0).putInt(keyLength)
+        .putLong(count).putLong(fieldFingerprint)
+        .put((byte) name.length).put(name);
+    for (int i = name.length; i < MAX_ALGORITHM_LENGTH; i++) buffer.put((byte) 0);
+  }
+
+  /**
+   * Reads the header from a buffer of {@link #SIZE} bytes.
+   *
+   * @param buffer buffer positioned at the header
+   * @return header
+   * @throws IOException if the buffer does not contain a snapshot header
+   */
+  public static SnapshotHeader read(ByteBuffer buffer) throws IOException {
+    if (buffer.getInt() != MAGIC) throw new IOException("Not a hash snapshot file");
+
+    int version = buffer.getInt();
+    if (version != VERSION) throw new IOException("Unsupported hash snapshot version " + version);
+
+    int flags = buffer.getInt(), keyLength = buffer.getInt();
+    long count = buffer.getLong(), fieldFingerprint = buffer.getLong();
+
+    byte[] name = new byte[buffer.get() & 0xff];
+    if (name.length > MAX_ALGORITHM_LENGTH) throw new IOException("Corrupted hash snapshot header");
+    buffer.get(name);
+    buffer.position(buffer.position() + MAX_ALGORITHM_LENGTH - name.length);
+
+    return new SnapshotHeader(new String(name, StandardCharsets.US_ASCII), fieldFingerprint,
+        (flags & FLAG_WIDE_KEYS) != 0, keyLength, count);
+  }
+
+  /**
+   * Reads the header of a snapshot file.
+   *
+   * @param file snapshot file
+   * @return header
+   * @throws IOException if the file can not be read or is not a snapshot file
+   */
+  public static SnapshotHeader read(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      return read(channel);
+    }
+  }
+
+  static SnapshotHeader read(FileChannel channel) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+    while (buffer.hasRemaining())
+      if (channel.read(buffer, buffer.position()) < 0) throw new IOException("Not a hash snapshot file");
+
+    buffer.flip();
+    return read(buffer);
+  }
+
+  @Override
+  public String toString() {
+    return "algorithm " + algorithm + ", fields " + Long.toHexString(fieldFingerprint)
+        + (wideKeys ? ", 128-bit" : ", 64-bit") + " keys, " + count + " records";
+  }
+
+
+}
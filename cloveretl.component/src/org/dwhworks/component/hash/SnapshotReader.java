@@ -0,0 +1,172 @@
+package org.dwhworks.component.hash;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Hash snapshot file opened for lookups, see {@link SnapshotHeader} for the file format.
+ * <p>
+ * Records are memory-mapped and searched in place, nothing but an optional bitset of seen keys
+ * (one bit per record) is loaded onto the heap. As keys are hashes, they are spread uniformly
+ * and a lookup starts with a few steps of interpolation search, which narrows the range to a few
+ * records usually, and completes with binary search.
+ * {@link #close()} unmaps the file at once, so the file can be replaced by the next snapshot even on systems
+ * which do not allow to replace a mapped file. A reader is not thread-safe.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class SnapshotReader implements HashSnapshot, Closeable {
+
+  private static final int INTERPOLATION_STEPS = 4;
+  private static final int MIN_INTERPOLATION_RANGE = 16;
+
+  private final SnapshotHeader header;
+  private final MappedBuffer records;
+  private final int recordWidth;
+  private final long count;
+  private final long[] seen;
+
+  private SnapshotReader(SnapshotHeader header, MappedBuffer records, boolean trackSeen) {
+    this.header = header;
+    this.records = records;
+    this.recordWidth = header.getRecordWidth();
+    this.count = header.getCount();
+    this.seen = trackSeen ? new long[(int) ((count + 63) >>> 6)] : null;
+  }
+
+  /**
+   * Opens a snapshot file.
+   *
+   * @param file      snapshot file
+   * @param trackSeen track keys seen by {@link #classify}, required for {@link #forEachUnseen}
+   * @return reader of the snapshot
+   * @throws IOException if the file can not be read or is not a valid snapshot file
+   */
+  public static SnapshotReader open(File file, boolean trackSeen) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      SnapshotHeader header = SnapshotHeader.read(channel);
+
+      long size = header.getCount() * header.getRecordWidth();
+      if (header.getCount() < 0 || channel.size() != SnapshotHeader.SIZE + size)
+        throw new IOException("Hash snapshot file " + file + " is truncated or corrupted");
+
+      MappedBuffer records = MappedBuffer.map(channel, FileChannel.MapMode.READ_ONLY, SnapshotHeader.SIZE, size,
+          header.getRecordWidth());
+      return new SnapshotReader(header, records, trackSeen);
+    }
+  }
+
+  public SnapshotHeader getHeader() {
+    return header;
+  }
+
+  @Override
+  public long size() {
+    return count;
+  }
+
+  /**
+   * @param index index of the record
+   * @return high 64 bits of the key, 0 for 64-bit keys
+   */
+  public long getKeyHigh(long index) {
+    return header.isWideKeys() ? records.getLong(index * recordWidth) : 0;
+  }
+
+  /**
+   * @param index index of the record
+   * @return low 64 bits of the key
+   */
+  public long getKeyLow(long index) {
+    return records.getLong(index * recordWidth + recordWidth - 16);
+  }
+
+  /**
+   * @param index index of the record
+   * @return measure fingerprint
+   */
+  public long getMeasure(long index) {
+    return records.getLong(index * recordWidth + recordWidth - 8);
+  }
+
+  /**
+   * Finds the record of the key.
+   *
+   * @param keyHigh high 64 bits of the key
+   * @param keyLow  low 64 bits of the key
+   * @return index of the record or -1 if the key is not in the snapshot
+   */
+  public long find(long keyHigh, long keyLow) {
+    if (!header.isWideKeys() && keyHigh != 0) return -1;
+
+    long low = 0, high = count - 1;
+    // the most significant 64 bits of the key are spread uniformly
+    double key = toDouble(header.isWideKeys() ? keyHigh : keyLow);
+
+    for (int step = 0; low <= high; step++) {
+      long middle = (low + high) >>> 1;
+
+      if (step < INTERPOLATION_STEPS && high - low >= MIN_INTERPOLATION_RANGE) {
+        double lowKey = toDouble(getTop(low)), highKey = toDouble(getTop(high));
+        if (key <= lowKey) middle = low;
+        else if (key >= highKey) middle = high;
+        else middle = low + (long) ((key - lowKey) / (highKey - lowKey) * (high - low));
+      }
+
+      int cmp = compare(getKeyHigh(middle), getKeyLow(middle), keyHigh, keyLow);
+      if (cmp < 0) low = middle + 1;
+      else if (cmp > 0) high = middle - 1;
+      else return middle;
+    }
+
+    return -1;
+  }
+
+  private long getTop(long index) {
+    return header.isWideKeys() ? getKeyHigh(index) : getKeyLow(index);
+  }
+
+  private static double toDouble(long unsigned) {
+    return (double) (unsigned >>> 1) * 2.0;
+  }
+
+  /**
+   * Compares keys as unsigned 128-bit numbers, the order of records in a snapshot file.
+   */
+  static int compare(long highA, long lowA, long highB, long lowB) {
+    int cmp = Long.compareUnsigned(highA, highB);
+    return cmp != 0 ? cmp : Long.compareUnsigned(lowA, lowB);
+  }
+
+  @Override
+  public int classify(long keyHigh, long keyLow, long measure) {
+    long index = find(keyHigh, keyLow);
+    if (index < 0) return ABSENT;
+
+    if (seen != null) seen[(int) (index >>> 6)] |= 1L << index;
+    return getMeasure(index) == measure ? UNCHANGED : CHANGED;
+  }
+
+  @Override
+  public void forEachUnseen(EntryVisitor visitor) throws Exception {
+    if (seen == null) throw new IllegalStateException("Seen keys are not tracked");
+
+    for (long index = 0; index < count; index++)
+      if ((seen[(int) (index >>> 6)] & 1L << index) == 0)
+        visitor.visit(getKeyHigh(index), getKeyLow(index), getMeasure(index));
+  }
+
+  /**
+   * Unmaps the snapshot file, the reader must not be used any more.
+   */
+  @Override
+  public void close() {
+    records.release();
+  }
+
+
+}
@@ -0,0 +1,363 @@
+package org.dwhworks.component.hash;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Writes a hash snapshot file, see {@link SnapshotHeader} for the file format.
+ * <p>
+ * Keys may be added in any order. They are collected into runs of a bounded size, every run is sorted
+ * and spilled into a temporary file next to the snapshot file, and the runs are merged into the snapshot
+ * at the end, so the heap holds one run only. Run arrays start small and grow with the keys up to the run size,
+ * so a small snapshot does not allocate a full run. When a key is added repeatedly, the last measure wins.
+ * The snapshot is written into a temporary file first and renamed when complete, thus an interrupted
+ * writer never leaves a partial snapshot behind.
+ * A writer is not thread-safe.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class SnapshotWriter {
+
+  private static final int RUN_SIZE = 1 << 20;
+  private static final int INITIAL_CAPACITY = 1 << 10;
+  private static final int MAX_MERGED_RUNS = 64;
+  private static final int IO_BUFFER_SIZE = 1 << 16;
+  private static final int INSERTION_SORT_SIZE = 16;
+
+  private final File file;
+  private final String algorithm;
+  private final long fieldFingerprint;
+  private final boolean wideKeys;
+
+  private final int runSize;
+  private long[] keysHigh, keysLow, measures;
+  private int[] order, sortBuffer;
+  private int size, keyLength;
+  private final List<File> runs = new ArrayList<>();
+
+  /**
+   * Constructor
+   *
+   * @param file             snapshot file
+   * @param algorithm        name of the hash algorithm
+   * @param fieldFingerprint fingerprint of the hashed field lists, see {@link SnapshotHeader#fingerprint}
+   * @param wideKeys         <code>true</code> for 128-bit keys, <code>false</code> for 64-bit keys
+   */
+  public SnapshotWriter(File file, String algorithm, long fieldFingerprint, boolean wideKeys) {
+    this(file, algorithm, fieldFingerprint, wideKeys, RUN_SIZE);
+  }
+
+  SnapshotWriter(File file, String algorithm, long fieldFingerprint, boolean wideKeys, int runSize) {
+    this.file = file.getAbsoluteFile();
+    this.algorithm = algorithm;
+    this.fieldFingerprint = fieldFingerprint;
+    this.wideKeys = wideKeys;
+    this.runSize = runSize;
+
+    keysHigh = wideKeys ? new long[0] : null;
+    keysLow = new long[0];
+    measures = new long[0];
+    order = new int[0];
+    sortBuffer = new int[0];
+  }
+
+  /**
+   * Adds a key to the snapshot.
+   *
+   * @param keyHigh   high 64 bits of the key, must be 0 for 64-bit keys
+   * @param keyLow    low 64 bits of the key
+   * @param measure   measure fingerprint
+   * @param keyLength length of the key hash in bytes
+   * @throws IOException if a run can not be spilled
+   */
+  public void add(long keyHigh, long keyLow, long measure, int keyLength) throws IOException {
+    if (!wideKeys && keyHigh != 0)
+      throw new IllegalArgumentException("Key wider than 64 bits in a snapshot of 64-bit keys");
+
+    if (size == keysLow.length) {
+      if (size == runSize) spill();
+      else grow();
+    }
+
+    if (wideKeys) keysHigh[size] = keyHigh;
+    keysLow[size] = keyLow;
+    measures[size] = measure;
+    size++;
+    this.keyLength = Math.max(this.keyLength, keyLength);
+  }
+
+  /**
+   * Doubles the run arrays, up to the run size.
+   */
+  private void grow() {
+    int capacity = (int) Math.min(Math.max(2L * keysLow.length, INITIAL_CAPACITY), runSize);
+    if (wideKeys) keysHigh = Arrays.copyOf(keysHigh, capacity);
+    keysLow = Arrays.copyOf(keysLow, capacity);
+    measures = Arrays.copyOf(measures, capacity);
+  }
+
+  /**
+   * Sorts and merges all keys into the snapshot file and replaces the previous snapshot.
+   *
+   * @return header of the written snapshot
+   * @throws IOException if the snapshot can not be written
+   */
+  public SnapshotHeader finish() throws IOException {
+    File temporary = new File(file.getPath() + ".tmp");
+
+    try {
+      SnapshotHeader header;
+      try (FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+        RecordOutput out = new RecordOutput(channel, SnapshotHeader.SIZE);
+
+        if (runs.isEmpty()) writeSorted(out);
+        else {
+          if (size > 0) spill();
+          while (runs.size() > MAX_MERGED_RUNS) mergeRuns();
+          merge(runs, out);
+        }
+        out.close();
+
+        header = new SnapshotHeader(algorithm, fieldFingerprint, wideKeys, keyLength, out.count);
+        ByteBuffer buffer = ByteBuffer.allocate(SnapshotHeader.SIZE);
+        header.write(buffer);
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer, buffer.position());
+        channel.force(true);
+      }
+
+      move(temporary, file);
+      return header;
+    } finally {
+      Files.deleteIfExists(temporary.toPath());
+      abort();
+    }
+  }
+
+  /**
+   * Deletes temporary files, the previous snapshot stays untouched.
+   */
+  public void abort() {
+    for (File run : runs) run.delete();
+    runs.clear();
+    size = 0;
+  }
+
+  /**
+   * Renames the file atomically if the file system can, otherwise replaces the target by a plain move.
+   */
+  static void move(File source, File target) throws IOException {
+    try {
+      Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private File createRun() throws IOException {
+    File run = File.createTempFile(file.getName() + '.', ".run", file.getParentFile());
+    runs.add(run);
+    return run;
+  }
+
+  private void spill() throws IOException {
+    File run = createRun();
+    try (FileChannel channel = FileChannel.open(run.toPath(), StandardOpenOption.WRITE)) {
+      RecordOutput out = new RecordOutput(channel, 0);
+      writeSorted(out);
+      out.close();
+    }
+    size = 0;
+  }
+
+  /**
+   * Sorts the collected keys and writes them.
+   */
+  private void writeSorted(RecordOutput out) throws IOException {
+    if (order.length < size) {
+      order = new int[keysLow.length];
+      sortBuffer = new int[keysLow.length];
+    }
+
+    for (int i = 0; i < size; i++) order[i] = i;
+    sort(0, size);
+
+    for (int i = 0; i < size; i++) {
+      int record = order[i];
+      out.write(wideKeys ? keysHigh[record] : 0, keysLow[record], measures[record]);
+    }
+  }
+
+  /**
+   * Stable merge sort of record indexes by key, equal keys stay in the order they were added.
+   */
+  private void sort(int from, int to) {
+    if (to - from <= INSERTION_SORT_SIZE) {
+      for (int i = from + 1; i < to; i++) {
+        int record = order[i], j = i;
+        for (; j > from && compare(order[j - 1], record) > 0; j--) order[j] = order[j - 1];
+        order[j] = record;
+      }
+      return;
+    }
+
+    int middle = (from + to) >>> 1;
+    sort(from, middle);
+    sort(middle, to);
+    if (compare(order[middle - 1], order[middle]) <= 0) return;
+
+    System.arraycopy(order, from, sortBuffer, from, to - from);
+    for (int i = from, left = from, right = middle; i < to; i++)
+      order[i] = right >= to || left < middle && compare(sortBuffer[left], sortBuffer[right]) <= 0
+          ? sortBuffer[left++] : sortBuffer[right++];
+  }
+
+  private int compare(int a, int b) {
+    return wideKeys ? SnapshotReader.compare(keysHigh[a], keysLow[a], keysHigh[b], keysLow[b])
+        : Long.compareUnsigned(keysLow[a], keysLow[b]);
+  }
+
+  /**
+   * Merges groups of runs into bigger runs, keeping the order of runs.
+   */
+  private void mergeRuns() throws IOException {
+    List<File> merged = new ArrayList<>(runs);
+    runs.clear();
+
+    for (int from = 0; from < merged.size(); from += MAX_MERGED_RUNS) {
+      List<File> group = merged.subList(from, Math.min(from + MAX_MERGED_RUNS, merged.size()));
+      File run = createRun();
+      try (FileChannel channel = FileChannel.open(run.toPath(), StandardOpenOption.WRITE)) {
+        RecordOutput out = new RecordOutput(channel, 0);
+        merge(group, out);
+        out.close();
+      }
+      for (File source : group) source.delete();
+    }
+  }
+
+  /**
+   * Merges sorted runs. Equal keys are taken from earlier runs first, so the last one added wins.
+   */
+  private void merge(List<File> sources, RecordOutput out) throws IOException {
+    PriorityQueue<RecordInput> queue = new PriorityQueue<>(sources.size(), (a, b) -> {
+      int cmp = SnapshotReader.compare(a.keyHigh, a.keyLow, b.keyHigh, b.keyLow);
+      return cmp != 0 ? cmp : Integer.compare(a.run, b.run);
+    });
+
+    List<RecordInput> inputs = new ArrayList<>(sources.size());
+    try {
+      for (File source : sources) {
+        RecordInput input = new RecordInput(FileChannel.open(source.toPath(), StandardOpenOption.READ), inputs.size());
+        inputs.add(input);
+        if (input.next()) queue.add(input);
+      }
+
+      RecordInput input;
+      while ((input = queue.poll()) != null) {
+        out.write(input.keyHigh, input.keyLow, input.measure);
+        if (input.next()) queue.add(input);
+      }
+    } finally {
+      for (RecordInput in : inputs) in.channel.close();
+    }
+  }
+
+  /**
+   * Buffered output of sorted records, which keeps the last record of equal keys.
+   */
+  private final class RecordOutput {
+    final FileChannel channel;
+    final ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+    long position, count;
+    boolean pending;
+    long keyHigh, keyLow, measure;
+
+    RecordOutput(FileChannel channel, long position) {
+      this.channel = channel;
+      this.position = position;
+    }
+
+    void write(long keyHigh, long keyLow, long measure) throws IOException {
+      if (pending && keyHigh == this.keyHigh && keyLow == this.keyLow) {
+        this.measure = measure;
+        return;
+      }
+
+      flushPending();
+      pending = true;
+      this.keyHigh = keyHigh;
+      this.keyLow = keyLow;
+      this.measure = measure;
+    }
+
+    private void flushPending() throws IOException {
+      if (!pending) return;
+      if (buffer.remaining() < 24) flush();
+
+      if (wideKeys) buffer.putLong(keyHigh);
+      buffer.putLong(keyLow).putLong(measure);
+      count++;
+    }
+
+    private void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) position += channel.write(buffer, position);
+      buffer.clear();
+    }
+
+    void close() throws IOException {
+      flushPending();
+      pending = false;
+      flush();
+    }
+  }
+
+  /**
+   * Buffered input of records of a run.
+   */
+  private final class RecordInput {
+    final FileChannel channel;
+    final int run;
+    final ByteBuffer buffer = ByteBuffer.allocate(IO_BUFFER_SIZE);
+    long position;
+    long keyHigh, keyLow, measure;
+
+    RecordInput(FileChannel channel, int run) {
+      this.channel = channel;
+      this.run = run;
+      buffer.limit(0);
+    }
+
+    boolean next() throws IOException {
+      int width = wideKeys ? 24 : 16;
+      if (buffer.remaining() < width) {
+        buffer.compact();
+        int read;
+        while (buffer.hasRemaining() && (read = channel.read(buffer, position)) > 0) position += read;
+        buffer.flip();
+        if (buffer.remaining() < width) return false;
+      }
+
+      keyHigh = wideKeys ? buffer.getLong() : 0;
+      keyLow = buffer.getLong();
+      measure = buffer.getLong();
+      return true;
+    }
+  }
+
+
+}
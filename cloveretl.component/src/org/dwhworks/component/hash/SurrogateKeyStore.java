@@ -0,0 +1,468 @@
+package org.dwhworks.component.hash;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Persistent map of key hashes to surrogate keys, which are assigned to new key hashes as 1, 2, 3...
+ * <p>
+ * Keys are kept in an open-addressing hash table with linear probing in a memory-mapped file, so the table
+ * is accessed through the page cache and neither loaded onto the heap nor rewritten on every run.
+ * Every new key is appended to a write-ahead log, which {@link #commit()} forces to the storage device,
+ * so surrogate keys must be published only after the commit. {@link #close()} forces the table and empties
+ * the log. A store which was not closed cleanly is recovered on open: the table is scanned for the highest
+ * surrogate key and committed entries of the log are applied again, so a surrogate key is never assigned twice.
+ * <p>
+ * The table file starts with a header of {@link #HEADER_SIZE} bytes, all numbers are big-endian:
+ * <pre>
+ *  0  int    magic "DWHK"
+ *  4  int    format version
+ *  8  int    flags, bit 0 - wide keys, bit 1 - not closed cleanly
+ * 12  int    reserved
+ * 16  long   capacity in slots, a power of 2
+ * 24  long   number of keys
+ * 32  long   next surrogate key
+ * </pre>
+ * Slots follow the header: key (8 bytes, or 16 bytes with wide keys) and surrogate key (8 bytes),
+ * padded to 16 or 32 bytes, so a slot never spans two pages. The surrogate key 0 marks an empty slot.
+ * The log file (name of the table file and {@value #LOG_SUFFIX}) consists of entries of 32 bytes:
+ * key high, key low, surrogate key and checksum; a torn entry at its end is ignored.
+ * The table grows into a new file, which replaces the table file when it is complete; both files are unmapped
+ * and closed before the replacement, so it also works on systems which do not allow to replace a mapped file.
+ * <p>
+ * An open store holds an exclusive lock of the lock file (name of the table file and {@value #LOCK_SUFFIX}),
+ * so a store is never opened twice at once, neither by another process nor by this one.
+ * The lock file is left in place when the store is closed. A store is not thread-safe.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class SurrogateKeyStore implements Closeable {
+
+  /** Size of the header in bytes. */
+  public static final int HEADER_SIZE = 64;
+  public static final String LOG_SUFFIX = ".log";
+  public static final String LOCK_SUFFIX = ".lock";
+
+  private static final String GROW_SUFFIX = ".grow";
+  private static final int MAGIC = 0x4457484b;
+  private static final int VERSION = 1;
+  private static final int FLAG_WIDE_KEYS = 1;
+  private static final int FLAG_DIRTY = 2;
+
+  private static final long MIN_CAPACITY = 1024;
+  private static final long MAX_CAPACITY = 1L << 40;
+  private static final double LOAD_FACTOR = 0.7;
+
+  private static final int LOG_ENTRY_SIZE = 32;
+  private static final int LOG_BUFFER_SIZE = LOG_ENTRY_SIZE << 11;
+  private static final long LOG_CHECKSUM_SEED = 0x5375727247656e31L;
+
+  private final File file, logFile;
+  private final boolean wideKeys;
+  private final int slotWidth, lowOffset, idOffset;
+
+  private FileChannel channel;
+  private MappedBuffer slots;
+  private long capacity, mask, size, threshold, nextId;
+
+  private final FileChannel log, lock;
+  private final ByteBuffer logBuffer = ByteBuffer.allocateDirect(LOG_BUFFER_SIZE);
+  private long logPosition;
+  private boolean uncommitted;
+
+  private SurrogateKeyStore(File file, boolean wideKeys, FileChannel channel, FileChannel log, FileChannel lock) {
+    this.file = file;
+    this.logFile = logFile(file);
+    this.wideKeys = wideKeys;
+    this.channel = channel;
+    this.log = log;
+    this.lock = lock;
+    slotWidth = wideKeys ? 32 : 16;
+    lowOffset = wideKeys ? 8 : 0;
+    idOffset = lowOffset + 8;
+  }
+
+  private static File logFile(File file) {
+    return new File(file.getPath() + LOG_SUFFIX);
+  }
+
+  /**
+   * Opens the store, creates it if the file does not exist and recovers it if it was not closed cleanly.
+   *
+   * @param file         table file
+   * @param wideKeys     <code>true</code> if keys may be wider than 64 bits, ignored for an existing store
+   *                     of wide keys
+   * @param expectedSize expected number of keys, sizes a new table
+   * @return open store
+   * @throws IOException if the file can not be read or written, it is not a surrogate key store or the store
+   *                     is open already
+   */
+  public static SurrogateKeyStore open(File file, boolean wideKeys, long expectedSize) throws IOException {
+    FileChannel lock = FileChannel.open(new File(file.getPath() + LOCK_SUFFIX).toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE);
+    FileChannel channel = null, log = null;
+    SurrogateKeyStore store = null;
+    try {
+      lock(lock, file);
+      // the table was being grown when the process died, the old table is intact
+      Files.deleteIfExists(new File(file.getPath() + GROW_SUFFIX).toPath());
+
+      channel = openTable(file);
+      log = FileChannel.open(logFile(file).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+
+      if (channel.size() == 0) {
+        store = new SurrogateKeyStore(file, wideKeys, channel, log, lock);
+        store.create(capacityFor(expectedSize));
+      } else {
+        ByteBuffer header = readHeader(channel, file);
+        int flags = header.getInt(8);
+        if ((flags & FLAG_WIDE_KEYS) == 0 && wideKeys)
+          throw new IOException("Surrogate key store " + file + " holds 64-bit keys, keys are wider");
+
+        store = new SurrogateKeyStore(file, (flags & FLAG_WIDE_KEYS) != 0, channel, log, lock);
+        store.load(header.getLong(16), header.getLong(24), header.getLong(32), (flags & FLAG_DIRTY) != 0);
+      }
+
+      store.writeHeader(true);
+      store.channel.force(true);
+      return store;
+    } catch (IOException | RuntimeException e) {
+      if (store != null && store.slots != null) store.slots.release();
+      if (store != null) store.channel.close();
+      if (channel != null) channel.close();
+      if (log != null) log.close();
+      lock.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Takes the exclusive lock of the store, it is released when the channel is closed.
+   */
+  private static void lock(FileChannel lock, File file) throws IOException {
+    FileLock fileLock;
+    try {
+      fileLock = lock.tryLock();
+    } catch (OverlappingFileLockException e) {
+      fileLock = null;
+    }
+
+    if (fileLock == null) throw new IOException("Surrogate key store " + file + " is open already");
+  }
+
+  private static FileChannel openTable(File file) throws IOException {
+    return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+  }
+
+  private static long capacityFor(long size) {
+    long capacity = MIN_CAPACITY;
+    while (capacity < MAX_CAPACITY && capacity * LOAD_FACTOR < size) capacity <<= 1;
+    return capacity;
+  }
+
+  private static ByteBuffer readHeader(FileChannel channel, File file) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    while (header.hasRemaining())
+      if (channel.read(header, header.position()) < 0) throw new IOException("Surrogate key store " + file
+          + " is truncated");
+
+    if (header.getInt(0) != MAGIC) throw new IOException("Not a surrogate key store: " + file);
+    int version = header.getInt(4);
+    if (version != VERSION) throw new IOException("Unsupported surrogate key store version " + version);
+    return header;
+  }
+
+  private void create(long capacity) throws IOException {
+    // a log left by a deleted store does not belong to the new one
+    log.truncate(0);
+    map(capacity);
+    size = 0;
+    nextId = 1;
+  }
+
+  private void load(long capacity, long size, long nextId, boolean dirty) throws IOException {
+    map(capacity);
+    this.size = size;
+    this.nextId = nextId;
+
+    if (dirty) scan();
+    if (replayLog()) checkpoint(true);
+  }
+
+  private void map(long capacity) throws IOException {
+    this.capacity = capacity;
+    mask = capacity - 1;
+    threshold = (long) (capacity * LOAD_FACTOR);
+    slots = MappedBuffer.map(channel, FileChannel.MapMode.READ_WRITE, HEADER_SIZE, capacity * slotWidth, slotWidth);
+  }
+
+  /**
+   * Counts keys and finds the next surrogate key in the table, which may contain keys not counted in the header.
+   */
+  private void scan() {
+    size = 0;
+    for (long position = 0; position < capacity * slotWidth; position += slotWidth) {
+      long id = slots.getLong(position + idOffset);
+      if (id == 0) continue;
+      size++;
+      nextId = Math.max(nextId, id + 1);
+    }
+  }
+
+  /**
+   * Applies committed entries of the log to the table.
+   *
+   * @return <code>true</code> if the log was not empty
+   */
+  private boolean replayLog() throws IOException {
+    long length = log.size() / LOG_ENTRY_SIZE * LOG_ENTRY_SIZE;
+    if (length == 0) return log.size() > 0;
+
+    ByteBuffer entries = ByteBuffer.allocate(LOG_BUFFER_SIZE);
+    for (long position = 0; position < length; ) {
+      entries.clear();
+      entries.limit((int) Math.min(entries.capacity(), length - position));
+      while (entries.hasRemaining()) log.read(entries, position + entries.position());
+      entries.flip();
+      position += entries.limit();
+
+      while (entries.hasRemaining()) {
+        long keyHigh = entries.getLong(), keyLow = entries.getLong(), id = entries.getLong(),
+            checksum = entries.getLong();
+        // the entry was not written completely, nothing after it was committed
+        if (id <= 0 || checksum != checksum(keyHigh, keyLow, id)) return true;
+
+        long slot = findSlot(keyHigh, keyLow);
+        if (getId(slot) == 0) {
+          if (size >= threshold) {
+            grow();
+            slot = findSlot(keyHigh, keyLow);
+          }
+          putSlot(slot, keyHigh, keyLow, id);
+          size++;
+        }
+        nextId = Math.max(nextId, id + 1);
+      }
+    }
+    return true;
+  }
+
+  private static long checksum(long keyHigh, long keyLow, long id) {
+    return HashIndex.mix(keyHigh ^ id, keyLow) ^ LOG_CHECKSUM_SEED;
+  }
+
+  /**
+   * @return number of keys
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * @return surrogate key to be assigned to the next new key
+   */
+  public long getNextId() {
+    return nextId;
+  }
+
+  /**
+   * @param keyHigh high 64 bits of the key, must be 0 in a store without wide keys
+   * @param keyLow  low 64 bits of the key
+   * @return surrogate key of the key, 0 if the key is not in the store
+   */
+  public long find(long keyHigh, long keyLow) {
+    checkKey(keyHigh);
+    return getId(findSlot(keyHigh, keyLow));
+  }
+
+  /**
+   * Returns surrogate key of the key, a new key gets the next surrogate key. The surrogate key must not
+   * be published before {@link #commit()}.
+   *
+   * @param keyHigh high 64 bits of the key, must be 0 in a store without wide keys
+   * @param keyLow  low 64 bits of the key
+   * @return surrogate key
+   * @throws IOException if the log can not be written or the table can not grow
+   */
+  public long getOrAssign(long keyHigh, long keyLow) throws IOException {
+    checkKey(keyHigh);
+
+    long slot = findSlot(keyHigh, keyLow), id = getId(slot);
+    if (id != 0) return id;
+
+    if (size >= threshold) {
+      grow();
+      slot = findSlot(keyHigh, keyLow);
+    }
+
+    id = nextId++;
+    appendLog(keyHigh, keyLow, id);
+    putSlot(slot, keyHigh, keyLow, id);
+    size++;
+    return id;
+  }
+
+  private void checkKey(long keyHigh) {
+    if (!wideKeys && keyHigh != 0)
+      throw new IllegalArgumentException("Key wider than 64 bits in a store of 64-bit keys");
+  }
+
+  /**
+   * @return slot of the key or the empty slot where it belongs
+   */
+  private long findSlot(long keyHigh, long keyLow) {
+    long slot = HashIndex.mix(keyHigh, keyLow) & mask;
+
+    while (true) {
+      long position = slot * slotWidth;
+      if (slots.getLong(position + idOffset) == 0) return slot;
+      if (slots.getLong(position + lowOffset) == keyLow && (!wideKeys || slots.getLong(position) == keyHigh))
+        return slot;
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private long getId(long slot) {
+    return slots.getLong(slot * slotWidth + idOffset);
+  }
+
+  /**
+   * Stores the key before the surrogate key, which marks the slot as used.
+   */
+  private void putSlot(long slot, long keyHigh, long keyLow, long id) {
+    long position = slot * slotWidth;
+    if (wideKeys) slots.putLong(position, keyHigh);
+    slots.putLong(position + lowOffset, keyLow);
+    slots.putLong(position + idOffset, id);
+  }
+
+  private void appendLog(long keyHigh, long keyLow, long id) throws IOException {
+    if (logBuffer.remaining() < LOG_ENTRY_SIZE) flushLog();
+    logBuffer.putLong(keyHigh).putLong(keyLow).putLong(id).putLong(checksum(keyHigh, keyLow, id));
+    uncommitted = true;
+  }
+
+  private void flushLog() throws IOException {
+    logBuffer.flip();
+    while (logBuffer.hasRemaining()) logPosition += log.write(logBuffer, logPosition);
+    logBuffer.clear();
+  }
+
+  /**
+   * Forces new keys to the storage device, their surrogate keys may be published then.
+   *
+   * @throws IOException if the log can not be written
+   */
+  public void commit() throws IOException {
+    if (!uncommitted) return;
+    flushLog();
+    log.force(false);
+    uncommitted = false;
+  }
+
+  /**
+   * Doubles the capacity of the table. The new table is written into a separate file, which replaces
+   * the table file when it is complete; the log stays valid for both tables. Both tables are unmapped
+   * and closed before the replacement and the new table is mapped again afterwards.
+   */
+  private void grow() throws IOException {
+    if (capacity == MAX_CAPACITY)
+      throw new IllegalStateException("Surrogate key store is full, it can hold at most " + threshold + " keys");
+
+    MappedBuffer oldSlots = slots;
+    long oldCapacity = capacity;
+    File growFile = new File(file.getPath() + GROW_SUFFIX);
+    FileChannel oldChannel = channel;
+
+    channel = FileChannel.open(growFile.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    try {
+      map(oldCapacity << 1);
+      for (long position = 0; position < oldCapacity * slotWidth; position += slotWidth) {
+        long id = oldSlots.getLong(position + idOffset);
+        if (id == 0) continue;
+
+        long keyHigh = wideKeys ? oldSlots.getLong(position) : 0, keyLow = oldSlots.getLong(position + lowOffset);
+        putSlot(findSlot(keyHigh, keyLow), keyHigh, keyLow, id);
+      }
+
+      slots.force();
+      writeHeader(true);
+      channel.force(true);
+    } catch (IOException | RuntimeException e) {
+      if (slots != oldSlots) slots.release();
+      channel.close();
+      channel = oldChannel;
+      slots = oldSlots;
+      capacity = oldCapacity;
+      mask = oldCapacity - 1;
+      threshold = (long) (oldCapacity * LOAD_FACTOR);
+      Files.deleteIfExists(growFile.toPath());
+      throw e;
+    }
+
+    oldSlots.release();
+    oldChannel.close();
+    slots.release();
+    channel.close();
+
+    // a failure leaves the store closed, the old table and the log are recovered on the next open
+    SnapshotWriter.move(growFile, file);
+    channel = openTable(file);
+    map(capacity);
+  }
+
+  private void writeHeader(boolean dirty) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putInt(VERSION).putInt((wideKeys ? FLAG_WIDE_KEYS : 0) | (dirty ? FLAG_DIRTY : 0))
+        .putInt(0).putLong(capacity).putLong(size).putLong(nextId);
+    header.clear();
+    while (header.hasRemaining()) channel.write(header, header.position());
+  }
+
+  /**
+   * Forces the table and the header to the storage device and empties the log.
+   */
+  private void checkpoint(boolean dirty) throws IOException {
+    flushLog();
+    slots.force();
+    writeHeader(dirty);
+    channel.force(true);
+
+    log.truncate(0);
+    log.force(true);
+    logPosition = 0;
+    uncommitted = false;
+  }
+
+  /**
+   * Commits new keys, forces the table and closes the store.
+   *
+   * @throws IOException if the store can not be written
+   */
+  @Override
+  public void close() throws IOException {
+    if (!lock.isOpen()) return;
+
+    try {
+      if (channel.isOpen()) checkpoint(false);
+    } finally {
+      slots.release();
+      channel.close();
+      log.close();
+      lock.close();
+    }
+  }
+
+
+}
@@ -0,0 +1,157 @@
+package org.dwhworks.component.hash;
+
+/**
+ * xxHash64 (seed 0), a fast non-cryptographic 64-bit hash function.
+ * The hash is written in the canonical big-endian byte order.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class XxHash64 implements HashFunction {
+
+  public static final String NAME = "xxhash64";
+
+  private static final long PRIME1 = 0x9E3779B185EBCA87L;
+  private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long PRIME3 = 0x165667B19E3779F9L;
+  private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+  private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+  private static final int STRIPE = 32;
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public int getHashLength() {
+    return 8;
+  }
+
+  @Override
+  public Hasher newHasher() {
+    return new XxHasher();
+  }
+
+  /**
+   * Calculates the hash of a byte array in one go.
+   *
+   * @param bytes  array with the message
+   * @param offset offset of the first byte
+   * @param length number of bytes
+   * @param seed   seed
+   * @return 64-bit hash
+   */
+  public static long hash(byte[] bytes, int offset, int length, long seed) {
+    int i = offset, end = offset + length;
+    long h;
+
+    if (length >= STRIPE) {
+      long v1 = seed + PRIME1 + PRIME2, v2 = seed + PRIME2, v3 = seed, v4 = seed - PRIME1;
+      for (int limit = end - STRIPE; i <= limit; i += STRIPE) {
+        v1 = round(v1, Bytes.getLongLE(bytes, i));
+        v2 = round(v2, Bytes.getLongLE(bytes, i + 8));
+        v3 = round(v3, Bytes.getLongLE(bytes, i + 16));
+        v4 = round(v4, Bytes.getLongLE(bytes, i + 24));
+      }
+      h = converge(v1, v2, v3, v4);
+    } else h = seed + PRIME5;
+
+    return tail(h + length, bytes, i, end);
+  }
+
+  private static long round(long acc, long input) {
+    return Long.rotateLeft(acc + input * PRIME2, 31) * PRIME1;
+  }
+
+  private static long merge(long acc, long v) {
+    return (acc ^ round(0, v)) * PRIME1 + PRIME4;
+  }
+
+  private static long converge(long v1, long v2, long v3, long v4) {
+    long h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+    return merge(merge(merge(merge(h, v1), v2), v3), v4);
+  }
+
+  private static long tail(long h, byte[] bytes, int i, int end) {
+    for (; i + 8 <= end; i += 8)
+      h = Long.rotateLeft(h ^ round(0, Bytes.getLongLE(bytes, i)), 27) * PRIME1 + PRIME4;
+
+    if (i + 4 <= end) {
+      h = Long.rotateLeft(h ^ (Bytes.getIntLE(bytes, i) & 0xffffffffL) * PRIME1, 23) * PRIME2 + PRIME3;
+      i += 4;
+    }
+
+    for (; i < end; i++)
+      h = Long.rotateLeft(h ^ (bytes[i] & 0xffL) * PRIME5, 11) * PRIME1;
+
+    h ^= h >>> 33;
+    h *= PRIME2;
+    h ^= h >>> 29;
+    h *= PRIME3;
+    return h ^ h >>> 32;
+  }
+
+  /**
+   * Streaming hasher, buffers the input up to a full stripe.
+   */
+  private static final class XxHasher implements Hasher {
+    private final byte[] stripe = new byte[STRIPE];
+    private int buffered;
+    private long length, v1, v2, v3, v4;
+
+    XxHasher() {
+      reset();
+    }
+
+    @Override
+    public void update(byte[] bytes, int offset, int count) {
+      length += count;
+      int end = offset + count;
+
+      if (buffered > 0) {
+        int n = Math.min(STRIPE - buffered, count);
+        System.arraycopy(bytes, offset, stripe, buffered, n);
+        buffered += n;
+        offset += n;
+        if (buffered < STRIPE) return;
+        consume(stripe, 0);
+        buffered = 0;
+      }
+
+      for (int limit = end - STRIPE; offset <= limit; offset += STRIPE) consume(bytes, offset);
+
+      if (offset < end) {
+        buffered = end - offset;
+        System.arraycopy(bytes, offset, stripe, 0, buffered);
+      }
+    }
+
+    private void consume(byte[] bytes, int i) {
+      v1 = round(v1, Bytes.getLongLE(bytes, i));
+      v2 = round(v2, Bytes.getLongLE(bytes, i + 8));
+      v3 = round(v3, Bytes.getLongLE(bytes, i + 16));
+      v4 = round(v4, Bytes.getLongLE(bytes, i + 24));
+    }
+
+    @Override
+    public void finish(byte[] out, int offset) {
+      long h = length >= STRIPE ? converge(v1, v2, v3, v4) : PRIME5;
+      Bytes.putLongBE(out, offset, tail(h + length, stripe, 0, buffered));
+      reset();
+    }
+
+    @Override
+    public void reset() {
+      buffered = 0;
+      length = 0;
+      v1 = PRIME1 + PRIME2;
+      v2 = PRIME2;
+      v3 = 0;
+      v4 = -PRIME1;
+    }
+  }
+
+
+}
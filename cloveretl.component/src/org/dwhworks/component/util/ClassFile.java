@@ -0,0 +1,308 @@
+package org.dwhworks.component.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal writer of Java class files, just enough for straight-line generated code:
+ * fields, methods without branches and exception handlers, and the constant pool they need.
+ * <p>
+ * Classes are written in version 49 (Java 5), which needs no stack map frames, so the writer
+ * does not analyze the code at all. Maximum stack depth and number of locals of every method
+ * are declared by the caller.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+final class ClassFile {
+
+  static final int ACC_PUBLIC = 0x0001;
+  static final int ACC_PRIVATE = 0x0002;
+  static final int ACC_FINAL = 0x0010;
+  static final int ACC_SUPER = 0x0020;
+
+  private static final int MAGIC = 0xcafebabe;
+  private static final int VERSION = 49;
+
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_INTEGER = 3;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_STRING = 8;
+  private static final int CONSTANT_FIELDREF = 9;
+  private static final int CONSTANT_METHODREF = 10;
+  private static final int CONSTANT_INTERFACE_METHODREF = 11;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+  private final String name, superName;
+  private final String[] interfaces;
+
+  private final Map<String, Integer> constants = new HashMap<>();
+  private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream(1024);
+  private final DataOutputStream pool = new DataOutputStream(poolBytes);
+  private int poolSize = 1;
+
+  private final ByteArrayOutputStream fieldBytes = new ByteArrayOutputStream(), methodBytes = new ByteArrayOutputStream(4096);
+  private final DataOutputStream fields = new DataOutputStream(fieldBytes), methods = new DataOutputStream(methodBytes);
+  private int fieldCount, methodCount;
+
+  /**
+   * Constructor
+   *
+   * @param name       internal name of the class, e.g. <code>org/dwhworks/Generated</code>
+   * @param superName  internal name of the super class
+   * @param interfaces internal names of implemented interfaces
+   */
+  ClassFile(String name, String superName, String... interfaces) {
+    this.name = name;
+    this.superName = superName;
+    this.interfaces = interfaces;
+  }
+
+  /**
+   * @return internal name of the class
+   */
+  String getName() {
+    return name;
+  }
+
+  /**
+   * Adds a field.
+   *
+   * @param access     access flags
+   * @param name       field name
+   * @param descriptor field type descriptor
+   */
+  void field(int access, String name, String descriptor) {
+    try {
+      fields.writeShort(access);
+      fields.writeShort(utf8(name));
+      fields.writeShort(utf8(descriptor));
+      fields.writeShort(0);
+      fieldCount++;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Starts a method, its code is added by the returned builder and the method is complete by {@link Code#end}.
+   *
+   * @param access     access flags
+   * @param name       method name
+   * @param descriptor method descriptor
+   * @return builder of the method code
+   */
+  Code method(int access, String name, String descriptor) {
+    return new Code(access, utf8(name), utf8(descriptor));
+  }
+
+  /**
+   * @return the class file
+   */
+  byte[] toByteArray() {
+    try {
+      int thisClass = classRef(name), superClass = classRef(superName);
+      int[] interfaceClasses = new int[interfaces.length];
+      for (int i = 0; i < interfaces.length; i++) interfaceClasses[i] = classRef(interfaces[i]);
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(poolBytes.size() + methodBytes.size() + 256);
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(MAGIC);
+      out.writeShort(0);
+      out.writeShort(VERSION);
+      out.writeShort(poolSize);
+      poolBytes.writeTo(out);
+
+      out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+      out.writeShort(thisClass);
+      out.writeShort(superClass);
+      out.writeShort(interfaceClasses.length);
+      for (int interfaceClass : interfaceClasses) out.writeShort(interfaceClass);
+
+      out.writeShort(fieldCount);
+      fieldBytes.writeTo(out);
+      out.writeShort(methodCount);
+      methodBytes.writeTo(out);
+      out.writeShort(0);
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private int utf8(String value) {
+    Integer index = constants.get("U" + value);
+    if (index != null) return index;
+
+    try {
+      pool.writeByte(CONSTANT_UTF8);
+      pool.writeUTF(value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return addConstant("U" + value, 1);
+  }
+
+  private int constant(String key, int tag, int first, int second) {
+    Integer index = constants.get(key);
+    if (index != null) return index;
+
+    try {
+      pool.writeByte(tag);
+      pool.writeShort(first);
+      if (second >= 0) pool.writeShort(second);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return addConstant(key, 1);
+  }
+
+  private int addConstant(String key, int slots) {
+    int index = poolSize;
+    if (index + slots > 0xffff) throw new IllegalStateException("Constant pool of " + name + " is full");
+    constants.put(key, index);
+    poolSize += slots;
+    return index;
+  }
+
+  private int classRef(String internalName) {
+    return constant("C" + internalName, CONSTANT_CLASS, utf8(internalName), -1);
+  }
+
+  private int string(String value) {
+    return constant("S" + value, CONSTANT_STRING, utf8(value), -1);
+  }
+
+  private int integer(int value) {
+    Integer index = constants.get("I" + value);
+    if (index != null) return index;
+
+    try {
+      pool.writeByte(CONSTANT_INTEGER);
+      pool.writeInt(value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return addConstant("I" + value, 1);
+  }
+
+  private int memberRef(int tag, String owner, String name, String descriptor) {
+    int nameAndType = constant("N" + name + ' ' + descriptor, CONSTANT_NAME_AND_TYPE, utf8(name), utf8(descriptor));
+    return constant(tag + owner + '.' + name + ' ' + descriptor, tag, classRef(owner), nameAndType);
+  }
+
+  /**
+   * Bytecode of a method. Only instructions needed by generated code are supported.
+   */
+  final class Code {
+    private final int access, name, descriptor;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+
+    Code(int access, int name, int descriptor) {
+      this.access = access;
+      this.name = name;
+      this.descriptor = descriptor;
+    }
+
+    Code aload(int local) {
+      if (local <= 3) op(0x2a + local);
+      else op(0x19).op(local);
+      return this;
+    }
+
+    Code astore(int local) {
+      if (local <= 3) op(0x4b + local);
+      else op(0x3a).op(local);
+      return this;
+    }
+
+    Code aaload() {
+      return op(0x32);
+    }
+
+    Code push(int value) {
+      if (value >= -1 && value <= 5) return op(0x03 + value);
+      if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) return op(0x10).op(value);
+      if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) return op(0x11).u2(value);
+      return ldc(integer(value));
+    }
+
+    Code ldc(String value) {
+      return ldc(string(value));
+    }
+
+    private Code ldc(int index) {
+      return index <= 0xff ? op(0x12).op(index) : op(0x13).u2(index);
+    }
+
+    Code getfield(String owner, String name, String descriptor) {
+      return op(0xb4).u2(memberRef(CONSTANT_FIELDREF, owner, name, descriptor));
+    }
+
+    Code putfield(String owner, String name, String descriptor) {
+      return op(0xb5).u2(memberRef(CONSTANT_FIELDREF, owner, name, descriptor));
+    }
+
+    Code invokevirtual(String owner, String name, String descriptor) {
+      return op(0xb6).u2(memberRef(CONSTANT_METHODREF, owner, name, descriptor));
+    }
+
+    Code invokespecial(String owner, String name, String descriptor) {
+      return op(0xb7).u2(memberRef(CONSTANT_METHODREF, owner, name, descriptor));
+    }
+
+    /**
+     * @param argumentSlots number of local variable slots taken by the arguments, without the receiver
+     */
+    Code invokeinterface(String owner, String name, String descriptor, int argumentSlots) {
+      return op(0xb9).u2(memberRef(CONSTANT_INTERFACE_METHODREF, owner, name, descriptor)).op(argumentSlots + 1).op(0);
+    }
+
+    Code returnVoid() {
+      return op(0xb1);
+    }
+
+    /**
+     * Completes the method.
+     *
+     * @param maxStack  maximum depth of the operand stack
+     * @param maxLocals number of local variable slots, including <code>this</code> and arguments
+     */
+    void end(int maxStack, int maxLocals) {
+      try {
+        methods.writeShort(access);
+        methods.writeShort(name);
+        methods.writeShort(descriptor);
+        methods.writeShort(1);
+        methods.writeShort(utf8("Code"));
+        methods.writeInt(12 + bytes.size());
+        methods.writeShort(maxStack);
+        methods.writeShort(maxLocals);
+        methods.writeInt(bytes.size());
+        bytes.writeTo(methods);
+        methods.writeShort(0);
+        methods.writeShort(0);
+        methodCount++;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private Code op(int value) {
+      bytes.write(value);
+      return this;
+    }
+
+    private Code u2(int value) {
+      bytes.write(value >>> 8);
+      bytes.write(value);
+      return this;
+    }
+  }
+
+
+}
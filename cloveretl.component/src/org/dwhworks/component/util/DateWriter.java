@@ -0,0 +1,295 @@
+package org.dwhworks.component.util;
+
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Writes dates as {@link SimpleDateFormat} does, appending digits straight into a text buffer.
+ * <p>
+ * The pattern of the format is compiled once into a list of numeric fields and literals.
+ * Patterns with text fields (month and day names, AM/PM, time zones, ...) are not compiled and stay
+ * with {@link SimpleDateFormat}. Calendar fields of a date are computed from the epoch day by
+ * {@link LocalDate} once a day: the leading part of the pattern, which depends on the day only
+ * (e.g. "yyyy-MM-dd " in "yyyy-MM-dd HH:mm:ss"), is kept formatted for the last day written, so records
+ * of the same day append it as a whole and format the time of day only.
+ * <p>
+ * The output is identical to the output of the format in its time zone. Dates before 1583 are not written,
+ * as the calendar of {@link SimpleDateFormat} is Julian there and 1582 is ten days shorter.
+ * A writer keeps the last day and is not thread-safe, use {@link #copy()} to get a writer for another thread.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class DateWriter {
+
+  /** The default pattern of DATE fields, written by a dedicated path. */
+  public static final String DEFAULT_PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+  private static final long MILLIS_PER_DAY = 86400000L;
+  /** Epoch day of 1583-01-01, the first day of the first whole Gregorian year. */
+  private static final long FIRST_GREGORIAN_YEAR_DAY = -141349;
+
+  private static final int LITERAL = 0;
+  private static final int YEAR = 1;
+  private static final int YEAR_OF_CENTURY = 2;
+  private static final int MONTH = 3;
+  private static final int DAY_OF_MONTH = 4;
+  private static final int DAY_OF_YEAR = 5;
+  /** First field which depends on the time of day. */
+  private static final int HOUR_OF_DAY = 6;
+  private static final int HOUR_OF_DAY_1 = 7;
+  private static final int HOUR = 8;
+  private static final int HOUR_1 = 9;
+  private static final int MINUTE = 10;
+  private static final int SECOND = 11;
+  private static final int MILLISECOND = 12;
+
+  private final int[] fields, widths;
+  private final String[] literals;
+  private final int dayPrefixLength;
+  private final boolean defaultPattern;
+  private final TimeZone timeZone;
+
+  private long lastDay = Long.MIN_VALUE;
+  private int year, month, dayOfMonth, dayOfYear;
+  private final StringBuilder dayPrefix = new StringBuilder(32);
+
+  private DateWriter(int[] fields, int[] widths, String[] literals, boolean defaultPattern, TimeZone timeZone) {
+    this.fields = fields;
+    this.widths = widths;
+    this.literals = literals;
+    this.defaultPattern = defaultPattern;
+    this.timeZone = timeZone;
+
+    int prefix = 0;
+    while (prefix < fields.length && fields[prefix] < HOUR_OF_DAY) prefix++;
+    this.dayPrefixLength = prefix;
+  }
+
+  /**
+   * Compiles the pattern of a format.
+   *
+   * @param format date format
+   * @return writer or <code>null</code> if the format can not be written without {@link SimpleDateFormat}
+   */
+  public static DateWriter compile(SimpleDateFormat format) {
+    if (!GregorianCalendar.class.equals(format.getCalendar().getClass())) return null;
+
+    NumberFormat numberFormat = format.getNumberFormat();
+    if (!(numberFormat instanceof DecimalFormat)
+        || ((DecimalFormat) numberFormat).getDecimalFormatSymbols().getZeroDigit() != '0') return null;
+
+    String pattern = format.toPattern();
+    List<int[]> tokens = new ArrayList<>();
+    List<String> texts = new ArrayList<>();
+    StringBuilder literal = new StringBuilder();
+
+    boolean quoted = false;
+
+    for (int i = 0; i < pattern.length(); ) {
+      char c = pattern.charAt(i);
+
+      if (c == '\'') {
+        // '' is a quote both inside and outside of quoted text
+        if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+          literal.append('\'');
+          i += 2;
+        } else {
+          quoted = !quoted;
+          i++;
+        }
+        continue;
+      }
+
+      if (quoted || !(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z')) {
+        literal.append(c);
+        i++;
+        continue;
+      }
+
+      int width = 1;
+      while (i + width < pattern.length() && pattern.charAt(i + width) == c) width++;
+      i += width;
+
+      int field = field(c, width);
+      if (field < 0) return null;
+
+      if (literal.length() > 0) {
+        tokens.add(new int[]{LITERAL, 0});
+        texts.add(literal.toString());
+        literal.setLength(0);
+      }
+      tokens.add(new int[]{field == YEAR && width == 2 ? YEAR_OF_CENTURY : field, width});
+      texts.add(null);
+    }
+
+    if (literal.length() > 0) {
+      tokens.add(new int[]{LITERAL, 0});
+      texts.add(literal.toString());
+    }
+
+    int[] fields = new int[tokens.size()], widths = new int[tokens.size()];
+    for (int i = 0; i < fields.length; i++) {
+      fields[i] = tokens.get(i)[0];
+      widths[i] = tokens.get(i)[1];
+    }
+
+    return new DateWriter(fields, widths, texts.toArray(new String[0]), DEFAULT_PATTERN.equals(pattern),
+        (TimeZone) format.getTimeZone().clone());
+  }
+
+  private static int field(char letter, int width) {
+    switch (letter) {
+      case 'y':
+        return YEAR;
+      case 'M':
+        return width <= 2 ? MONTH : -1;
+      case 'd':
+        return DAY_OF_MONTH;
+      case 'D':
+        return DAY_OF_YEAR;
+      case 'H':
+        return HOUR_OF_DAY;
+      case 'k':
+        return HOUR_OF_DAY_1;
+      case 'K':
+        return HOUR;
+      case 'h':
+        return HOUR_1;
+      case 'm':
+        return MINUTE;
+      case 's':
+        return SECOND;
+      case 'S':
+        return MILLISECOND;
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * @return new writer of the same pattern
+   */
+  public DateWriter copy() {
+    return new DateWriter(fields, widths, literals, defaultPattern, timeZone);
+  }
+
+  /**
+   * Appends the formatted date to the buffer.
+   *
+   * @param millis date as milliseconds since the epoch
+   * @param out    buffer for the formatted date
+   * @return <code>false</code> if the date is out of the range of the writer and nothing was appended
+   */
+  public boolean write(long millis, StringBuilder out) {
+    long local = millis + timeZone.getOffset(millis);
+    long day = Math.floorDiv(local, MILLIS_PER_DAY);
+    if (day < FIRST_GREGORIAN_YEAR_DAY) return false;
+
+    int millisOfDay = (int) Math.floorMod(local, MILLIS_PER_DAY);
+    if (day != lastDay) setDay(day);
+    out.append(dayPrefix);
+
+    if (defaultPattern) {
+      int secondOfDay = millisOfDay / 1000;
+      appendTwoDigits(secondOfDay / 3600, out);
+      out.append(':');
+      appendTwoDigits(secondOfDay / 60 % 60, out);
+      out.append(':');
+      appendTwoDigits(secondOfDay % 60, out);
+      return true;
+    }
+
+    for (int i = dayPrefixLength; i < fields.length; i++) writeField(i, millisOfDay, out);
+    return true;
+  }
+
+  private void setDay(long day) {
+    LocalDate date = LocalDate.ofEpochDay(day);
+    year = date.getYear();
+    month = date.getMonthValue();
+    dayOfMonth = date.getDayOfMonth();
+    dayOfYear = date.getDayOfYear();
+    lastDay = day;
+
+    dayPrefix.setLength(0);
+    for (int i = 0; i < dayPrefixLength; i++) writeField(i, 0, dayPrefix);
+  }
+
+  private void writeField(int token, int millisOfDay, StringBuilder out) {
+    int width = widths[token];
+
+    switch (fields[token]) {
+      case LITERAL:
+        out.append(literals[token]);
+        break;
+      case YEAR:
+        appendPadded(year, width, out);
+        break;
+      case YEAR_OF_CENTURY:
+        appendTwoDigits(year % 100, out);
+        break;
+      case MONTH:
+        appendPadded(month, width, out);
+        break;
+      case DAY_OF_MONTH:
+        appendPadded(dayOfMonth, width, out);
+        break;
+      case DAY_OF_YEAR:
+        appendPadded(dayOfYear, width, out);
+        break;
+      case HOUR_OF_DAY:
+        appendPadded(millisOfDay / 3600000, width, out);
+        break;
+      case HOUR_OF_DAY_1:
+        int hourOfDay = millisOfDay / 3600000;
+        appendPadded(hourOfDay == 0 ? 24 : hourOfDay, width, out);
+        break;
+      case HOUR:
+        appendPadded(millisOfDay / 3600000 % 12, width, out);
+        break;
+      case HOUR_1:
+        int hour = millisOfDay / 3600000 % 12;
+        appendPadded(hour == 0 ? 12 : hour, width, out);
+        break;
+      case MINUTE:
+        appendPadded(millisOfDay / 60000 % 60, width, out);
+        break;
+      case SECOND:
+        appendPadded(millisOfDay / 1000 % 60, width, out);
+        break;
+      case MILLISECOND:
+        appendPadded(millisOfDay % 1000, width, out);
+        break;
+      default:
+        throw new IllegalStateException("Unknown date field " + fields[token]);
+    }
+  }
+
+  private static void appendTwoDigits(int value, StringBuilder out) {
+    out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+  }
+
+  /**
+   * Appends a non-negative number padded by zeros to the width.
+   */
+  private static void appendPadded(int value, int width, StringBuilder out) {
+    if (width == 2 && value < 100) {
+      appendTwoDigits(value, out);
+      return;
+    }
+
+    int digits = 1;
+    for (int v = value; v >= 10; v /= 10) digits++;
+    for (int i = digits; i < width; i++) out.append('0');
+    out.append(value);
+  }
+
+
+}
@@ -0,0 +1,166 @@
+package org.dwhworks.component.util;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Writes exact decimal and integer values as a plain {@link DecimalFormat} pattern does,
+ * e.g. "#################0.00", appending digits straight into a text buffer.
+ * <p>
+ * Digits are taken from the unscaled value of the decimal, so values of any precision are written exactly.
+ * The output is identical to the output of the format for all values which need no rounding, i.e. have
+ * no more significant fraction digits than the format allows, and which survive conversion to double.
+ * Values which need rounding are not written. A separator which is always shown, as in "#################0.",
+ * is written after the integer digits of values without fraction digits.
+ * Patterns with grouping, prefixes, suffixes, exponent, percent or a multiplier are not compiled.
+ * A writer has no state and is thread-safe.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class DecimalWriter {
+
+  /** Precision of values whose unscaled value fits into a long. */
+  private static final int LONG_PRECISION = 18;
+  private static final long[] POWERS_OF_TEN = new long[LONG_PRECISION + 1];
+
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+  }
+
+  private final int minIntegerDigits, maxIntegerDigits, minFractionDigits, maxFractionDigits;
+  private final char decimalSeparator;
+  private final boolean decimalSeparatorAlwaysShown;
+  private final String negativePrefix;
+
+  private DecimalWriter(DecimalFormat format) {
+    DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+    this.minIntegerDigits = format.getMinimumIntegerDigits();
+    this.maxIntegerDigits = format.getMaximumIntegerDigits();
+    this.minFractionDigits = format.getMinimumFractionDigits();
+    this.maxFractionDigits = format.getMaximumFractionDigits();
+    this.decimalSeparator = symbols.getDecimalSeparator();
+    this.decimalSeparatorAlwaysShown = format.isDecimalSeparatorAlwaysShown();
+    this.negativePrefix = format.getNegativePrefix();
+  }
+
+  /**
+   * Compiles a format.
+   *
+   * @param format decimal format
+   * @return writer or <code>null</code> if the format can not be written without {@link DecimalFormat}
+   */
+  public static DecimalWriter compile(DecimalFormat format) {
+    String pattern = format.toPattern();
+    for (int i = 0; i < pattern.length(); i++)
+      if ("#0,.".indexOf(pattern.charAt(i)) < 0) return null;
+
+    if (format.isGroupingUsed() && format.getGroupingSize() > 0 || format.getMultiplier() != 1
+        || !format.getPositivePrefix().isEmpty() || !format.getPositiveSuffix().isEmpty()
+        || !format.getNegativeSuffix().isEmpty()
+        || format.getDecimalFormatSymbols().getZeroDigit() != '0') return null;
+
+    return new DecimalWriter(format);
+  }
+
+  /**
+   * Appends the formatted value to the buffer.
+   *
+   * @param value value to format
+   * @param out   buffer for the formatted value
+   * @return <code>false</code> if the value needs rounding or does not fit the format and nothing was appended
+   */
+  public boolean write(BigDecimal value, StringBuilder out) {
+    int scale = value.scale();
+    if (scale < 0) return false;
+
+    return value.precision() <= LONG_PRECISION && scale <= LONG_PRECISION ? write(value.unscaledValue().longValue(), scale, out)
+        : writeDigits(value.signum() < 0, value.unscaledValue().abs().toString(), scale, out);
+  }
+
+  /**
+   * Appends the formatted value of an unscaled number to the buffer.
+   *
+   * @param unscaled unscaled value, at most {@value #LONG_PRECISION} digits
+   * @param scale    scale of the value, from 0 to {@value #LONG_PRECISION}
+   * @param out      buffer for the formatted value
+   * @return <code>false</code> if the value needs rounding or does not fit the format and nothing was appended
+   */
+  public boolean write(long unscaled, int scale, StringBuilder out) {
+    long digits = Math.abs(unscaled), integer = digits / POWERS_OF_TEN[scale], fraction = digits % POWERS_OF_TEN[scale];
+
+    int fractionDigits = scale;
+    while (fractionDigits > 0 && fraction % 10 == 0) {
+      fraction /= 10;
+      fractionDigits--;
+    }
+    if (fractionDigits > maxFractionDigits) return false;
+
+    int integerDigits = integer == 0 ? 0 : digitCount(integer);
+    if (integerDigits > maxIntegerDigits) return false;
+
+    if (unscaled < 0) out.append(negativePrefix);
+    appendZeros(minIntegerDigits - integerDigits, out);
+    if (integerDigits > 0) out.append(integer);
+
+    int outputFractionDigits = Math.max(minFractionDigits, fractionDigits);
+    if (outputFractionDigits > 0) {
+      out.append(decimalSeparator);
+      if (fractionDigits > 0) {
+        appendZeros(fractionDigits - digitCount(fraction), out);
+        out.append(fraction);
+      }
+      appendZeros(outputFractionDigits - fractionDigits, out);
+    } else {
+      if (integerDigits == 0 && minIntegerDigits == 0) out.append('0');
+      if (decimalSeparatorAlwaysShown) out.append(decimalSeparator);
+    }
+
+    return true;
+  }
+
+  private boolean writeDigits(boolean negative, String digits, int scale, StringBuilder out) {
+    int integerEnd = Math.max(digits.length() - scale, 0), fractionEnd = digits.length();
+    while (fractionEnd > integerEnd && digits.charAt(fractionEnd - 1) == '0') fractionEnd--;
+
+    // digits of the fraction, including zeros between the decimal separator and the digits
+    int fractionDigits = scale - (digits.length() - fractionEnd);
+    if (fractionDigits > maxFractionDigits) return false;
+
+    int integerStart = 0;
+    while (integerStart < integerEnd && digits.charAt(integerStart) == '0') integerStart++;
+    int integerDigits = integerEnd - integerStart;
+    if (integerDigits > maxIntegerDigits) return false;
+
+    if (negative) out.append(negativePrefix);
+    appendZeros(minIntegerDigits - integerDigits, out);
+    out.append(digits, integerStart, integerEnd);
+
+    int outputFractionDigits = Math.max(minFractionDigits, fractionDigits);
+    if (outputFractionDigits > 0) {
+      out.append(decimalSeparator);
+      appendZeros(fractionDigits - (fractionEnd - integerEnd), out);
+      out.append(digits, integerEnd, fractionEnd);
+      appendZeros(outputFractionDigits - fractionDigits, out);
+    } else {
+      if (integerDigits == 0 && minIntegerDigits == 0) out.append('0');
+      if (decimalSeparatorAlwaysShown) out.append(decimalSeparator);
+    }
+
+    return true;
+  }
+
+  private static int digitCount(long value) {
+    int digits = 1;
+    while (digits < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[digits]) digits++;
+    return digits;
+  }
+
+  private static void appendZeros(int count, StringBuilder out) {
+    for (int i = 0; i < count; i++) out.append('0');
+  }
+
+
+}
@@ -0,0 +1,283 @@
+package org.dwhworks.component.util;
+
+import org.dwhworks.component.hash.BatchHasher;
+import org.dwhworks.component.hash.HashFunction;
+import org.dwhworks.component.hash.Hasher;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes text into bytes and feeds them incrementally into a hash function.
+ * <p>
+ * Text written to the writer is encoded through reusable char and byte buffers, so the whole
+ * hashed text is never materialized neither as a string nor as a byte array. UTF-8 is encoded
+ * by the writer itself straight from the text into the byte buffer, with a fast path for ASCII.
+ * The digest is bit-identical to the digest of <code>text.getBytes(charset)</code>:
+ * malformed and unmappable characters are replaced by the charset's replacement bytes.
+ * <p>
+ * A batch writer (see {@link #batch}) collects many messages, each completed by {@link #endMessage()},
+ * and digests all of them at once by {@link #digestBatch()}, so that the hash function may interleave them.
+ * A writer is not thread-safe.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class DigestWriter {
+
+  private static final int BUFFER_SIZE = 1024;
+  /** Longest UTF-8 sequence of a code point. */
+  private static final int MAX_UTF8_BYTES = 4;
+  /** Replacement of malformed chars in UTF-8, the same as of the JDK encoder. */
+  private static final byte UTF8_REPLACEMENT = '?';
+
+  private final Hasher hasher;
+  private final BatchHasher batchHasher;
+  private final CharsetEncoder encoder;
+  private final CharBuffer chars;
+  private final ByteBuffer bytes;
+  private final byte[] digestBytes;
+  private byte[] batchDigestBytes = new byte[0];
+  private final boolean utf8;
+  /** High surrogate at the end of the last text written, waiting for its low surrogate. */
+  private char highSurrogate;
+
+  /**
+   * Constructor
+   *
+   * @param function hash function
+   * @param charset  charset used to encode text into bytes
+   */
+  public DigestWriter(HashFunction function, Charset charset) {
+    this(function.newHasher(), null, function.getHashLength(), charset);
+  }
+
+  private DigestWriter(Hasher hasher, BatchHasher batchHasher, int digestLength, Charset charset) {
+    this.hasher = hasher;
+    this.batchHasher = batchHasher;
+    this.encoder = charset.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.chars = CharBuffer.allocate(BUFFER_SIZE);
+    this.bytes = ByteBuffer.allocate((int) Math.ceil(BUFFER_SIZE * encoder.maxBytesPerChar()));
+    this.digestBytes = new byte[digestLength];
+    this.utf8 = StandardCharsets.UTF_8.equals(charset);
+  }
+
+  /**
+   * Creates a writer digesting batches of messages.
+   *
+   * @param function hash function
+   * @param charset  charset used to encode text into bytes
+   * @return the writer or <code>null</code> if the function does not hash batches faster than messages one by one
+   */
+  public static DigestWriter batch(HashFunction function, Charset charset) {
+    BatchHasher batchHasher = function.newBatchHasher();
+    return batchHasher == null ? null : new DigestWriter(null, batchHasher, function.getHashLength(), charset);
+  }
+
+  /**
+   * @return length of the digest in bytes
+   */
+  public int getDigestLength() {
+    return digestBytes.length;
+  }
+
+  /**
+   * Appends text to the digested message.
+   *
+   * @param s text
+   */
+  public void write(CharSequence s) {
+    write(s, 0, s.length());
+  }
+
+  /**
+   * Appends a part of the text to the digested message.
+   *
+   * @param s     text
+   * @param start index of the first char
+   * @param end   index after the last char
+   */
+  public void write(CharSequence s, int start, int end) {
+    if (utf8) {
+      writeUtf8(s, start, end);
+      return;
+    }
+
+    for (int i = start; i < end; i++) {
+      if (!chars.hasRemaining()) encode(false);
+      chars.put(s.charAt(i));
+    }
+  }
+
+  /**
+   * Completes the digest and resets the writer for the next message.
+   *
+   * @return digest of all text written since the last reset; the array is reused by the next call
+   * @throws IllegalStateException if this is a batch writer
+   */
+  public byte[] digest() {
+    if (hasher == null) throw new IllegalStateException("Batch writer digests messages by digestBatch()");
+
+    endText();
+    hasher.finish(digestBytes, 0);
+
+    reset();
+    return digestBytes;
+  }
+
+  /**
+   * Completes the current message of the batch, the following text belongs to the next message.
+   *
+   * @throws IllegalStateException if this is not a batch writer
+   */
+  public void endMessage() {
+    if (batchHasher == null) throw new IllegalStateException("Writer of single messages digests them by digest()");
+
+    endText();
+    batchHasher.endMessage();
+    resetText();
+  }
+
+  /**
+   * @return number of messages completed in the batch
+   */
+  public int getMessageCount() {
+    return batchHasher == null ? 0 : batchHasher.getMessageCount();
+  }
+
+  /**
+   * Digests all completed messages of the batch and resets the writer for the next batch.
+   *
+   * @return digests of the messages one after another, {@link #getDigestLength()} bytes each;
+   * the array is reused by the next call and may be longer
+   * @throws IllegalStateException if this is not a batch writer
+   */
+  public byte[] digestBatch() {
+    if (batchHasher == null) throw new IllegalStateException("Writer of single messages digests them by digest()");
+
+    int length = batchHasher.getMessageCount() * digestBytes.length;
+    if (batchDigestBytes.length < length) batchDigestBytes = new byte[length];
+    batchHasher.finish(batchDigestBytes, 0);
+
+    reset();
+    return batchDigestBytes;
+  }
+
+  /**
+   * Discards all text written since the last reset, i.e. the whole batch of a batch writer.
+   */
+  public void reset() {
+    resetText();
+    if (hasher != null) hasher.reset();
+    else batchHasher.reset();
+  }
+
+  /**
+   * Encodes the rest of the text and passes the bytes to the hasher.
+   */
+  private void endText() {
+    if (utf8) {
+      if (highSurrogate != 0) {
+        if (!bytes.hasRemaining()) update();
+        bytes.put(UTF8_REPLACEMENT);
+      }
+    } else {
+      encode(true);
+      flush(encoder.flush(bytes));
+    }
+    update();
+  }
+
+  private void resetText() {
+    chars.clear();
+    bytes.clear();
+    encoder.reset();
+    highSurrogate = 0;
+  }
+
+  private void writeUtf8(CharSequence s, int start, int end) {
+    byte[] out = bytes.array();
+    int limit = out.length - MAX_UTF8_BYTES, n = bytes.position(), i = start;
+
+    if (highSurrogate != 0 && i < end) {
+      if (n > limit) {
+        update();
+        n = 0;
+      }
+
+      char low = s.charAt(i);
+      if (Character.isLowSurrogate(low)) {
+        n = putCodePoint(Character.toCodePoint(highSurrogate, low), out, n);
+        i++;
+      } else out[n++] = UTF8_REPLACEMENT;
+      highSurrogate = 0;
+    }
+
+    while (i < end) {
+      if (n > limit) {
+        bytes.position(n);
+        update();
+        n = 0;
+      }
+
+      char c = s.charAt(i++);
+      if (c < 0x80) {
+        out[n++] = (byte) c;
+        // ASCII runs are copied without further checks
+        for (int run = Math.min(end, i + limit - n); i < run && (c = s.charAt(i)) < 0x80; i++) out[n++] = (byte) c;
+      } else if (c < 0x800) {
+        out[n++] = (byte) (0xc0 | c >> 6);
+        out[n++] = (byte) (0x80 | c & 0x3f);
+      } else if (!Character.isSurrogate(c)) {
+        out[n++] = (byte) (0xe0 | c >> 12);
+        out[n++] = (byte) (0x80 | c >> 6 & 0x3f);
+        out[n++] = (byte) (0x80 | c & 0x3f);
+      } else if (Character.isHighSurrogate(c)) {
+        if (i == end) highSurrogate = c;
+        else if (Character.isLowSurrogate(s.charAt(i))) n = putCodePoint(Character.toCodePoint(c, s.charAt(i++)), out, n);
+        else out[n++] = UTF8_REPLACEMENT;
+      } else out[n++] = UTF8_REPLACEMENT;
+    }
+
+    bytes.position(n);
+  }
+
+  private static int putCodePoint(int codePoint, byte[] out, int n) {
+    out[n++] = (byte) (0xf0 | codePoint >> 18);
+    out[n++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+    out[n++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+    out[n++] = (byte) (0x80 | codePoint & 0x3f);
+    return n;
+  }
+
+  private void encode(boolean endOfInput) {
+    chars.flip();
+
+    while (encoder.encode(chars, bytes, endOfInput).isOverflow()) update();
+
+    // an unpaired high surrogate stays in the buffer until the next char arrives
+    chars.compact();
+  }
+
+  private void flush(CoderResult result) {
+    while (result.isOverflow()) {
+      update();
+      result = encoder.flush(bytes);
+    }
+  }
+
+  private void update() {
+    if (hasher != null) hasher.update(bytes.array(), 0, bytes.position());
+    else batchHasher.update(bytes.array(), 0, bytes.position());
+    bytes.clear();
+  }
+
+
+}
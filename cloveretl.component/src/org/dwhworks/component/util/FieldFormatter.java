@@ -0,0 +1,321 @@
+package org.dwhworks.component.util;
+
+import org.jetel.data.DataField;
+import org.jetel.data.DateDataField;
+import org.jetel.data.DecimalDataField;
+import org.jetel.data.IntegerDataField;
+import org.jetel.data.LongDataField;
+import org.jetel.data.NumericDataField;
+import org.jetel.data.primitive.Decimal;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.FieldPosition;
+import java.text.Format;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Formats a value of a single record field and appends it to a text buffer.
+ * <p>
+ * Formatters are specialized to the type of the field they were compiled for
+ * (see {@link MetadataHelper#getFieldFormatter}) and read the value straight from
+ * the typed data field. NULL is formatted as an empty string.
+ * A formatter reuses its internal buffers between calls and is not thread-safe, use {@link #copy()}
+ * to get a formatter for another thread.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public abstract class FieldFormatter {
+
+  private final String fieldName;
+
+  /**
+   * Constructor
+   *
+   * @param fieldName name of the formatted field
+   */
+  protected FieldFormatter(String fieldName) {
+    this.fieldName = fieldName;
+  }
+
+  /**
+   * @return name of the formatted field
+   */
+  public String getFieldName() {
+    return fieldName;
+  }
+
+  /**
+   * @return format used by this formatter or <code>null</code> if the value is not formatted
+   */
+  public abstract Format getFormat();
+
+  /**
+   * @return new formatter with the same format and its own buffers
+   */
+  public abstract FieldFormatter copy();
+
+  /**
+   * Appends formatted value of the field to the buffer.
+   *
+   * @param field field to format
+   * @param out   buffer for the formatted value
+   * @throws IllegalArgumentException if the value can not be formatted
+   */
+  public abstract void format(DataField field, StringBuilder out) throws IllegalArgumentException;
+
+  /**
+   * Writes formatted value of the field into the digest writer.
+   *
+   * @param field  field to format
+   * @param out    digest writer
+   * @param buffer buffer for the formatted value, its content is replaced
+   * @throws IllegalArgumentException if the value can not be formatted
+   */
+  public void write(DataField field, DigestWriter out, StringBuilder buffer) throws IllegalArgumentException {
+    buffer.setLength(0);
+    format(field, buffer);
+    out.write(buffer);
+  }
+
+  /**
+   * Base class for formatters which use {@link Format}.
+   */
+  private abstract static class TextFormatter<F extends Format> extends FieldFormatter {
+    protected final F format;
+    protected final StringBuffer buffer = new StringBuffer(32);
+    protected final FieldPosition position = new FieldPosition(0);
+
+    TextFormatter(String fieldName, F format) {
+      super(fieldName);
+      this.format = format;
+    }
+
+    @Override
+    public Format getFormat() {
+      return format;
+    }
+
+    void flush(StringBuilder out) {
+      out.append(buffer);
+      buffer.setLength(0);
+    }
+  }
+
+  /**
+   * Formatter for DATE fields, writes dates by {@link DateWriter} if the pattern allows it.
+   */
+  static final class DateFormatter extends TextFormatter<SimpleDateFormat> {
+    private final DateWriter writer;
+
+    DateFormatter(String fieldName, SimpleDateFormat format) {
+      this(fieldName, format, DateWriter.compile(format));
+    }
+
+    private DateFormatter(String fieldName, SimpleDateFormat format, DateWriter writer) {
+      super(fieldName, format);
+      this.writer = writer;
+    }
+
+    @Override
+    public FieldFormatter copy() {
+      return new DateFormatter(getFieldName(), (SimpleDateFormat) format.clone(),
+          writer == null ? null : writer.copy());
+    }
+
+    @Override
+    public void format(DataField field, StringBuilder out) {
+      if (field.isNull()) return;
+
+      Date date = ((DateDataField) field).getDate();
+      if (writer != null && writer.write(date.getTime(), out)) return;
+
+      format.format(date, buffer, position);
+      flush(out);
+    }
+  }
+
+  /**
+   * Formatter for INTEGER fields, writes values by {@link DecimalWriter} if the pattern allows it.
+   */
+  static final class IntegerFormatter extends TextFormatter<DecimalFormat> {
+    private final DecimalWriter writer;
+
+    IntegerFormatter(String fieldName, DecimalFormat format) {
+      this(fieldName, format, DecimalWriter.compile(format));
+    }
+
+    private IntegerFormatter(String fieldName, DecimalFormat format, DecimalWriter writer) {
+      super(fieldName, format);
+      this.writer = writer;
+    }
+
+    @Override
+    public FieldFormatter copy() {
+      return new IntegerFormatter(getFieldName(), (DecimalFormat) format.clone(), writer);
+    }
+
+    @Override
+    public void format(DataField field, StringBuilder out) {
+      if (field.isNull()) return;
+
+      int value = ((IntegerDataField) field).getInt();
+      if (writer != null && writer.write(value, 0, out)) return;
+
+      format.format(value, buffer, position);
+      flush(out);
+    }
+  }
+
+  /**
+   * Formatter for DECIMAL fields, writes exact values by {@link DecimalWriter} if the pattern allows it.
+   * Values which need rounding are rounded as doubles, as long as doubles hold all their digits.
+   */
+  static final class DecimalFormatter extends TextFormatter<DecimalFormat> {
+    private static final int DOUBLE_PRECISION = 15;
+
+    private final DecimalWriter writer;
+
+    DecimalFormatter(String fieldName, DecimalFormat format) {
+      this(fieldName, format, DecimalWriter.compile(format));
+    }
+
+    private DecimalFormatter(String fieldName, DecimalFormat format, DecimalWriter writer) {
+      super(fieldName, format);
+      this.writer = writer;
+    }
+
+    @Override
+    public FieldFormatter copy() {
+      return new DecimalFormatter(getFieldName(), (DecimalFormat) format.clone(), writer);
+    }
+
+    @Override
+    public void format(DataField field, StringBuilder out) {
+      if (field.isNull()) return;
+
+      Decimal decimal = ((DecimalDataField) field).getDecimal();
+      if (decimal.isNaN()) format.format(decimal.getDouble(), buffer, position);
+      else {
+        BigDecimal value = decimal.getBigDecimal();
+        if (writer != null && writer.write(value, out)) return;
+
+        if (value.precision() > DOUBLE_PRECISION) format.format(value, buffer, position);
+        else format.format(decimal.getDouble(), buffer, position);
+      }
+      flush(out);
+    }
+  }
+
+  /**
+   * Formatter for STRING fields. The text of the field is read as a char sequence and never copied into a string.
+   */
+  static final class StringFormatter extends FieldFormatter {
+
+    StringFormatter(String fieldName) {
+      super(fieldName);
+    }
+
+    @Override
+    public Format getFormat() {
+      return null;
+    }
+
+    @Override
+    public FieldFormatter copy() {
+      return this;
+    }
+
+    @Override
+    public void format(DataField field, StringBuilder out) {
+      CharSequence value = (CharSequence) field.getValue();
+      if (value != null) out.append(value);
+    }
+
+    @Override
+    public void write(DataField field, DigestWriter out, StringBuilder buffer) {
+      CharSequence value = (CharSequence) field.getValue();
+      if (value != null) out.write(value);
+    }
+  }
+
+  /**
+   * Formatter for LONG fields. Values are not formatted, digits are written as by <code>String.valueOf()</code>.
+   */
+  static final class LongFormatter extends FieldFormatter {
+
+    LongFormatter(String fieldName) {
+      super(fieldName);
+    }
+
+    @Override
+    public Format getFormat() {
+      return null;
+    }
+
+    @Override
+    public FieldFormatter copy() {
+      return this;
+    }
+
+    @Override
+    public void format(DataField field, StringBuilder out) {
+      if (!field.isNull()) out.append(((LongDataField) field).getLong());
+    }
+  }
+
+  /**
+   * Formatter for NUMBER fields. Values are not formatted, digits are written as by <code>String.valueOf()</code>.
+   */
+  static final class NumberFormatter extends FieldFormatter {
+
+    NumberFormatter(String fieldName) {
+      super(fieldName);
+    }
+
+    @Override
+    public Format getFormat() {
+      return null;
+    }
+
+    @Override
+    public FieldFormatter copy() {
+      return this;
+    }
+
+    @Override
+    public void format(DataField field, StringBuilder out) {
+      if (!field.isNull()) out.append(((NumericDataField) field).getDouble());
+    }
+  }
+
+  /**
+   * Formatter for fields without format, the value is converted by <code>String.valueOf()</code>.
+   */
+  static final class ValueFormatter extends FieldFormatter {
+
+    ValueFormatter(String fieldName) {
+      super(fieldName);
+    }
+
+    @Override
+    public Format getFormat() {
+      return null;
+    }
+
+    @Override
+    public FieldFormatter copy() {
+      return new ValueFormatter(getFieldName());
+    }
+
+    @Override
+    public void format(DataField field, StringBuilder out) {
+      Object value = field.getValue();
+      if (value != null) out.append(String.valueOf(value));
+    }
+  }
+
+
+}
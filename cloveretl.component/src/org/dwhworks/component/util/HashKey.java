@@ -0,0 +1,217 @@
+package org.dwhworks.component.util;
+
+import org.dwhworks.component.hash.HashFunctions;
+import org.dwhworks.component.hash.Murmur3x64128;
+import org.jetel.data.ByteDataField;
+import org.jetel.data.DataField;
+import org.jetel.data.LongDataField;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable holder of a hash stored in a record field, as a number of up to 128 bits.
+ * <p>
+ * Hashes produced by HASH_CALC are read regardless of the way they are stored: lowercase hex and UUID strings,
+ * hash bytes and long numbers of the same hash give the same number, which is the hash bytes read
+ * as a big-endian unsigned number. Hashes longer than 16 bytes are truncated to the first 16 bytes.
+ * Hashes shorter than 16 bytes, except 8-byte hashes, carry their length in the highest byte of the number,
+ * so hashes differing by leading zero bytes only (e.g. "12" and "0012") are different numbers.
+ * A long field is always read as an 8-byte hash.
+ * <p>
+ * Text which is not a hash written by HASH_CALC (uppercase hex, odd number of digits, any other text)
+ * is hashed by murmur3_128 of its UTF-8 bytes. Raw values of HASH_CALC must be read by a holder
+ * of raw values, which hashes every text that way, otherwise raw values looking like hashes would be read
+ * as hashes. A holder is not thread-safe.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class HashKey {
+
+  private static final int MAX_LENGTH = 16;
+  private static final int UNMARKED_LENGTH = 8;
+  private static final int LENGTH_SHIFT = 56;
+  private static final int UUID_LENGTH = 36;
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private final boolean raw;
+  private long high, low;
+  private int length;
+  private DigestWriter fallback;
+  private final StringBuilder text = new StringBuilder(2 * MAX_LENGTH);
+
+  /**
+   * Constructor of a holder of hashes.
+   */
+  public HashKey() {
+    this(false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param raw <code>true</code> for a holder of raw values, which hashes every text by murmur3_128
+   */
+  public HashKey(boolean raw) {
+    this.raw = raw;
+  }
+
+  /**
+   * @return high 64 bits of the hash
+   */
+  public long getHigh() {
+    return high;
+  }
+
+  /**
+   * @return low 64 bits of the hash
+   */
+  public long getLow() {
+    return low;
+  }
+
+  /**
+   * @return length of the hash in bytes, 0 for NULL
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * @return 64-bit fingerprint of the hash, the hash itself for 8-byte hashes
+   */
+  public long getFingerprint() {
+    return high ^ low;
+  }
+
+  /**
+   * Sets the hash.
+   *
+   * @param high   high 64 bits of the hash, with the length of a short hash as read by {@link #read}
+   * @param low    low 64 bits of the hash
+   * @param length length of the hash in bytes
+   * @return this holder
+   */
+  public HashKey set(long high, long low, int length) {
+    this.high = high;
+    this.low = low;
+    this.length = length;
+    return this;
+  }
+
+  /**
+   * Reads the hash from the field, NULL is read as 0 of zero length.
+   *
+   * @param field field with the hash
+   * @return this holder
+   */
+  public HashKey read(DataField field) {
+    set(0, 0, 0);
+    if (field.isNull()) return this;
+
+    if (field instanceof LongDataField) return set(0, ((LongDataField) field).getLong(), 8);
+
+    Object value = field.getValue();
+    if (value instanceof byte[]) readBytes((byte[]) value);
+    else readText(value instanceof CharSequence ? (CharSequence) value : String.valueOf(value));
+
+    if (length < MAX_LENGTH && length != UNMARKED_LENGTH) high |= (long) length << LENGTH_SHIFT;
+    return this;
+  }
+
+  private void readBytes(byte[] value) {
+    length = Math.min(value.length, MAX_LENGTH);
+    for (int i = 0; i < length; i++) shift(value[i] & 0xff, 8);
+  }
+
+  private void readText(CharSequence value) {
+    int n = value.length();
+
+    if (!raw) {
+      if (isUuid(value, n)) {
+        if (readHex(value, n, true)) {
+          length = MAX_LENGTH;
+          return;
+        }
+      } else if (n > 0 && n % 2 == 0 && readHex(value, n, false)) {
+        length = Math.min(n / 2, MAX_LENGTH);
+        return;
+      }
+    }
+
+    if (fallback == null) fallback = new DigestWriter(HashFunctions.get(Murmur3x64128.NAME), StandardCharsets.UTF_8);
+    fallback.write(value);
+    high = 0;
+    low = 0;
+    readBytes(fallback.digest());
+  }
+
+  private static boolean isUuid(CharSequence value, int n) {
+    return n == UUID_LENGTH && value.charAt(8) == '-' && value.charAt(13) == '-'
+        && value.charAt(18) == '-' && value.charAt(23) == '-';
+  }
+
+  private static boolean isUuidHyphen(int i) {
+    return i == 8 || i == 13 || i == 18 || i == 23;
+  }
+
+  /**
+   * Reads the first 32 lowercase hex digits, skipping the hyphens of a UUID at their positions.
+   * The remaining digits are only checked.
+   */
+  private boolean readHex(CharSequence value, int n, boolean uuid) {
+    high = 0;
+    low = 0;
+    for (int i = 0, digits = 0; i < n; i++) {
+      if (uuid && isUuidHyphen(i)) continue;
+
+      char c = value.charAt(i);
+
+      int digit = hexDigit(c);
+      if (digit < 0) return false;
+      if (digits++ < 2 * MAX_LENGTH) shift(digit, 4);
+    }
+    return true;
+  }
+
+  private static int hexDigit(char c) {
+    if (c >= '0' && c <= '9') return c - '0';
+    if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+    return -1;
+  }
+
+  private void shift(int bits, int count) {
+    high = high << count | low >>> (64 - count);
+    low = low << count | bits;
+  }
+
+  /**
+   * Stores the hash into a string field as a lowercase hex string, into a byte field as hash bytes
+   * or into a long field as a number.
+   *
+   * @param field field for the hash
+   */
+  public void write(DataField field) {
+    if (field instanceof LongDataField) {
+      ((LongDataField) field).setValue(low);
+      return;
+    }
+
+    if (field instanceof ByteDataField) {
+      byte[] hash = new byte[length];
+      for (int i = 0; i < length; i++) hash[i] = (byte) getBits(8 * (length - 1 - i), 0xff);
+      field.setValue(hash);
+      return;
+    }
+
+    text.setLength(0);
+    for (int i = 2 * length - 1; i >= 0; i--) text.append(HEX_DIGITS[getBits(4 * i, 0x0f)]);
+    field.setValue(text);
+  }
+
+  private int getBits(int shift, int mask) {
+    return (int) (shift >= 64 ? high >>> (shift - 64) : low >>> shift) & mask;
+  }
+
+
+}
@@ -0,0 +1,355 @@
+package org.dwhworks.component.util;
+
+import org.apache.log4j.Logger;
+import org.jetel.data.DataField;
+import org.jetel.data.DataRecord;
+import org.jetel.metadata.DataRecordMetadata;
+
+import java.text.Format;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiled plan for calculating hashes of a record.
+ * <p>
+ * A plan describes any number of hashes, each of them built from a list of input fields and stored into
+ * an output field. All field names are resolved to field positions and every used input field gets
+ * a formatter specialized to its type when the plan is compiled, so running the plan on a record
+ * does no lookups by name and allocates no per-record collections.
+ * <p>
+ * Raw value of a hash is the concatenation of formatted field values separated by the delimiter.
+ * A field used by several hashes is formatted once per record and its text is reused by the other hashes,
+ * callers mark the start of every record by {@link #beginRecord()}. String fields are not formatted at all
+ * and are never shared.
+ * A plan may write raw values by generated code specialized to its fields, see {@link #generate()}.
+ * A plan reuses its buffers between records and is not thread-safe, use {@link #copy()} to get a plan
+ * for another thread.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class HashPlan {
+
+  private final int[][] fieldPositions;
+  private final int[] outputPositions;
+  /** Formatters by field position, fields used by several hashes have a {@link SharedFormatter}. */
+  private final FieldFormatter[] formatters;
+  private final String delimiter;
+  private final Logger log;
+  private final StringBuilder buffer = new StringBuilder(256);
+  /** Generated writer classes and writers of every hash, <code>null</code> if the plan is not generated. */
+  private final Class<? extends RawValueWriter>[] writerClasses;
+  private final RawValueWriter[] writers;
+  /** Number of the current record, formatted values of shared fields belong to it. */
+  private long record;
+
+  /**
+   * Constructor
+   *
+   * @param formatters formatters by field position, owned by the plan, shared fields get their
+   *                   {@link SharedFormatter} here
+   */
+  private HashPlan(int[][] fieldPositions, int[] outputPositions, FieldFormatter[] formatters,
+                   String delimiter, Logger log, Class<? extends RawValueWriter>[] writerClasses) {
+    this.fieldPositions = fieldPositions;
+    this.outputPositions = outputPositions;
+    this.formatters = formatters;
+    for (int position : sharedPositions(fieldPositions, formatters))
+      formatters[position] = new SharedFormatter(formatters[position]);
+    this.delimiter = delimiter;
+    this.log = log;
+    this.writerClasses = writerClasses;
+
+    if (writerClasses == null) writers = null;
+    else {
+      writers = new RawValueWriter[writerClasses.length];
+      for (int hash = 0; hash < writers.length; hash++)
+        writers[hash] = RawValueWriters.newWriter(writerClasses[hash], formatters, buffer);
+    }
+  }
+
+  /**
+   * Compiles a plan. All fields must exist in the metadata.
+   *
+   * @param inMetadata   metadata of records the hashes are calculated for
+   * @param outMetadata  metadata of records the hashes are stored to
+   * @param hashFields   list of input field names for every hash
+   * @param outputFields output field name for every hash, <code>null</code> if the hash is not stored
+   *                     by the plan's caller into a single field
+   * @param delimiter    separator of field values in the raw value
+   * @param log          logger
+   * @return compiled plan
+   */
+  public static HashPlan compile(DataRecordMetadata inMetadata, DataRecordMetadata outMetadata,
+                                 List<List<String>> hashFields, List<String> outputFields,
+                                 String delimiter, Logger log) {
+    if (hashFields.size() != outputFields.size())
+      throw new IllegalArgumentException("Number of hashes " + hashFields.size()
+          + " does not match number of output fields " + outputFields.size());
+
+    RecordFormatters recordFormatters = MetadataHelper.getInstance().getRecordFormatters(inMetadata, log);
+    int[][] fieldPositions = new int[hashFields.size()][];
+    int[] outputPositions = new int[outputFields.size()];
+    FieldFormatter[] formatters = new FieldFormatter[inMetadata.getNumFields()];
+
+    for (int hash = 0; hash < fieldPositions.length; hash++) {
+      List<String> fields = hashFields.get(hash);
+      int[] positions = new int[fields.size()];
+
+      int i = 0;
+      for (String fieldName : fields) {
+        int position = fieldPosition(inMetadata, fieldName);
+        if (formatters[position] == null) formatters[position] = recordFormatters.newFormatter(position);
+        positions[i++] = position;
+      }
+
+      fieldPositions[hash] = positions;
+      String outputField = outputFields.get(hash);
+      outputPositions[hash] = outputField != null ? fieldPosition(outMetadata, outputField) : -1;
+    }
+
+    return new HashPlan(fieldPositions, outputPositions, formatters, delimiter, log, null);
+  }
+
+  /**
+   * Generates classes writing raw values of the hashes, specialized to the field positions and formatters
+   * of this plan. Classes are shared by all plans of records with the same structure.
+   *
+   * @return new plan writing raw values into digest writers by the generated code
+   * @throws IllegalStateException if the classes can not be generated or loaded
+   */
+  @SuppressWarnings("unchecked")
+  public HashPlan generate() throws IllegalStateException {
+    Class<? extends RawValueWriter>[] writerClasses = new Class[fieldPositions.length];
+    try {
+      for (int hash = 0; hash < writerClasses.length; hash++)
+        writerClasses[hash] = RawValueWriters.getWriterClass(fieldPositions[hash], formatters, delimiter);
+    } catch (LinkageError | SecurityException e) {
+      throw new IllegalStateException("Can not generate hash plan: " + e, e);
+    }
+
+    return new HashPlan(fieldPositions, outputPositions, copyFormatters(), delimiter, log, writerClasses);
+  }
+
+  /**
+   * @return positions of formatted fields used more than once by the hashes
+   */
+  private static List<Integer> sharedPositions(int[][] fieldPositions, FieldFormatter[] formatters) {
+    int[] uses = new int[formatters.length];
+    for (int[] positions : fieldPositions)
+      for (int position : positions) uses[position]++;
+
+    List<Integer> shared = new ArrayList<>();
+    for (int position = 0; position < uses.length; position++)
+      if (uses[position] > 1 && !(formatters[position] instanceof FieldFormatter.StringFormatter))
+        shared.add(position);
+    return shared;
+  }
+
+  private static int fieldPosition(DataRecordMetadata metadata, String fieldName) {
+    int position = metadata.getFieldPosition(fieldName);
+    if (position < 0)
+      throw new IllegalArgumentException("Field \"" + fieldName + "\" does not exist in metadata "
+          + metadata.getName());
+    return position;
+  }
+
+  /**
+   * @return new plan for the same hashes with its own formatters and buffers
+   */
+  public HashPlan copy() {
+    return new HashPlan(fieldPositions, outputPositions, copyFormatters(), delimiter, log, writerClasses);
+  }
+
+  private FieldFormatter[] copyFormatters() {
+    FieldFormatter[] formatters = new FieldFormatter[this.formatters.length];
+    for (int i = 0; i < formatters.length; i++)
+      if (this.formatters[i] != null) formatters[i] = this.formatters[i].copy();
+    return formatters;
+  }
+
+  /**
+   * Starts a new record. Values of shared fields formatted for the previous record are not used any more.
+   * Must be called before raw values of a record are written or appended, unless it is the record
+   * the values were written for last time.
+   */
+  public void beginRecord() {
+    record++;
+  }
+
+  /**
+   * @return number of hashes in the plan
+   */
+  public int getHashCount() {
+    return fieldPositions.length;
+  }
+
+  /**
+   * @param hash index of the hash
+   * @return position of the field the hash is stored to in the output record, -1 if it has no output field
+   */
+  public int getOutputPosition(int hash) {
+    return outputPositions[hash];
+  }
+
+  /**
+   * @param hash index of the hash
+   * @return number of fields of the hash
+   */
+  public int getFieldCount(int hash) {
+    return fieldPositions[hash].length;
+  }
+
+  /**
+   * Writes formatted value of a single field of the hash into the digest writer.
+   *
+   * @param record input record
+   * @param hash   index of the hash
+   * @param index  index of the field in the fields of the hash
+   * @param out    digest writer
+   */
+  public void writeFieldValue(DataRecord record, int hash, int index, DigestWriter out) {
+    int position = fieldPositions[hash][index];
+    FieldFormatter formatter = formatters[position];
+    DataField field = record.getField(position);
+
+    try {
+      formatter.write(field, out, buffer);
+    } catch (IllegalArgumentException e) {
+      logFormatProblem(formatter, field);
+      throw e;
+    }
+  }
+
+  /**
+   * @param record input record
+   * @param hash   index of the hash
+   * @return raw value of the hash, i.e. formatted field values separated by the delimiter
+   */
+  public String getRawValue(DataRecord record, int hash) {
+    buffer.setLength(0);
+    appendRawValue(record, hash, buffer);
+    return buffer.toString();
+  }
+
+  /**
+   * Appends raw value of the hash to the buffer.
+   *
+   * @param record input record
+   * @param hash   index of the hash
+   * @param out    buffer for the raw value
+   */
+  public void appendRawValue(DataRecord record, int hash, StringBuilder out) {
+    int[] positions = fieldPositions[hash];
+
+    for (int i = 0; i < positions.length; i++) {
+      if (i != 0) out.append(delimiter);
+      int position = positions[i];
+      format(formatters[position], record.getField(position), out);
+    }
+  }
+
+  /**
+   * Writes raw value of the hash into the digest writer. Field values are formatted one by one
+   * and the raw value is never built as a whole, text of string fields is written as is.
+   *
+   * @param record input record
+   * @param hash   index of the hash
+   * @param out    digest writer
+   */
+  public void writeRawValue(DataRecord record, int hash, DigestWriter out) {
+    if (writers != null) {
+      try {
+        writers[hash].write(record, out);
+      } catch (IllegalArgumentException e) {
+        // generated code does not know which field failed, formatting the fields again finds it
+        try {
+          appendRawValue(record, hash, new StringBuilder());
+        } catch (IllegalArgumentException logged) {
+          // logged by format()
+        }
+        throw e;
+      }
+      return;
+    }
+
+    int[] positions = fieldPositions[hash];
+
+    for (int i = 0; i < positions.length; i++) {
+      if (i != 0) out.write(delimiter);
+      int position = positions[i];
+      FieldFormatter formatter = formatters[position];
+      DataField field = record.getField(position);
+
+      try {
+        formatter.write(field, out, buffer);
+      } catch (IllegalArgumentException e) {
+        logFormatProblem(formatter, field);
+        throw e;
+      }
+    }
+  }
+
+  private void format(FieldFormatter formatter, DataField field, StringBuilder out) {
+    try {
+      formatter.format(field, out);
+    } catch (IllegalArgumentException e) {
+      logFormatProblem(formatter, field);
+      throw e;
+    }
+  }
+
+  private void logFormatProblem(FieldFormatter formatter, DataField field) {
+    if (log != null)
+      log.error("Format problems on field \"" + formatter.getFieldName()
+          + "\" [value=" + field.getValue() + ";format=" + formatter.getFormat() + ']');
+  }
+
+  /**
+   * Formatter of a field used by several hashes: formats the value at its first use in a record
+   * and returns the same text to the other hashes of the record. Its value belongs to the record of its plan,
+   * so a copy is a copy of the wrapped formatter, which the plan of the copy wraps again.
+   */
+  private final class SharedFormatter extends FieldFormatter {
+    private final FieldFormatter formatter;
+    private final StringBuilder value = new StringBuilder(32);
+    /** Number of the record the value was formatted for. */
+    private long valueRecord = -1;
+
+    SharedFormatter(FieldFormatter formatter) {
+      super(formatter.getFieldName());
+      this.formatter = formatter;
+    }
+
+    @Override
+    public Format getFormat() {
+      return formatter.getFormat();
+    }
+
+    @Override
+    public FieldFormatter copy() {
+      return formatter.copy();
+    }
+
+    @Override
+    public void format(DataField field, StringBuilder out) {
+      out.append(value(field));
+    }
+
+    @Override
+    public void write(DataField field, DigestWriter out, StringBuilder buffer) {
+      out.write(value(field));
+    }
+
+    private StringBuilder value(DataField field) {
+      if (valueRecord != record) {
+        value.setLength(0);
+        formatter.format(field, value);
+        valueRecord = record;
+      }
+      return value;
+    }
+  }
+
+
+}
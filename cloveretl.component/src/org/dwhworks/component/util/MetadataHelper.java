@@ -3,7 +3,6 @@ package org.dwhworks.component.util;
 import org.apache.log4j.Logger;
 import org.jetel.data.DataField;
 import org.jetel.data.DataRecord;
-import org.jetel.data.primitive.Decimal;
 import org.jetel.metadata.DataFieldMetadata;
 import org.jetel.metadata.DataFieldType;
 import org.jetel.metadata.DataRecordMetadata;
@@ -15,6 +14,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Helper for processing CloverETL graph's metadata.
@@ -40,60 +41,139 @@ public class MetadataHelper {
 
   }
 
-  private Map<String, Format> fieldsFormats;
+  private static final int MAX_CACHED_STRUCTURES = 1024;
+
+  /** Compiled formatters by structure of metadata, see {@link #structureKey}. */
+  private final ConcurrentMap<String, RecordFormatters> recordFormatters = new ConcurrentHashMap<>();
+  /** Metadata used last, saves building the structure key for every record of a component. */
+  private volatile LastUsed lastUsed = new LastUsed(null, null);
 
   /**
+   * Compiles formatters of all fields of the metadata in advance and logs fields without format.
+   *
    * @param metadata a metadata for exploring
    * @param log      logger
    */
   public void checkFieldsFormats(DataRecordMetadata metadata, Logger log) {
-    fieldsFormats = new HashMap<>();
-    DataFieldMetadata[] fieldsMetadata = metadata.getFields();
-
-    for (DataFieldMetadata fieldMetadata : fieldsMetadata) {
-      String fieldName = fieldMetadata.getName();
-      DataFieldType fieldType = fieldMetadata.getDataType();
-      String fieldFormat = fieldMetadata.getFormat();
-      boolean hasFieldFormat = fieldFormat != null && !fieldFormat.isEmpty();
-
-      if (isDate(fieldType)) {
-        if (hasFieldFormat) fieldsFormats.put(fieldName, new SimpleDateFormat(fieldFormat));
-        else {
-          fieldsFormats.put(fieldName, new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"));
-
-          if (log != null)
-            log.warn("No format for field " + fieldName + ":" + fieldType
-                + ". Default format will be used 'yyyy-MM-dd HH:mm:ss'.");
-        }
-      } else if (isDecimal(fieldType)) {
-        DecimalFormat df = (DecimalFormat) DecimalFormat.getNumberInstance(Locale.ENGLISH);
-
-        if (hasFieldFormat) df.applyPattern(fieldFormat);
-        else {
-          StringBuilder sb = new StringBuilder(32);
-          sb.append("#################0.");
-          int scale = Integer.valueOf(fieldMetadata.getProperty("scale"));
-          for (int i = 0; i < scale; i++) sb.append('0');
-
-          df.applyPattern(sb.toString());
-
-          if (log != null)
-            log.warn("No format for field " + fieldName + ":" + fieldType
-                + ". Format will be used '" + sb + "'.");
-        }
-
-        fieldsFormats.put(fieldName, df);
-      } else if (isInteger(fieldType)) {
-        if (hasFieldFormat) fieldsFormats.put(fieldName, new DecimalFormat(fieldFormat));
-        else {
-          fieldsFormats.put(fieldName, new DecimalFormat("#################0"));
-
-          if (log != null)
-            log.warn("No format for field " + fieldName + ":" + fieldType
-                + ". Default format will be used '#################0'.");
-        }
+    getRecordFormatters(metadata, log);
+  }
+
+  /**
+   * Returns formatters of all fields of the metadata. Formatters are compiled once for every structure
+   * of metadata, i.e. names, types and formats of fields, and shared by all callers and threads,
+   * so fields without format are logged once per structure.
+   *
+   * @param metadata metadata of records to format
+   * @param log      logger
+   * @return formatters of the metadata
+   */
+  public RecordFormatters getRecordFormatters(DataRecordMetadata metadata, Logger log) {
+    LastUsed last = lastUsed;
+    if (last.metadata == metadata) return last.formatters;
+
+    String key = structureKey(metadata);
+    RecordFormatters formatters = recordFormatters.get(key);
+    if (formatters == null) {
+      if (recordFormatters.size() >= MAX_CACHED_STRUCTURES) recordFormatters.clear();
+      formatters = recordFormatters.computeIfAbsent(key, k -> compileRecordFormatters(metadata, log));
+    }
+
+    lastUsed = new LastUsed(metadata, formatters);
+    return formatters;
+  }
+
+  private RecordFormatters compileRecordFormatters(DataRecordMetadata metadata, Logger log) {
+    FieldFormatter[] formatters = new FieldFormatter[metadata.getNumFields()];
+    for (int i = 0; i < formatters.length; i++) formatters[i] = getFieldFormatter(metadata.getField(i), log);
+    return new RecordFormatters(formatters);
+  }
+
+  /**
+   * @return key of everything the formatters of the metadata are compiled from
+   */
+  private static String structureKey(DataRecordMetadata metadata) {
+    StringBuilder key = new StringBuilder(metadata.getNumFields() * 24);
+    for (DataFieldMetadata field : metadata.getFields()) {
+      key.append(field.getName()).append('\u0000').append(field.getDataType().getName()).append('\u0000');
+      if (field.getFormat() != null) key.append(field.getFormat());
+      key.append('\u0000');
+      if (DataFieldType.DECIMAL.equals(field.getDataType())) key.append(field.getProperty("scale"));
+      key.append('\u0001');
+    }
+    return key.toString();
+  }
+
+  /**
+   * Compiles a formatter specialized to the type of the field. Every call returns a new formatter
+   * with its own format instance, so formatters are never shared between callers.
+   *
+   * @param fieldMetadata metadata of the field to format
+   * @param log           logger
+   * @return formatter for the field
+   */
+  public FieldFormatter getFieldFormatter(DataFieldMetadata fieldMetadata, Logger log) {
+    String fieldName = fieldMetadata.getName();
+    DataFieldType fieldType = fieldMetadata.getDataType();
+    Format format = createFieldFormat(fieldMetadata, log);
+
+    if (isDate(fieldType)) return new FieldFormatter.DateFormatter(fieldName, (SimpleDateFormat) format);
+    else if (isDecimal(fieldType)) return new FieldFormatter.DecimalFormatter(fieldName, (DecimalFormat) format);
+    else if (isInteger(fieldType)) return new FieldFormatter.IntegerFormatter(fieldName, (DecimalFormat) format);
+    else if (isString(fieldType)) return new FieldFormatter.StringFormatter(fieldName);
+    else if (isLong(fieldType)) return new FieldFormatter.LongFormatter(fieldName);
+    else if (isNumber(fieldType)) return new FieldFormatter.NumberFormatter(fieldName);
+
+    return new FieldFormatter.ValueFormatter(fieldName);
+  }
+
+  /**
+   * @param fieldMetadata metadata of the field
+   * @param log           logger
+   * @return format for date, decimal and integer fields, <code>null</code> for other field types
+   */
+  private Format createFieldFormat(DataFieldMetadata fieldMetadata, Logger log) {
+    String fieldName = fieldMetadata.getName();
+    DataFieldType fieldType = fieldMetadata.getDataType();
+    String fieldFormat = fieldMetadata.getFormat();
+    boolean hasFieldFormat = fieldFormat != null && !fieldFormat.isEmpty();
+
+    if (isDate(fieldType)) {
+      if (hasFieldFormat) return new SimpleDateFormat(fieldFormat);
+
+      if (log != null)
+        log.warn("No format for field " + fieldName + ":" + fieldType
+            + ". Default format will be used 'yyyy-MM-dd HH:mm:ss'.");
+
+      return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    } else if (isDecimal(fieldType)) {
+      DecimalFormat df = (DecimalFormat) DecimalFormat.getNumberInstance(Locale.ENGLISH);
+
+      if (hasFieldFormat) df.applyPattern(fieldFormat);
+      else {
+        StringBuilder sb = new StringBuilder(32);
+        sb.append("#################0.");
+        int scale = Integer.valueOf(fieldMetadata.getProperty("scale"));
+        for (int i = 0; i < scale; i++) sb.append('0');
+
+        df.applyPattern(sb.toString());
+
+        if (log != null)
+          log.warn("No format for field " + fieldName + ":" + fieldType
+              + ". Format will be used '" + sb + "'.");
       }
+
+      return df;
+    } else if (isInteger(fieldType)) {
+      if (hasFieldFormat) return new DecimalFormat(fieldFormat);
+
+      if (log != null)
+        log.warn("No format for field " + fieldName + ":" + fieldType
+            + ". Default format will be used '#################0'.");
+
+      return new DecimalFormat("#################0");
     }
+
+    return null;
   }
 
   /**
@@ -116,57 +196,28 @@ public class MetadataHelper {
                                                      List<String> fields, Logger log) {
     if (metadata == null || dataRecord == null) return null;
 
+    RecordFormatters formatters = getRecordFormatters(metadata, log);
     Map<String, String> fieldValues = new HashMap<>();
 
     for (String fieldName : fields) {
-      DataFieldMetadata fieldMetadata = metadata.getField(fieldName);
-      if (fieldMetadata == null) {
+      int position = metadata.getFieldPosition(fieldName);
+      if (position < 0) {
         if (log != null) log.error("Metadata for field \"" + fieldName + "\" not found");
         continue;
       }
 
-      DataField field = dataRecord.getField(fieldName);
-      Object fieldValue = field.getValue();
-
-      if (fieldValue == null) {
-        fieldValues.put(fieldName, "");
-        continue;
-      }
-
-      final String formattedValue = formatField(fieldMetadata, fieldValue, log);
-      fieldValues.put(fieldName, formattedValue);
-    }
-
-    return fieldValues;
-  }
-
-  private String formatField(DataFieldMetadata fieldMetadata, Object fieldValue,
-                             Logger log) throws IllegalArgumentException {
-    Format fieldFormat = fieldsFormats.get(fieldMetadata.getName());
-
-    if (fieldFormat != null)
+      DataField field = dataRecord.getField(position);
       try {
-        DataFieldType fieldType = fieldMetadata.getDataType();
-
-        if (isDate(fieldType) || isInteger(fieldType))
-          return fieldFormat.format(fieldValue);
-
-        else if (isDecimal(fieldType))
-          return fieldFormat.format(((Decimal) fieldValue).getDouble());
-
-        else {
-          if (log != null)
-            log.warn("Unsupported field type \"" + fieldType.getName()
-                + "\". Supported field types for formatting: date, integer, decimal");
-        }
+        fieldValues.put(fieldName, formatters.format(field, position));
       } catch (IllegalArgumentException e) {
         if (log != null)
-          log.error("Format problems on field \"" + fieldMetadata.getName()
-              + "\" [value=" + fieldValue + ";format=" + fieldFormat + ']');
+          log.error("Format problems on field \"" + fieldName + "\" [value=" + field.getValue() + ";format="
+              + formatters.newFormatter(position).getFormat() + ']');
         throw e;
       }
+    }
 
-    return fieldValue == null ? "" : String.valueOf(fieldValue);
+    return fieldValues;
   }
 
   /**
@@ -252,6 +303,22 @@ public class MetadataHelper {
     return DataFieldType.LONG.equals(type);
   }
 
+  /**
+   * @param type field type
+   * @return true if specified field type is NUMBER
+   */
+  public boolean isNumber(DataFieldType type) {
+    return DataFieldType.NUMBER.equals(type);
+  }
+
+  /**
+   * @param type field type
+   * @return true if specified field type is BYTE or CBYTE
+   */
+  public boolean isByte(DataFieldType type) {
+    return DataFieldType.BYTE.equals(type) || DataFieldType.CBYTE.equals(type);
+  }
+
   /**
    * @param type field type
    * @return true if specified field type is DECIMAL
@@ -260,5 +327,19 @@ public class MetadataHelper {
     return DataFieldType.DECIMAL.equals(type);
   }
 
+  /**
+   * Formatters of the metadata used last, replaced as a whole, so threads never see a metadata with
+   * formatters of another one.
+   */
+  private static final class LastUsed {
+    final DataRecordMetadata metadata;
+    final RecordFormatters formatters;
+
+    LastUsed(DataRecordMetadata metadata, RecordFormatters formatters) {
+      this.metadata = metadata;
+      this.formatters = formatters;
+    }
+  }
+
 
 }
@@ -0,0 +1,278 @@
+package org.dwhworks.component.util;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.metadata.DataRecordMetadata;
+import org.jetel.util.SynchronizeUtils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Processes records of a component on several worker threads.
+ * <p>
+ * The component thread reads input records into chunks taken from a fixed pool, numbers the chunks
+ * and hands them over to the workers. Every worker has its own {@link RecordProcessor}, which turns
+ * input records of a chunk into output records as a batch. Processed chunks are written by the component thread again,
+ * either in the original order through a sequence-numbered reorder buffer, or in the order they
+ * were completed. Reading and writing thus stays on the component thread and the pool bounds
+ * the number of records in flight. The component thread yields once per written chunk.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class ParallelRecordProcessor {
+
+  /**
+   * Transforms an input record into an output record. Every worker thread gets its own processor.
+   */
+  public interface RecordProcessor {
+    void process(DataRecord inRecord, DataRecord outRecord) throws Exception;
+
+    /**
+     * Transforms a batch of input records into output records, one by one unless overridden.
+     *
+     * @param inRecords  input records
+     * @param outRecords output records, the output record of an input record has the same index
+     * @param count      number of records in the batch
+     */
+    default void process(DataRecord[] inRecords, DataRecord[] outRecords, int count) throws Exception {
+      for (int i = 0; i < count; i++) process(inRecords[i], outRecords[i]);
+    }
+  }
+
+  /**
+   * Reads the next input record into the record passed in.
+   */
+  public interface RecordReader {
+    /**
+     * @return the record or <code>null</code> at the end of input
+     */
+    DataRecord read(DataRecord record) throws Exception;
+  }
+
+  /**
+   * Writes an output record.
+   */
+  public interface RecordWriter {
+    void write(DataRecord record) throws Exception;
+  }
+
+  private static final int CHUNKS_PER_WORKER = 4;
+  private static final long WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final String name;
+  private final int parallelism;
+  private final boolean preserveOrder;
+  private final Chunk[] chunks;
+  private final BlockingQueue<Chunk> pending, completed;
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+  private Thread owner;
+
+  /**
+   * Constructor
+   *
+   * @param name          name used for worker threads
+   * @param parallelism   number of worker threads
+   * @param preserveOrder write records in the order they were read
+   * @param chunkSize     number of records handed over to a worker at once
+   * @param inMetadata    metadata of input records
+   * @param outMetadata   metadata of output records
+   */
+  public ParallelRecordProcessor(String name, int parallelism, boolean preserveOrder, int chunkSize,
+                                 DataRecordMetadata inMetadata, DataRecordMetadata outMetadata) {
+    this.name = name;
+    this.parallelism = parallelism;
+    this.preserveOrder = preserveOrder;
+
+    chunks = new Chunk[parallelism * CHUNKS_PER_WORKER];
+    for (int i = 0; i < chunks.length; i++) chunks[i] = new Chunk(chunkSize, inMetadata, outMetadata);
+
+    pending = new ArrayBlockingQueue<>(chunks.length);
+    completed = new ArrayBlockingQueue<>(chunks.length);
+  }
+
+  /**
+   * Reads all input records, processes them on worker threads and writes the results.
+   * Must be called from the component thread, which is used for reading and writing.
+   *
+   * @param reader     reader of input records
+   * @param writer     writer of output records
+   * @param processors factory of record processors, called once on every worker thread
+   * @param running    returns <code>false</code> when the component is stopped
+   * @throws Exception the first exception thrown by reader, writer or any of the processors
+   */
+  public void run(RecordReader reader, RecordWriter writer, Supplier<? extends RecordProcessor> processors,
+                  BooleanSupplier running) throws Exception {
+    owner = Thread.currentThread();
+    ExecutorService workers = Executors.newFixedThreadPool(parallelism, new WorkerThreadFactory());
+
+    try {
+      for (int i = 0; i < parallelism; i++) workers.execute(new Worker(processors));
+
+      // chunk with sequence number n is kept in chunks[n % chunks.length] until written
+      Deque<Chunk> free = new ArrayDeque<>(chunks.length);
+      for (Chunk chunk : chunks) free.push(chunk);
+      long dispatched = 0, written = 0;
+      boolean eof = false;
+
+      while (running.getAsBoolean()) {
+        Chunk chunk;
+        while ((chunk = pollCompleted(dispatched, written)) != null) {
+          write(chunk, writer);
+          free.push(chunk);
+          written++;
+        }
+
+        if (eof || free.isEmpty()) {
+          if (written == dispatched) break;
+          chunk = awaitCompleted(written, running);
+          if (chunk == null) break;
+          write(chunk, writer);
+          free.push(chunk);
+          written++;
+          continue;
+        }
+
+        chunk = preserveOrder ? chunks[(int) (dispatched % chunks.length)] : free.peek();
+        free.remove(chunk);
+        eof = !read(chunk, reader);
+        if (chunk.size == 0) {
+          free.push(chunk);
+          continue;
+        }
+
+        chunk.done = false;
+        dispatched++;
+        pending.put(chunk);
+      }
+    } finally {
+      workers.shutdownNow();
+    }
+  }
+
+  private boolean read(Chunk chunk, RecordReader reader) throws Exception {
+    chunk.size = 0;
+    while (chunk.size < chunk.inRecords.length) {
+      if (reader.read(chunk.inRecords[chunk.size]) == null) return false;
+      chunk.size++;
+    }
+    return true;
+  }
+
+  private void write(Chunk chunk, RecordWriter writer) throws Exception {
+    checkFailure();
+    for (int i = 0; i < chunk.size; i++) writer.write(chunk.outRecords[i]);
+    SynchronizeUtils.cloverYield();
+  }
+
+  private Chunk pollCompleted(long dispatched, long written) {
+    if (!preserveOrder) return completed.poll();
+
+    if (written == dispatched) return null;
+    Chunk chunk = chunks[(int) (written % chunks.length)];
+    return chunk.done ? chunk : null;
+  }
+
+  private Chunk awaitCompleted(long written, BooleanSupplier running) throws Exception {
+    Chunk chunk = preserveOrder ? chunks[(int) (written % chunks.length)] : null;
+
+    while (running.getAsBoolean()) {
+      checkFailure();
+
+      if (preserveOrder) {
+        if (chunk.done) return chunk;
+        LockSupport.parkNanos(this, WAIT_NANOS);
+        if (Thread.interrupted()) throw new InterruptedException();
+      } else if ((chunk = completed.poll(WAIT_NANOS, TimeUnit.NANOSECONDS)) != null) return chunk;
+    }
+
+    return null;
+  }
+
+  private void checkFailure() throws Exception {
+    Throwable t = failure.get();
+    if (t == null) return;
+    if (t instanceof Exception) throw (Exception) t;
+    if (t instanceof Error) throw (Error) t;
+    throw new IllegalStateException(t);
+  }
+
+  /**
+   * Block of records handed over to a worker at once.
+   */
+  private static final class Chunk {
+    final DataRecord[] inRecords, outRecords;
+    int size;
+    volatile boolean done;
+
+    Chunk(int capacity, DataRecordMetadata inMetadata, DataRecordMetadata outMetadata) {
+      inRecords = new DataRecord[capacity];
+      outRecords = new DataRecord[capacity];
+      for (int i = 0; i < capacity; i++) {
+        inRecords[i] = DataRecordFactory.newRecord(inMetadata);
+        outRecords[i] = DataRecordFactory.newRecord(outMetadata);
+      }
+    }
+  }
+
+  private final class Worker implements Runnable {
+    private final Supplier<? extends RecordProcessor> processors;
+
+    Worker(Supplier<? extends RecordProcessor> processors) {
+      this.processors = processors;
+    }
+
+    @Override
+    public void run() {
+      RecordProcessor processor = null;
+      try {
+        processor = processors.get();
+      } catch (Throwable t) {
+        failure.compareAndSet(null, t);
+      }
+
+      try {
+        while (true) {
+          Chunk chunk = pending.take();
+          try {
+            if (processor != null && failure.get() == null)
+              processor.process(chunk.inRecords, chunk.outRecords, chunk.size);
+          } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+          } finally {
+            chunk.done = true;
+            if (!preserveOrder) completed.add(chunk);
+            LockSupport.unpark(owner);
+          }
+        }
+      } catch (InterruptedException e) {
+        // the component has finished
+      }
+    }
+  }
+
+  private final class WorkerThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, name + "_worker_" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
+
+}
@@ -0,0 +1,23 @@
+package org.dwhworks.component.util;
+
+import org.jetel.data.DataRecord;
+
+/**
+ * Writes raw value of one hash of a record into a digest writer, i.e. the formatted values of the hashed
+ * fields separated by the delimiter. Implementations are generated by {@link RawValueWriters} for a hash
+ * of a {@link HashPlan} and are not thread-safe.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public interface RawValueWriter {
+
+  /**
+   * @param record input record
+   * @param out    digest writer
+   * @throws IllegalArgumentException if a value can not be formatted
+   */
+  void write(DataRecord record, DigestWriter out) throws IllegalArgumentException;
+
+
+}
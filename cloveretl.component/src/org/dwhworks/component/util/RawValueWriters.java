@@ -0,0 +1,167 @@
+package org.dwhworks.component.util;
+
+import org.dwhworks.component.hash.HashFunction;
+import org.jetel.data.DataRecord;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates {@link RawValueWriter} classes specialized to the hashed fields.
+ * <p>
+ * A generated writer is straight-line code with one call of {@link FieldFormatter#write} per hashed field,
+ * the field positions and the delimiter are constants in the code. Every field thus has its own call site,
+ * which always sees the same formatter class, and the JIT inlines the formatters instead of dispatching
+ * through the megamorphic call of a loop over all fields.
+ * <p>
+ * Classes are cached by the field positions, formatter classes and the delimiter, so plans of records
+ * with the same structure share a class. Long field lists are split into several methods, as the JIT
+ * does not compile huge methods.
+ * <p>
+ * The hash function is not a part of the generated code, the writer feeds the {@link DigestWriter}, which
+ * passes its buffer of bytes to the hasher of the {@link HashFunction}. The hasher is called per buffer,
+ * not per field, its loop does not depend on the record structure and MD5 and SHA are intrinsics of recent
+ * JVMs, so there is nothing to specialize per structure, while a class per function would multiply
+ * the generated classes.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+final class RawValueWriters {
+
+  private static final int FIELDS_PER_METHOD = 64;
+  private static final int MAX_CACHED_CLASSES = 1024;
+
+  private static final String CLASS_PREFIX = "org/dwhworks/component/generated/RawValueWriter";
+  private static final String WRITER = internalName(RawValueWriter.class);
+  private static final String RECORD = internalName(DataRecord.class);
+  private static final String FIELD = "org/jetel/data/DataField";
+  private static final String FORMATTER = internalName(FieldFormatter.class);
+  private static final String DIGEST_WRITER = internalName(DigestWriter.class);
+  private static final String BUFFER = internalName(StringBuilder.class);
+
+  private static final String FORMATTERS_DESCRIPTOR = "[L" + FORMATTER + ';';
+  private static final String BUFFER_DESCRIPTOR = 'L' + BUFFER + ';';
+  private static final String WRITE_DESCRIPTOR = "(L" + RECORD + ";L" + DIGEST_WRITER + ";)V";
+
+  private static final ConcurrentMap<String, Class<? extends RawValueWriter>> CLASSES = new ConcurrentHashMap<>();
+  private static final AtomicInteger CLASS_COUNT = new AtomicInteger();
+  private static GeneratedClassLoader loader;
+
+  private RawValueWriters() {
+
+  }
+
+  /**
+   * @param positions  positions of the hashed fields
+   * @param formatters formatters of the fields by position
+   * @param delimiter  separator of field values
+   * @return writer class for the fields
+   */
+  static Class<? extends RawValueWriter> getWriterClass(int[] positions, FieldFormatter[] formatters,
+                                                         String delimiter) {
+    StringBuilder key = new StringBuilder(positions.length * 48).append(delimiter).append('\u0000');
+    for (int position : positions)
+      key.append(position).append(':').append(formatters[position].getClass().getName()).append(';');
+
+    Class<? extends RawValueWriter> writerClass = CLASSES.get(key.toString());
+    if (writerClass != null) return writerClass;
+
+    synchronized (RawValueWriters.class) {
+      if (loader == null || CLASSES.size() >= MAX_CACHED_CLASSES) {
+        // classes of the old loader are unloaded, as soon as no plan uses them
+        CLASSES.clear();
+        loader = new GeneratedClassLoader(RawValueWriters.class.getClassLoader());
+      }
+      return CLASSES.computeIfAbsent(key.toString(), k -> generate(positions, delimiter));
+    }
+  }
+
+  /**
+   * @param writerClass class returned by {@link #getWriterClass}
+   * @param formatters  formatters of the fields by position, owned by the writer
+   * @param buffer      buffer for formatted values, owned by the writer
+   * @return new writer
+   */
+  static RawValueWriter newWriter(Class<? extends RawValueWriter> writerClass, FieldFormatter[] formatters,
+                                  StringBuilder buffer) {
+    try {
+      return writerClass.getConstructor(FieldFormatter[].class, StringBuilder.class).newInstance(formatters, buffer);
+    } catch (InvocationTargetException e) {
+      throw new IllegalStateException("Can not create " + writerClass.getName(), e.getCause());
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Can not create " + writerClass.getName(), e);
+    }
+  }
+
+  private static Class<? extends RawValueWriter> generate(int[] positions, String delimiter) {
+    ClassFile file = new ClassFile(CLASS_PREFIX + CLASS_COUNT.incrementAndGet(), "java/lang/Object", WRITER);
+    String name = file.getName();
+    file.field(ClassFile.ACC_PRIVATE | ClassFile.ACC_FINAL, "formatters", FORMATTERS_DESCRIPTOR);
+    file.field(ClassFile.ACC_PRIVATE | ClassFile.ACC_FINAL, "buffer", BUFFER_DESCRIPTOR);
+
+    file.method(ClassFile.ACC_PUBLIC, "<init>", '(' + FORMATTERS_DESCRIPTOR + BUFFER_DESCRIPTOR + ")V")
+        .aload(0).invokespecial("java/lang/Object", "<init>", "()V")
+        .aload(0).aload(1).putfield(name, "formatters", FORMATTERS_DESCRIPTOR)
+        .aload(0).aload(2).putfield(name, "buffer", BUFFER_DESCRIPTOR)
+        .returnVoid()
+        .end(2, 3);
+
+    ClassFile.Code write = file.method(ClassFile.ACC_PUBLIC, "write", WRITE_DESCRIPTOR);
+    for (int from = 0, part = 0; from < positions.length; from += FIELDS_PER_METHOD, part++) {
+      write.aload(0).aload(1).aload(2).invokespecial(name, "write" + part, WRITE_DESCRIPTOR);
+      generatePart(file, "write" + part, positions, from, Math.min(from + FIELDS_PER_METHOD, positions.length),
+          delimiter);
+    }
+    write.returnVoid().end(3, 3);
+
+    return loader.define(file.getName().replace('/', '.'), file.toByteArray()).asSubclass(RawValueWriter.class);
+  }
+
+  /**
+   * Generates a method writing fields from..to-1, locals: this, record, digest writer, buffer, formatters.
+   */
+  private static void generatePart(ClassFile file, String method, int[] positions, int from, int to,
+                                   String delimiter) {
+    boolean recordInterface = DataRecord.class.isInterface();
+    ClassFile.Code code = file.method(ClassFile.ACC_PRIVATE, method, WRITE_DESCRIPTOR)
+        .aload(0).getfield(file.getName(), "buffer", BUFFER_DESCRIPTOR).astore(3)
+        .aload(0).getfield(file.getName(), "formatters", FORMATTERS_DESCRIPTOR).astore(4);
+
+    for (int i = from; i < to; i++) {
+      if (i != 0 && !delimiter.isEmpty())
+        code.aload(2).ldc(delimiter).invokevirtual(DIGEST_WRITER, "write", "(Ljava/lang/CharSequence;)V");
+
+      // formatters[position].write(record.getField(position), out, buffer)
+      code.aload(4).push(positions[i]).aaload().aload(1).push(positions[i]);
+      if (recordInterface) code.invokeinterface(RECORD, "getField", "(I)L" + FIELD + ';', 1);
+      else code.invokevirtual(RECORD, "getField", "(I)L" + FIELD + ';');
+      code.aload(2).aload(3)
+          .invokevirtual(FORMATTER, "write", "(L" + FIELD + ";L" + DIGEST_WRITER + ';' + BUFFER_DESCRIPTOR + ")V");
+    }
+
+    code.returnVoid().end(4, 5);
+  }
+
+  private static String internalName(Class<?> type) {
+    return type.getName().replace('.', '/');
+  }
+
+  /**
+   * Loader of generated classes, which sees classes of the plugin.
+   */
+  private static final class GeneratedClassLoader extends ClassLoader {
+
+    GeneratedClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    Class<?> define(String name, byte[] bytes) {
+      return defineClass(name, bytes, 0, bytes.length);
+    }
+  }
+
+
+}
@@ -0,0 +1,78 @@
+package org.dwhworks.component.util;
+
+import org.jetel.data.DataField;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Compiled formatters for all fields of one record structure, shared by any number of components
+ * and threads (see {@link MetadataHelper#getRecordFormatters}).
+ * <p>
+ * The compiled formatters are prototypes which never format themselves: {@link #newFormatter} returns
+ * a private copy for a caller holding its own formatters, and {@link #format} borrows copies from a pool
+ * for the call, so formatting needs neither locks nor new formatters per call. The pool holds as many
+ * sets of copies as threads formatted at once; no copies stay with a thread, so pooled threads of a server
+ * do not keep formatters of graphs which have finished.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class RecordFormatters {
+
+  private final FieldFormatter[] prototypes;
+  private final Queue<PooledFormatters> pool = new ConcurrentLinkedQueue<>();
+
+  RecordFormatters(FieldFormatter[] prototypes) {
+    this.prototypes = prototypes;
+  }
+
+  /**
+   * @return number of fields
+   */
+  public int getFieldCount() {
+    return prototypes.length;
+  }
+
+  /**
+   * @param position position of the field
+   * @return new formatter of the field owned by the caller
+   */
+  public FieldFormatter newFormatter(int position) {
+    return prototypes[position].copy();
+  }
+
+  /**
+   * Formats a field with formatters borrowed from the pool.
+   *
+   * @param field    field to format
+   * @param position position of the field in the record structure
+   * @return formatted value, an empty string for NULL
+   * @throws IllegalArgumentException if the value can not be formatted
+   */
+  public String format(DataField field, int position) throws IllegalArgumentException {
+    PooledFormatters pooled = pool.poll();
+    if (pooled == null) pooled = new PooledFormatters();
+
+    try {
+      FieldFormatter formatter = pooled.formatters[position];
+      if (formatter == null) formatter = pooled.formatters[position] = newFormatter(position);
+
+      pooled.buffer.setLength(0);
+      formatter.format(field, pooled.buffer);
+      return pooled.buffer.toString();
+    } finally {
+      pool.offer(pooled);
+    }
+  }
+
+  /**
+   * Formatters and buffer used by one call at a time, formatters are copied lazily on the first use of the field.
+   */
+  private final class PooledFormatters {
+    final FieldFormatter[] formatters = new FieldFormatter[prototypes.length];
+    final StringBuilder buffer = new StringBuilder(64);
+  }
+
+
+}
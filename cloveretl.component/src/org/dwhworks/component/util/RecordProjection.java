@@ -0,0 +1,97 @@
+package org.dwhworks.component.util;
+
+import org.jetel.data.DataRecord;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataRecordMetadata;
+
+import java.util.Arrays;
+
+/**
+ * Compiled copying of input record fields into output record fields with the same name.
+ * <p>
+ * Field names are matched once, when the projection is compiled, into a mapping of input field positions
+ * to output field positions. Fields of the same type are copied directly from field to field,
+ * fields of different types are converted through their values.
+ * A projection holds no state besides the mapping and may be shared by any number of threads.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class RecordProjection {
+
+  private final int[] inPositions, outPositions;
+  private final boolean[] sameType;
+
+  private RecordProjection(int[] inPositions, int[] outPositions, boolean[] sameType) {
+    this.inPositions = inPositions;
+    this.outPositions = outPositions;
+    this.sameType = sameType;
+  }
+
+  /**
+   * Compiles a projection of all input fields that exist in the output metadata.
+   *
+   * @param inMetadata  metadata of input records
+   * @param outMetadata metadata of output records
+   * @return compiled projection
+   */
+  public static RecordProjection compile(DataRecordMetadata inMetadata, DataRecordMetadata outMetadata) {
+    int numFields = inMetadata.getNumFields(), count = 0;
+    int[] inPositions = new int[numFields], outPositions = new int[numFields];
+    boolean[] sameType = new boolean[numFields];
+
+    for (int i = 0; i < numFields; i++) {
+      DataFieldMetadata inField = inMetadata.getField(i);
+      int position = outMetadata.getFieldPosition(inField.getName());
+      if (position < 0) continue;
+
+      DataFieldMetadata outField = outMetadata.getField(position);
+      inPositions[count] = i;
+      outPositions[count] = position;
+      sameType[count] = inField.getDataType() == outField.getDataType()
+          && inField.getContainerType() == outField.getContainerType();
+      count++;
+    }
+
+    return new RecordProjection(Arrays.copyOf(inPositions, count), Arrays.copyOf(outPositions, count),
+        Arrays.copyOf(sameType, count));
+  }
+
+  /**
+   * @return number of copied fields
+   */
+  public int getFieldCount() {
+    return inPositions.length;
+  }
+
+  /**
+   * Checks whether the projection copies every field to the same position without conversion,
+   * i.e. whether an input record can be written instead of the output record.
+   *
+   * @param outMetadata metadata of output records
+   * @return <code>true</code> if the output record would be an exact copy of the input record
+   */
+  public boolean isIdentity(DataRecordMetadata outMetadata) {
+    if (inPositions.length != outMetadata.getNumFields()) return false;
+
+    for (int i = 0; i < inPositions.length; i++)
+      if (inPositions[i] != i || outPositions[i] != i || !sameType[i]) return false;
+
+    return true;
+  }
+
+  /**
+   * Copies values of the projected fields.
+   *
+   * @param inRecord  input record
+   * @param outRecord output record
+   */
+  public void copy(DataRecord inRecord, DataRecord outRecord) {
+    for (int i = 0; i < inPositions.length; i++) {
+      if (sameType[i]) outRecord.getField(outPositions[i]).setValue(inRecord.getField(inPositions[i]));
+      else outRecord.getField(outPositions[i]).setValue(inRecord.getField(inPositions[i]).getValue());
+    }
+  }
+
+
+}
@@ -2,6 +2,8 @@ package org.dwhworks.component.util;
 
 import org.apache.commons.codec.digest.DigestUtils;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.LinkedList;
 
@@ -13,6 +15,8 @@ import java.util.LinkedList;
  */
 public class Utils {
 
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
   /**
    * Returns a fixed-size linked list backed by the specified array.
    *
@@ -26,13 +30,65 @@ public class Utils {
   }
 
   /**
-   * Calculates the MD5 digest and returns the value as a 32 character hex string.
+   * Calculates the MD5 digest of the UTF-8 bytes of the string and returns the value as a 32 character hex string.
    *
    * @param s a string data for digest
    * @return MD5 digest as a hex string
    */
   public static String md5(String s) {
-    return DigestUtils.md5Hex(s.getBytes());
+    return md5(s, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Calculates the MD5 digest and returns the value as a 32 character hex string.
+   *
+   * @param s       a string data for digest
+   * @param charset charset of the string bytes
+   * @return MD5 digest as a hex string
+   */
+  public static String md5(String s, Charset charset) {
+    return DigestUtils.md5Hex(s.getBytes(charset));
+  }
+
+  /**
+   * Appends bytes to the buffer as a lowercase hex string, two characters per byte.
+   *
+   * @param bytes bytes to append
+   * @param out   buffer
+   * @return the buffer
+   */
+  public static StringBuilder appendHex(byte[] bytes, StringBuilder out) {
+    for (byte b : bytes)
+      out.append(HEX_DIGITS[(b >> 4) & 0x0f]).append(HEX_DIGITS[b & 0x0f]);
+    return out;
+  }
+
+  /**
+   * Appends the first 16 bytes to the buffer as a canonical UUID string,
+   * i.e. lowercase hex digits in groups 8-4-4-4-12 separated by hyphens.
+   *
+   * @param bytes at least 16 bytes
+   * @param out   buffer
+   * @return the buffer
+   */
+  public static StringBuilder appendUuid(byte[] bytes, StringBuilder out) {
+    for (int i = 0; i < 16; i++) {
+      if (i == 4 || i == 6 || i == 8 || i == 10) out.append('-');
+      out.append(HEX_DIGITS[(bytes[i] >> 4) & 0x0f]).append(HEX_DIGITS[bytes[i] & 0x0f]);
+    }
+    return out;
+  }
+
+  /**
+   * Reads the first 8 bytes as a big-endian long. Shorter arrays are read as an unsigned number.
+   *
+   * @param bytes bytes to read
+   * @return long value
+   */
+  public static long toLong(byte[] bytes) {
+    long value = 0;
+    for (int i = 0, n = Math.min(bytes.length, 8); i < n; i++) value = value << 8 | (bytes[i] & 0xffL);
+    return value;
   }
 
   /**
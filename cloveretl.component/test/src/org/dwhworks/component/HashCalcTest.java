@@ -0,0 +1,398 @@
+package org.dwhworks.component;
+
+import org.dwhworks.component.harness.GraphHarness;
+import org.dwhworks.component.harness.RunStatistics;
+import org.dwhworks.component.hash.HashRing;
+import org.dwhworks.component.hash.Md5HashFunction;
+import org.dwhworks.component.util.HashKey;
+import org.dwhworks.component.util.ParallelRecordProcessor;
+import org.jetel.data.DataField;
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.exception.ComponentNotReadyException;
+import org.jetel.exception.ConfigurationStatus;
+import org.jetel.graph.Edge;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Records hashed by HASH_CALC in batches and in a graph compared to records hashed one by one.
+ * <p>
+ * MD5 digests batches together if multi-buffer MD5 is enabled when the hash functions are loaded, which is
+ * the case when the class runs in its own JVM as the build runs every test class.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class HashCalcTest {
+
+  static {
+    if (System.getProperty(Md5HashFunction.MULTI_BUFFER_PROPERTY) == null)
+      System.setProperty(Md5HashFunction.MULTI_BUFFER_PROPERTY, "true");
+  }
+
+  private static final int RECORDS = 1000;
+  private static final DataRecordMetadata IN_METADATA = TestRecords.metadata(12);
+  private static final DataRecord[] IN_RECORDS = TestRecords.records(IN_METADATA, RECORDS);
+
+  /**
+   * @return output metadata with the input fields, the hash fields of the types and the extra fields
+   */
+  private static DataRecordMetadata outMetadata(DataFieldType keyHashType, DataFieldType measureHashType,
+                                                DataFieldMetadata... extraFields) {
+    DataRecordMetadata metadata = new DataRecordMetadata("out");
+    for (DataFieldMetadata field : IN_METADATA.getFields()) metadata.addField(field);
+    metadata.addField(new DataFieldMetadata("key_hash", keyHashType, ";"));
+    metadata.addField(new DataFieldMetadata("measure_hash", measureHashType, ";"));
+    for (DataFieldMetadata field : extraFields) metadata.addField(field);
+    return metadata;
+  }
+
+  /**
+   * @return component prepared for the test records and the output metadata
+   */
+  private static HashCalc prepare(HashCalc hashCalc, DataRecordMetadata outMetadata) throws Exception {
+    hashCalc.checkAttributes();
+    hashCalc.prepare(IN_METADATA, outMetadata);
+    return hashCalc;
+  }
+
+  private static DataRecord[] newRecords(DataRecordMetadata metadata, int count) {
+    DataRecord[] records = new DataRecord[count];
+    for (int i = 0; i < count; i++) records[i] = DataRecordFactory.newRecord(metadata);
+    return records;
+  }
+
+  /**
+   * @return output records of the component prepared for the metadata, hashed one by one
+   */
+  private static DataRecord[] hashOneByOne(HashCalc hashCalc, DataRecordMetadata outMetadata) throws Exception {
+    DataRecord[] outRecords = newRecords(outMetadata, RECORDS);
+    ParallelRecordProcessor.RecordProcessor single = hashCalc.newRecordProcessor();
+    for (int i = 0; i < RECORDS; i++) single.process(IN_RECORDS[i], outRecords[i]);
+    return outRecords;
+  }
+
+  /**
+   * Runs the component in a graph reading the test records.
+   *
+   * @return records written to every output port
+   */
+  private static List<List<DataRecord>> runGraph(HashCalc hashCalc, DataRecordMetadata... outMetadata)
+      throws Exception {
+    GraphHarness harness = new GraphHarness(hashCalc).input(0, IN_RECORDS, RECORDS);
+    List<List<DataRecord>> outputs = new ArrayList<>();
+    for (int port = 0; port < outMetadata.length; port++) {
+      List<DataRecord> output = new ArrayList<>();
+      outputs.add(output);
+      harness.output(port, outMetadata[port], record -> output.add(record.duplicate()));
+    }
+
+    RunStatistics statistics = harness.run();
+    assertEquals(RECORDS, statistics.getRecordsRead());
+    for (int port = 0; port < outMetadata.length; port++)
+      assertEquals(outputs.get(port).size(), statistics.getRecordsWritten(port));
+    return outputs;
+  }
+
+  private static void assertSameValues(String message, DataRecord expected, DataRecord actual) {
+    for (int i = 0; i < expected.getNumFields(); i++) {
+      DataField expectedField = expected.getField(i), actualField = actual.getField(i);
+      Object expectedValue = expectedField.getValue(), actualValue = actualField.getValue();
+
+      assertEquals(message, expectedField.isNull(), actualField.isNull());
+      if (expectedValue instanceof byte[])
+        assertTrue(message, Arrays.equals((byte[]) expectedValue, (byte[]) actualValue));
+      else assertEquals(message, String.valueOf(expectedValue), String.valueOf(actualValue));
+    }
+  }
+
+  private static void checkBatches(String hashFunction, DataRecordMetadata outMetadata) throws Exception {
+    for (boolean generateBytecode : new boolean[]{false, true}) {
+      HashCalc hashCalc = new HashCalc("TEST", "f0;f1", "", "", hashFunction, "key_hash", "measure_hash", false);
+      hashCalc.setGenerateBytecode(generateBytecode);
+      hashCalc.checkAttributes();
+      hashCalc.prepare(IN_METADATA, outMetadata);
+      String message = hashFunction + (generateBytecode ? ", generated plan" : ", compiled plan");
+
+      DataRecord[] expected = hashOneByOne(hashCalc, outMetadata);
+
+      // batches of various sizes, the output records are reused by the following batches
+      ParallelRecordProcessor.RecordProcessor batched = hashCalc.newRecordProcessor();
+      for (int batchSize : new int[]{1, 7, 100, RECORDS}) {
+        DataRecord[] outRecords = newRecords(outMetadata, batchSize);
+        for (int offset = 0; offset < RECORDS; offset += batchSize) {
+          int count = Math.min(batchSize, RECORDS - offset);
+          batched.process(Arrays.copyOfRange(IN_RECORDS, offset, offset + count), outRecords, count);
+          for (int i = 0; i < count; i++)
+            assertSameValues(message + ", batch of " + batchSize + ", record " + (offset + i), expected[offset + i],
+                outRecords[i]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void md5BatchesMatchSingleRecords() throws Exception {
+    checkBatches("md5", outMetadata(DataFieldType.STRING, DataFieldType.STRING));
+    checkBatches("md5", outMetadata(DataFieldType.LONG, DataFieldType.BYTE));
+  }
+
+  @Test
+  public void xxHash64BatchesMatchSingleRecords() throws Exception {
+    checkBatches("xxhash64", outMetadata(DataFieldType.STRING, DataFieldType.STRING));
+    checkBatches("xxhash64", outMetadata(DataFieldType.LONG, DataFieldType.BYTE));
+  }
+
+  @Test
+  public void rawBatchesMatchSingleRecords() throws Exception {
+    checkBatches("raw", outMetadata(DataFieldType.STRING, DataFieldType.STRING));
+  }
+
+  @Test(timeout = 60000)
+  public void graphWritesRecordsHashedOneByOne() throws Exception {
+    DataRecordMetadata outMetadata = outMetadata(DataFieldType.STRING, DataFieldType.BYTE);
+    HashCalc reference = new HashCalc("REFERENCE", "f0;f1", "", "", "md5", "key_hash", "measure_hash", false);
+    reference.checkAttributes();
+    reference.prepare(IN_METADATA, outMetadata);
+    DataRecord[] expected = hashOneByOne(reference, outMetadata);
+
+    for (int parallelism : new int[]{1, 3}) {
+      HashCalc hashCalc = new HashCalc("TEST", "f0;f1", "", "", "md5", "key_hash", "measure_hash", false);
+      hashCalc.setParallelism(parallelism);
+      hashCalc.setBatchSize(10);
+
+      List<DataRecord> output = runGraph(hashCalc, outMetadata).get(0);
+      assertEquals(RECORDS, output.size());
+      for (int i = 0; i < RECORDS; i++)
+        assertSameValues("parallelism " + parallelism + ", record " + i, expected[i], output.get(i));
+    }
+  }
+
+  @Test
+  public void hashGroupsHaveTheirOwnFunctionAndOutput() throws Exception {
+    // f4 is shared by both groups and the measure hash
+    DataRecordMetadata outMetadata = outMetadata(DataFieldType.STRING, DataFieldType.STRING,
+        new DataFieldMetadata("a_hash", DataFieldType.LONG, ";"),
+        new DataFieldMetadata("b_hash", DataFieldType.STRING, ";"));
+    int aHash = outMetadata.getFieldPosition("a_hash"), bHash = outMetadata.getFieldPosition("b_hash"),
+        keyHash = outMetadata.getFieldPosition("key_hash");
+
+    // a group hash is the key hash of the same fields and function
+    DataRecordMetadata stringHashes = outMetadata(DataFieldType.STRING, DataFieldType.STRING),
+        longKeyHash = outMetadata(DataFieldType.LONG, DataFieldType.STRING);
+    DataRecord[] withoutGroups = hashOneByOne(prepare(new HashCalc("TEST", "f0;f1", "", "", "md5", "key_hash",
+        "measure_hash", false), stringHashes), stringHashes),
+        aKeys = hashOneByOne(prepare(new HashCalc("TEST", "f0;f3;f4", "", "", "xxhash64", "key_hash",
+            "measure_hash", false), longKeyHash), longKeyHash),
+        bKeys = hashOneByOne(prepare(new HashCalc("TEST", "f4;f5", "", "", "md5", "key_hash", "measure_hash",
+            false), stringHashes), stringHashes);
+
+    for (boolean generateBytecode : new boolean[]{false, true}) {
+      HashCalc hashCalc = new HashCalc("TEST", "f0;f1", "", "", "md5", "key_hash", "measure_hash", false);
+      hashCalc.setHashGroups("a:f0;f3;f4:a_hash:xxhash64 | b : f4;f5 : b_hash");
+      hashCalc.setGenerateBytecode(generateBytecode);
+      prepare(hashCalc, outMetadata);
+
+      DataRecord[] single = hashOneByOne(hashCalc, outMetadata), batched = newRecords(outMetadata, RECORDS);
+      hashCalc.newRecordProcessor().process(IN_RECORDS, batched, RECORDS);
+
+      for (DataRecord[] outRecords : new DataRecord[][]{single, batched})
+        for (int i = 0; i < RECORDS; i++) {
+          String message = (generateBytecode ? "generated plan" : "compiled plan") + ", record " + i;
+          assertEquals(message, aKeys[i].getField(keyHash).getValue(), outRecords[i].getField(aHash).getValue());
+          assertEquals(message, bKeys[i].getField(keyHash).getValue().toString(),
+              outRecords[i].getField(bHash).getValue().toString());
+          // the other fields are as without groups
+          for (int field = 0; field < withoutGroups[i].getNumFields(); field++)
+            assertEquals(message, String.valueOf(withoutGroups[i].getField(field).getValue()),
+                String.valueOf(outRecords[i].getField(field).getValue()));
+        }
+    }
+  }
+
+  @Test
+  public void invalidHashGroupsAreRejected() {
+    String[] hashGroups = {"a:f0", "a::a_hash", ":f0:a_hash", "a:f0:a_hash:md5:b", "a:f0:key_hash",
+        "a:f0:a_hash|b:f1:a_hash", "a:f0:a_hash|a:f1:b_hash", "a:f0:a_hash:sha3", "a: ; :a_hash"};
+
+    for (String value : hashGroups)
+      try {
+        HashCalc hashCalc = new HashCalc("TEST", "f0;f1", "", "", "md5", "key_hash", "measure_hash", false);
+        hashCalc.setHashGroups(value);
+        hashCalc.checkAttributes();
+        fail("hash groups \"" + value + "\" were accepted");
+      } catch (ComponentNotReadyException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("hashGroups"));
+      }
+  }
+
+  @Test
+  public void unknownFieldOfHashGroupIsRejected() throws Exception {
+    HashCalc hashCalc = new HashCalc("TEST", "f0;f1", "", "", "md5", "key_hash", "measure_hash", false);
+    hashCalc.setHashGroups("a:f0;missing:a_hash");
+    hashCalc.checkAttributes();
+
+    try {
+      hashCalc.prepare(IN_METADATA, outMetadata(DataFieldType.STRING, DataFieldType.STRING,
+          new DataFieldMetadata("a_hash", DataFieldType.STRING, ";")));
+      fail("unknown field of a hash group was accepted");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("hashGroups a") && e.getMessage().contains("missing"));
+    }
+  }
+
+  /**
+   * @return bytes of the hex string
+   */
+  private static byte[] bytes(String hex) {
+    byte[] bytes = new byte[hex.length() / 2];
+    for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+    return bytes;
+  }
+
+  @Test
+  public void fieldHashesAndChangedFieldsAreCalculated() throws Exception {
+    // ten measure fields, the second byte of the bitmap has bits of m8 and m9
+    DataRecordMetadata inMetadata = new DataRecordMetadata("in"), outMetadata = new DataRecordMetadata("out");
+    inMetadata.addField(new DataFieldMetadata("id", DataFieldType.STRING, ";"));
+    for (int i = 0; i < 10; i++) inMetadata.addField(new DataFieldMetadata("m" + i, DataFieldType.STRING, ";"));
+    inMetadata.addField(new DataFieldMetadata("previous", DataFieldType.BYTE, ";"));
+    for (DataFieldMetadata field : inMetadata.getFields()) outMetadata.addField(field);
+    outMetadata.addField(new DataFieldMetadata("key_hash", DataFieldType.STRING, ";"));
+    outMetadata.addField(new DataFieldMetadata("measure_hash", DataFieldType.STRING, ";"));
+    outMetadata.addField(new DataFieldMetadata("field_hashes", DataFieldType.BYTE, ";"));
+    outMetadata.addField(new DataFieldMetadata("changed", DataFieldType.BYTE, ";"));
+
+    // CRC-32C of "123456789", of NULL written as nothing and of 32 zero bytes
+    String check = "e3069283", empty = "00000000", zeros = "8a9136aa";
+    StringBuilder vector = new StringBuilder();
+    for (int i = 0; i < 10; i++) vector.append(i == 1 ? empty : i == 9 ? zeros : check);
+    byte[] hashes = bytes(vector.toString()), changed = hashes.clone(), shorter = Arrays.copyOf(hashes, 36);
+    changed[4] ^= 1;
+    changed[39] ^= 1;
+
+    // previous vector and the expected bitmap, bit i % 8 of byte i / 8 is set for a changed field i
+    Object[][] cases = {{hashes, bytes("0000")}, {changed, bytes("0202")}, {null, bytes("ff03")},
+        {shorter, bytes("ff03")}};
+    DataRecord[] inRecords = newRecords(inMetadata, cases.length);
+    for (int r = 0; r < cases.length; r++) {
+      inRecords[r].getField("id").setValue("id" + r);
+      for (int i = 0; i < 10; i++)
+        inRecords[r].getField("m" + i).setValue(i == 1 ? null : i == 9 ? new String(new char[32]) : "123456789");
+      inRecords[r].getField("previous").setValue(cases[r][0]);
+    }
+
+    HashCalc hashCalc = new HashCalc("TEST", "id", "m0;m1;m2;m3;m4;m5;m6;m7;m8;m9", "", "md5", "key_hash",
+        "measure_hash", false);
+    hashCalc.setFieldHashesFieldName("field_hashes");
+    hashCalc.setPreviousFieldHashesFieldName("previous");
+    hashCalc.setChangedFieldsFieldName("changed");
+    hashCalc.checkAttributes();
+    hashCalc.prepare(inMetadata, outMetadata);
+
+    DataRecord[] single = newRecords(outMetadata, cases.length), batched = newRecords(outMetadata, cases.length);
+    ParallelRecordProcessor.RecordProcessor processor = hashCalc.newRecordProcessor();
+    for (int r = 0; r < cases.length; r++) processor.process(inRecords[r], single[r]);
+    hashCalc.newRecordProcessor().process(inRecords, batched, cases.length);
+
+    for (DataRecord[] outRecords : new DataRecord[][]{single, batched})
+      for (int r = 0; r < cases.length; r++) {
+        assertArrayEquals("case " + r, hashes, (byte[]) outRecords[r].getField("field_hashes").getValue());
+        assertArrayEquals("case " + r, (byte[]) cases[r][1], (byte[]) outRecords[r].getField("changed").getValue());
+      }
+  }
+
+  @Test(timeout = 60000)
+  public void partitionAndRingRouteRecordsByKeyHash() throws Exception {
+    HashRing ring = new HashRing(3, HashRing.DEFAULT_REPLICAS);
+
+    for (String outputMode : new String[]{"partition", "ring"})
+      for (String hashFunction : new String[]{"md5", "xxhash64"}) {
+        DataRecordMetadata outMetadata = outMetadata(hashFunction.equals("md5") ? DataFieldType.STRING
+            : DataFieldType.LONG, DataFieldType.STRING);
+        HashCalc hashCalc = new HashCalc("TEST", "f0;f1", "", "", hashFunction, "key_hash", "measure_hash", false);
+        hashCalc.setOutputMode(outputMode);
+        hashCalc.setParallelism(2);
+
+        List<List<DataRecord>> outputs = runGraph(hashCalc, outMetadata, outMetadata, outMetadata);
+        int keyHash = outMetadata.getFieldPosition("key_hash"), written = 0;
+        HashKey key = new HashKey();
+        for (int port = 0; port < outputs.size(); port++) {
+          assertFalse(outputMode + ", " + hashFunction + ": no records in port " + port, outputs.get(port).isEmpty());
+          for (DataRecord record : outputs.get(port)) {
+            long fingerprint = key.read(record.getField(keyHash)).getFingerprint();
+            int expected = outputMode.equals("partition") ? (int) Long.remainderUnsigned(fingerprint, 3)
+                : ring.getNode(fingerprint);
+            assertEquals(outputMode + ", " + hashFunction, expected, port);
+            written++;
+          }
+        }
+        assertEquals(RECORDS, written);
+      }
+  }
+
+  @Test(timeout = 60000)
+  public void broadcastWritesSameRecordsToAllPorts() throws Exception {
+    DataRecordMetadata outMetadata = outMetadata(DataFieldType.STRING, DataFieldType.BYTE);
+    DataRecord[] expected = hashOneByOne(prepare(new HashCalc("REFERENCE", "f0;f1", "", "", "md5", "key_hash",
+        "measure_hash", false), outMetadata), outMetadata);
+
+    for (int parallelism : new int[]{1, 2}) {
+      HashCalc hashCalc = new HashCalc("TEST", "f0;f1", "", "", "md5", "key_hash", "measure_hash", false);
+      hashCalc.setOutputMode("broadcast");
+      hashCalc.setParallelism(parallelism);
+      // records of a batch are serialized one after another into the buffer shared by all ports
+      hashCalc.setBatchSize(16);
+
+      List<List<DataRecord>> outputs = runGraph(hashCalc, outMetadata, outMetadata, outMetadata);
+      for (int port = 0; port < outputs.size(); port++) {
+        assertEquals(RECORDS, outputs.get(port).size());
+        for (int i = 0; i < RECORDS; i++)
+          assertSameValues("parallelism " + parallelism + ", port " + port + ", record " + i, expected[i],
+              outputs.get(port).get(i));
+      }
+    }
+  }
+
+  /**
+   * @return component in the given output mode connected to edges of the metadata
+   */
+  private static HashCalc connect(String outputMode, DataRecordMetadata... outMetadata) {
+    HashCalc hashCalc = new HashCalc("TEST", "f0;f1", "", "", "md5", "key_hash", "measure_hash", false);
+    hashCalc.setOutputMode(outputMode);
+    hashCalc.addInputPort(0, new Edge("IN", IN_METADATA));
+    for (int port = 0; port < outMetadata.length; port++)
+      hashCalc.addOutputPort(port, new Edge("OUT_" + port, outMetadata[port]));
+    return hashCalc;
+  }
+
+  @Test
+  public void outputPortsOfAllModesButSingleNeedSameMetadata() {
+    DataRecordMetadata outMetadata = outMetadata(DataFieldType.STRING, DataFieldType.STRING),
+        sameMetadata = outMetadata(DataFieldType.STRING, DataFieldType.STRING),
+        otherMetadata = outMetadata(DataFieldType.LONG, DataFieldType.STRING);
+
+    for (String outputMode : new String[]{"partition", "ring", "broadcast"}) {
+      assertTrue(outputMode, connect(outputMode, outMetadata, otherMetadata).checkConfig(new ConfigurationStatus())
+          .isError());
+      assertFalse(outputMode, connect(outputMode, outMetadata, sameMetadata).checkConfig(new ConfigurationStatus())
+          .isError());
+    }
+    assertFalse(connect("single", outMetadata, otherMetadata).checkConfig(new ConfigurationStatus()).isError());
+  }
+
+
+}
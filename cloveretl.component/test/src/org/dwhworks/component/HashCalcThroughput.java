@@ -0,0 +1,54 @@
+package org.dwhworks.component;
+
+import org.dwhworks.component.harness.GraphHarness;
+import org.dwhworks.component.harness.RunStatistics;
+import org.jetel.data.DataRecord;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+
+/**
+ * Measures throughput of HASH_CALC running in a graph, see {@link GraphHarness}.
+ * <p>
+ * Arguments: number of fields, number of records, hash function, parallelism, number of runs and batch size,
+ * e.g. <code>100 1000000 md5 4 5 64</code>. The first run warms the JVM up and is not reported.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class HashCalcThroughput {
+
+  private static final int PREPARED_RECORDS = 4096;
+
+  private HashCalcThroughput() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    int width = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+    long count = args.length > 1 ? Long.parseLong(args[1]) : 1000000;
+    String hashFunction = args.length > 2 ? args[2] : "md5";
+    int parallelism = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+    int runs = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+    int batchSize = args.length > 5 ? Integer.parseInt(args[5]) : 64;
+
+    DataRecordMetadata inMetadata = TestRecords.metadata(width),
+        outMetadata = TestRecords.outMetadata(inMetadata, DataFieldType.STRING);
+    DataRecord[] records = TestRecords.records(inMetadata, PREPARED_RECORDS);
+
+    for (int run = 0; run <= runs; run++) {
+      HashCalc hashCalc = new HashCalc("HASH_CALC_" + run, "f0;f1", "", "", hashFunction,
+          TestRecords.KEY_HASH_FIELD, TestRecords.MEASURE_HASH_FIELD, false);
+      hashCalc.setParallelism(parallelism);
+      hashCalc.setBatchSize(batchSize);
+
+      RunStatistics statistics = new GraphHarness(hashCalc)
+          .input(0, records, count)
+          .output(0, outMetadata)
+          .run();
+
+      if (run > 0) System.out.println("width " + width + ", " + hashFunction + ", parallelism " + parallelism
+          + ", batch " + batchSize + ": " + statistics);
+    }
+  }
+
+
+}
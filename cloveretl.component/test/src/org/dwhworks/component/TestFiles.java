@@ -0,0 +1,41 @@
+package org.dwhworks.component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Temporary directories for unit tests.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class TestFiles {
+
+  private TestFiles() {
+  }
+
+  /**
+   * @param prefix prefix of the directory name
+   * @return new empty temporary directory
+   * @throws IOException if the directory can not be created
+   */
+  public static File createTempDirectory(String prefix) throws IOException {
+    return Files.createTempDirectory(prefix).toFile();
+  }
+
+  /**
+   * Deletes the file or the directory with all its content.
+   *
+   * @param file file or directory, may be <code>null</code>
+   */
+  public static void delete(File file) {
+    if (file == null) return;
+
+    File[] children = file.listFiles();
+    if (children != null) for (File child : children) delete(child);
+    if (!file.delete()) file.deleteOnExit();
+  }
+
+
+}
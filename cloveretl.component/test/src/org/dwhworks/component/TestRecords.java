@@ -0,0 +1,197 @@
+package org.dwhworks.component;
+
+import org.jetel.data.DataField;
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.data.primitive.Decimal;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.Format;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Metadata, random records and the reference formatting of field values for unit tests and benchmarks.
+ * Benchmarks compile this class from the test sources, so both hash the same records.
+ * <p>
+ * Fields are named f0, f1, ... Decimal fields have length 18 and scale 2, date fields the format
+ * "yyyy-MM-dd HH:mm:ss". Every 10th value is NULL, values include negative numbers, zeros and text
+ * outside of ASCII, decimals have the scale of their field. Records are generated from a fixed seed.
+ * <p>
+ * The reference formatting is the formatting of the first release of HASH_CALC: {@link SimpleDateFormat}
+ * for dates, {@link DecimalFormat} for integers and for decimals converted to double,
+ * {@link String#valueOf(Object)} for other values and the empty string for NULL.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class TestRecords {
+
+  /** Field with the key hash in output metadata. */
+  public static final String KEY_HASH_FIELD = "key_hash";
+  /** Field with the measure hash in output metadata. */
+  public static final String MEASURE_HASH_FIELD = "measure_hash";
+
+  /** Field types cycled through by {@link #metadata(int)}. */
+  public static final DataFieldType[] FIELD_TYPES = {DataFieldType.STRING, DataFieldType.INTEGER,
+      DataFieldType.LONG, DataFieldType.DECIMAL, DataFieldType.DATE, DataFieldType.NUMBER};
+
+  private static final long SEED = 20181029L;
+  private static final int NULL_RATE = 10;
+  private static final String TEXT_CHARS = "abcxyzABCXYZ019 -;|\u00e4\u00f6\u00fc\u00df\u00e9\u00f1\u0436\u044f\u20ac\u4e2d\u6587";
+
+  private TestRecords() {
+  }
+
+  /**
+   * @param width number of fields
+   * @return metadata with fields of all types
+   */
+  public static DataRecordMetadata metadata(int width) {
+    DataFieldType[] types = new DataFieldType[width];
+    for (int i = 0; i < width; i++) types[i] = FIELD_TYPES[i % FIELD_TYPES.length];
+    return metadata(types);
+  }
+
+  /**
+   * @param types types of the fields
+   * @return metadata with fields of the types
+   */
+  public static DataRecordMetadata metadata(DataFieldType... types) {
+    DataRecordMetadata metadata = new DataRecordMetadata("test_" + types.length);
+    for (int i = 0; i < types.length; i++) metadata.addField(field("f" + i, types[i]));
+    return metadata;
+  }
+
+  /**
+   * @param inMetadata metadata of input records
+   * @param hashType   type of hash fields
+   * @return metadata of output records, i.e. input fields and the hash fields
+   */
+  public static DataRecordMetadata outMetadata(DataRecordMetadata inMetadata, DataFieldType hashType) {
+    DataRecordMetadata metadata = new DataRecordMetadata(inMetadata.getName() + "_hashed");
+    for (DataFieldMetadata field : inMetadata.getFields()) metadata.addField(field(field.getName(), field.getDataType()));
+    metadata.addField(field(KEY_HASH_FIELD, hashType));
+    metadata.addField(field(MEASURE_HASH_FIELD, hashType));
+    return metadata;
+  }
+
+  /**
+   * @param metadata metadata of input records
+   * @return names of all fields
+   */
+  public static List<String> fieldNames(DataRecordMetadata metadata) {
+    List<String> names = new ArrayList<>();
+    for (DataFieldMetadata field : metadata.getFields()) names.add(field.getName());
+    return names;
+  }
+
+  private static DataFieldMetadata field(String name, DataFieldType type) {
+    DataFieldMetadata field = new DataFieldMetadata(name, type, ";");
+    if (type == DataFieldType.DECIMAL) {
+      field.setProperty("length", "18");
+      field.setProperty("scale", "2");
+    } else if (type == DataFieldType.DATE) field.setFormatStr("yyyy-MM-dd HH:mm:ss");
+    return field;
+  }
+
+  /**
+   * @param metadata metadata of the records
+   * @param count    number of records
+   * @return random records
+   */
+  public static DataRecord[] records(DataRecordMetadata metadata, int count) {
+    Random random = new Random(SEED);
+    DataRecord[] records = new DataRecord[count];
+
+    for (int r = 0; r < count; r++) {
+      records[r] = DataRecordFactory.newRecord(metadata);
+      for (int i = 0; i < metadata.getNumFields(); i++)
+        records[r].getField(i).setValue(random.nextInt(NULL_RATE) == 0 ? null
+            : value(metadata.getField(i), random));
+    }
+
+    return records;
+  }
+
+  private static Object value(DataFieldMetadata field, Random random) {
+    switch (field.getDataType()) {
+      case INTEGER:
+        return random.nextBoolean() ? random.nextInt() : random.nextInt(201) - 100;
+      case LONG:
+        return random.nextBoolean() ? random.nextLong() : (long) random.nextInt(201) - 100;
+      case DECIMAL:
+        // at most 15 digits, so the value survives conversion to double
+        long unscaled = random.nextBoolean() ? random.nextLong() % 1000000000000000L : random.nextInt(2001) - 1000;
+        return BigDecimal.valueOf(unscaled, Integer.parseInt(field.getProperty("scale")));
+      case DATE:
+        return new Date(random.nextLong() % 4000000000000L);
+      case NUMBER:
+        return random.nextBoolean() ? random.nextDouble() * 1e6 - 5e5 : (random.nextInt(2001) - 1000) / 8.0;
+      default:
+        StringBuilder value = new StringBuilder(24);
+        for (int i = random.nextInt(24); i > 0; i--) value.append(TEXT_CHARS.charAt(random.nextInt(TEXT_CHARS.length())));
+        return value.toString();
+    }
+  }
+
+  /**
+   * @param metadata metadata of the records
+   * @return reference formats of the fields, <code>null</code> for fields formatted by {@link String#valueOf(Object)}
+   */
+  public static Format[] referenceFormats(DataRecordMetadata metadata) {
+    Format[] formats = new Format[metadata.getNumFields()];
+
+    for (int i = 0; i < formats.length; i++) {
+      DataFieldMetadata field = metadata.getField(i);
+      String format = field.getFormat();
+      boolean hasFormat = format != null && !format.isEmpty();
+
+      switch (field.getDataType()) {
+        case DATE:
+          formats[i] = new SimpleDateFormat(hasFormat ? format : "yyyy-MM-dd HH:mm:ss");
+          break;
+        case DECIMAL:
+          DecimalFormat decimalFormat = (DecimalFormat) DecimalFormat.getNumberInstance(Locale.ENGLISH);
+          if (hasFormat) decimalFormat.applyPattern(format);
+          else {
+            StringBuilder pattern = new StringBuilder("#################0.");
+            for (int s = Integer.parseInt(field.getProperty("scale")); s > 0; s--) pattern.append('0');
+            decimalFormat.applyPattern(pattern.toString());
+          }
+          formats[i] = decimalFormat;
+          break;
+        case INTEGER:
+          formats[i] = new DecimalFormat(hasFormat ? format : "#################0");
+          break;
+        default:
+          break;
+      }
+    }
+
+    return formats;
+  }
+
+  /**
+   * @param format reference format of the field from {@link #referenceFormats(DataRecordMetadata)}
+   * @param field  field to format
+   * @return reference formatted value of the field
+   */
+  public static String referenceValue(Format format, DataField field) {
+    Object value = field.getValue();
+    if (value == null) return "";
+    if (format == null) return String.valueOf(value);
+
+    return format.format(value instanceof Decimal ? ((Decimal) value).getDouble() : value);
+  }
+
+
+}
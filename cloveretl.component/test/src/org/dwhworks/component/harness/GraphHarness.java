@@ -0,0 +1,253 @@
+package org.dwhworks.component.harness;
+
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.graph.Edge;
+import org.jetel.graph.EdgeTypeEnum;
+import org.jetel.graph.Node;
+import org.jetel.graph.Phase;
+import org.jetel.graph.Result;
+import org.jetel.graph.TransformationGraph;
+import org.jetel.graph.runtime.EngineInitializer;
+import org.jetel.graph.runtime.GraphRuntimeContext;
+import org.jetel.main.runGraph;
+import org.jetel.metadata.DataRecordMetadata;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Runs a component in a graph built in memory, on a local JVM without a CloverETL server.
+ * <p>
+ * Every connected input port of the component is fed by a source, which writes prepared records
+ * repeatedly, and every connected output port is drained by a sink, which counts records and may pass
+ * them to a consumer. Ports are connected by ordinary graph edges, so the component runs under the same
+ * back-pressure as in a deployed graph. For example:
+ * <pre>
+ *   RunStatistics statistics = new GraphHarness(hashCalc)
+ *       .input(0, records, 1000000)
+ *       .output(0, outMetadata)
+ *       .run();
+ * </pre>
+ * The engine is initialized once per JVM, plugins are loaded from the directory given by the system
+ * property {@value #PLUGINS_PROPERTY} if set. A harness runs once.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class GraphHarness {
+
+  /** System property with the directory of engine plugins. */
+  public static final String PLUGINS_PROPERTY = "clover.plugins";
+
+  private static boolean engineInitialized;
+
+  private final Node component;
+  private final TransformationGraph graph;
+  private final Phase phase = new Phase(0);
+  private final SortedMap<Integer, RecordSource> sources = new TreeMap<>();
+  private final SortedMap<Integer, CountingSink> sinks = new TreeMap<>();
+  private final List<Edge> edges = new ArrayList<>();
+  private EdgeTypeEnum edgeType = EdgeTypeEnum.DIRECT;
+  private boolean finished;
+
+  /**
+   * Constructor
+   *
+   * @param component component to run, not yet added to any graph
+   */
+  public GraphHarness(Node component) {
+    this.component = component;
+    this.graph = new TransformationGraph("harness_" + component.getId());
+  }
+
+  /**
+   * Sets type of all edges, {@link EdgeTypeEnum#DIRECT} by default.
+   *
+   * @param edgeType type of edges
+   * @return this harness
+   */
+  public GraphHarness edgeType(EdgeTypeEnum edgeType) {
+    this.edgeType = edgeType;
+    return this;
+  }
+
+  /**
+   * Feeds an input port with records. The records are written in a cycle until the count is reached,
+   * so a small prepared set is enough for a long run.
+   *
+   * @param port    input port of the component
+   * @param records records to write, all with metadata of the port
+   * @param count   number of records to write
+   * @return this harness
+   */
+  public GraphHarness input(int port, DataRecord[] records, long count) {
+    if (records.length == 0 && count > 0) throw new IllegalArgumentException("No records for input port " + port);
+    sources.put(port, new RecordSource("SOURCE_" + port, records, count));
+    return this;
+  }
+
+  /**
+   * Drains an output port and counts its records.
+   *
+   * @param port     output port of the component
+   * @param metadata metadata of the port
+   * @return this harness
+   */
+  public GraphHarness output(int port, DataRecordMetadata metadata) {
+    return output(port, metadata, null);
+  }
+
+  /**
+   * Drains an output port, counts its records and passes them to a consumer.
+   *
+   * @param port     output port of the component
+   * @param metadata metadata of the port
+   * @param consumer consumer of records called in the thread of the sink, the record is reused by the next call
+   * @return this harness
+   */
+  public GraphHarness output(int port, DataRecordMetadata metadata, Consumer<DataRecord> consumer) {
+    sinks.put(port, new CountingSink("SINK_" + port, metadata, consumer));
+    return this;
+  }
+
+  /**
+   * Builds the graph, runs it and waits for its end.
+   *
+   * @return statistics of the run
+   * @throws Exception if the graph can not be initialized or does not finish successfully
+   */
+  public RunStatistics run() throws Exception {
+    if (finished) throw new IllegalStateException("Graph of " + component.getId() + " has already run");
+    finished = true;
+
+    initEngine();
+    build();
+
+    try {
+      GraphRuntimeContext context = new GraphRuntimeContext();
+      context.setUseJMX(false);
+      context.setContextURL(new File(".").getAbsoluteFile().toURI().toURL());
+      EngineInitializer.initGraph(graph, context);
+
+      long start = System.nanoTime();
+      Result result = runGraph.executeGraph(graph, context).get();
+      long elapsed = System.nanoTime() - start;
+
+      if (result != Result.FINISHED_OK)
+        throw new IllegalStateException("Graph of " + component.getId() + " finished with " + result);
+
+      long[] written = new long[sinks.isEmpty() ? 0 : sinks.lastKey() + 1];
+      for (Integer port : sinks.keySet()) written[port] = sinks.get(port).count;
+      long read = 0;
+      for (RecordSource source : sources.values()) read += source.count;
+
+      return new RunStatistics(read, written, elapsed);
+    } finally {
+      graph.free();
+    }
+  }
+
+  private static synchronized void initEngine() {
+    if (engineInitialized) return;
+    EngineInitializer.initEngine(System.getProperty(PLUGINS_PROPERTY), null, null);
+    engineInitialized = true;
+  }
+
+  private void build() throws Exception {
+    graph.addPhase(phase);
+    phase.addNode(component);
+
+    for (Integer port : sources.keySet()) {
+      RecordSource source = sources.get(port);
+      Edge edge = edge("IN_" + port, source.records.length > 0 ? source.records[0].getMetadata() : null);
+      phase.addNode(source);
+      source.addOutputPort(0, edge);
+      component.addInputPort(port, edge);
+    }
+
+    for (Integer port : sinks.keySet()) {
+      CountingSink sink = sinks.get(port);
+      Edge edge = edge("OUT_" + port, sink.metadata);
+      phase.addNode(sink);
+      component.addOutputPort(port, edge);
+      sink.addInputPort(0, edge);
+    }
+
+    for (Edge edge : edges) graph.addEdge(edge);
+  }
+
+  private Edge edge(String id, DataRecordMetadata metadata) {
+    if (metadata == null) throw new IllegalArgumentException("No metadata for edge " + id);
+
+    Edge edge = new Edge(id, metadata);
+    edge.setEdgeType(edgeType);
+    edges.add(edge);
+    return edge;
+  }
+
+  /**
+   * Writes prepared records into output port 0 in a cycle.
+   */
+  private static final class RecordSource extends Node {
+    final DataRecord[] records;
+    final long count;
+
+    RecordSource(String id, DataRecord[] records, long count) {
+      super(id);
+      this.records = records;
+      this.count = count;
+    }
+
+    @Override
+    public String getType() {
+      return "HARNESS_SOURCE";
+    }
+
+    @Override
+    protected Result execute() throws Exception {
+      for (long i = 0; i < count && runIt; i++) writeRecord(0, records[(int) (i % records.length)]);
+      return runIt ? Result.FINISHED_OK : Result.ABORTED;
+    }
+  }
+
+  /**
+   * Reads all records of input port 0 and counts them.
+   */
+  private static final class CountingSink extends Node {
+    final DataRecordMetadata metadata;
+    final Consumer<DataRecord> consumer;
+    volatile long count;
+
+    CountingSink(String id, DataRecordMetadata metadata, Consumer<DataRecord> consumer) {
+      super(id);
+      this.metadata = metadata;
+      this.consumer = consumer;
+    }
+
+    @Override
+    public String getType() {
+      return "HARNESS_SINK";
+    }
+
+    @Override
+    protected Result execute() throws Exception {
+      DataRecord record = DataRecordFactory.newRecord(metadata);
+      long read = 0;
+
+      while ((record = readRecord(0, record)) != null && runIt) {
+        if (consumer != null) consumer.accept(record);
+        read++;
+      }
+
+      count = read;
+      return runIt ? Result.FINISHED_OK : Result.ABORTED;
+    }
+  }
+
+
+}
@@ -0,0 +1,62 @@
+package org.dwhworks.component.harness;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of a graph run by {@link GraphHarness}.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public final class RunStatistics {
+
+  private final long recordsRead;
+  private final long[] recordsWritten;
+  private final long elapsedNanos;
+
+  RunStatistics(long recordsRead, long[] recordsWritten, long elapsedNanos) {
+    this.recordsRead = recordsRead;
+    this.recordsWritten = recordsWritten;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * @return number of records written into all input ports of the component
+   */
+  public long getRecordsRead() {
+    return recordsRead;
+  }
+
+  /**
+   * @param port output port of the component
+   * @return number of records written by the component into the port, 0 for ports without a sink
+   */
+  public long getRecordsWritten(int port) {
+    return port < recordsWritten.length ? recordsWritten[port] : 0;
+  }
+
+  /**
+   * @return wall-clock time of the graph run in nanoseconds, initialization excluded
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * @return input records processed per second
+   */
+  public double getRecordsPerSecond() {
+    return elapsedNanos == 0 ? 0 : recordsRead * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder s = new StringBuilder(64);
+    s.append(recordsRead).append(" records read, written");
+    for (int port = 0; port < recordsWritten.length; port++) s.append(' ').append(port).append(':').append(recordsWritten[port]);
+    return s.append(", ").append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append(" ms, ")
+        .append(Math.round(getRecordsPerSecond())).append(" records/s").toString();
+  }
+
+
+}
@@ -0,0 +1,142 @@
+package org.dwhworks.component.hash;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Known-answer vectors of the built-in hash functions and streaming of messages in pieces.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class HashFunctionsTest {
+
+  private static final String FOX = "The quick brown fox jumps over the lazy dog";
+  private static final String SPAM = "Nobody inspects the spammish repetition";
+
+  private static String hex(byte[] bytes) {
+    StringBuilder sb = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) sb.append(Character.forDigit(b >> 4 & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    return sb.toString();
+  }
+
+  private static byte[] hash(HashFunction function, byte[] message) {
+    Hasher hasher = function.newHasher();
+    hasher.update(message, 0, message.length);
+    byte[] out = new byte[function.getHashLength()];
+    hasher.finish(out, 0);
+    return out;
+  }
+
+  private static String hash(String name, String message) {
+    return hex(hash(HashFunctions.get(name), message.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static String hash(String name, byte[] message) {
+    return hex(hash(HashFunctions.get(name), message));
+  }
+
+  @Test
+  public void crc32cMatchesKnownAnswers() {
+    assertEquals("00000000", hash(Crc32c.NAME, ""));
+    assertEquals("e3069283", hash(Crc32c.NAME, "123456789"));
+
+    // RFC 3720, B.4
+    byte[] zeros = new byte[32], ones = new byte[32], incrementing = new byte[32], decrementing = new byte[32];
+    for (int i = 0; i < 32; i++) {
+      ones[i] = (byte) 0xff;
+      incrementing[i] = (byte) i;
+      decrementing[i] = (byte) (31 - i);
+    }
+    assertEquals("8a9136aa", hash(Crc32c.NAME, zeros));
+    assertEquals("62a8ab43", hash(Crc32c.NAME, ones));
+    assertEquals("46dd794e", hash(Crc32c.NAME, incrementing));
+    assertEquals("113fdb5c", hash(Crc32c.NAME, decrementing));
+  }
+
+  @Test
+  public void xxHash64MatchesKnownAnswers() {
+    assertEquals("ef46db3751d8e999", hash(XxHash64.NAME, ""));
+    assertEquals("d24ec4f1a98c6e5b", hash(XxHash64.NAME, "a"));
+    assertEquals("44bc2cf5ad770999", hash(XxHash64.NAME, "abc"));
+    assertEquals("0b242d361fda71bc", hash(XxHash64.NAME, FOX));
+    assertEquals("fbcea83c8a378bf1", hash(XxHash64.NAME, SPAM));
+  }
+
+  @Test
+  public void xxHash64OfArrayMatchesHasher() {
+    Random random = new Random(20181029L);
+    for (int length = 0; length < 200; length++) {
+      byte[] message = new byte[length + 3];
+      random.nextBytes(message);
+      assertEquals(hash(XxHash64.NAME, Arrays.copyOfRange(message, 3, message.length)),
+          String.format("%016x", XxHash64.hash(message, 3, length, 0)));
+    }
+  }
+
+  @Test
+  public void murmur3MatchesKnownAnswers() {
+    assertEquals("00000000000000000000000000000000", hash(Murmur3x64128.NAME, ""));
+    assertEquals("029bbd41b3a7d8cb191dae486a901e5b", hash(Murmur3x64128.NAME, "hello"));
+    assertEquals("6c1b07bc7bbc4be347939ac4a93c437a", hash(Murmur3x64128.NAME, FOX));
+  }
+
+  @Test
+  public void messageDigestsMatchMessageDigest() throws NoSuchAlgorithmException {
+    String[][] functions = {{HashFunctions.MD5, "MD5"}, {HashFunctions.SHA1, "SHA-1"},
+        {HashFunctions.SHA256, "SHA-256"}};
+    for (String[] function : functions)
+      for (String message : new String[]{"", "abc", FOX}) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        assertEquals(hex(MessageDigest.getInstance(function[1]).digest(bytes)), hash(function[0], bytes));
+      }
+  }
+
+  @Test
+  public void messagesFedInPiecesHaveTheSameHash() {
+    Random random = new Random(20181029L);
+    byte[] message = new byte[1000];
+    random.nextBytes(message);
+
+    for (String name : HashFunctions.getNames()) {
+      HashFunction function = HashFunctions.get(name);
+      Hasher hasher = function.newHasher();
+      byte[] out = new byte[function.getHashLength()];
+
+      for (int length : new int[]{0, 1, 7, 8, 15, 16, 17, 31, 32, 33, 63, 64, 65, 200, 1000}) {
+        byte[] expected = hash(function, Arrays.copyOf(message, length));
+
+        // garbage of a discarded message, then random pieces
+        hasher.update(message, 0, 100);
+        hasher.reset();
+        for (int offset = 0; offset < length; ) {
+          int piece = Math.min(random.nextInt(40), length - offset);
+          hasher.update(message, offset, piece);
+          offset += piece;
+        }
+        hasher.finish(out, 0);
+        assertArrayEquals(name + " of " + length + " bytes", expected, out);
+      }
+    }
+  }
+
+  @Test
+  public void functionsAreFoundByNameIgnoringCase() {
+    for (String name : new String[]{"md5", "SHA1", "Sha256", "XXHASH64", "murmur3_128", "crc32c"})
+      assertNotNull(name, HashFunctions.get(name));
+    assertNull(HashFunctions.get("md4"));
+    assertNull(HashFunctions.get(null));
+  }
+
+
+}
@@ -0,0 +1,80 @@
+package org.dwhworks.component.hash;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Distribution of hashes among the nodes of a {@link HashRing}.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class HashRingTest {
+
+  private static final int KEYS = 200000;
+
+  @Test
+  public void sameKeyAlwaysGoesToSameNode() {
+    HashRing ring = new HashRing(5, HashRing.DEFAULT_REPLICAS), other = new HashRing(5, HashRing.DEFAULT_REPLICAS);
+
+    for (long key = -KEYS / 2; key < KEYS / 2; key++) {
+      int node = ring.getNode(key);
+      assertTrue(node >= 0 && node < 5);
+      assertEquals(node, ring.getNode(key));
+      assertEquals(node, other.getNode(key));
+    }
+    assertEquals(0, new HashRing(1, 1).getNode(Long.MIN_VALUE));
+  }
+
+  @Test
+  public void keysSpreadEvenlyOverNodes() {
+    for (int nodeCount : new int[]{2, 3, 8, 16}) {
+      HashRing ring = new HashRing(nodeCount, HashRing.DEFAULT_REPLICAS);
+      int[] counts = new int[nodeCount];
+      // sequential keys, as hashes need not be well distributed
+      for (long key = 0; key < KEYS; key++) counts[ring.getNode(key)]++;
+
+      double mean = (double) KEYS / nodeCount;
+      for (int node = 0; node < nodeCount; node++)
+        assertTrue(nodeCount + " nodes, node " + node + " got " + counts[node] + " keys",
+            Math.abs(counts[node] - mean) < 0.25 * mean);
+    }
+  }
+
+  @Test
+  public void addedNodeTakesOverOnlyItsShare() {
+    for (int nodeCount : new int[]{1, 2, 4, 9}) {
+      HashRing ring = new HashRing(nodeCount, HashRing.DEFAULT_REPLICAS),
+          larger = new HashRing(nodeCount + 1, HashRing.DEFAULT_REPLICAS);
+      int moved = 0;
+
+      for (long key = 0; key < KEYS; key++) {
+        int node = ring.getNode(key), newNode = larger.getNode(key);
+        if (node == newNode) continue;
+
+        assertEquals("keys move to the added node only", nodeCount, newNode);
+        moved++;
+      }
+
+      double share = 1.0 / (nodeCount + 1);
+      assertTrue(nodeCount + " nodes, " + moved + " keys moved",
+          Math.abs((double) moved / KEYS - share) < 0.25 * share);
+    }
+  }
+
+  @Test
+  public void invalidRingsAreRejected() {
+    for (int[] ring : new int[][]{{0, 160}, {4, 0}, {-1, 1}})
+      try {
+        new HashRing(ring[0], ring[1]);
+        fail("ring of " + ring[0] + " nodes with " + ring[1] + " replicas was created");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+  }
+
+
+}
@@ -0,0 +1,102 @@
+package org.dwhworks.component.hash;
+
+import org.dwhworks.component.TestFiles;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link KeySet} in direct memory and in a temporary file compared to a {@link HashSet}.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class KeySetTest {
+
+  private File directory;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = TestFiles.createTempDirectory("keyset");
+  }
+
+  @After
+  public void tearDown() {
+    TestFiles.delete(directory);
+  }
+
+  private static void checkAgainstHashSet(KeySet keys, boolean wideKeys) throws IOException {
+    Random random = new Random(20181029L);
+    Set<String> expected = new HashSet<>();
+
+    // few distinct values, so there are many duplicates, including the zero key
+    for (int i = 0; i < 20000; i++) {
+      long high = wideKeys ? random.nextInt(50) : 0, low = random.nextInt(200);
+      assertEquals(expected.add(high + ":" + low), keys.add(high, low));
+    }
+    for (int i = 0; i < 20000; i++) {
+      long high = wideKeys ? random.nextLong() : 0, low = random.nextLong();
+      assertEquals(expected.add(high + ":" + low), keys.add(high, low));
+    }
+    assertEquals(expected.size(), keys.size());
+  }
+
+  @Test
+  public void directSetMatchesHashSet() throws IOException {
+    try (KeySet keys = new KeySet(true, 0, null)) {
+      checkAgainstHashSet(keys, true);
+    }
+  }
+
+  @Test
+  public void directSetOf64BitKeysMatchesHashSet() throws IOException {
+    try (KeySet keys = new KeySet(false, 0, null)) {
+      checkAgainstHashSet(keys, false);
+    }
+  }
+
+  @Test
+  public void fileSetMatchesHashSet() throws IOException {
+    try (KeySet keys = new KeySet(true, 100, directory)) {
+      checkAgainstHashSet(keys, true);
+    }
+  }
+
+  @Test
+  public void temporaryFilesAreDeleted() throws IOException {
+    try (KeySet keys = new KeySet(false, 0, directory)) {
+      for (long i = 1; i <= 10000; i++) assertTrue(keys.add(0, i));
+      assertEquals(0, directory.list().length);
+    }
+  }
+
+  @Test
+  public void zeroKeyIsAddedOnce() throws IOException {
+    try (KeySet keys = new KeySet(true, 0, null)) {
+      assertTrue(keys.add(0, 0));
+      assertFalse(keys.add(0, 0));
+      assertTrue(keys.add(1, 0));
+      assertTrue(keys.add(0, 1));
+      assertEquals(3, keys.size());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setOf64BitKeysRejectsWideKey() throws IOException {
+    try (KeySet keys = new KeySet(false, 0, null)) {
+      keys.add(1, 1);
+    }
+  }
+
+
+}
@@ -0,0 +1,119 @@
+package org.dwhworks.component.hash;
+
+import org.dwhworks.component.util.DigestWriter;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Hashes of {@link MultiBufferMd5} compared to {@link MessageDigest} MD5.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class MultiBufferMd5Test {
+
+  private static byte[][] randomMessages(Random random, int count, int maxLength) {
+    byte[][] messages = new byte[count][];
+    for (int i = 0; i < count; i++) {
+      messages[i] = new byte[random.nextInt(maxLength + 1)];
+      random.nextBytes(messages[i]);
+    }
+    return messages;
+  }
+
+  private static void checkBatch(MultiBufferMd5 hasher, byte[][] messages, Random random)
+      throws NoSuchAlgorithmException {
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+
+    for (byte[] message : messages) {
+      // messages are fed in random pieces
+      for (int offset = 0; offset < message.length; ) {
+        int piece = Math.min(random.nextInt(100), message.length - offset);
+        hasher.update(message, offset, piece);
+        offset += piece;
+      }
+      hasher.endMessage();
+    }
+    assertEquals(messages.length, hasher.getMessageCount());
+
+    byte[] out = new byte[3 + messages.length * MultiBufferMd5.HASH_LENGTH];
+    hasher.finish(out, 3);
+    assertEquals(0, hasher.getMessageCount());
+
+    for (int i = 0; i < messages.length; i++)
+      assertArrayEquals("message " + i + " of " + messages[i].length + " bytes", md5.digest(messages[i]),
+          Arrays.copyOfRange(out, 3 + i * MultiBufferMd5.HASH_LENGTH, 3 + (i + 1) * MultiBufferMd5.HASH_LENGTH));
+  }
+
+  @Test
+  public void messagesAroundBlockBoundariesMatchMessageDigest() throws NoSuchAlgorithmException {
+    Random random = new Random(20181029L);
+    byte[][] messages = new byte[200][];
+    for (int length = 0; length < messages.length; length++) {
+      messages[length] = new byte[length];
+      random.nextBytes(messages[length]);
+    }
+
+    checkBatch(new MultiBufferMd5(), messages, random);
+  }
+
+  @Test
+  public void batchesOfAnySizeMatchMessageDigest() throws NoSuchAlgorithmException {
+    Random random = new Random(20181029L);
+    MultiBufferMd5 hasher = new MultiBufferMd5();
+
+    // the hasher is reused, its buffers grow with the batches
+    for (int count : new int[]{0, 1, 2, 3, MultiBufferMd5.LANES + 1, 100, 1000, 7})
+      checkBatch(hasher, randomMessages(random, count, random.nextBoolean() ? 80 : 5000), random);
+  }
+
+  @Test
+  public void resetDiscardsBatch() throws NoSuchAlgorithmException {
+    Random random = new Random(20181029L);
+    MultiBufferMd5 hasher = new MultiBufferMd5();
+
+    hasher.update(new byte[100], 0, 100);
+    hasher.endMessage();
+    hasher.update(new byte[10], 0, 10);
+    hasher.reset();
+    assertEquals(0, hasher.getMessageCount());
+
+    checkBatch(hasher, randomMessages(random, 5, 200), random);
+  }
+
+  @Test
+  public void batchDigestWriterMatchesMessageDigest() throws NoSuchAlgorithmException {
+    String previous = System.setProperty(Md5HashFunction.MULTI_BUFFER_PROPERTY, "true");
+    try {
+      DigestWriter writer = DigestWriter.batch(new Md5HashFunction(), StandardCharsets.UTF_8);
+      assertNotNull(writer);
+
+      String[] texts = {"", "a", "abc", "message digest", "\u00e4\u00f6\u00fc\u20ac\u4e2d\u6587\ud83d\ude00",
+          new String(new char[1000]).replace('\0', 'x')};
+      for (String text : texts) {
+        writer.write(text);
+        writer.endMessage();
+      }
+
+      byte[] digests = writer.digestBatch();
+      MessageDigest md5 = MessageDigest.getInstance("MD5");
+      for (int i = 0; i < texts.length; i++)
+        assertArrayEquals(texts[i], md5.digest(texts[i].getBytes(StandardCharsets.UTF_8)),
+            Arrays.copyOfRange(digests, i * writer.getDigestLength(), (i + 1) * writer.getDigestLength()));
+    } finally {
+      if (previous == null) System.clearProperty(Md5HashFunction.MULTI_BUFFER_PROPERTY);
+      else System.setProperty(Md5HashFunction.MULTI_BUFFER_PROPERTY, previous);
+    }
+  }
+
+
+}
@@ -0,0 +1,206 @@
+package org.dwhworks.component.hash;
+
+import org.dwhworks.component.TestFiles;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Hash snapshot files written by {@link SnapshotWriter} and read by {@link SnapshotReader}.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class SnapshotTest {
+
+  private static final String ALGORITHM = "md5";
+  private static final long FIELD_FINGERPRINT = 12345;
+
+  private File directory, file;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = TestFiles.createTempDirectory("snapshot");
+    file = new File(directory, "hashes.snapshot");
+  }
+
+  @After
+  public void tearDown() {
+    TestFiles.delete(directory);
+  }
+
+  /**
+   * Adds random keys, every 10th key repeatedly with a new measure, and returns the last measure of every key.
+   */
+  private static Map<String, Long> addKeys(SnapshotWriter writer, boolean wideKeys, int count) throws IOException {
+    Random random = new Random(20181029L);
+    Map<String, Long> expected = new HashMap<>();
+    long[] highs = new long[count], lows = new long[count];
+
+    for (int i = 0; i < count; i++) {
+      boolean repeated = i > 0 && i % 10 == 0;
+      int key = repeated ? random.nextInt(i) : i;
+      if (!repeated) {
+        highs[i] = wideKeys ? random.nextLong() : 0;
+        lows[i] = random.nextLong();
+      }
+
+      long measure = random.nextLong();
+      writer.add(highs[key], lows[key], measure, wideKeys ? 16 : 8);
+      expected.put(highs[key] + ":" + lows[key], measure);
+    }
+
+    return expected;
+  }
+
+  private void checkSnapshot(Map<String, Long> expected, boolean wideKeys) throws IOException {
+    try (SnapshotReader reader = SnapshotReader.open(file, false)) {
+      SnapshotHeader header = reader.getHeader();
+      assertEquals(ALGORITHM, header.getAlgorithm());
+      assertEquals(FIELD_FINGERPRINT, header.getFieldFingerprint());
+      assertEquals(wideKeys, header.isWideKeys());
+      assertEquals(expected.size(), reader.size());
+
+      for (long index = 0; index < reader.size(); index++) {
+        long high = reader.getKeyHigh(index), low = reader.getKeyLow(index);
+        assertEquals(expected.get(high + ":" + low).longValue(), reader.getMeasure(index));
+        assertEquals(index, reader.find(high, low));
+        if (index > 0)
+          assertTrue("records are not sorted",
+              SnapshotReader.compare(reader.getKeyHigh(index - 1), reader.getKeyLow(index - 1), high, low) < 0);
+      }
+
+      Random random = new Random(1);
+      for (int i = 0; i < 1000; i++) {
+        long high = wideKeys ? random.nextLong() : 0, low = random.nextLong();
+        if (!expected.containsKey(high + ":" + low)) assertEquals(-1, reader.find(high, low));
+      }
+    }
+  }
+
+  @Test
+  public void snapshotInOneRunIsReadBack() throws IOException {
+    SnapshotWriter writer = new SnapshotWriter(file, ALGORITHM, FIELD_FINGERPRINT, true);
+    Map<String, Long> expected = addKeys(writer, true, 20000);
+    assertEquals(expected.size(), writer.finish().getCount());
+
+    checkSnapshot(expected, true);
+  }
+
+  @Test
+  public void snapshotOfMergedRunsIsReadBack() throws IOException {
+    // more runs than are merged at once
+    SnapshotWriter writer = new SnapshotWriter(file, ALGORITHM, FIELD_FINGERPRINT, true, 100);
+    Map<String, Long> expected = addKeys(writer, true, 20000);
+    writer.finish();
+
+    checkSnapshot(expected, true);
+    assertEquals(1, directory.list().length);
+  }
+
+  @Test
+  public void snapshotOf64BitKeysIsReadBack() throws IOException {
+    SnapshotWriter writer = new SnapshotWriter(file, ALGORITHM, FIELD_FINGERPRINT, false, 1000);
+    Map<String, Long> expected = addKeys(writer, false, 20000);
+    writer.finish();
+
+    checkSnapshot(expected, false);
+  }
+
+  @Test
+  public void emptySnapshotIsReadBack() throws IOException {
+    new SnapshotWriter(file, ALGORITHM, FIELD_FINGERPRINT, true).finish();
+
+    try (SnapshotReader reader = SnapshotReader.open(file, true)) {
+      assertEquals(0, reader.size());
+      assertEquals(HashSnapshot.ABSENT, reader.classify(1, 2, 3));
+    }
+  }
+
+  @Test
+  public void unseenKeysAreVisited() throws Exception {
+    SnapshotWriter writer = new SnapshotWriter(file, ALGORITHM, FIELD_FINGERPRINT, true);
+    for (long key = 1; key <= 100; key++) writer.add(key, key, key * 10, 16);
+    writer.finish();
+
+    try (SnapshotReader reader = SnapshotReader.open(file, true)) {
+      for (long key = 1; key <= 100; key += 2)
+        assertEquals(key % 4 == 1 ? HashSnapshot.UNCHANGED : HashSnapshot.CHANGED,
+            reader.classify(key, key, key % 4 == 1 ? key * 10 : 0));
+      assertEquals(HashSnapshot.ABSENT, reader.classify(0, 101, 0));
+
+      long[] unseen = new long[101];
+      reader.forEachUnseen((keyHigh, keyLow, measure) -> {
+        assertEquals(keyHigh, keyLow);
+        assertEquals(keyLow * 10, measure);
+        unseen[(int) keyLow]++;
+      });
+      for (int key = 1; key <= 100; key++) assertEquals(key % 2 == 0 ? 1 : 0, unseen[key]);
+    }
+  }
+
+  @Test
+  public void closedSnapshotIsReplacedByTheNextOne() throws IOException {
+    SnapshotWriter writer = new SnapshotWriter(file, ALGORITHM, FIELD_FINGERPRINT, true);
+    writer.add(0, 1, 1, 16);
+    writer.finish();
+
+    SnapshotReader reader = SnapshotReader.open(file, false);
+    assertEquals(0, reader.find(0, 1));
+    reader.close();
+
+    writer = new SnapshotWriter(file, ALGORITHM, FIELD_FINGERPRINT, true);
+    writer.add(0, 2, 2, 16);
+    writer.add(0, 3, 3, 16);
+    writer.finish();
+
+    try (SnapshotReader next = SnapshotReader.open(file, false)) {
+      assertEquals(2, next.size());
+      assertEquals(-1, next.find(0, 1));
+    }
+  }
+
+  @Test
+  public void abortedSnapshotKeepsThePreviousOne() throws IOException {
+    SnapshotWriter writer = new SnapshotWriter(file, ALGORITHM, FIELD_FINGERPRINT, true);
+    writer.add(0, 1, 1, 16);
+    writer.finish();
+
+    writer = new SnapshotWriter(file, ALGORITHM, FIELD_FINGERPRINT, true, 10);
+    for (long key = 0; key < 100; key++) writer.add(0, key, key, 16);
+    writer.abort();
+
+    assertEquals(Arrays.asList(file.getName()), Arrays.asList(directory.list()));
+    try (SnapshotReader reader = SnapshotReader.open(file, false)) {
+      assertEquals(1, reader.size());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void truncatedSnapshotIsRejected() throws IOException {
+    SnapshotWriter writer = new SnapshotWriter(file, ALGORITHM, FIELD_FINGERPRINT, true);
+    writer.add(0, 1, 1, 16);
+    writer.finish();
+    assertTrue(file.length() > SnapshotHeader.SIZE);
+    assertFalse(new File(file.getPath() + ".tmp").exists());
+
+    try (RandomAccessFile truncated = new RandomAccessFile(file, "rw")) {
+      truncated.setLength(file.length() - 1);
+    }
+    SnapshotReader.open(file, false).close();
+  }
+
+
+}
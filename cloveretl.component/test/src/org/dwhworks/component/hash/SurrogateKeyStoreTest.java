@@ -0,0 +1,242 @@
+package org.dwhworks.component.hash;
+
+import org.dwhworks.component.TestFiles;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Assignment, persistence, growth, locking and crash recovery of {@link SurrogateKeyStore}.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class SurrogateKeyStoreTest {
+
+  private File directory, file;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = TestFiles.createTempDirectory("skeystore");
+    file = new File(directory, "keys");
+  }
+
+  @After
+  public void tearDown() {
+    TestFiles.delete(directory);
+  }
+
+  private static long keyHigh(int i) {
+    return HashIndex.mix(i, 1);
+  }
+
+  private static long keyLow(int i) {
+    return HashIndex.mix(1, i);
+  }
+
+  private static void assign(SurrogateKeyStore store, int from, int to) throws IOException {
+    for (int i = from; i < to; i++) assertEquals(i + 1, store.getOrAssign(keyHigh(i), keyLow(i)));
+  }
+
+  private static void check(SurrogateKeyStore store, int count) {
+    assertEquals(count, store.size());
+    assertEquals(count + 1, store.getNextId());
+    for (int i = 0; i < count; i++) assertEquals(i + 1, store.find(keyHigh(i), keyLow(i)));
+  }
+
+  /**
+   * Copies files of an open store, as the process dying at this moment would leave them.
+   */
+  private File copyOpenStore(SurrogateKeyStore store) throws IOException {
+    store.commit();
+    File copy = new File(directory, "crashed");
+    Files.copy(file.toPath(), copy.toPath());
+    Files.copy(new File(file.getPath() + SurrogateKeyStore.LOG_SUFFIX).toPath(),
+        new File(copy.getPath() + SurrogateKeyStore.LOG_SUFFIX).toPath());
+    return copy;
+  }
+
+  private static void write(File file, long position, ByteBuffer data) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+      while (data.hasRemaining()) channel.write(data, position + data.position());
+    }
+  }
+
+  @Test
+  public void keysGetConsecutiveSurrogateKeys() throws IOException {
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(file, true, 100)) {
+      assign(store, 0, 100);
+      for (int i = 0; i < 100; i++) assertEquals(i + 1, store.getOrAssign(keyHigh(i), keyLow(i)));
+      assertEquals(0, store.find(keyHigh(100), keyLow(100)));
+      check(store, 100);
+    }
+  }
+
+  @Test
+  public void reopenedStoreKeepsSurrogateKeys() throws IOException {
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(file, true, 0)) {
+      assign(store, 0, 100);
+    }
+    assertEquals(0, new File(file.getPath() + SurrogateKeyStore.LOG_SUFFIX).length());
+
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(file, true, 0)) {
+      check(store, 100);
+      assign(store, 100, 200);
+    }
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(file, true, 0)) {
+      check(store, 200);
+    }
+  }
+
+  @Test
+  public void growingStoreKeepsSurrogateKeys() throws IOException {
+    // the smallest table holds 716 keys
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(file, false, 0)) {
+      for (int i = 0; i < 5000; i++) assertEquals(i + 1, store.getOrAssign(0, keyLow(i)));
+      for (int i = 0; i < 5000; i++) assertEquals(i + 1, store.find(0, keyLow(i)));
+    }
+    assertFalse(new File(file.getPath() + ".grow").exists());
+
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(file, false, 0)) {
+      assertEquals(5000, store.size());
+      for (int i = 0; i < 5000; i++) assertEquals(i + 1, store.find(0, keyLow(i)));
+    }
+  }
+
+  @Test
+  public void openStoreIsLocked() throws IOException {
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(file, true, 0)) {
+      assign(store, 0, 10);
+      try {
+        SurrogateKeyStore.open(file, true, 0).close();
+        fail("store opened twice");
+      } catch (IOException e) {
+        assertTrue(e.getMessage(), e.getMessage().contains("open already"));
+      }
+      assign(store, 10, 20);
+    }
+
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(file, true, 0)) {
+      check(store, 20);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void storeOf64BitKeysRejectsWideKeys() throws IOException {
+    SurrogateKeyStore.open(file, false, 0).close();
+    SurrogateKeyStore.open(file, true, 0).close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void storeOf64BitKeysRejectsWideKey() throws IOException {
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(file, false, 0)) {
+      store.getOrAssign(1, 1);
+    }
+  }
+
+  @Test
+  public void lostTableIsRecoveredFromLog() throws IOException {
+    File crashed;
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(file, true, 1000)) {
+      assign(store, 0, 300);
+      crashed = copyOpenStore(store);
+    }
+
+    // none of the table pages reached the disk
+    write(crashed, SurrogateKeyStore.HEADER_SIZE, ByteBuffer.allocate((int) crashed.length()
+        - SurrogateKeyStore.HEADER_SIZE));
+
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(crashed, true, 0)) {
+      check(store, 300);
+      assign(store, 300, 400);
+    }
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(crashed, true, 0)) {
+      check(store, 400);
+    }
+  }
+
+  @Test
+  public void logReplayGrowsTheTable() throws IOException {
+    File crashed;
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(file, true, 0)) {
+      assign(store, 0, 500);
+      crashed = copyOpenStore(store);
+      assign(store, 500, 3000);
+      store.commit();
+      // the log of the crashed copy has all keys, its table the first 500 keys of the smallest capacity
+      Files.copy(new File(file.getPath() + SurrogateKeyStore.LOG_SUFFIX).toPath(),
+          new File(crashed.getPath() + SurrogateKeyStore.LOG_SUFFIX).toPath(),
+          StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(crashed, true, 0)) {
+      check(store, 3000);
+    }
+  }
+
+  @Test
+  public void tornLogEntryIsIgnored() throws IOException {
+    File crashed;
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(file, true, 0)) {
+      assign(store, 0, 50);
+      crashed = copyOpenStore(store);
+    }
+
+    File log = new File(crashed.getPath() + SurrogateKeyStore.LOG_SUFFIX);
+    long length = log.length();
+    // an entry with a wrong checksum, then a part of an entry
+    ByteBuffer torn = ByteBuffer.allocate(32 + 17);
+    torn.putLong(keyHigh(50)).putLong(keyLow(50)).putLong(51).putLong(12345).put(new byte[17]).flip();
+    write(log, length, torn);
+
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(crashed, true, 0)) {
+      check(store, 50);
+      assertEquals(51, store.getOrAssign(keyHigh(50), keyLow(50)));
+    }
+  }
+
+  @Test
+  public void keysInTableMissingInHeaderAreCounted() throws IOException {
+    File crashed;
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(file, true, 0)) {
+      assign(store, 0, 200);
+      crashed = copyOpenStore(store);
+    }
+    // the log is lost, the keys have reached the table
+    Files.delete(new File(crashed.getPath() + SurrogateKeyStore.LOG_SUFFIX).toPath());
+
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(crashed, true, 0)) {
+      check(store, 200);
+    }
+  }
+
+  @Test
+  public void staleGrowFileIsDeleted() throws IOException {
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(file, true, 0)) {
+      assign(store, 0, 10);
+    }
+    File growFile = new File(file.getPath() + ".grow");
+    Files.write(growFile.toPath(), new byte[100]);
+
+    try (SurrogateKeyStore store = SurrogateKeyStore.open(file, true, 0)) {
+      check(store, 10);
+      assign(store, 10, 2000);
+    }
+    assertFalse(growFile.exists());
+  }
+
+
+}
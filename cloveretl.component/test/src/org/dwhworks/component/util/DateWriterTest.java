@@ -0,0 +1,123 @@
+package org.dwhworks.component.util;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Output of {@link DateWriter} compared to {@link SimpleDateFormat}.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class DateWriterTest {
+
+  private static final String[] PATTERNS = {DateWriter.DEFAULT_PATTERN, "yyyy-MM-dd", "yyyyMMddHHmmssSSS",
+      "dd.MM.yyyy HH:mm:ss.SSS", "y-M-d H:m:s.S", "yy/D k K h", "'at' HH''mm 'o''clock'", "HH:mm yyyy"};
+  private static final String[] TIME_ZONES = {"UTC", "Europe/Berlin", "America/St_Johns", "Asia/Kathmandu",
+      "Pacific/Apia", "America/Sao_Paulo"};
+
+  /** 1583-01-01T00:00:00Z and 9999-12-31T00:00:00Z. */
+  private static final long FIRST_MILLIS = -12212553600000L, LAST_MILLIS = 253402214400000L;
+
+  private static SimpleDateFormat format(String pattern, String timeZone) {
+    SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.ENGLISH);
+    format.setTimeZone(TimeZone.getTimeZone(timeZone));
+    return format;
+  }
+
+  private static void checkAgainstFormat(SimpleDateFormat format, long[] dates) {
+    DateWriter writer = DateWriter.compile(format);
+    assertNotNull(format.toPattern(), writer);
+
+    StringBuilder out = new StringBuilder();
+    for (long millis : dates) {
+      out.setLength(0);
+      assertTrue(writer.write(millis, out));
+      assertEquals(format.toPattern() + " " + format.getTimeZone().getID() + " " + millis,
+          format.format(new Date(millis)), out.toString());
+    }
+  }
+
+  private static long[] randomDates(Random random, int count) {
+    long[] dates = new long[count];
+    for (int i = 0; i < count; i++) {
+      long millis = FIRST_MILLIS + (long) (random.nextDouble() * (LAST_MILLIS - FIRST_MILLIS));
+      // every other date is close to the previous one, so it is often the same day
+      dates[i] = i % 2 == 1 ? dates[i - 1] + random.nextInt(7200000) - 3600000 : millis;
+    }
+    return dates;
+  }
+
+  @Test
+  public void datesMatchSimpleDateFormat() {
+    long[] dates = randomDates(new Random(20181029L), 5000);
+    for (String pattern : PATTERNS)
+      for (String timeZone : TIME_ZONES) checkAgainstFormat(format(pattern, timeZone), dates);
+  }
+
+  @Test
+  public void daylightSavingTransitionsMatchSimpleDateFormat() {
+    // every 15 minutes around the transitions of 2018 in Berlin and of 2011 in Apia, which skipped a day
+    long[] starts = {1521939600000L - 7200000, 1540688400000L - 7200000, 1325239200000L - 86400000};
+    long[] dates = new long[starts.length * 2 * 24 * 4];
+    for (int i = 0; i < dates.length; i++) dates[i] = starts[i / (2 * 24 * 4)] + i % (2 * 24 * 4) * 900000L;
+
+    for (String pattern : PATTERNS)
+      for (String timeZone : TIME_ZONES) checkAgainstFormat(format(pattern, timeZone), dates);
+  }
+
+  @Test
+  public void datesAroundMidnightMatchSimpleDateFormat() {
+    long[] dates = new long[2000];
+    for (int i = 0; i < dates.length; i++) dates[i] = (i / 4 - 250) * 86400000L + (i % 4 - 2) * 999L;
+
+    for (String pattern : PATTERNS) checkAgainstFormat(format(pattern, "UTC"), dates);
+  }
+
+  @Test
+  public void datesBeforeGregorianCalendarAreNotWritten() {
+    DateWriter writer = DateWriter.compile(format(DateWriter.DEFAULT_PATTERN, "UTC"));
+    StringBuilder out = new StringBuilder();
+
+    assertFalse(writer.write(FIRST_MILLIS - 1, out));
+    assertFalse(writer.write(Long.MIN_VALUE / 2, out));
+    assertEquals("", out.toString());
+    assertTrue(writer.write(FIRST_MILLIS, out));
+    assertEquals("1583-01-01 00:00:00", out.toString());
+  }
+
+  @Test
+  public void copiesKeepTheirOwnDay() {
+    SimpleDateFormat format = format("yyyy-MM-dd HH", "Europe/Berlin");
+    DateWriter writer = DateWriter.compile(format), copy = writer.copy();
+    StringBuilder out = new StringBuilder();
+
+    writer.write(0, out);
+    copy.write(86400000L * 400, out);
+    writer.write(3600000, out);
+    assertEquals(format.format(new Date(0)) + format.format(new Date(86400000L * 400))
+        + format.format(new Date(3600000)), out.toString());
+  }
+
+  @Test
+  public void patternsWithTextAreNotCompiled() {
+    for (String pattern : new String[]{"yyyy-MMM-dd", "EEE HH:mm", "hh:mm a", "HH:mm z", "HH:mm Z", "yyyy-'W'ww",
+        "G yyyy", "HH:mm XXX", "F u"})
+      assertNull(pattern, DateWriter.compile(format(pattern, "UTC")));
+
+    assertNull(DateWriter.compile(new SimpleDateFormat(DateWriter.DEFAULT_PATTERN, new Locale("th", "TH", "TH"))));
+  }
+
+
+}
@@ -0,0 +1,125 @@
+package org.dwhworks.component.util;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Output of {@link DecimalWriter} compared to {@link DecimalFormat}.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class DecimalWriterTest {
+
+  private static final String[] PATTERNS = {"#################0.", "#################0.00", "#################0.0000",
+      "#################0", "#0.##", "#.##", "#.", "#", "0000.0#", "00.000"};
+
+  private static DecimalFormat format(String pattern, Locale locale) {
+    return new DecimalFormat(pattern, DecimalFormatSymbols.getInstance(locale));
+  }
+
+  private static BigDecimal randomValue(Random random) {
+    switch (random.nextInt(4)) {
+      case 0:
+        return BigDecimal.valueOf(random.nextInt(2001) - 1000, random.nextInt(5));
+      case 1:
+        return BigDecimal.valueOf(random.nextLong(), random.nextInt(19));
+      case 2:
+        return new BigDecimal(new BigInteger(100, random).negate(), random.nextInt(30));
+      default:
+        return new BigDecimal(new BigInteger(80, random), 0);
+    }
+  }
+
+  private static void checkAgainstFormat(DecimalFormat format) {
+    DecimalWriter writer = DecimalWriter.compile(format);
+    assertNotNull(format.toPattern(), writer);
+
+    Random random = new Random(20181029L);
+    StringBuilder out = new StringBuilder();
+    BigDecimal[] edges = {BigDecimal.ZERO, new BigDecimal("0.00"), new BigDecimal("-0.5"), new BigDecimal("0.05"),
+        new BigDecimal("-7"), new BigDecimal("1000"), new BigDecimal("-1000.10"), BigDecimal.valueOf(Long.MIN_VALUE)};
+
+    for (int i = 0; i < 20000 + edges.length; i++) {
+      BigDecimal value = i < edges.length ? edges[i] : randomValue(random);
+      out.setLength(0);
+      if (writer.write(value, out)) assertEquals(value.toPlainString(), format.format(value), out.toString());
+      else {
+        assertEquals("", out.toString());
+        assertTrue("value " + value.toPlainString() + " needs no rounding",
+            value.stripTrailingZeros().scale() > format.getMaximumFractionDigits());
+      }
+    }
+  }
+
+  @Test
+  public void decimalsMatchDecimalFormat() {
+    for (String pattern : PATTERNS) checkAgainstFormat(format(pattern, Locale.ENGLISH));
+  }
+
+  @Test
+  public void decimalsMatchDecimalFormatOfOtherLocale() {
+    for (String pattern : PATTERNS) checkAgainstFormat(format(pattern, Locale.GERMANY));
+  }
+
+  @Test
+  public void integersMatchDecimalFormat() {
+    Random random = new Random(20181029L);
+    StringBuilder out = new StringBuilder();
+
+    for (String pattern : PATTERNS) {
+      DecimalFormat format = format(pattern, Locale.ENGLISH);
+      DecimalWriter writer = DecimalWriter.compile(format);
+
+      for (int i = 0; i < 10000; i++) {
+        int value = i < 3 ? new int[]{0, Integer.MIN_VALUE, Integer.MAX_VALUE}[i] : random.nextInt();
+        out.setLength(0);
+        assertTrue(writer.write(value, 0, out));
+        assertEquals(format.format(value), out.toString());
+      }
+    }
+  }
+
+  @Test
+  public void separatorIsAlwaysShownForScaleZero() {
+    DecimalWriter writer = DecimalWriter.compile(format("#################0.", Locale.ENGLISH));
+    assertNotNull(writer);
+
+    StringBuilder out = new StringBuilder();
+    assertTrue(writer.write(new BigDecimal("-42"), out));
+    assertTrue(writer.write(0, 0, out));
+    assertTrue(writer.write(new BigDecimal("12.000"), out));
+    assertEquals("-42.0.12.", out.toString());
+  }
+
+  @Test
+  public void valuesWhichNeedRoundingAreNotWritten() {
+    DecimalWriter writer = DecimalWriter.compile(format("#################0.00", Locale.ENGLISH));
+    StringBuilder out = new StringBuilder();
+
+    assertFalse(writer.write(new BigDecimal("1.005"), out));
+    assertFalse(writer.write(1005, 3, out));
+    assertFalse(writer.write(new BigDecimal("1E+3"), out));
+    assertEquals("", out.toString());
+  }
+
+  @Test
+  public void patternsWithDecorationsAreNotCompiled() {
+    for (String pattern : new String[]{"#,##0.00", "0.00%", "0.###E0", "$0.00", "0.00 EUR", "0.00;(0.00)"})
+      assertNull(pattern, DecimalWriter.compile(format(pattern, Locale.ENGLISH)));
+  }
+
+
+}
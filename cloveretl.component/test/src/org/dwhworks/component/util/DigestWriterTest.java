@@ -0,0 +1,173 @@
+package org.dwhworks.component.util;
+
+import org.dwhworks.component.hash.HashFunction;
+import org.dwhworks.component.hash.HashFunctions;
+import org.dwhworks.component.hash.Hasher;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Bytes fed by {@link DigestWriter} into the hash function compared to <code>String.getBytes(charset)</code>.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class DigestWriterTest {
+
+  private static final Charset[] CHARSETS = {StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1,
+      StandardCharsets.US_ASCII, StandardCharsets.UTF_16, Charset.forName("windows-1251")};
+
+  /**
+   * Hash function whose hash is the message itself, padded to 16384 bytes, followed by its length.
+   */
+  private static final class Identity implements HashFunction {
+    static final int LENGTH = 16384;
+
+    @Override
+    public String getName() {
+      return "identity";
+    }
+
+    @Override
+    public int getHashLength() {
+      return LENGTH + 4;
+    }
+
+    @Override
+    public Hasher newHasher() {
+      return new Hasher() {
+        private final ByteArrayOutputStream message = new ByteArrayOutputStream();
+
+        @Override
+        public void update(byte[] bytes, int offset, int length) {
+          message.write(bytes, offset, length);
+        }
+
+        @Override
+        public void finish(byte[] out, int offset) {
+          byte[] bytes = message.toByteArray();
+          System.arraycopy(expected(bytes), 0, out, offset, getHashLength());
+          reset();
+        }
+
+        @Override
+        public void reset() {
+          message.reset();
+        }
+      };
+    }
+
+    static byte[] expected(byte[] message) {
+      byte[] hash = new byte[LENGTH + 4];
+      System.arraycopy(message, 0, hash, 0, Math.min(message.length, LENGTH));
+      for (int i = 0; i < 4; i++) hash[LENGTH + i] = (byte) (message.length >>> 8 * i);
+      return hash;
+    }
+  }
+
+  private static String randomText(Random random) {
+    StringBuilder text = new StringBuilder();
+    for (int i = random.nextInt(random.nextInt(10) == 0 ? 3000 : 40); i > 0; i--) {
+      switch (random.nextInt(8)) {
+        case 0:
+          text.append((char) (0x80 + random.nextInt(0x780)));
+          break;
+        case 1:
+          text.append((char) (0x800 + random.nextInt(0xd000)));
+          break;
+        case 2:
+          text.appendCodePoint(0x10000 + random.nextInt(0x100000));
+          break;
+        case 3:
+          // unpaired surrogates
+          text.append((char) (random.nextBoolean() ? 0xd800 + random.nextInt(0x400) : 0xdc00 + random.nextInt(0x400)));
+          break;
+        default:
+          text.append((char) random.nextInt(0x80));
+      }
+    }
+    return text.toString();
+  }
+
+  /**
+   * Writes the text in random pieces, which may split surrogate pairs.
+   */
+  private static void writeInPieces(DigestWriter writer, String text, Random random) {
+    for (int start = 0; start < text.length(); ) {
+      int end = Math.min(text.length(), start + random.nextInt(random.nextBoolean() ? 4 : 1500));
+      writer.write(new StringBuilder(text).subSequence(start, end));
+      start = end;
+    }
+  }
+
+  @Test
+  public void bytesMatchStringGetBytes() {
+    Random random = new Random(20181029L);
+
+    for (Charset charset : CHARSETS) {
+      DigestWriter writer = new DigestWriter(new Identity(), charset);
+      for (int i = 0; i < 2000; i++) {
+        String text = randomText(random);
+        if (i % 2 == 0) writer.write(text);
+        else writeInPieces(writer, text, random);
+        assertArrayEquals(charset + ": " + text, Identity.expected(text.getBytes(charset)), writer.digest());
+      }
+    }
+  }
+
+  @Test
+  public void unpairedSurrogatesAreReplaced() {
+    String[] texts = {"\ud800", "\udc00", "a\ud800", "\ud800a", "\ud800\ud800\udc00", "\udc00\ud800",
+        "\ud83d\ude00\ud83d", "x\ud83d", "\ud83d\ude00"};
+
+    for (Charset charset : CHARSETS) {
+      DigestWriter writer = new DigestWriter(new Identity(), charset);
+      for (String text : texts) {
+        writer.write(text);
+        assertArrayEquals(charset + ": " + text, Identity.expected(text.getBytes(charset)), writer.digest());
+
+        // the surrogate pair is split between two writes
+        for (int split = 0; split <= text.length(); split++) {
+          writer.write(text, 0, split);
+          writer.write(text, split, text.length());
+          assertArrayEquals(charset + ": " + text, Identity.expected(text.getBytes(charset)), writer.digest());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void resetDiscardsText() {
+    DigestWriter writer = new DigestWriter(new Identity(), StandardCharsets.UTF_8);
+    writer.write("discarded\ud83d");
+    writer.reset();
+    writer.write("\ude00kept");
+
+    assertArrayEquals(Identity.expected("\ude00kept".getBytes(StandardCharsets.UTF_8)), writer.digest());
+  }
+
+  @Test
+  public void md5MatchesMessageDigest() throws NoSuchAlgorithmException {
+    Random random = new Random(20181029L);
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+
+    for (Charset charset : CHARSETS) {
+      DigestWriter writer = new DigestWriter(HashFunctions.get(HashFunctions.MD5), charset);
+      for (int i = 0; i < 500; i++) {
+        String text = randomText(random);
+        writeInPieces(writer, text, random);
+        assertArrayEquals(md5.digest(text.getBytes(charset)), writer.digest());
+      }
+    }
+  }
+
+
+}
@@ -0,0 +1,108 @@
+package org.dwhworks.component.util;
+
+import org.dwhworks.component.TestRecords;
+import org.apache.log4j.Logger;
+import org.jetel.data.DataRecord;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.junit.Test;
+
+import java.text.Format;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Output of the formatters of {@link MetadataHelper#getFieldFormatter} compared to the reference formatting
+ * of {@link TestRecords}, for the default formats and for formats set in the metadata.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class FieldFormatterTest {
+
+  private static final Logger LOG = Logger.getLogger(FieldFormatterTest.class);
+
+  private static DataFieldMetadata field(String name, DataFieldType type, String format, int scale) {
+    DataFieldMetadata field = new DataFieldMetadata(name, type, ";");
+    if (format != null) field.setFormatStr(format);
+    if (type == DataFieldType.DECIMAL) {
+      field.setProperty("length", "20");
+      field.setProperty("scale", String.valueOf(scale));
+    }
+    return field;
+  }
+
+  private static void checkAgainstReference(DataRecordMetadata metadata) {
+    DataRecord[] records = TestRecords.records(metadata, 3000);
+    Format[] formats = TestRecords.referenceFormats(metadata);
+
+    for (int i = 0; i < metadata.getNumFields(); i++) {
+      FieldFormatter formatter = MetadataHelper.getInstance().getFieldFormatter(metadata.getField(i), LOG);
+      StringBuilder out = new StringBuilder();
+
+      for (DataRecord record : records) {
+        out.setLength(0);
+        formatter.format(record.getField(i), out);
+        assertEquals(metadata.getField(i).getName(), TestRecords.referenceValue(formats[i], record.getField(i)),
+            out.toString());
+      }
+    }
+  }
+
+  @Test
+  public void defaultFormatsMatchReference() {
+    checkAgainstReference(TestRecords.metadata(TestRecords.FIELD_TYPES));
+  }
+
+  @Test
+  public void decimalsOfAnyScaleMatchReference() {
+    DataRecordMetadata metadata = new DataRecordMetadata("decimals");
+    for (int scale = 0; scale <= 5; scale++)
+      metadata.addField(field("scale" + scale, DataFieldType.DECIMAL, null, scale));
+
+    checkAgainstReference(metadata);
+  }
+
+  @Test
+  public void metadataFormatsMatchReference() {
+    DataRecordMetadata metadata = new DataRecordMetadata("formats");
+    metadata.addField(field("date", DataFieldType.DATE, "dd.MM.yyyy HH:mm:ss.SSS", 0));
+    metadata.addField(field("dateWithText", DataFieldType.DATE, "EEE, d MMM yyyy HH:mm", 0));
+    metadata.addField(field("decimal", DataFieldType.DECIMAL, "0.0000", 2));
+    metadata.addField(field("groupedDecimal", DataFieldType.DECIMAL, "#,##0.00", 2));
+    metadata.addField(field("roundedDecimal", DataFieldType.DECIMAL, "0.#", 2));
+    metadata.addField(field("integer", DataFieldType.INTEGER, "000000", 0));
+    metadata.addField(field("groupedInteger", DataFieldType.INTEGER, "#,##0", 0));
+
+    checkAgainstReference(metadata);
+  }
+
+  @Test
+  public void copiesFormatTheSameWay() {
+    DataRecordMetadata metadata = TestRecords.metadata(TestRecords.FIELD_TYPES);
+    DataRecord[] records = TestRecords.records(metadata, 200);
+
+    for (int i = 0; i < metadata.getNumFields(); i++) {
+      FieldFormatter formatter = MetadataHelper.getInstance().getFieldFormatter(metadata.getField(i), LOG),
+          copy = formatter.copy();
+      StringBuilder expected = new StringBuilder(), actual = new StringBuilder();
+
+      // the copy and the original take turns, so neither sees the state left by the other
+      for (int r = 0; r < records.length; r++) {
+        formatter.format(records[r].getField(i), expected);
+        (r % 2 == 0 ? copy : formatter).format(records[r].getField(i), actual);
+      }
+      assertEquals(expected.toString(), actual.toString());
+    }
+  }
+
+  @Test
+  public void unformattedTypesHaveNoFormat() {
+    for (DataFieldType type : new DataFieldType[]{DataFieldType.STRING, DataFieldType.LONG, DataFieldType.NUMBER})
+      assertNull(MetadataHelper.getInstance().getFieldFormatter(field("f", type, null, 0), LOG).getFormat());
+  }
+
+
+}
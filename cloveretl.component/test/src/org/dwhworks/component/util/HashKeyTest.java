@@ -0,0 +1,203 @@
+package org.dwhworks.component.util;
+
+import org.dwhworks.component.TestRecords;
+import org.jetel.data.DataField;
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.metadata.DataFieldType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reading and writing hashes of all representations by {@link HashKey}.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class HashKeyTest {
+
+  private static final String MD5_HEX = "9e107d9d372bb6826bd81d3542a419d6";
+  private static final String MD5_UUID = "9e107d9d-372b-b682-6bd8-1d3542a419d6";
+
+  private DataField string, bytes, number;
+
+  @Before
+  public void setUp() {
+    DataRecord record = DataRecordFactory.newRecord(TestRecords.metadata(DataFieldType.STRING, DataFieldType.BYTE,
+        DataFieldType.LONG));
+    string = record.getField(0);
+    bytes = record.getField(1);
+    number = record.getField(2);
+  }
+
+  private HashKey read(Object value) {
+    string.setValue(value);
+    return new HashKey().read(string);
+  }
+
+  private HashKey readRaw(Object value) {
+    string.setValue(value);
+    return new HashKey(true).read(string);
+  }
+
+  private static void assertSameKey(HashKey expected, HashKey actual) {
+    assertEquals(expected.getHigh(), actual.getHigh());
+    assertEquals(expected.getLow(), actual.getLow());
+  }
+
+  private static void assertDifferentKeys(HashKey first, HashKey second) {
+    assertTrue("keys must differ", first.getHigh() != second.getHigh() || first.getLow() != second.getLow());
+  }
+
+  @Test
+  public void nullHasZeroLength() {
+    assertEquals(0, read(null).getLength());
+  }
+
+  @Test
+  public void hexUuidAndBytesAreTheSameKey() {
+    HashKey hex = read(MD5_HEX);
+    assertEquals(16, hex.getLength());
+    assertEquals(0x9e107d9d372bb682L, hex.getHigh());
+    assertEquals(0x6bd81d3542a419d6L, hex.getLow());
+
+    assertSameKey(hex, read(MD5_UUID));
+
+    bytes.setValue(new byte[]{(byte) 0x9e, 0x10, 0x7d, (byte) 0x9d, 0x37, 0x2b, (byte) 0xb6, (byte) 0x82,
+        0x6b, (byte) 0xd8, 0x1d, 0x35, 0x42, (byte) 0xa4, 0x19, (byte) 0xd6});
+    assertSameKey(hex, new HashKey().read(bytes));
+  }
+
+  @Test
+  public void longHexAndBytesOf8ByteHashAreTheSameKey() {
+    number.setValue(-0x1234567890abcdefL);
+    HashKey key = new HashKey().read(number);
+
+    assertSameKey(key, read("edcba9876f543211"));
+    bytes.setValue(new byte[]{(byte) 0xed, (byte) 0xcb, (byte) 0xa9, (byte) 0x87, 0x6f, 0x54, 0x32, 0x11});
+    assertSameKey(key, new HashKey().read(bytes));
+    assertEquals(-0x1234567890abcdefL, key.getFingerprint());
+  }
+
+  @Test
+  public void shortHashesOfBytesAndHexAreTheSameKey() {
+    bytes.setValue(new byte[]{0x01, 0x02, 0x03, 0x04});
+    HashKey key = new HashKey().read(bytes);
+
+    assertEquals(4, key.getLength());
+    assertSameKey(key, read("01020304"));
+  }
+
+  @Test
+  public void leadingZeroBytesAreSignificant() {
+    assertDifferentKeys(read("12"), read("0012"));
+    assertDifferentKeys(read("00"), read("0000"));
+    assertDifferentKeys(read("00"), read("0000000000000000"));
+
+    bytes.setValue(new byte[]{0x12});
+    HashKey oneByte = new HashKey().read(bytes);
+    bytes.setValue(new byte[]{0x00, 0x12});
+    assertDifferentKeys(oneByte, new HashKey().read(bytes));
+  }
+
+  @Test
+  public void fingerprintsOfShortHashesDiffer() {
+    assertNotEquals(read("00").getFingerprint(), read("0000").getFingerprint());
+    assertNotEquals(read("12").getFingerprint(), read("0012").getFingerprint());
+    assertNotEquals(read("ab").getFingerprint(), read("AB").getFingerprint());
+  }
+
+  @Test
+  public void uppercaseHexIsNotAHash() {
+    HashKey upper = read("AB");
+    assertEquals(16, upper.getLength());
+    assertDifferentKeys(read("ab"), upper);
+    assertDifferentKeys(read(MD5_HEX), read(MD5_HEX.toUpperCase()));
+    assertDifferentKeys(read(MD5_UUID), read(MD5_UUID.toUpperCase()));
+  }
+
+  @Test
+  public void misplacedHyphensAreNotAUuid() {
+    String[] values = {"------------------------------------", "9e107d9d3-72b-b682-6bd8-1d3542a419d6",
+        "9e107d9d-372b-b682-6bd8-1d3542a4-9d6", "-9e107d9d372bb682-6bd8-1d3542a419d6-",
+        "9e107d9d-372b-b682-6bd8-1d3542a419d-"};
+
+    for (String value : values) {
+      HashKey key = read(value);
+      assertEquals(value, 16, key.getLength());
+      assertSameKey(readRaw(value), key);
+    }
+
+    // 36 hex digits without hyphens are an 18-byte hash
+    HashKey digits = read(MD5_HEX + "0123");
+    assertEquals(16, digits.getLength());
+    assertSameKey(read(MD5_HEX), digits);
+  }
+
+  @Test
+  public void textWhichIsNotAHashIsHashedExactly() {
+    assertEquals(16, read("abc").getLength());
+    assertSameKey(read("hello world"), readRaw("hello world"));
+    assertDifferentKeys(read("hello world"), read("hello world "));
+    assertDifferentKeys(read("x"), read("X"));
+  }
+
+  @Test
+  public void rawKeysAreNeverParsed() {
+    String[] values = {"12", "0012", "00", "0000", "ab", "AB", "Ab", MD5_HEX, MD5_HEX.toUpperCase(), MD5_UUID,
+        MD5_HEX + "00", MD5_HEX + "01", "", " ", "-"};
+    Set<String> keys = new HashSet<>();
+
+    for (String value : values) {
+      HashKey key = readRaw(value);
+      assertEquals(16, key.getLength());
+      assertTrue("duplicate key of raw value " + value, keys.add(key.getHigh() + ":" + key.getLow()));
+    }
+    assertDifferentKeys(read(MD5_HEX), readRaw(MD5_HEX));
+  }
+
+  @Test
+  public void writeRestoresTheHash() {
+    for (String hex : new String[]{"00", "0012", "01020304", "edcba9876f543211", MD5_HEX}) {
+      HashKey key = read(hex);
+
+      key.write(string);
+      assertEquals(hex, string.getValue().toString());
+
+      key.write(bytes);
+      assertSameKey(key, new HashKey().read(bytes));
+    }
+
+    HashKey uuid = read(MD5_UUID);
+    uuid.write(string);
+    assertEquals(MD5_HEX, string.getValue().toString());
+
+    HashKey hash = read("edcba9876f543211");
+    hash.write(number);
+    assertSameKey(hash, new HashKey().read(number));
+  }
+
+  @Test
+  public void hashesLongerThan16BytesAreTruncated() {
+    HashKey sha1 = read(MD5_HEX + "01234567");
+    assertEquals(16, sha1.getLength());
+    assertSameKey(read(MD5_HEX), sha1);
+
+    byte[] value = new byte[20];
+    value[0] = 1;
+    bytes.setValue(value);
+    HashKey key = new HashKey().read(bytes);
+    key.write(bytes);
+    assertArrayEquals(new byte[]{1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}, (byte[]) bytes.getValue());
+  }
+
+
+}
@@ -0,0 +1,200 @@
+package org.dwhworks.component.util;
+
+import org.dwhworks.component.TestRecords;
+import org.dwhworks.component.hash.HashFunctions;
+import org.apache.log4j.Logger;
+import org.jetel.data.DataRecord;
+import org.jetel.metadata.DataRecordMetadata;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.text.Format;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Raw values of a {@link HashPlan} compared to the reference formatting of {@link TestRecords}.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class HashPlanTest {
+
+  private static final String DELIMITER = "-";
+  private static final Logger LOG = Logger.getLogger(HashPlanTest.class);
+
+  private DataRecordMetadata metadata;
+  private DataRecord[] records;
+  private Format[] formats;
+  private List<List<String>> hashFields;
+  private HashPlan plan;
+
+  @Before
+  public void setUp() {
+    metadata = TestRecords.metadata(18);
+    records = TestRecords.records(metadata, 2000);
+    formats = TestRecords.referenceFormats(metadata);
+
+    List<String> allFields = new ArrayList<>(Arrays.asList(metadata.getFieldNamesArray())),
+        reversedFields = new ArrayList<>(allFields);
+    Collections.reverse(reversedFields);
+    // key fields are shared with both measure hashes
+    hashFields = Arrays.asList(Arrays.asList("f0", "f3", "f4"), allFields, reversedFields);
+    plan = HashPlan.compile(metadata, metadata, hashFields, Arrays.asList((String) null, null, null), DELIMITER, LOG);
+  }
+
+  private String referenceRawValue(DataRecord record, int hash) {
+    StringBuilder value = new StringBuilder();
+    List<String> fields = hashFields.get(hash);
+    for (int i = 0; i < fields.size(); i++) {
+      if (i != 0) value.append(DELIMITER);
+      int position = metadata.getFieldPosition(fields.get(i));
+      value.append(TestRecords.referenceValue(formats[position], record.getField(position)));
+    }
+    return value.toString();
+  }
+
+  @Test
+  public void rawValuesMatchReferenceFormatting() {
+    for (DataRecord record : records) {
+      plan.beginRecord();
+      for (int hash = 0; hash < plan.getHashCount(); hash++)
+        assertEquals(referenceRawValue(record, hash), plan.getRawValue(record, hash));
+    }
+  }
+
+  @Test
+  public void appendRawValueAppendsToBuffer() {
+    StringBuilder out = new StringBuilder("prefix");
+    plan.beginRecord();
+    plan.appendRawValue(records[0], 1, out);
+
+    assertEquals("prefix" + referenceRawValue(records[0], 1), out.toString());
+  }
+
+  @Test
+  public void writeRawValueDigestsRawValue() throws Exception {
+    DigestWriter writer = new DigestWriter(HashFunctions.get(HashFunctions.MD5), StandardCharsets.UTF_8);
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+
+    for (DataRecord record : records) {
+      plan.beginRecord();
+      for (int hash = 0; hash < plan.getHashCount(); hash++) {
+        plan.writeRawValue(record, hash, writer);
+        assertArrayEquals(md5.digest(referenceRawValue(record, hash).getBytes(StandardCharsets.UTF_8)),
+            writer.digest());
+      }
+    }
+  }
+
+  @Test
+  public void generatedPlanDigestsRawValue() throws Exception {
+    HashPlan generated = plan.generate();
+    DigestWriter writer = new DigestWriter(HashFunctions.get(HashFunctions.MD5), StandardCharsets.UTF_8);
+    MessageDigest md5 = MessageDigest.getInstance("MD5");
+
+    for (DataRecord record : records) {
+      generated.beginRecord();
+      for (int hash = 0; hash < generated.getHashCount(); hash++) {
+        generated.writeRawValue(record, hash, writer);
+        assertArrayEquals(md5.digest(referenceRawValue(record, hash).getBytes(StandardCharsets.UTF_8)),
+            writer.digest());
+      }
+    }
+  }
+
+  @Test
+  public void generatedPlanOfWideRecordsMatchesInterpretedPlan() {
+    // more fields than one generated method writes
+    DataRecordMetadata wideMetadata = TestRecords.metadata(150);
+    DataRecord[] wideRecords = TestRecords.records(wideMetadata, 300);
+    List<String> allFields = Arrays.asList(wideMetadata.getFieldNamesArray());
+    List<List<String>> wideHashFields = Arrays.asList(allFields, allFields.subList(60, 70),
+        Collections.singletonList("f149"));
+
+    for (String delimiter : new String[]{"", DELIMITER, "|;"}) {
+      HashPlan interpreted = HashPlan.compile(wideMetadata, wideMetadata, wideHashFields,
+          Arrays.asList((String) null, null, null), delimiter, LOG);
+      HashPlan generated = interpreted.generate(), generatedCopy = generated.copy();
+      DigestWriter expected = new DigestWriter(HashFunctions.get(HashFunctions.MD5), StandardCharsets.UTF_8),
+          actual = new DigestWriter(HashFunctions.get(HashFunctions.MD5), StandardCharsets.UTF_8);
+
+      for (int r = 0; r < wideRecords.length; r++) {
+        HashPlan tested = r % 2 == 0 ? generated : generatedCopy;
+        interpreted.beginRecord();
+        tested.beginRecord();
+        for (int hash = 0; hash < interpreted.getHashCount(); hash++) {
+          interpreted.writeRawValue(wideRecords[r], hash, expected);
+          tested.writeRawValue(wideRecords[r], hash, actual);
+          assertArrayEquals("delimiter \"" + delimiter + "\", record " + r + ", hash " + hash,
+              expected.digest(), actual.digest());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void copyFormatsIndependently() {
+    HashPlan copy = plan.copy();
+
+    for (int r = 0; r < records.length; r++) {
+      plan.beginRecord();
+      copy.beginRecord();
+      // the copy formats another record at the same time
+      String copyValue = copy.getRawValue(records[records.length - 1 - r], 1);
+      assertEquals(referenceRawValue(records[r], 0), plan.getRawValue(records[r], 0));
+      assertEquals(referenceRawValue(records[records.length - 1 - r], 1), copyValue);
+    }
+  }
+
+  private static byte[] md5(String value) throws Exception {
+    return MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void sharedFieldsAreFormattedOncePerRecord() throws Exception {
+    DigestWriter writer = new DigestWriter(HashFunctions.get(HashFunctions.MD5), StandardCharsets.UTF_8);
+
+    for (HashPlan tested : new HashPlan[]{plan, plan.copy(), plan.generate()}) {
+      // f3 and f4 are shared by all hashes
+      DataRecord record = records[0].duplicate();
+      record.getField("f3").setValue(new BigDecimal("12.50"));
+      record.getField("f4").setValue(new Date(1500000000000L));
+      String first = referenceRawValue(record, 2);
+
+      tested.beginRecord();
+      tested.writeRawValue(record, 0, writer);
+      assertArrayEquals(md5(referenceRawValue(record, 0)), writer.digest());
+
+      // values of shared fields were formatted by the first hash and are reused by the others of the record
+      record.getField("f3").setValue(new BigDecimal("-0.75"));
+      record.getField("f4").setValue(new Date(0));
+      tested.writeRawValue(record, 2, writer);
+      assertArrayEquals(md5(first), writer.digest());
+
+      // the next record formats them again
+      tested.beginRecord();
+      tested.writeRawValue(record, 2, writer);
+      assertArrayEquals(md5(referenceRawValue(record, 2)), writer.digest());
+      tested.writeRawValue(record, 1, writer);
+      assertArrayEquals(md5(referenceRawValue(record, 1)), writer.digest());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownFieldIsRejected() {
+    HashPlan.compile(metadata, metadata, Collections.singletonList(Arrays.asList("f0", "missing")),
+        Collections.singletonList((String) null), DELIMITER, LOG);
+  }
+
+
+}
@@ -0,0 +1,110 @@
+package org.dwhworks.component.util;
+
+import org.apache.log4j.Logger;
+import org.dwhworks.component.TestRecords;
+import org.jetel.data.DataRecord;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.junit.Test;
+
+import java.text.Format;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Formatters of {@link MetadataHelper} created and used by several threads at once.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class MetadataHelperTest {
+
+  private static final Logger LOG = Logger.getLogger(MetadataHelperTest.class);
+  private static final int THREADS = 8;
+
+  /**
+   * Runs the task in all threads at once.
+   *
+   * @return results of the threads
+   */
+  private static <T> List<T> runConcurrently(Callable<T> task) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<T>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++)
+        futures.add(executor.submit(() -> {
+          start.await();
+          return task.call();
+        }));
+      start.countDown();
+
+      List<T> results = new ArrayList<>();
+      for (Future<T> future : futures) results.add(future.get());
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void formattersOfStructureAreCompiledOnce() throws Exception {
+    MetadataHelper metadataHelper = MetadataHelper.getInstance();
+    // metadata of the same structure are separate objects, every thread has its own
+    List<RecordFormatters[]> results = runConcurrently(() -> {
+      RecordFormatters[] formatters = new RecordFormatters[20];
+      for (int i = 0; i < formatters.length; i++)
+        formatters[i] = metadataHelper.getRecordFormatters(TestRecords.metadata(100 + i % 10), LOG);
+      return formatters;
+    });
+
+    RecordFormatters[] first = results.get(0);
+    for (RecordFormatters[] formatters : results)
+      for (int i = 0; i < formatters.length; i++) {
+        assertSame(first[i % 10], formatters[i]);
+        assertEquals(100 + i % 10, formatters[i].getFieldCount());
+      }
+    assertTrue("structures must have their own formatters", first[0] != first[1]);
+  }
+
+  @Test(timeout = 60000)
+  public void concurrentFormattingMatchesReference() throws Exception {
+    MetadataHelper metadataHelper = MetadataHelper.getInstance();
+    DataRecordMetadata metadata = TestRecords.metadata(24),
+        other = TestRecords.metadata(DataFieldType.DATE, DataFieldType.DECIMAL, DataFieldType.INTEGER);
+    DataRecord[] records = TestRecords.records(metadata, 2000), otherRecords = TestRecords.records(other, 2000);
+    List<String> fields = TestRecords.fieldNames(metadata), otherFields = TestRecords.fieldNames(other);
+
+    runConcurrently(() -> {
+      // reference formats are not thread-safe, every thread has its own
+      Format[] formats = TestRecords.referenceFormats(metadata), otherFormats = TestRecords.referenceFormats(other);
+
+      for (int r = 0; r < records.length; r++) {
+        // two structures alternate, as in two components of a phase
+        Map<String, String> values = metadataHelper.getFormattedFieldValues(metadata, records[r], fields, LOG),
+            otherValues = metadataHelper.getFormattedFieldValues(other, otherRecords[r], otherFields, LOG);
+
+        for (int i = 0; i < fields.size(); i++)
+          assertEquals("record " + r + ", field " + fields.get(i),
+              TestRecords.referenceValue(formats[i], records[r].getField(i)), values.get(fields.get(i)));
+        for (int i = 0; i < otherFields.size(); i++)
+          assertEquals("record " + r + ", field " + otherFields.get(i),
+              TestRecords.referenceValue(otherFormats[i], otherRecords[r].getField(i)),
+              otherValues.get(otherFields.get(i)));
+      }
+      return null;
+    });
+  }
+
+
+}
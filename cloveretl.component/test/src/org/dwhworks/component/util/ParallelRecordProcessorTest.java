@@ -0,0 +1,156 @@
+package org.dwhworks.component.util;
+
+import org.dwhworks.component.TestRecords;
+import org.jetel.data.DataRecord;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Records processed by {@link ParallelRecordProcessor} compared to records processed one by one.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class ParallelRecordProcessorTest {
+
+  private static final int RECORDS = 20000;
+  private static final DataRecordMetadata IN_METADATA = TestRecords.metadata(DataFieldType.LONG),
+      OUT_METADATA = TestRecords.metadata(DataFieldType.LONG, DataFieldType.STRING);
+
+  /**
+   * Reads records with values 0, 1, 2, ... up to the count.
+   */
+  private static ParallelRecordProcessor.RecordReader reader(long count) {
+    AtomicLong next = new AtomicLong();
+    return record -> {
+      long value = next.getAndIncrement();
+      if (value >= count) return null;
+      record.getField(0).setValue(value);
+      return record;
+    };
+  }
+
+  /**
+   * Processor which copies the value and writes the name of its thread, yielding now and then.
+   */
+  private static ParallelRecordProcessor.RecordProcessor processor() {
+    return (inRecord, outRecord) -> {
+      if (ThreadLocalRandom.current().nextInt(50) == 0) Thread.yield();
+      outRecord.getField(0).setValue(inRecord.getField(0));
+      outRecord.getField(1).setValue(Thread.currentThread().getName());
+    };
+  }
+
+  private static List<Long> run(int parallelism, boolean preserveOrder, int chunkSize, List<String> threads)
+      throws Exception {
+    List<Long> values = new ArrayList<>();
+    new ParallelRecordProcessor("TEST", parallelism, preserveOrder, chunkSize, IN_METADATA, OUT_METADATA)
+        .run(reader(RECORDS), record -> {
+          values.add((Long) record.getField(0).getValue());
+          threads.add(record.getField(1).getValue().toString());
+        }, ParallelRecordProcessorTest::processor, () -> true);
+    return values;
+  }
+
+  private static List<Long> sequence(long count) {
+    List<Long> values = new ArrayList<>();
+    for (long value = 0; value < count; value++) values.add(value);
+    return values;
+  }
+
+  @Test(timeout = 60000)
+  public void orderOfRecordsIsPreserved() throws Exception {
+    for (int chunkSize : new int[]{1, 7, 64}) {
+      List<String> threads = new ArrayList<>();
+      assertEquals(sequence(RECORDS), run(4, true, chunkSize, threads));
+      assertFalse("records were processed on the component thread",
+          threads.contains(Thread.currentThread().getName()));
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void unorderedRunWritesEveryRecordOnce() throws Exception {
+    for (int chunkSize : new int[]{1, 7, 64}) {
+      List<Long> values = run(4, false, chunkSize, new ArrayList<>());
+      Collections.sort(values);
+      assertEquals(sequence(RECORDS), values);
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void singleWorkerAndEmptyInputAreProcessed() throws Exception {
+    assertEquals(sequence(RECORDS), run(1, true, 16, new ArrayList<>()));
+
+    List<Long> values = new ArrayList<>();
+    new ParallelRecordProcessor("TEST", 4, true, 16, IN_METADATA, OUT_METADATA)
+        .run(reader(0), record -> values.add(0L), ParallelRecordProcessorTest::processor, () -> true);
+    assertEquals(0, values.size());
+  }
+
+  @Test(timeout = 60000)
+  public void batchesAreProcessedByBatchMethod() throws Exception {
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    List<Long> values = new ArrayList<>();
+
+    new ParallelRecordProcessor("TEST", 2, true, 50, IN_METADATA, OUT_METADATA).run(reader(1020),
+        record -> values.add((Long) record.getField(0).getValue()),
+        () -> new ParallelRecordProcessor.RecordProcessor() {
+          @Override
+          public void process(DataRecord inRecord, DataRecord outRecord) {
+            fail("records must be processed in batches");
+          }
+
+          @Override
+          public void process(DataRecord[] inRecords, DataRecord[] outRecords, int count) {
+            batchSizes.add(count);
+            for (int i = 0; i < count; i++) outRecords[i].getField(0).setValue(inRecords[i].getField(0));
+          }
+        }, () -> true);
+
+    assertEquals(sequence(1020), values);
+    Collections.sort(batchSizes);
+    assertEquals(Integer.valueOf(20), batchSizes.get(0));
+    assertEquals(Integer.valueOf(50), batchSizes.get(batchSizes.size() - 1));
+  }
+
+  @Test(timeout = 60000)
+  public void failureOfProcessorIsThrown() throws Exception {
+    IllegalStateException failure = new IllegalStateException("failed record");
+
+    for (boolean preserveOrder : new boolean[]{true, false})
+      try {
+        new ParallelRecordProcessor("TEST", 4, preserveOrder, 8, IN_METADATA, OUT_METADATA).run(reader(RECORDS),
+            record -> {
+            }, () -> (inRecord, outRecord) -> {
+              if ((Long) inRecord.getField(0).getValue() == 5000) throw failure;
+            }, () -> true);
+        fail("failure of the processor was not thrown");
+      } catch (IllegalStateException e) {
+        assertSame(failure, e);
+      }
+  }
+
+  @Test(timeout = 60000)
+  public void stoppedRunReturns() throws Exception {
+    AtomicLong written = new AtomicLong();
+    new ParallelRecordProcessor("TEST", 4, true, 8, IN_METADATA, OUT_METADATA).run(reader(Long.MAX_VALUE),
+        record -> written.incrementAndGet(), ParallelRecordProcessorTest::processor, () -> written.get() < 1000);
+
+    assertTrue(written.get() >= 1000);
+  }
+
+
+}
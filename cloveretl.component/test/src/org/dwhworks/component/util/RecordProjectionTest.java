@@ -0,0 +1,105 @@
+package org.dwhworks.component.util;
+
+import org.dwhworks.component.TestRecords;
+import org.jetel.data.DataField;
+import org.jetel.data.DataRecord;
+import org.jetel.data.DataRecordFactory;
+import org.jetel.metadata.DataFieldMetadata;
+import org.jetel.metadata.DataFieldType;
+import org.jetel.metadata.DataRecordMetadata;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Records copied by {@link RecordProjection} compared to copying field values by name.
+ *
+ * @author Nikita Skotnikov
+ * @since 16.10.2026
+ */
+public class RecordProjectionTest {
+
+  private static final DataRecordMetadata IN_METADATA = TestRecords.metadata(12);
+
+  /**
+   * @return output metadata with the input fields in reverse order, without f5, f1 as LONG and an extra field
+   */
+  private static DataRecordMetadata reorderedMetadata() {
+    DataRecordMetadata metadata = new DataRecordMetadata("reordered");
+    metadata.addField(new DataFieldMetadata("extra", DataFieldType.STRING, ";"));
+    for (int i = IN_METADATA.getNumFields() - 1; i >= 0; i--) {
+      DataFieldMetadata field = IN_METADATA.getField(i);
+      if (field.getName().equals("f5")) continue;
+      if (field.getName().equals("f1")) metadata.addField(new DataFieldMetadata("f1", DataFieldType.LONG, ";"));
+      else metadata.addField(field);
+    }
+    return metadata;
+  }
+
+  /**
+   * Copies values of fields with the same name one by one, as HASH_CALC did before projections.
+   */
+  private static void copyByName(DataRecord inRecord, DataRecord outRecord) {
+    for (int i = 0; i < inRecord.getNumFields(); i++) {
+      String name = inRecord.getMetadata().getField(i).getName();
+      if (outRecord.hasField(name)) outRecord.getField(name).setValue(inRecord.getField(i).getValue());
+    }
+  }
+
+  private static void assertSameValues(DataRecord expected, DataRecord actual) {
+    for (int i = 0; i < expected.getNumFields(); i++) {
+      DataField expectedField = expected.getField(i), actualField = actual.getField(i);
+      assertEquals(expectedField.isNull(), actualField.isNull());
+      assertEquals(String.valueOf(expectedField.getValue()), String.valueOf(actualField.getValue()));
+    }
+  }
+
+  private static void checkAgainstCopyByName(DataRecordMetadata outMetadata) {
+    RecordProjection projection = RecordProjection.compile(IN_METADATA, outMetadata);
+    DataRecord expected = DataRecordFactory.newRecord(outMetadata), actual = DataRecordFactory.newRecord(outMetadata);
+
+    for (DataRecord inRecord : TestRecords.records(IN_METADATA, 2000)) {
+      copyByName(inRecord, expected);
+      projection.copy(inRecord, actual);
+      assertSameValues(expected, actual);
+    }
+  }
+
+  @Test
+  public void identicalMetadataIsCopiedAsByName() {
+    checkAgainstCopyByName(IN_METADATA);
+    assertTrue(RecordProjection.compile(IN_METADATA, IN_METADATA).isIdentity(IN_METADATA));
+  }
+
+  @Test
+  public void reorderedFieldsAreCopiedAsByName() {
+    DataRecordMetadata outMetadata = reorderedMetadata();
+    checkAgainstCopyByName(outMetadata);
+
+    RecordProjection projection = RecordProjection.compile(IN_METADATA, outMetadata);
+    assertEquals(IN_METADATA.getNumFields() - 1, projection.getFieldCount());
+    assertFalse(projection.isIdentity(outMetadata));
+  }
+
+  @Test
+  public void outputWithAdditionalFieldsIsNoIdentity() {
+    DataRecordMetadata outMetadata = TestRecords.metadata(13);
+    checkAgainstCopyByName(outMetadata);
+    assertFalse(RecordProjection.compile(IN_METADATA, outMetadata).isIdentity(outMetadata));
+  }
+
+  @Test
+  public void fieldsOfOtherTypeAreNoIdentity() {
+    DataRecordMetadata outMetadata = new DataRecordMetadata("retyped");
+    for (DataFieldMetadata field : IN_METADATA.getFields())
+      outMetadata.addField(field.getName().equals("f1") ? new DataFieldMetadata("f1", DataFieldType.LONG, ";")
+          : field);
+
+    checkAgainstCopyByName(outMetadata);
+    assertFalse(RecordProjection.compile(IN_METADATA, outMetadata).isIdentity(outMetadata));
+  }
+
+
+}